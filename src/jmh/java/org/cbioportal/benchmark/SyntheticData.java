@@ -0,0 +1,286 @@
+package org.cbioportal.benchmark;
+
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalDataCount;
+import org.cbioportal.legacy.model.GeneMolecularAlteration;
+import org.cbioportal.legacy.model.GenePanel;
+import org.cbioportal.legacy.model.GenePanelData;
+import org.cbioportal.legacy.model.GenePanelToGene;
+import org.cbioportal.legacy.model.Patient;
+import org.cbioportal.legacy.model.Sample;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Deterministic generators for synthetic cohorts used by the benchmarks. All generators are seeded, so two
+ * runs with the same parameters benchmark exactly the same data. Samples are spread over a number of studies
+ * and every patient has two samples, which mimics a merged pan-cancer cohort.
+ */
+public final class SyntheticData {
+
+    public static final String STUDY_ID_PREFIX = "study_";
+    public static final String NA = "NA";
+    private static final String[] CATEGORIES = {"Primary", "Metastasis", "Recurrence", "Unknown", "Other"};
+
+    private SyntheticData() {
+    }
+
+    public static Random random(long seed) {
+        return new Random(seed);
+    }
+
+    public static String studyId(int sampleIndex, int studyCount) {
+        return STUDY_ID_PREFIX + (sampleIndex % studyCount);
+    }
+
+    public static String sampleId(int sampleIndex) {
+        return "SAMPLE-" + sampleIndex;
+    }
+
+    public static String patientId(int sampleIndex) {
+        return "PATIENT-" + (sampleIndex / 2);
+    }
+
+    public static List<String> studyIds(int studyCount) {
+        List<String> studyIds = new ArrayList<>(studyCount);
+        for (int i = 0; i < studyCount; i++) {
+            studyIds.add(STUDY_ID_PREFIX + i);
+        }
+        return studyIds;
+    }
+
+    public static List<Sample> samples(int sampleCount, int studyCount) {
+        List<Sample> samples = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            Sample sample = new Sample();
+            sample.setInternalId(i + 1);
+            sample.setStableId(sampleId(i));
+            sample.setPatientId(i / 2 + 1);
+            sample.setPatientStableId(patientId(i));
+            sample.setCancerStudyIdentifier(studyId(i, studyCount));
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    public static List<Patient> patients(int sampleCount, int studyCount) {
+        List<Patient> patients = new ArrayList<>(sampleCount / 2 + 1);
+        for (int i = 0; i < sampleCount; i += 2) {
+            Patient patient = new Patient();
+            patient.setInternalId(i / 2 + 1);
+            patient.setStableId(patientId(i));
+            patient.setCancerStudyIdentifier(studyId(i, studyCount));
+            patients.add(patient);
+        }
+        return patients;
+    }
+
+    public static List<SampleIdentifier> sampleIdentifiers(int sampleCount, int studyCount) {
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            SampleIdentifier sampleIdentifier = new SampleIdentifier();
+            sampleIdentifier.setStudyId(studyId(i, studyCount));
+            sampleIdentifier.setSampleId(sampleId(i));
+            sampleIdentifiers.add(sampleIdentifier);
+        }
+        return sampleIdentifiers;
+    }
+
+    /**
+     * Numeric sample clinical data with a skewed distribution (like age, mutation count or survival months),
+     * a share of NA values and a few unparseable special values such as "&gt;90".
+     */
+    public static List<ClinicalData> numericalClinicalData(String attributeId, int sampleCount, int studyCount,
+                                                           double naFraction, long seed) {
+        Random random = random(seed);
+        List<ClinicalData> clinicalData = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            String value;
+            double draw = random.nextDouble();
+            if (draw < naFraction) {
+                value = NA;
+            } else if (draw < naFraction + 0.005) {
+                value = ">90";
+            } else {
+                value = String.valueOf(Math.round(Math.exp(3 + random.nextGaussian() * 0.6) * 10) / 10.0);
+            }
+            clinicalData.add(clinicalData(attributeId, i, studyCount, value));
+        }
+        return clinicalData;
+    }
+
+    /**
+     * Categorical sample clinical data with a handful of distinct values.
+     */
+    public static List<ClinicalData> categoricalClinicalData(String attributeId, int sampleCount, int studyCount,
+                                                             long seed) {
+        Random random = random(seed);
+        List<ClinicalData> clinicalData = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            clinicalData.add(clinicalData(attributeId, i, studyCount, CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return clinicalData;
+    }
+
+    public static String category(int index) {
+        return CATEGORIES[index % CATEGORIES.length];
+    }
+
+    /**
+     * Collapses clinical data into the (attribute, value, count) rows returned by the clinical data counts query.
+     */
+    public static List<ClinicalDataCount> clinicalDataCounts(List<ClinicalData> clinicalData) {
+        Map<String, Map<String, Integer>> countsByAttribute = new TreeMap<>();
+        for (ClinicalData data : clinicalData) {
+            countsByAttribute.computeIfAbsent(data.getAttrId(), k -> new TreeMap<>())
+                .merge(data.getAttrValue(), 1, Integer::sum);
+        }
+        List<ClinicalDataCount> clinicalDataCounts = new ArrayList<>();
+        countsByAttribute.forEach((attributeId, counts) -> counts.forEach((value, count) -> {
+            ClinicalDataCount clinicalDataCount = new ClinicalDataCount();
+            clinicalDataCount.setAttributeId(attributeId);
+            clinicalDataCount.setValue(value);
+            clinicalDataCount.setCount(count);
+            clinicalDataCounts.add(clinicalDataCount);
+        }));
+        return clinicalDataCounts;
+    }
+
+    private static ClinicalData clinicalData(String attributeId, int sampleIndex, int studyCount, String value) {
+        ClinicalData data = new ClinicalData();
+        data.setInternalId(sampleIndex + 1);
+        data.setStudyId(studyId(sampleIndex, studyCount));
+        data.setSampleId(sampleId(sampleIndex));
+        data.setPatientId(patientId(sampleIndex));
+        data.setAttrId(attributeId);
+        data.setAttrValue(value);
+        return data;
+    }
+
+    /**
+     * Comma separated internal sample ids as stored in genetic_profile_samples.ORDERED_SAMPLE_LIST.
+     */
+    public static String orderedSampleList(int sampleCount) {
+        StringBuilder builder = new StringBuilder(sampleCount * 6);
+        for (int i = 0; i < sampleCount; i++) {
+            builder.append(i + 1).append(',');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * genetic_alteration.VALUES columns of an expression profile: log-normal values with four decimals,
+     * occasional NA values and a shared latent factor so that some genes are correlated.
+     */
+    public static String[] expressionValues(int geneCount, int sampleCount, double naFraction, long seed) {
+        Random random = random(seed);
+        double[] latent = new double[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            latent[i] = random.nextGaussian();
+        }
+        String[] values = new String[geneCount];
+        StringBuilder builder = new StringBuilder(sampleCount * 8);
+        for (int gene = 0; gene < geneCount; gene++) {
+            builder.setLength(0);
+            double loading = random.nextDouble() * 2 - 1;
+            for (int i = 0; i < sampleCount; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                if (random.nextDouble() < naFraction) {
+                    builder.append(NA);
+                } else {
+                    double value = Math.exp(2 + loading * latent[i] + random.nextGaussian());
+                    builder.append(Math.round(value * 10000) / 10000.0);
+                }
+            }
+            values[gene] = builder.toString();
+        }
+        return values;
+    }
+
+    /**
+     * Wraps pre-generated VALUES columns in new {@link GeneMolecularAlteration} records on every iteration, the way
+     * a MyBatis cursor hands out fresh records, so that cached split values do not leak between invocations.
+     */
+    public static Iterable<GeneMolecularAlteration> geneMolecularAlterations(String molecularProfileId,
+                                                                             String[] values, int firstEntrezGeneId) {
+        return () -> new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            @Override
+            public GeneMolecularAlteration next() {
+                GeneMolecularAlteration alteration = new GeneMolecularAlteration();
+                alteration.setMolecularProfileId(molecularProfileId);
+                alteration.setEntrezGeneId(firstEntrezGeneId + index);
+                alteration.setValues(values[index]);
+                index++;
+                return alteration;
+            }
+        };
+    }
+
+    /**
+     * Gene panels of increasing size; the genes of panel p are the first (p + 1) * genesPerPanel genes.
+     */
+    public static List<GenePanel> genePanels(int panelCount, int genesPerPanel) {
+        List<GenePanel> genePanels = new ArrayList<>(panelCount);
+        for (int p = 0; p < panelCount; p++) {
+            GenePanel genePanel = new GenePanel();
+            genePanel.setStableId(genePanelId(p));
+            List<GenePanelToGene> genes = new ArrayList<>();
+            for (int g = 0; g < (p + 1) * genesPerPanel; g++) {
+                GenePanelToGene genePanelToGene = new GenePanelToGene();
+                genePanelToGene.setGenePanelId(genePanelId(p));
+                genePanelToGene.setEntrezGeneId(g + 1);
+                genePanelToGene.setHugoGeneSymbol(hugoGeneSymbol(g + 1));
+                genes.add(genePanelToGene);
+            }
+            genePanel.setGenes(genes);
+            genePanels.add(genePanel);
+        }
+        return genePanels;
+    }
+
+    public static String genePanelId(int panelIndex) {
+        return "PANEL_" + panelIndex;
+    }
+
+    public static String hugoGeneSymbol(int entrezGeneId) {
+        return "GENE" + entrezGeneId;
+    }
+
+    /**
+     * Gene panel data of a mutation profile per study: a fifth of the samples is whole exome sequenced (no gene
+     * panel), the remaining samples are spread over the gene panels and a few samples are not profiled at all.
+     */
+    public static List<GenePanelData> genePanelData(int sampleCount, int studyCount, int panelCount, long seed) {
+        Random random = random(seed);
+        List<GenePanelData> genePanelData = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            GenePanelData data = new GenePanelData();
+            String studyId = studyId(i, studyCount);
+            data.setMolecularProfileId(studyId + "_mutations");
+            data.setStudyId(studyId);
+            data.setSampleId(sampleId(i));
+            data.setPatientId(patientId(i));
+            data.setProfiled(random.nextDouble() >= 0.02);
+            if (random.nextInt(5) != 0) {
+                data.setGenePanelId(genePanelId(random.nextInt(panelCount)));
+            }
+            genePanelData.add(data);
+        }
+        return genePanelData;
+    }
+}
@@ -0,0 +1,122 @@
+package org.cbioportal.infrastructure.service;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.domain.studyview.StudyViewService;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalDataBin;
+import org.cbioportal.legacy.model.ClinicalDataCountItem;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinCountFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataType;
+import org.cbioportal.legacy.web.parameter.DataBinMethod;
+import org.cbioportal.legacy.web.parameter.DataFilterValue;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.DataBinner;
+import org.cbioportal.legacy.web.util.DiscreteDataBinner;
+import org.cbioportal.legacy.web.util.LinearDataBinner;
+import org.cbioportal.legacy.web.util.LogScaleDataBinner;
+import org.cbioportal.legacy.web.util.ScientificSmallDataBinner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClinicalDataBinnerBenchmark {
+
+    private static final List<String> ATTRIBUTE_IDS = List.of("AGE", "MUTATION_COUNT", "OS_MONTHS");
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    private ClinicalDataBinner clinicalDataBinner;
+    private ClinicalDataBinCountFilter dataBinCountFilter;
+
+    @Setup
+    public void setup() {
+        List<ClinicalData> unfilteredClinicalData = new ArrayList<>();
+        List<ClinicalData> filteredClinicalData = new ArrayList<>();
+        for (int a = 0; a < ATTRIBUTE_IDS.size(); a++) {
+            List<ClinicalData> clinicalData = SyntheticData.numericalClinicalData(ATTRIBUTE_IDS.get(a), sampleCount,
+                30, 0.05, 42 + a);
+            unfilteredClinicalData.addAll(clinicalData);
+            for (int i = 0; i < clinicalData.size(); i += 2) {
+                filteredClinicalData.add(clinicalData.get(i));
+            }
+        }
+        List<ClinicalDataCountItem> unfilteredCounts = toCountItems(unfilteredClinicalData);
+        List<ClinicalDataCountItem> filteredCounts = toCountItems(filteredClinicalData);
+
+        StudyViewService studyViewService = mock(StudyViewService.class, withSettings().stubOnly());
+        // the partial filter only has study and sample ids, the request filter also has a clinical data filter
+        when(studyViewService.getClinicalDataCounts(any(StudyViewFilter.class), any())).thenAnswer(invocation ->
+            ((StudyViewFilter) invocation.getArgument(0)).getClinicalDataFilters() == null
+                ? unfilteredCounts : filteredCounts);
+        when(studyViewService.getClinicalAttributeDataTypeMap(any())).thenReturn(
+            Map.of("AGE", ClinicalDataType.PATIENT, "MUTATION_COUNT", ClinicalDataType.SAMPLE,
+                "OS_MONTHS", ClinicalDataType.PATIENT));
+
+        DataBinner dataBinner = new DataBinner();
+        ReflectionTestUtils.setField(dataBinner, "discreteDataBinner", new DiscreteDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "linearDataBinner", new LinearDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "scientificSmallDataBinner", new ScientificSmallDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "logScaleDataBinner", new LogScaleDataBinner());
+        clinicalDataBinner = new ClinicalDataBinner(studyViewService, dataBinner);
+
+        DataFilterValue dataFilterValue = new DataFilterValue();
+        dataFilterValue.setValue(SyntheticData.category(0));
+        ClinicalDataFilter clinicalDataFilter = new ClinicalDataFilter();
+        clinicalDataFilter.setAttributeId("SAMPLE_TYPE");
+        clinicalDataFilter.setValues(List.of(dataFilterValue));
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(SyntheticData.studyIds(30));
+        studyViewFilter.setClinicalDataFilters(List.of(clinicalDataFilter));
+
+        dataBinCountFilter = new ClinicalDataBinCountFilter();
+        dataBinCountFilter.setStudyViewFilter(studyViewFilter);
+        dataBinCountFilter.setAttributes(ATTRIBUTE_IDS.stream().map(attributeId -> {
+            ClinicalDataBinFilter clinicalDataBinFilter = new ClinicalDataBinFilter();
+            clinicalDataBinFilter.setAttributeId(attributeId);
+            return clinicalDataBinFilter;
+        }).toList());
+    }
+
+    private static List<ClinicalDataCountItem> toCountItems(List<ClinicalData> clinicalData) {
+        return ATTRIBUTE_IDS.stream().map(attributeId -> {
+            ClinicalDataCountItem item = new ClinicalDataCountItem();
+            item.setAttributeId(attributeId);
+            item.setCounts(SyntheticData.clinicalDataCounts(
+                clinicalData.stream().filter(c -> c.getAttrId().equals(attributeId)).toList()));
+            return item;
+        }).toList();
+    }
+
+    @Benchmark
+    public List<ClinicalDataBin> fetchClinicalDataBinCounts() {
+        return clinicalDataBinner.fetchClinicalDataBinCounts(DataBinMethod.STATIC, dataBinCountFilter, false);
+    }
+}
@@ -0,0 +1,74 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.persistence.CacheEnabledConfig;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.StudyViewFilterApplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache key generation for a study view request that lists its samples explicitly, which is what the frontend
+ * sends for custom selections and virtual studies, and for a short request that is used as key as is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomKeyGeneratorBenchmark {
+
+    private static final int STUDY_COUNT = 30;
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    private CustomKeyGenerator customKeyGenerator;
+    private StudyViewFilterApplier target;
+    private Method method;
+    private StudyViewFilter sampleIdentifierFilter;
+    private StudyViewFilter studyIdFilter;
+
+    @Setup
+    public void setup() throws Exception {
+        CacheEnabledConfig cacheEnabledConfig = new CacheEnabledConfig();
+        ReflectionTestUtils.setField(cacheEnabledConfig, "cacheType", CacheEnabledConfig.REDIS);
+        ReflectionTestUtils.setField(cacheEnabledConfig, "cacheTypeClickhouse", "no-cache");
+        cacheEnabledConfig.init();
+
+        customKeyGenerator = new CustomKeyGenerator();
+        ReflectionTestUtils.setField(customKeyGenerator, "cacheEnabledConfig", cacheEnabledConfig);
+
+        target = new StudyViewFilterApplier();
+        method = StudyViewFilterApplier.class.getMethod("cachedApply", StudyViewFilter.class);
+
+        sampleIdentifierFilter = new StudyViewFilter();
+        sampleIdentifierFilter.setSampleIdentifiers(SyntheticData.sampleIdentifiers(sampleCount, STUDY_COUNT));
+        studyIdFilter = new StudyViewFilter();
+        studyIdFilter.setStudyIds(SyntheticData.studyIds(3));
+    }
+
+    @Benchmark
+    public Object generateForSampleIdentifiers() {
+        return customKeyGenerator.generate(target, method, sampleIdentifierFilter);
+    }
+
+    @Benchmark
+    public Object generateForStudyIds() {
+        return customKeyGenerator.generate(target, method, studyIdFilter);
+    }
+}
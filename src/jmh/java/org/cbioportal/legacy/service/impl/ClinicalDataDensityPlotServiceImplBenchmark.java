@@ -0,0 +1,62 @@
+package org.cbioportal.legacy.service.impl;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.DensityPlotData;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.DensityPlotParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClinicalDataDensityPlotServiceImplBenchmark {
+
+    private static final int STUDY_COUNT = 10;
+    private static final String X_ATTRIBUTE_ID = "MUTATION_COUNT";
+    private static final String Y_ATTRIBUTE_ID = "AGE";
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    private ClinicalDataDensityPlotServiceImpl densityPlotService;
+    private List<ClinicalData> clinicalData;
+    private DensityPlotParameters densityPlotParameters;
+
+    @Setup
+    public void setup() {
+        densityPlotService = new ClinicalDataDensityPlotServiceImpl();
+        clinicalData = new ArrayList<>(SyntheticData.numericalClinicalData(X_ATTRIBUTE_ID, sampleCount, STUDY_COUNT, 0.05, 42));
+        clinicalData.addAll(SyntheticData.numericalClinicalData(Y_ATTRIBUTE_ID, sampleCount, STUDY_COUNT, 0.05, 43));
+        densityPlotParameters = new DensityPlotParameters.Builder()
+            .xAxisAttributeId(X_ATTRIBUTE_ID)
+            .yAxisAttributeId(Y_ATTRIBUTE_ID)
+            .xAxisBinCount(50)
+            .yAxisBinCount(50)
+            .xAxisLogScale(true)
+            .yAxisLogScale(false)
+            .build();
+    }
+
+    @Benchmark
+    public DensityPlotData getDensityPlotData() {
+        return densityPlotService.getDensityPlotData(clinicalData, densityPlotParameters, new StudyViewFilter());
+    }
+}
@@ -0,0 +1,133 @@
+package org.cbioportal.legacy.service.impl;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.CoExpression;
+import org.cbioportal.legacy.model.EntityType;
+import org.cbioportal.legacy.model.MolecularProfile;
+import org.cbioportal.legacy.model.MolecularProfileSamples;
+import org.cbioportal.legacy.model.Sample;
+import org.cbioportal.legacy.persistence.MolecularDataRepository;
+import org.cbioportal.legacy.service.MolecularDataService;
+import org.cbioportal.legacy.service.MolecularProfileService;
+import org.cbioportal.legacy.service.SampleService;
+import org.cbioportal.legacy.service.StaticDataTimestampService;
+import org.cbioportal.legacy.service.util.CoExpressionAsyncMethods;
+import org.cbioportal.legacy.service.util.CoExpressionRankMatrixCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Co-expression of one query gene against every other gene of an expression profile for a selection of two
+ * thirds of the samples. The service is not proxied, so the @Async batches run on the calling thread and the
+ * result is the single-threaded cost of decoding, ranking and correlating. With the rank matrix store enabled
+ * the matrix is built in the first invocation and reused afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoExpressionServiceImplBenchmark {
+
+    private static final String MOLECULAR_PROFILE_ID = "pan_cancer_rna_seq_v2_mrna";
+    private static final String STUDY_ID = "pan_cancer";
+    private static final String QUERY_ENTREZ_GENE_ID = "1";
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"1000"})
+    private int geneCount;
+
+    @Param({"false", "true"})
+    private boolean rankMatrixCacheEnabled;
+
+    private CoExpressionServiceImpl coExpressionService;
+    private List<String> sampleIds;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] values = SyntheticData.expressionValues(geneCount, sampleCount, 0.02, 42);
+
+        MolecularDataService molecularDataService = mock(MolecularDataService.class, withSettings().stubOnly());
+        when(molecularDataService.getMolecularAlterations(eq(MOLECULAR_PROFILE_ID),
+            eq(List.of(Integer.valueOf(QUERY_ENTREZ_GENE_ID))), eq("SUMMARY")))
+            .thenAnswer(invocation -> SyntheticData.geneMolecularAlterations(MOLECULAR_PROFILE_ID,
+                new String[] {values[0]}, 1));
+        when(molecularDataService.getMolecularAlterations(eq(MOLECULAR_PROFILE_ID), isNull(), eq("SUMMARY")))
+            .thenAnswer(invocation -> SyntheticData.geneMolecularAlterations(MOLECULAR_PROFILE_ID, values, 1));
+
+        MolecularProfileSamples molecularProfileSamples = new MolecularProfileSamples();
+        molecularProfileSamples.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularProfileSamples.setCommaSeparatedSampleIds(SyntheticData.orderedSampleList(sampleCount));
+        MolecularDataRepository molecularDataRepository = mock(MolecularDataRepository.class,
+            withSettings().stubOnly());
+        when(molecularDataRepository.getCommaSeparatedSampleIdsOfMolecularProfile(MOLECULAR_PROFILE_ID))
+            .thenReturn(molecularProfileSamples);
+        when(molecularDataRepository.getGeneMolecularAlterationsIterableFast(MOLECULAR_PROFILE_ID))
+            .thenAnswer(invocation -> SyntheticData.geneMolecularAlterations(MOLECULAR_PROFILE_ID, values, 1));
+        when(molecularDataRepository.getMolecularAlterationCount(MOLECULAR_PROFILE_ID)).thenReturn(geneCount);
+
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        MolecularProfileService molecularProfileService = mock(MolecularProfileService.class,
+            withSettings().stubOnly());
+        when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID)).thenReturn(molecularProfile);
+
+        List<Sample> selectedSamples = new ArrayList<>();
+        sampleIds = new ArrayList<>();
+        for (Sample sample : SyntheticData.samples(sampleCount, 1)) {
+            if (sample.getInternalId() % 3 != 0) {
+                selectedSamples.add(sample);
+                sampleIds.add(sample.getStableId());
+            }
+        }
+        SampleService sampleService = mock(SampleService.class, withSettings().stubOnly());
+        when(sampleService.fetchSamples(anyList(), anyList(), eq("ID"))).thenReturn(selectedSamples);
+
+        StaticDataTimestampService timestampService = mock(StaticDataTimestampService.class,
+            withSettings().stubOnly());
+        when(timestampService.getTimestamps(anyList())).thenReturn(Map.of("genetic_alteration", "2024-01-01"));
+        CoExpressionRankMatrixCache rankMatrixCache = new CoExpressionRankMatrixCache();
+        ReflectionTestUtils.setField(rankMatrixCache, "timestampService", timestampService);
+        ReflectionTestUtils.setField(rankMatrixCache, "maxMegaBytesHeap", rankMatrixCacheEnabled ? 1024L : 0L);
+
+        coExpressionService = new CoExpressionServiceImpl();
+        ReflectionTestUtils.setField(coExpressionService, "asyncMethods", new CoExpressionAsyncMethods());
+        ReflectionTestUtils.setField(coExpressionService, "molecularDataService", molecularDataService);
+        ReflectionTestUtils.setField(coExpressionService, "molecularProfileService", molecularProfileService);
+        ReflectionTestUtils.setField(coExpressionService, "molecularDataRepository", molecularDataRepository);
+        ReflectionTestUtils.setField(coExpressionService, "sampleService", sampleService);
+        ReflectionTestUtils.setField(coExpressionService, "rankMatrixCache", rankMatrixCache);
+    }
+
+    @Benchmark
+    public List<CoExpression> fetchCoExpressions() throws Exception {
+        return coExpressionService.fetchCoExpressions(MOLECULAR_PROFILE_ID, sampleIds, QUERY_ENTREZ_GENE_ID,
+            EntityType.GENE, 0.3);
+    }
+}
@@ -0,0 +1,67 @@
+package org.cbioportal.legacy.service.impl;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalViolinPlotData;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViolinPlotServiceImplBenchmark {
+
+    private static final int STUDY_COUNT = 10;
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    private ViolinPlotServiceImpl violinPlotService;
+    private List<ClinicalData> clinicalData;
+    private Set<Integer> sampleIds;
+
+    @Setup
+    public void setup() {
+        violinPlotService = new ViolinPlotServiceImpl();
+        clinicalData = new ArrayList<>(SyntheticData.numericalClinicalData("AGE", sampleCount, STUDY_COUNT, 0, 42));
+        clinicalData.addAll(SyntheticData.categoricalClinicalData("CANCER_TYPE", sampleCount, STUDY_COUNT, 43));
+        sampleIds = new HashSet<>();
+        for (ClinicalData data : clinicalData) {
+            sampleIds.add(data.getInternalId());
+        }
+    }
+
+    @Benchmark
+    public ClinicalViolinPlotData getClinicalViolinPlotData() {
+        return violinPlotService.getClinicalViolinPlotData(
+            clinicalData,
+            sampleIds,
+            null,
+            null,
+            BigDecimal.valueOf(100),
+            false,
+            BigDecimal.ONE,
+            new StudyViewFilter()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.EnrichmentType;
+import org.cbioportal.legacy.model.GenomicEnrichment;
+import org.cbioportal.legacy.model.MolecularProfile;
+import org.cbioportal.legacy.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.legacy.model.MolecularProfileSamples;
+import org.cbioportal.legacy.persistence.MolecularDataRepository;
+import org.cbioportal.legacy.service.SampleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Expression enrichment of an RNA-seq profile between groups of samples. The number of genes is kept well below
+ * a full transcriptome so that the synthetic VALUES columns fit in a default heap at pan-cancer sample counts;
+ * the time per gene is what matters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionEnrichmentUtilBenchmark {
+
+    private static final String MOLECULAR_PROFILE_ID = "pan_cancer_rna_seq_v2_mrna";
+    private static final String STUDY_ID = "pan_cancer";
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"500"})
+    private int geneCount;
+
+    @Param({"2", "4"})
+    private int groupCount;
+
+    private ExpressionEnrichmentUtil expressionEnrichmentUtil;
+    private MolecularProfile molecularProfile;
+    private Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets;
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        MolecularProfileSamples molecularProfileSamples = new MolecularProfileSamples();
+        molecularProfileSamples.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularProfileSamples.setCommaSeparatedSampleIds(SyntheticData.orderedSampleList(sampleCount));
+        MolecularDataRepository molecularDataRepository = mock(MolecularDataRepository.class,
+            withSettings().stubOnly());
+        when(molecularDataRepository.getCommaSeparatedSampleIdsOfMolecularProfile(MOLECULAR_PROFILE_ID))
+            .thenReturn(molecularProfileSamples);
+        SampleService sampleService = mock(SampleService.class, withSettings().stubOnly());
+        when(sampleService.fetchSamples(anyList(), anyList(), eq("ID")))
+            .thenReturn(SyntheticData.samples(sampleCount, 1));
+
+        expressionEnrichmentUtil = new ExpressionEnrichmentUtil();
+        ReflectionTestUtils.setField(expressionEnrichmentUtil, "molecularDataRepository", molecularDataRepository);
+        ReflectionTestUtils.setField(expressionEnrichmentUtil, "sampleService", sampleService);
+
+        molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+
+        molecularProfileCaseSets = new LinkedHashMap<>();
+        for (int i = 0; i < sampleCount; i++) {
+            MolecularProfileCaseIdentifier caseIdentifier = new MolecularProfileCaseIdentifier();
+            caseIdentifier.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+            caseIdentifier.setCaseId(SyntheticData.sampleId(i));
+            molecularProfileCaseSets.computeIfAbsent("group_" + (i % groupCount), k -> new ArrayList<>())
+                .add(caseIdentifier);
+        }
+
+        values = SyntheticData.expressionValues(geneCount, sampleCount, 0.02, 42);
+    }
+
+    @Benchmark
+    public List<GenomicEnrichment> getEnrichments() {
+        return expressionEnrichmentUtil.getEnrichments(molecularProfile, molecularProfileCaseSets,
+            EnrichmentType.SAMPLE, SyntheticData.geneMolecularAlterations(MOLECULAR_PROFILE_ID, values, 1));
+    }
+}
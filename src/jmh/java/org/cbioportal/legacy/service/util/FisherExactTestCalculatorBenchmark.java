@@ -0,0 +1,88 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fisher's exact tests of the 2x2 altered/unaltered tables of all genes of an alteration enrichment between two
+ * groups, followed by the Benjamini-Hochberg q-values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FisherExactTestCalculatorBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"20000"})
+    private int geneCount;
+
+    private FisherExactTestCalculator calculator;
+    private int[][] tables;
+    private double[] pValues;
+    private BigDecimal[] bigDecimalPValues;
+
+    @Setup
+    public void setup() {
+        calculator = new FisherExactTestCalculator();
+        Random random = SyntheticData.random(42);
+        int groupSize = sampleCount / 2;
+        tables = new int[geneCount][];
+        for (int gene = 0; gene < geneCount; gene++) {
+            // alteration frequencies are heavily skewed towards rare alterations
+            double frequency = Math.pow(random.nextDouble(), 4) * 0.3;
+            int alteredInGroup1 = binomial(random, groupSize, frequency);
+            int alteredInGroup2 = binomial(random, groupSize, frequency * (0.5 + random.nextDouble()));
+            tables[gene] = new int[] {alteredInGroup1, groupSize - alteredInGroup1, alteredInGroup2,
+                groupSize - alteredInGroup2};
+        }
+        pValues = twoTailedPValues();
+        Arrays.sort(pValues);
+        bigDecimalPValues = Arrays.stream(pValues).mapToObj(BigDecimal::valueOf).toArray(BigDecimal[]::new);
+    }
+
+    private static int binomial(Random random, int n, double p) {
+        // normal approximation is good enough for synthetic counts
+        double value = n * p + Math.sqrt(n * p * (1 - p)) * random.nextGaussian();
+        return (int) Math.max(0, Math.min(n, Math.round(value)));
+    }
+
+    @Benchmark
+    public double[] twoTailedPValues() {
+        double[] result = new double[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            int[] table = tables[i];
+            result[i] = calculator.getTwoTailedPValue(table[0], table[1], table[2], table[3]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] qValues() {
+        return calculator.calcqValue(pValues);
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalQValues() {
+        return calculator.calcqValue(bigDecimalPValues);
+    }
+}
@@ -0,0 +1,85 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.AlterationCountByGene;
+import org.cbioportal.legacy.model.GenePanelData;
+import org.cbioportal.legacy.service.GenePanelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfiledCasesCounterBenchmark {
+
+    private static final int STUDY_COUNT = 30;
+    private static final int PANEL_COUNT = 10;
+    private static final int GENES_PER_PANEL = 50;
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"1000"})
+    private int alteredGeneCount;
+
+    private ProfiledCasesCounter<AlterationCountByGene> profiledCasesCounter;
+    private List<GenePanelData> genePanelData;
+    private List<AlterationCountByGene> alterationCounts;
+
+    @Setup
+    public void setup() {
+        GenePanelService genePanelService = mock(GenePanelService.class, withSettings().stubOnly());
+        when(genePanelService.fetchGenePanels(anyList(), eq("DETAILED")))
+            .thenReturn(SyntheticData.genePanels(PANEL_COUNT, GENES_PER_PANEL));
+        profiledCasesCounter = new ProfiledCasesCounter<>();
+        ReflectionTestUtils.setField(profiledCasesCounter, "genePanelService", genePanelService);
+
+        genePanelData = SyntheticData.genePanelData(sampleCount, STUDY_COUNT, PANEL_COUNT, 42);
+        alterationCounts = new ArrayList<>(alteredGeneCount);
+        for (int i = 1; i <= alteredGeneCount; i++) {
+            AlterationCountByGene alterationCount = new AlterationCountByGene();
+            alterationCount.setEntrezGeneId(i);
+            alterationCount.setHugoGeneSymbol(SyntheticData.hugoGeneSymbol(i));
+            alterationCount.setNumberOfAlteredCases(1);
+            alterationCount.setTotalCount(1);
+            alterationCounts.add(alterationCount);
+        }
+    }
+
+    @Benchmark
+    public List<AlterationCountByGene> calculateSamples() {
+        profiledCasesCounter.calculate(alterationCounts, genePanelData, false,
+            profiledCasesCounter.sampleUniqueIdentifier);
+        return alterationCounts;
+    }
+
+    @Benchmark
+    public List<AlterationCountByGene> calculatePatients() {
+        profiledCasesCounter.calculate(alterationCounts, genePanelData, false,
+            profiledCasesCounter.patientUniqueIdentifier);
+        return alterationCounts;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cbioportal.legacy.web.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.Binnable;
+import org.cbioportal.legacy.model.DataBin;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.legacy.web.parameter.DataBinFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBinnerBenchmark {
+
+    private static final String ATTRIBUTE_ID = "AGE";
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"0.05"})
+    private double naFraction;
+
+    private DataBinner dataBinner;
+    private ClinicalDataBinFilter dataBinFilter;
+    private ClinicalDataBinFilter quartileDataBinFilter;
+    private List<Binnable> unfilteredClinicalData;
+    private List<Binnable> filteredClinicalData;
+
+    @Setup
+    public void setup() {
+        dataBinner = new DataBinner();
+        ReflectionTestUtils.setField(dataBinner, "discreteDataBinner", new DiscreteDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "linearDataBinner", new LinearDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "scientificSmallDataBinner", new ScientificSmallDataBinner());
+        ReflectionTestUtils.setField(dataBinner, "logScaleDataBinner", new LogScaleDataBinner());
+
+        dataBinFilter = new ClinicalDataBinFilter();
+        dataBinFilter.setAttributeId(ATTRIBUTE_ID);
+        quartileDataBinFilter = new ClinicalDataBinFilter();
+        quartileDataBinFilter.setAttributeId(ATTRIBUTE_ID);
+        quartileDataBinFilter.setBinMethod(DataBinFilter.BinMethod.QUARTILE);
+
+        unfilteredClinicalData = new ArrayList<>(
+            SyntheticData.numericalClinicalData(ATTRIBUTE_ID, sampleCount, 30, naFraction, 42));
+        // every third sample is filtered out by the study view filter
+        filteredClinicalData = new ArrayList<>();
+        for (int i = 0; i < unfilteredClinicalData.size(); i++) {
+            if (i % 3 != 0) {
+                filteredClinicalData.add(unfilteredClinicalData.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<DataBin> calculateClinicalDataBins() {
+        return dataBinner.calculateClinicalDataBins(dataBinFilter, filteredClinicalData, unfilteredClinicalData);
+    }
+
+    @Benchmark
+    public List<DataBin> calculateDataBins() {
+        return dataBinner.calculateDataBins(dataBinFilter, unfilteredClinicalData);
+    }
+
+    @Benchmark
+    public List<DataBin> calculateQuartileDataBins() {
+        return dataBinner.calculateDataBins(quartileDataBinFilter, unfilteredClinicalData);
+    }
+}
@@ -0,0 +1,124 @@
+package org.cbioportal.legacy.web.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.ClinicalAttribute;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.service.ClinicalAttributeService;
+import org.cbioportal.legacy.service.ClinicalDataService;
+import org.cbioportal.legacy.service.PatientService;
+import org.cbioportal.legacy.service.SampleService;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.DataFilterValue;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Filters a multi-study cohort with one categorical and one numerical clinical data filter. The services are
+ * stubbed, so this measures the filtering done in the web layer and not the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudyViewFilterApplierBenchmark {
+
+    private static final int STUDY_COUNT = 30;
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    private StudyViewFilterApplier studyViewFilterApplier;
+    private StudyViewFilter studyViewFilter;
+
+    @Setup
+    public void setup() {
+        List<ClinicalData> clinicalData = new ArrayList<>();
+        clinicalData.addAll(SyntheticData.categoricalClinicalData("SAMPLE_TYPE", sampleCount, STUDY_COUNT, 42));
+        clinicalData.addAll(SyntheticData.numericalClinicalData("AGE", sampleCount, STUDY_COUNT, 0.05, 43));
+
+        SampleService sampleService = mock(SampleService.class, withSettings().stubOnly());
+        when(sampleService.getAllSamplesInStudies(anyList(), eq("ID"), any(), any(), any(), any()))
+            .thenReturn(SyntheticData.samples(sampleCount, STUDY_COUNT));
+        PatientService patientService = mock(PatientService.class, withSettings().stubOnly());
+        when(patientService.getPatientsOfSamples(anyList(), anyList()))
+            .thenReturn(SyntheticData.patients(sampleCount, STUDY_COUNT));
+        ClinicalDataService clinicalDataService = mock(ClinicalDataService.class, withSettings().stubOnly());
+        when(clinicalDataService.fetchClinicalData(anyList(), anyList(), anyList(), eq("SAMPLE"), eq("SUMMARY")))
+            .thenReturn(clinicalData);
+        ClinicalAttributeService clinicalAttributeService = mock(ClinicalAttributeService.class,
+            withSettings().stubOnly());
+        when(clinicalAttributeService.getClinicalAttributesByStudyIdsAndAttributeIds(anyList(), anyList()))
+            .thenReturn(List.of(clinicalAttribute("SAMPLE_TYPE", "STRING"), clinicalAttribute("AGE", "NUMBER")));
+
+        StudyViewFilterUtil studyViewFilterUtil = new StudyViewFilterUtil();
+        studyViewFilterApplier = new StudyViewFilterApplier();
+        ReflectionTestUtils.setField(studyViewFilterApplier, "sampleService", sampleService);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalAttributeService", clinicalAttributeService);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "studyViewFilterUtil", studyViewFilterUtil);
+        ClinicalDataEqualityFilterApplier clinicalDataEqualityFilterApplier =
+            new ClinicalDataEqualityFilterApplier(patientService, clinicalDataService, studyViewFilterUtil);
+        // the equality applier has its own autowired StudyViewFilterUtil field next to the constructor argument
+        ReflectionTestUtils.setField(clinicalDataEqualityFilterApplier, "studyViewFilterUtil", studyViewFilterUtil);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalDataEqualityFilterApplier",
+            clinicalDataEqualityFilterApplier);
+        ReflectionTestUtils.setField(studyViewFilterApplier, "clinicalDataIntervalFilterApplier",
+            new ClinicalDataIntervalFilterApplier(patientService, clinicalDataService, studyViewFilterUtil));
+
+        DataFilterValue primary = new DataFilterValue();
+        primary.setValue(SyntheticData.category(0));
+        DataFilterValue metastasis = new DataFilterValue();
+        metastasis.setValue(SyntheticData.category(1));
+        ClinicalDataFilter sampleTypeFilter = new ClinicalDataFilter();
+        sampleTypeFilter.setAttributeId("SAMPLE_TYPE");
+        sampleTypeFilter.setValues(List.of(primary, metastasis));
+
+        DataFilterValue ageRange = new DataFilterValue();
+        ageRange.setStart(new BigDecimal(20));
+        ageRange.setEnd(new BigDecimal(40));
+        ClinicalDataFilter ageFilter = new ClinicalDataFilter();
+        ageFilter.setAttributeId("AGE");
+        ageFilter.setValues(List.of(ageRange));
+
+        studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(SyntheticData.studyIds(STUDY_COUNT));
+        studyViewFilter.setClinicalDataFilters(List.of(sampleTypeFilter, ageFilter));
+    }
+
+    private static ClinicalAttribute clinicalAttribute(String attributeId, String datatype) {
+        ClinicalAttribute clinicalAttribute = new ClinicalAttribute();
+        clinicalAttribute.setAttrId(attributeId);
+        clinicalAttribute.setDatatype(datatype);
+        return clinicalAttribute;
+    }
+
+    @Benchmark
+    public List<SampleIdentifier> apply() {
+        return studyViewFilterApplier.apply(studyViewFilter, false);
+    }
+}
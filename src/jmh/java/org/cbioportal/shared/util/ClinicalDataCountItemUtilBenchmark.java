@@ -0,0 +1,61 @@
+package org.cbioportal.shared.util;
+
+import org.cbioportal.benchmark.SyntheticData;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalDataCount;
+import org.cbioportal.legacy.model.ClinicalDataCountItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping of the clinical data counts of all study view charts. Numerical attributes have many distinct values,
+ * so the number of count rows grows with the number of samples.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClinicalDataCountItemUtilBenchmark {
+
+    private static final int STUDY_COUNT = 30;
+
+    @Param({"1000", "10000", "50000"})
+    private int sampleCount;
+
+    @Param({"40"})
+    private int attributeCount;
+
+    private List<ClinicalDataCount> dataCounts;
+
+    @Setup
+    public void setup() {
+        List<ClinicalData> clinicalData = new ArrayList<>();
+        for (int a = 0; a < attributeCount; a++) {
+            // a quarter of the charts are numerical
+            clinicalData.addAll(a % 4 == 0
+                ? SyntheticData.numericalClinicalData("NUMERICAL_" + a, sampleCount, STUDY_COUNT, 0.1, a)
+                : SyntheticData.categoricalClinicalData("CATEGORICAL_" + a, sampleCount, STUDY_COUNT, a));
+        }
+        dataCounts = SyntheticData.clinicalDataCounts(clinicalData);
+    }
+
+    @Benchmark
+    public List<ClinicalDataCountItem> generateDataCountItems() {
+        return ClinicalDataCountItemUtil.generateDataCountItems(dataCounts);
+    }
+}
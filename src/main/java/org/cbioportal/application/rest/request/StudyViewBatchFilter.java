@@ -0,0 +1,39 @@
+package org.cbioportal.application.rest.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The charts of a study view that are computed for one study view filter by a single request.
+ */
+public class StudyViewBatchFilter implements Serializable {
+
+    @NotNull
+    @Valid
+    private StudyViewFilter studyViewFilter;
+    @NotNull
+    @Size(min = 1)
+    @Valid
+    private List<StudyViewChartRequest> charts;
+
+    public StudyViewFilter getStudyViewFilter() {
+        return studyViewFilter;
+    }
+
+    public void setStudyViewFilter(StudyViewFilter studyViewFilter) {
+        this.studyViewFilter = studyViewFilter;
+    }
+
+    public List<StudyViewChartRequest> getCharts() {
+        return charts;
+    }
+
+    public void setCharts(List<StudyViewChartRequest> charts) {
+        this.charts = charts;
+    }
+}
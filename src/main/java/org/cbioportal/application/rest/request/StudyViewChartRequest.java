@@ -0,0 +1,92 @@
+package org.cbioportal.application.rest.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.DataBinMethod;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One chart of a {@link StudyViewBatchFilter}. The id is chosen by the client and returned with the result of
+ * the chart. Charts of a clinical attribute take the attributes of the corresponding single chart endpoint.
+ */
+public class StudyViewChartRequest implements Serializable {
+
+    public enum ChartType {
+        FILTERED_SAMPLES,
+        MUTATED_GENES,
+        CNA_GENES,
+        STRUCTURAL_VARIANT_GENES,
+        MOLECULAR_PROFILE_SAMPLE_COUNTS,
+        SAMPLE_LIST_COUNTS,
+        CLINICAL_EVENT_TYPE_COUNTS,
+        PATIENT_TREATMENT_COUNTS,
+        SAMPLE_TREATMENT_COUNTS,
+        // attributes
+        CLINICAL_DATA_COUNTS,
+        // binAttributes and dataBinMethod
+        CLINICAL_DATA_BIN_COUNTS
+    }
+
+    @NotNull
+    private String id;
+    @NotNull
+    private ChartType type;
+    private List<ClinicalDataFilter> attributes;
+    private List<ClinicalDataBinFilter> binAttributes;
+    private DataBinMethod dataBinMethod = DataBinMethod.DYNAMIC;
+
+    @AssertTrue
+    private boolean isAttributesPresentInClinicalDataCounts() {
+        return type != ChartType.CLINICAL_DATA_COUNTS || (attributes != null && !attributes.isEmpty());
+    }
+
+    @AssertTrue
+    private boolean isBinAttributesAndDataBinMethodPresentInClinicalDataBinCounts() {
+        return type != ChartType.CLINICAL_DATA_BIN_COUNTS
+            || (binAttributes != null && !binAttributes.isEmpty() && dataBinMethod != null);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ChartType getType() {
+        return type;
+    }
+
+    public void setType(ChartType type) {
+        this.type = type;
+    }
+
+    public List<ClinicalDataFilter> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<ClinicalDataFilter> attributes) {
+        this.attributes = attributes;
+    }
+
+    public List<ClinicalDataBinFilter> getBinAttributes() {
+        return binAttributes;
+    }
+
+    public void setBinAttributes(List<ClinicalDataBinFilter> binAttributes) {
+        this.binAttributes = binAttributes;
+    }
+
+    public DataBinMethod getDataBinMethod() {
+        return dataBinMethod;
+    }
+
+    public void setDataBinMethod(DataBinMethod dataBinMethod) {
+        this.dataBinMethod = dataBinMethod;
+    }
+}
@@ -0,0 +1,11 @@
+package org.cbioportal.application.rest.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.cbioportal.application.rest.request.StudyViewChartRequest.ChartType;
+
+/**
+ * The result of one chart of a study view batch, or the error message if the chart could not be computed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudyViewChartResultDTO(String id, ChartType type, Object result, String error) {
+}
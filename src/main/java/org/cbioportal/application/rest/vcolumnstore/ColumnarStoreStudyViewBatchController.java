@@ -0,0 +1,202 @@
+package org.cbioportal.application.rest.vcolumnstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.cbioportal.application.rest.mapper.SampleMapper;
+import org.cbioportal.application.rest.request.StudyViewBatchFilter;
+import org.cbioportal.application.rest.request.StudyViewChartRequest;
+import org.cbioportal.application.rest.response.StudyViewChartResultDTO;
+import org.cbioportal.domain.studyview.StudyViewFilterContext;
+import org.cbioportal.domain.studyview.StudyViewService;
+import org.cbioportal.infrastructure.service.ClinicalDataBinner;
+import org.cbioportal.legacy.service.exception.StudyNotFoundException;
+import org.cbioportal.legacy.web.columnar.util.NewStudyViewFilterUtil;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinCountFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Computes many charts of the study view for one study view filter in a single request. The charts are computed
+ * concurrently and every chart is written as one line of newline delimited JSON as soon as it is done, in the
+ * order of completion. The samples of the filter are resolved once for all charts of the request, unless the
+ * filter selects all samples of its studies, in which case the charts are taken from the caches of the study view
+ * service.
+ */
+@RestController
+@RequestMapping("/api/column-store")
+@Profile("clickhouse")
+public class ColumnarStoreStudyViewBatchController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ColumnarStoreStudyViewBatchController.class);
+    private static final String CHART_ERROR_MESSAGE = "Could not compute the chart";
+
+    private final StudyViewService studyViewService;
+    private final ClinicalDataBinner clinicalDataBinner;
+    private final AsyncTaskExecutor asyncTaskExecutor;
+    private final ObjectMapper objectMapper;
+
+    public ColumnarStoreStudyViewBatchController(StudyViewService studyViewService, ClinicalDataBinner clinicalDataBinner, AsyncTaskExecutor asyncTaskExecutor, ObjectMapper objectMapper) {
+        this.studyViewService = studyViewService;
+        this.clinicalDataBinner = clinicalDataBinner;
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Hidden
+    @PostMapping(value = "/study-view/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasPermission(#studyViewBatchFilter.studyViewFilter, 'StudyViewFilter', T(org.cbioportal.legacy.utils.security.AccessLevel).READ)")
+    public void fetchStudyViewCharts(
+            @Valid @RequestBody StudyViewBatchFilter studyViewBatchFilter,
+            HttpServletResponse response) throws IOException {
+        List<StudyViewChartRequest> charts = studyViewBatchFilter.getCharts();
+        StudyViewFilter studyViewFilter = studyViewBatchFilter.getStudyViewFilter();
+        StudyViewFilterContext studyViewFilterContext =
+                studyViewService.resolveStudyViewFilterContext(studyViewFilter);
+        // null if there are no samples to resolve, then the charts use the methods taking the filter
+        StudyViewFilterContext resolvedContext =
+                studyViewFilterContext.resolvedSampleUniqueIds() == null ? null : studyViewFilterContext;
+
+        CompletionService<StudyViewChartResultDTO> completionService =
+                new ExecutorCompletionService<>(asyncTaskExecutor);
+        List<Future<StudyViewChartResultDTO>> futures = new ArrayList<>(charts.size());
+        for (StudyViewChartRequest chart : charts) {
+            futures.add(completionService.submit(() -> fetchChart(chart, studyViewFilter, resolvedContext)));
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream outputStream = response.getOutputStream();
+        try {
+            for (int i = 0; i < charts.size(); i++) {
+                outputStream.write(objectMapper.writeValueAsBytes(takeResult(completionService)));
+                outputStream.write('\n');
+                outputStream.flush();
+            }
+        } finally {
+            // a no-op for finished charts, stops the others if the client went away
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private StudyViewChartResultDTO takeResult(CompletionService<StudyViewChartResultDTO> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unexpected exception during execution", e);
+        }
+    }
+
+    private StudyViewChartResultDTO fetchChart(StudyViewChartRequest chart, StudyViewFilter studyViewFilter,
+                                               StudyViewFilterContext resolvedContext) {
+        try {
+            return new StudyViewChartResultDTO(chart.getId(), chart.getType(),
+                    computeChart(chart, studyViewFilter, resolvedContext), null);
+        } catch (Exception e) {
+            LOG.error("exception thrown while computing chart {} of type {}: ", chart.getId(), chart.getType(), e);
+            return new StudyViewChartResultDTO(chart.getId(), chart.getType(), null, CHART_ERROR_MESSAGE);
+        }
+    }
+
+    private Object computeChart(StudyViewChartRequest chart, StudyViewFilter studyViewFilter,
+                                StudyViewFilterContext resolvedContext) throws StudyNotFoundException {
+        boolean resolved = resolvedContext != null;
+        return switch (chart.getType()) {
+            case FILTERED_SAMPLES -> SampleMapper.INSTANCE.toDtos(resolved
+                    ? studyViewService.getFilteredSamples(resolvedContext)
+                    : studyViewService.getFilteredSamples(studyViewFilter));
+            case MUTATED_GENES -> resolved
+                    ? studyViewService.getMutatedGenes(resolvedContext)
+                    : studyViewService.getMutatedGenes(studyViewFilter);
+            case CNA_GENES -> resolved
+                    ? studyViewService.getCnaGenes(resolvedContext)
+                    : studyViewService.getCnaGenes(studyViewFilter);
+            case STRUCTURAL_VARIANT_GENES -> resolved
+                    ? studyViewService.getStructuralVariantGenes(resolvedContext)
+                    : studyViewService.getStructuralVariantGenes(studyViewFilter);
+            case MOLECULAR_PROFILE_SAMPLE_COUNTS -> resolved
+                    ? studyViewService.getMolecularProfileSampleCounts(resolvedContext)
+                    : studyViewService.getMolecularProfileSampleCounts(studyViewFilter);
+            case SAMPLE_LIST_COUNTS -> resolved
+                    ? studyViewService.getCaseListDataCounts(resolvedContext)
+                    : studyViewService.getCaseListDataCounts(studyViewFilter);
+            case CLINICAL_EVENT_TYPE_COUNTS -> resolved
+                    ? studyViewService.getClinicalEventTypeCounts(resolvedContext)
+                    : studyViewService.getClinicalEventTypeCounts(studyViewFilter);
+            case PATIENT_TREATMENT_COUNTS -> resolved
+                    ? studyViewService.getPatientTreatmentReport(resolvedContext)
+                    : studyViewService.getPatientTreatmentReport(studyViewFilter);
+            case SAMPLE_TREATMENT_COUNTS -> resolved
+                    ? studyViewService.getSampleTreatmentReport(resolvedContext)
+                    : studyViewService.getSampleTreatmentReport(studyViewFilter);
+            case CLINICAL_DATA_COUNTS -> {
+                List<ClinicalDataFilter> attributes = chart.getAttributes();
+                List<String> attributeIds = attributes.stream().map(ClinicalDataFilter::getAttributeId).toList();
+                // the chart of a single attribute ignores the filter of that attribute, so the resolved samples
+                // only apply if there is no such filter
+                if (attributes.size() == 1 && hasClinicalDataFilter(studyViewFilter, attributeIds.getFirst())) {
+                    // the filter is shared by all charts of the batch
+                    StudyViewFilter chartStudyViewFilter = copyOf(studyViewFilter);
+                    NewStudyViewFilterUtil.removeClinicalDataFilter(attributeIds.getFirst(), chartStudyViewFilter.getClinicalDataFilters());
+                    yield studyViewService.getClinicalDataCounts(chartStudyViewFilter, attributeIds);
+                }
+                yield resolved
+                        ? studyViewService.getClinicalDataCounts(resolvedContext, attributeIds)
+                        : studyViewService.getClinicalDataCounts(studyViewFilter, attributeIds);
+            }
+            case CLINICAL_DATA_BIN_COUNTS -> {
+                List<ClinicalDataBinFilter> binAttributes = chart.getBinAttributes();
+                ClinicalDataBinCountFilter clinicalDataBinCountFilter = new ClinicalDataBinCountFilter();
+                clinicalDataBinCountFilter.setAttributes(binAttributes);
+                // as for the clinical data counts, the resolved samples only apply if the chart of a single
+                // attribute does not have to ignore a filter of that attribute
+                if (resolved && !(binAttributes.size() == 1
+                        && hasClinicalDataFilter(studyViewFilter, binAttributes.getFirst().getAttributeId()))) {
+                    clinicalDataBinCountFilter.setStudyViewFilter(studyViewFilter);
+                    yield clinicalDataBinner.fetchClinicalDataBinCounts(
+                            chart.getDataBinMethod(), clinicalDataBinCountFilter, resolvedContext);
+                }
+                // the filter is shared by all charts of the batch
+                clinicalDataBinCountFilter.setStudyViewFilter(copyOf(studyViewFilter));
+                yield clinicalDataBinner.fetchClinicalDataBinCounts(
+                        chart.getDataBinMethod(),
+                        clinicalDataBinCountFilter,
+                        true
+                );
+            }
+        };
+    }
+
+    private boolean hasClinicalDataFilter(StudyViewFilter studyViewFilter, String attributeId) {
+        return studyViewFilter.getClinicalDataFilters() != null && studyViewFilter.getClinicalDataFilters().stream()
+                .anyMatch(clinicalDataFilter -> attributeId.equals(clinicalDataFilter.getAttributeId()));
+    }
+
+    private StudyViewFilter copyOf(StudyViewFilter studyViewFilter) {
+        return objectMapper.convertValue(studyViewFilter, StudyViewFilter.class);
+    }
+}
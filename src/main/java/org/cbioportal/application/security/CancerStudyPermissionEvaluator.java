@@ -42,6 +42,7 @@ import org.cbioportal.legacy.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.legacy.model.Patient;
 import org.cbioportal.legacy.model.SampleList;
 import org.cbioportal.legacy.persistence.cachemaputil.CacheMapUtil;
+import org.cbioportal.legacy.persistence.cachemaputil.CancerStudyAuthorizationIndex;
 import org.cbioportal.legacy.utils.security.AccessLevel;
 import org.cbioportal.legacy.web.parameter.ClinicalDataCountFilter;
 import org.cbioportal.legacy.web.parameter.DataBinCountFilter;
@@ -365,6 +366,10 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
         if (cancerStudyId.equalsIgnoreCase(ALL_CANCER_STUDIES_ID)) {
             return true;
         }
+        CancerStudyAuthorizationIndex authorizationIndex = cacheMapUtil.getCancerStudyAuthorizationIndex();
+        if (authorizationIndex != null) {
+            return hasAccessToCancerStudies(authentication, List.of(cancerStudyId), permission, authorizationIndex);
+        }
         CancerStudy cancerStudy = cacheMapUtil.getCancerStudyMap().get(cancerStudyId);
         if (cancerStudy == null) {
             return false;
@@ -389,6 +394,10 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
     }
 
     private boolean hasAccessToCancerStudies(Authentication authentication, Collection<String> cancerStudyIds, Object permission) {
+        CancerStudyAuthorizationIndex authorizationIndex = cacheMapUtil.getCancerStudyAuthorizationIndex();
+        if (authorizationIndex != null) {
+            return hasAccessToCancerStudies(authentication, cancerStudyIds, permission, authorizationIndex);
+        }
         for (String cancerStudyId : cancerStudyIds) {
             if (!hasPermission(authentication, cancerStudyId, TARGET_TYPE_CANCER_STUDY_ID, permission)) {
                 return false;
@@ -397,6 +406,34 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
         return true;
     }
 
+    /**
+     * Same checks as {@link #hasAccessToCancerStudy(Authentication, CancerStudy, AccessLevel)} for every study, with
+     * the studies the granted authorities give access to looked up in the precomputed authorization index.
+     */
+    private boolean hasAccessToCancerStudies(Authentication authentication, Collection<String> cancerStudyIds, Object permission,
+                                             CancerStudyAuthorizationIndex authorizationIndex) {
+        // everybody has access the 'all' cancer study
+        List<String> stableStudyIds = cancerStudyIds.stream()
+            .filter(cancerStudyId -> !cancerStudyId.equalsIgnoreCase(ALL_CANCER_STUDIES_ID))
+            .toList();
+        if (stableStudyIds.isEmpty()) {
+            return true;
+        }
+        if (!stableStudyIds.stream().allMatch(authorizationIndex::containsCancerStudy)
+            || authentication == null || authentication.getPrincipal() == null) {
+            return false;
+        }
+        if (AccessLevel.LIST == permission) {
+            return true;
+        }
+        boolean toReturn = authorizationIndex.hasAccessToCancerStudies(getGrantedAuthorities(authentication), stableStudyIds);
+        if (log.isDebugEnabled()) {
+            log.debug("hasAccessToCancerStudies(), user: " + authentication.getPrincipal().toString()
+                + ", cancer studies: " + stableStudyIds + ", returning " + toReturn + ".");
+        }
+        return toReturn;
+    }
+
     private boolean hasAccessToMolecularProfiles(Authentication authentication, Collection<String> molecularProfileIds, Object permission) {
         for (String molecularProfileId : molecularProfileIds) {
             MolecularProfile molecularProfile = cacheMapUtil.getMolecularProfileMap().get(molecularProfileId);
@@ -6,11 +6,17 @@ import org.cbioportal.domain.studyview.StudyViewFilterContext;
 import org.cbioportal.legacy.model.AlterationCountByGene;
 import org.cbioportal.legacy.model.AlterationType;
 import org.cbioportal.legacy.model.MolecularProfile;
+import org.cbioportal.legacy.service.exception.StudyNotFoundException;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.lang.NonNull;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -20,37 +26,70 @@ abstract class AbstractAlterationCountByGeneUseCase {
 
     private final AlterationRepository alterationRepository;
     private final GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType;
+    private final AsyncTaskExecutor asyncTaskExecutor;
 
-    AbstractAlterationCountByGeneUseCase(AlterationRepository alterationRepository, GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType) {
+    AbstractAlterationCountByGeneUseCase(AlterationRepository alterationRepository, GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType, AsyncTaskExecutor asyncTaskExecutor) {
         this.alterationRepository = alterationRepository;
         this.getFilteredMolecularProfilesByAlterationType = getFilteredMolecularProfilesByAlterationType;
+        this.asyncTaskExecutor = asyncTaskExecutor;
     }
 
     /**
-     * Populates alteration counts with profile data, including the total profiled count and matching gene panel IDs.
+     * Returns a new plan for the concurrent queries of one request.
+     */
+    AlterationCountQueryPlan newQueryPlan() {
+        return new AlterationCountQueryPlan(asyncTaskExecutor);
+    }
+
+    /**
+     * Starts the queries for the profiled counts of an alteration type, so that they run while the alteration
+     * counts themselves are fetched.
      *
-     * @param alterationCounts       List of alteration counts to enrich.
+     * @param queryPlan              Plan the queries are run by.
      * @param studyViewFilterContext Context containing filter criteria.
      * @param alterationType         Type of alteration (e.g., mutation, CNA, structural variant).
-     * @param <T>                    The type of alteration count.
+     * @return The running queries, to be passed to {@link #populateAlterationCounts}.
+     */
+    ProfiledCountQueries submitProfiledCountQueries(@NonNull AlterationCountQueryPlan queryPlan,
+                                                    @NonNull StudyViewFilterContext studyViewFilterContext,
+                                                    @NonNull AlterationType alterationType) {
+        return new ProfiledCountQueries(
+            queryPlan.submit("getTotalProfiledCountsByAlterationType", () ->
+                alterationRepository.getTotalProfiledCountsByAlterationType(studyViewFilterContext,
+                    alterationType.toString())),
+            queryPlan.submit("getTotalProfiledCounts", () ->
+                alterationRepository.getTotalProfiledCounts(studyViewFilterContext, alterationType.toString(),
+                    getFirstMolecularProfileGroupedByStudy(studyViewFilterContext, alterationType))),
+            queryPlan.submit("getMatchingGenePanelIds", () ->
+                alterationRepository.getMatchingGenePanelIds(studyViewFilterContext, alterationType.toString())),
+            queryPlan.submit("getSampleProfileCountWithoutPanelData", () ->
+                alterationRepository.getSampleProfileCountWithoutPanelData(studyViewFilterContext,
+                    alterationType.toString()))
+        );
+    }
+
+    /**
+     * Populates alteration counts with profile data, including the total profiled count and matching gene panel IDs.
+     *
+     * @param alterationCounts     List of alteration counts to enrich.
+     * @param queryPlan            Plan the profiled count queries were submitted to.
+     * @param profiledCountQueries Queries for the profiled counts of the alteration type.
+     * @param <T>                  The type of alteration count.
      * @return List of enriched alteration counts.
+     * @throws StudyNotFoundException if the specified study is not found.
      */
     <T extends AlterationCountByGene> List<T> populateAlterationCounts(@NonNull List<T> alterationCounts,
-                                                                       @NonNull StudyViewFilterContext studyViewFilterContext,
-                                                                       @NonNull AlterationType alterationType) {
-        final var firstMolecularProfileForEachStudy = getFirstMolecularProfileGroupedByStudy(studyViewFilterContext,
-            alterationType);
-        final int totalProfiledCount = alterationRepository.getTotalProfiledCountsByAlterationType(studyViewFilterContext,
-            alterationType.toString());
-        var profiledCountsMap = alterationRepository.getTotalProfiledCounts(studyViewFilterContext, alterationType.toString(),
-            firstMolecularProfileForEachStudy);
-        final var matchingGenePanelIdsMap = alterationRepository.getMatchingGenePanelIds(studyViewFilterContext,
-            alterationType.toString());
+                                                                       @NonNull AlterationCountQueryPlan queryPlan,
+                                                                       @NonNull ProfiledCountQueries profiledCountQueries)
+        throws StudyNotFoundException {
+        final int totalProfiledCount = queryPlan.get(profiledCountQueries.totalProfiledCount());
+        final var profiledCountsMap = queryPlan.get(profiledCountQueries.profiledCounts());
+        final var matchingGenePanelIdsMap = queryPlan.get(profiledCountQueries.matchingGenePanelIds());
         final int sampleProfileCountWithoutGenePanelData =
-            alterationRepository.getSampleProfileCountWithoutPanelData(studyViewFilterContext, alterationType.toString());
+            queryPlan.get(profiledCountQueries.sampleProfileCountWithoutGenePanelData());
 
-        alterationCounts.parallelStream()
-            .forEach(alterationCountByGene -> {
+        ComputeExecutors.forEach(Workload.COUNTING, alterationCounts,
+            alterationCountByGene -> {
                 String hugoGeneSymbol = alterationCountByGene.getHugoGeneSymbol();
                 Set<String> matchingGenePanelIds = matchingGenePanelIdsMap.get(hugoGeneSymbol) != null ?
                     matchingGenePanelIdsMap.get(hugoGeneSymbol) : Collections.emptySet();
@@ -105,4 +144,12 @@ abstract class AbstractAlterationCountByGeneUseCase {
             .toList();
     }
 
+    /**
+     * The running queries for the profiled counts of an alteration type.
+     */
+    record ProfiledCountQueries(FutureTask<Integer> totalProfiledCount,
+                                FutureTask<Map<String, Integer>> profiledCounts,
+                                FutureTask<Map<String, Set<String>>> matchingGenePanelIds,
+                                FutureTask<Integer> sampleProfileCountWithoutGenePanelData) {
+    }
 }
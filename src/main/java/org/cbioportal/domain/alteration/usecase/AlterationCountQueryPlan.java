@@ -0,0 +1,168 @@
+package org.cbioportal.domain.alteration.usecase;
+
+import org.cbioportal.legacy.service.exception.StudyNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The independent repository queries of one alteration count request. Queries are started as soon as they are
+ * submitted and run concurrently on the async task executor; a query that no thread of the executor has started
+ * when its result is needed is run by the calling thread, so that requests never wait for queued queries of
+ * others. Closing the plan cancels the queries that are still running, e.g. after another one failed.
+ *
+ * A plan may limit the number of queries that run on the executor at once, further queries are started when
+ * earlier ones complete, and may have a deadline that all of its queries share. The deadline bounds the wait for
+ * queries run by the executor, not the queries the calling thread runs itself.
+ */
+final class AlterationCountQueryPlan implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AlterationCountQueryPlan.class);
+
+    private final AsyncTaskExecutor asyncTaskExecutor;
+    private final int maxConcurrentQueries;
+    private final long deadlineNanos;
+    private final List<FutureTask<?>> queries = new ArrayList<>();
+    private final Queue<QueryTask<?>> pendingQueries = new ArrayDeque<>();
+    private int runningQueries;
+
+    AlterationCountQueryPlan(AsyncTaskExecutor asyncTaskExecutor) {
+        this(asyncTaskExecutor, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * @param maxConcurrentQueries maximum number of queries run by the executor at once
+     * @param timeoutMillis        time within which all queries have to complete, no deadline if 0
+     */
+    AlterationCountQueryPlan(AsyncTaskExecutor asyncTaskExecutor, int maxConcurrentQueries, long timeoutMillis) {
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.maxConcurrentQueries = Math.max(1, maxConcurrentQueries);
+        this.deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+    }
+
+    /**
+     * Starts a query, or queues it if the maximum number of queries is running.
+     *
+     * @param name  name of the query, for the timing logged at debug level
+     * @param query the query
+     * @param <T>   the result type of the query
+     * @return the query, to be passed to {@link #get(FutureTask)}
+     */
+    <T> FutureTask<T> submit(String name, Callable<T> query) {
+        QueryTask<T> task = new QueryTask<>(name, query);
+        boolean start;
+        synchronized (this) {
+            queries.add(task);
+            start = runningQueries < maxConcurrentQueries;
+            if (start) {
+                task.started = true;
+                runningQueries++;
+            } else {
+                pendingQueries.add(task);
+            }
+        }
+        if (start) {
+            asyncTaskExecutor.execute(task);
+        }
+        return task;
+    }
+
+    private void completed(QueryTask<?> task) {
+        QueryTask<?> next;
+        synchronized (this) {
+            if (!task.started) {
+                // run by the calling thread or cancelled while pending
+                pendingQueries.remove(task);
+                return;
+            }
+            runningQueries--;
+            next = pendingQueries.poll();
+            if (next == null) {
+                return;
+            }
+            next.started = true;
+            runningQueries++;
+        }
+        asyncTaskExecutor.execute(next);
+    }
+
+    /**
+     * Waits for the result of a query and rethrows its exceptions.
+     */
+    <T> T get(FutureTask<T> query) throws StudyNotFoundException {
+        return get(query, StudyNotFoundException.class);
+    }
+
+    /**
+     * Waits for the result of a query and rethrows its exceptions.
+     *
+     * @param exceptionType the checked exception of the query that is rethrown as is
+     */
+    <T, E extends Exception> T get(FutureTask<T> query, Class<E> exceptionType) throws E {
+        // a no-op if the query has been started already
+        query.run();
+        try {
+            if (deadlineNanos == 0) {
+                return query.get();
+            }
+            return query.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted", e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Queries did not complete before the deadline", e);
+        } catch (ExecutionException e) {
+            if (exceptionType.isInstance(e.getCause())) {
+                throw exceptionType.cast(e.getCause());
+            }
+            switch (e.getCause()) {
+                case RuntimeException runtimeException -> throw runtimeException;
+                case Error error -> throw error;
+                default -> throw new RuntimeException("Unexpected exception during execution", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        List<FutureTask<?>> queriesToCancel;
+        synchronized (this) {
+            pendingQueries.clear();
+            queriesToCancel = new ArrayList<>(queries);
+        }
+        // a no-op for completed queries
+        queriesToCancel.forEach(query -> query.cancel(true));
+    }
+
+    private final class QueryTask<T> extends FutureTask<T> {
+
+        // handed to the executor, guarded by the plan
+        private boolean started;
+
+        private QueryTask(String name, Callable<T> query) {
+            super(() -> {
+                long start = System.nanoTime();
+                try {
+                    return query.call();
+                } finally {
+                    log.debug("{} took {} ms", name, (System.nanoTime() - start) / 1_000_000);
+                }
+            });
+        }
+
+        @Override
+        protected void done() {
+            completed(this);
+        }
+    }
+}
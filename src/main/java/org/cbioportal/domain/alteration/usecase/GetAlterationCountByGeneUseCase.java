@@ -9,13 +9,17 @@ import org.cbioportal.legacy.model.AlterationType;
 import org.cbioportal.legacy.model.MutSig;
 import org.cbioportal.legacy.service.SignificantlyMutatedGeneService;
 import org.cbioportal.legacy.service.exception.StudyNotFoundException;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
 import org.cbioportal.legacy.web.parameter.Projection;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -26,8 +30,8 @@ public class GetAlterationCountByGeneUseCase extends AbstractAlterationCountByGe
     private final GetFilteredStudyIdsUseCase getFilteredStudyIdsUseCase;
     private final SignificantlyMutatedGeneService significantlyMutatedGeneService;
 
-    public GetAlterationCountByGeneUseCase(AlterationRepository alterationRepository, GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType, GetFilteredStudyIdsUseCase getFilteredStudyIdsUseCase, SignificantlyMutatedGeneService significantlyMutatedGeneService) {
-        super(alterationRepository, getFilteredMolecularProfilesByAlterationType);
+    public GetAlterationCountByGeneUseCase(AlterationRepository alterationRepository, GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType, GetFilteredStudyIdsUseCase getFilteredStudyIdsUseCase, SignificantlyMutatedGeneService significantlyMutatedGeneService, AsyncTaskExecutor asyncTaskExecutor) {
+        super(alterationRepository, getFilteredMolecularProfilesByAlterationType, asyncTaskExecutor);
 
         this.alterationRepository = alterationRepository;
         this.getFilteredStudyIdsUseCase = getFilteredStudyIdsUseCase;
@@ -47,21 +51,26 @@ public class GetAlterationCountByGeneUseCase extends AbstractAlterationCountByGe
     public List<AlterationCountByGene> execute(StudyViewFilterContext studyViewFilterContext,
                                                AlterationType alterationType) throws StudyNotFoundException {
 
-        final List<AlterationCountByGene> alterationCountByGenes = switch (alterationType) {
-            case MUTATION_EXTENDED -> alterationRepository.getMutatedGenes(studyViewFilterContext);
-            case STRUCTURAL_VARIANT -> alterationRepository.getStructuralVariantGenes(studyViewFilterContext);
+        final Callable<List<AlterationCountByGene>> alterationCountByGenesQuery = switch (alterationType) {
+            case MUTATION_EXTENDED -> () -> alterationRepository.getMutatedGenes(studyViewFilterContext);
+            case STRUCTURAL_VARIANT -> () -> alterationRepository.getStructuralVariantGenes(studyViewFilterContext);
             default -> throw new UnsupportedOperationException("AlterationType " + alterationType + " not supported.." +
                 ". For cna... use GetCnaAlterationCountByGeneUseCase");
         };
 
-        var combinedAlterationCountByGenes =
-            combineAlterationCountsWithConflictingHugoSymbols(alterationCountByGenes);
+        // the queries are independent of each other and run concurrently
+        try (var queryPlan = newQueryPlan()) {
+            var alterationCountByGenes = queryPlan.submit("get" + alterationType + "Genes", alterationCountByGenesQuery);
+            var profiledCountQueries = submitProfiledCountQueries(queryPlan, studyViewFilterContext, alterationType);
+            var mutSigs = queryPlan.submit("getMutSigs", () -> getMutSigs(studyViewFilterContext));
 
-        return populateAlterationCountsWithMutSigQValue(
-            populateAlterationCounts(
-                combinedAlterationCountByGenes,
-                studyViewFilterContext, alterationType),
-            studyViewFilterContext);
+            var combinedAlterationCountByGenes =
+                combineAlterationCountsWithConflictingHugoSymbols(queryPlan.get(alterationCountByGenes));
+
+            return updateAlterationCountsWithMutSigQValue(
+                populateAlterationCounts(combinedAlterationCountByGenes, queryPlan, profiledCountQueries),
+                queryPlan.get(mutSigs));
+        }
     }
 
     /**
@@ -88,20 +97,6 @@ public class GetAlterationCountByGeneUseCase extends AbstractAlterationCountByGe
         return alterationCountByGeneMap.values().stream().toList();
     }
 
-    /**
-     * Updates alteration counts with MutSig Q-value data for significance.
-     *
-     * @param alterationCountByGenes List of alteration counts to update.
-     * @param studyViewFilterContext Context containing filter criteria.
-     * @return List of alteration counts updated with MutSig Q-value.
-     * @throws StudyNotFoundException if the specified study is not found.
-     */
-    private List<AlterationCountByGene> populateAlterationCountsWithMutSigQValue(List<AlterationCountByGene> alterationCountByGenes, StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
-        final var mutSigs = getMutSigs(studyViewFilterContext);
-        // If MutSig is not empty update Mutated Genes
-        return updateAlterationCountsWithMutSigQValue(alterationCountByGenes, mutSigs);
-    }
-
     /**
      * Retrieves MutSig data for significantly mutated genes in the specified studies.
      *
@@ -132,11 +127,11 @@ public class GetAlterationCountByGeneUseCase extends AbstractAlterationCountByGe
         Map<String, MutSig> mutSigs) {
 
         if (!mutSigs.isEmpty()) {
-            alterationCountByGenes.parallelStream()
-                .filter(alterationCount -> mutSigs.containsKey(alterationCount.getHugoGeneSymbol()))
-                .forEach(alterationCount ->
-                    alterationCount.setqValue(mutSigs.get(alterationCount.getHugoGeneSymbol()).getqValue())
-                );
+            ComputeExecutors.forEach(Workload.COUNTING, alterationCountByGenes, alterationCount -> {
+                if (mutSigs.containsKey(alterationCount.getHugoGeneSymbol())) {
+                    alterationCount.setqValue(mutSigs.get(alterationCount.getHugoGeneSymbol()).getqValue());
+                }
+            });
         }
         return alterationCountByGenes;
     }
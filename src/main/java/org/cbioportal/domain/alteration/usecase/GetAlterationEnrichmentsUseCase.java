@@ -7,7 +7,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.cbioportal.domain.alteration.repository.AlterationRepository;
@@ -20,8 +21,11 @@ import org.cbioportal.legacy.model.EnrichmentType;
 import org.cbioportal.legacy.model.MolecularProfile;
 import org.cbioportal.legacy.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.legacy.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.util.Pair;
@@ -39,80 +43,88 @@ public class GetAlterationEnrichmentsUseCase {
 
     private final AlterationRepository alterationRepository;
     private final AsyncTaskExecutor threadPoolTaskExecutor;
+    private final int maxConcurrentGroups;
+    private final long timeoutSeconds;
 
     public GetAlterationEnrichmentsUseCase(
         AlterationRepository alterationRepository,
-        AsyncTaskExecutor threadPoolTaskExecutor
+        AsyncTaskExecutor threadPoolTaskExecutor,
+        @Value("${comparison.alteration_enrichment.max_concurrent_groups:8}") int maxConcurrentGroups,
+        @Value("${comparison.alteration_enrichment.timeout_secs:0}") long timeoutSeconds
     ) {
         this.alterationRepository = alterationRepository;
         this.threadPoolTaskExecutor = threadPoolTaskExecutor;
+        this.maxConcurrentGroups = maxConcurrentGroups;
+        this.timeoutSeconds = timeoutSeconds;
     }
 
     public Collection<AlterationEnrichment> execute(
         Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseIdentifierByGroup,
         EnrichmentType enrichmentType,
         AlterationFilter alterationFilter
-    ) {
+    ) throws MolecularProfileNotFoundException {
         Map<String, AlterationEnrichment> alterationEnrichmentByGene = new HashMap<>();
 
-        List<Pair<String, List<AlterationCountByGene>>> results =
-            molecularProfileCaseIdentifierByGroup
-                .entrySet()
-                .stream()
-                .map(entry ->
-                    threadPoolTaskExecutor.submit(() ->
-                        this.fetchAlterationCountByGeneByGroup(
-                            entry.getKey(),
-                            entry.getValue(),
-                            enrichmentType,
-                            alterationFilter
+        // the groups are queried concurrently and share one deadline
+        try (
+            var queryPlan = new AlterationCountQueryPlan(
+                threadPoolTaskExecutor,
+                maxConcurrentGroups,
+                TimeUnit.SECONDS.toMillis(timeoutSeconds)
+            )
+        ) {
+            List<FutureTask<Pair<String, List<AlterationCountByGene>>>> groupQueries =
+                molecularProfileCaseIdentifierByGroup
+                    .entrySet()
+                    .stream()
+                    .map(entry ->
+                        queryPlan.submit("fetchAlterationCountByGeneByGroup " + entry.getKey(), () ->
+                            this.fetchAlterationCountByGeneByGroup(
+                                entry.getKey(),
+                                entry.getValue(),
+                                enrichmentType,
+                                alterationFilter
+                            )
                         )
                     )
-                )
-                .map(future -> {
-                    try {
-                        return future.get();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt(); // Always good to restore interrupted flag
-                        throw new RuntimeException("Thread was interrupted", e);
-                    } catch (ExecutionException e) {
-                        throw new RuntimeException("Unexpected exception during execution", e);
-                    }
-                })
-                .toList();
-
-        results.forEach(alterationCountByGeneAndGroup -> {
-            var alterationCountByGenes = alterationCountByGeneAndGroup.getSecond();
-            var group = alterationCountByGeneAndGroup.getFirst();
-
-            alterationCountByGenes.forEach(alterationCountByGene -> {
-                AlterationEnrichment alterationEnrichment = getOrCreateAlterationEnrichment(
-                    alterationEnrichmentByGene,
-                    alterationCountByGene
-                );
+                    .toList();
 
-                var countSummary = new CountSummary();
-                countSummary.setName(group);
-                countSummary.setAlteredCount(alterationCountByGene.getNumberOfAlteredCases());
-                countSummary.setProfiledCount(alterationCountByGene.getNumberOfProfiledCases());
-                alterationEnrichment.getCounts().add(countSummary);
-            });
-        });
+            for (var groupQuery : groupQueries) {
+                var alterationCountByGeneAndGroup = queryPlan.get(
+                    groupQuery,
+                    MolecularProfileNotFoundException.class
+                );
+                var alterationCountByGenes = alterationCountByGeneAndGroup.getSecond();
+                var group = alterationCountByGeneAndGroup.getFirst();
+
+                alterationCountByGenes.forEach(alterationCountByGene -> {
+                    AlterationEnrichment alterationEnrichment = getOrCreateAlterationEnrichment(
+                        alterationEnrichmentByGene,
+                        alterationCountByGene
+                    );
+
+                    var countSummary = new CountSummary();
+                    countSummary.setName(group);
+                    countSummary.setAlteredCount(alterationCountByGene.getNumberOfAlteredCases());
+                    countSummary.setProfiledCount(alterationCountByGene.getNumberOfProfiledCases());
+                    alterationEnrichment.getCounts().add(countSummary);
+                });
+            }
+        }
 
         var groups = molecularProfileCaseIdentifierByGroup.keySet();
 
-        return alterationEnrichmentByGene
-            .values()
-            .stream()
-            .map(alterationEnrichment -> {
-                addMissingCountsToAlterationEnrichment(alterationEnrichment, groups);
-                var pValue = AlterationEnrichmentScoreUtil.calculateEnrichmentScore(
-                    alterationEnrichment
-                );
-                alterationEnrichment.setpValue(pValue);
-                return alterationEnrichment;
-            })
-            .collect(Collectors.toSet());
+        List<AlterationEnrichment> alterationEnrichments = new ArrayList<>(
+            alterationEnrichmentByGene.values()
+        );
+        ComputeExecutors.forEach(Workload.STATISTICS, alterationEnrichments, alterationEnrichment -> {
+            addMissingCountsToAlterationEnrichment(alterationEnrichment, groups);
+            var pValue = AlterationEnrichmentScoreUtil.calculateEnrichmentScore(
+                alterationEnrichment
+            );
+            alterationEnrichment.setpValue(pValue);
+        });
+        return new HashSet<>(alterationEnrichments);
     }
 
     private Pair<String, List<AlterationCountByGene>> fetchAlterationCountByGeneByGroup(
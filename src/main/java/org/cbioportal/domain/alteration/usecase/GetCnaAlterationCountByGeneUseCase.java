@@ -11,8 +11,11 @@ import org.cbioportal.legacy.model.Gistic;
 import org.cbioportal.legacy.service.SignificantCopyNumberRegionService;
 import org.cbioportal.legacy.service.exception.StudyNotFoundException;
 import org.cbioportal.legacy.service.util.AlterationCountServiceUtil;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
 import org.cbioportal.legacy.web.parameter.Projection;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -28,8 +31,8 @@ public class GetCnaAlterationCountByGeneUseCase extends AbstractAlterationCountB
     private final SignificantCopyNumberRegionService significantCopyNumberRegionService;
 
     public GetCnaAlterationCountByGeneUseCase(AlterationRepository alterationRepository,
-                                              GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType, GetFilteredStudyIdsUseCase getFilteredStudyIdsUseCase, SignificantCopyNumberRegionService significantCopyNumberRegionService) {
-        super(alterationRepository, getFilteredMolecularProfilesByAlterationType);
+                                              GetFilteredMolecularProfilesByAlterationType getFilteredMolecularProfilesByAlterationType, GetFilteredStudyIdsUseCase getFilteredStudyIdsUseCase, SignificantCopyNumberRegionService significantCopyNumberRegionService, AsyncTaskExecutor asyncTaskExecutor) {
+        super(alterationRepository, getFilteredMolecularProfilesByAlterationType, asyncTaskExecutor);
 
         this.alterationRepository = alterationRepository;
         this.getFilteredStudyIdsUseCase = getFilteredStudyIdsUseCase;
@@ -44,12 +47,21 @@ public class GetCnaAlterationCountByGeneUseCase extends AbstractAlterationCountB
      * @throws StudyNotFoundException if the specified study is not found.
      */
     public List<CopyNumberCountByGene> execute(StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
-        var combinedCopyNumberCountByGene =
-            combineCopyNumberCountsWithConflictingHugoSymbols(alterationRepository.getCnaGenes(studyViewFilterContext));
-        return populateAlterationCountsWithCNASigQValue(
-            populateAlterationCounts(combinedCopyNumberCountByGene, studyViewFilterContext,
-                AlterationType.COPY_NUMBER_ALTERATION),
-            studyViewFilterContext);
+        // the queries are independent of each other and run concurrently
+        try (var queryPlan = newQueryPlan()) {
+            var copyNumberCountByGenes = queryPlan.submit("getCnaGenes",
+                () -> alterationRepository.getCnaGenes(studyViewFilterContext));
+            var profiledCountQueries = submitProfiledCountQueries(queryPlan, studyViewFilterContext,
+                AlterationType.COPY_NUMBER_ALTERATION);
+            var gisticMap = queryPlan.submit("getGisticMap", () -> getGisticMap(studyViewFilterContext));
+
+            var combinedCopyNumberCountByGene =
+                combineCopyNumberCountsWithConflictingHugoSymbols(queryPlan.get(copyNumberCountByGenes));
+
+            return updateAlterationCountsWithCNASigQValue(
+                populateAlterationCounts(combinedCopyNumberCountByGene, queryPlan, profiledCountQueries),
+                queryPlan.get(gisticMap));
+        }
     }
 
     /**
@@ -78,19 +90,6 @@ public class GetCnaAlterationCountByGeneUseCase extends AbstractAlterationCountB
         return alterationCountByGeneMap.values().stream().toList();
     }
 
-    /**
-     * Updates copy number alteration counts with GISTIC significance data.
-     *
-     * @param alterationCountByGenes List of alteration counts to update.
-     * @param studyViewFilterContext Context containing filter criteria.
-     * @return List of alteration counts updated with GISTIC significance data.
-     * @throws StudyNotFoundException if the specified study is not found.
-     */
-    private List<CopyNumberCountByGene> populateAlterationCountsWithCNASigQValue(List<CopyNumberCountByGene> alterationCountByGenes, StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
-        final var gisticMap = getGisticMap(studyViewFilterContext);
-        return updateAlterationCountsWithCNASigQValue(alterationCountByGenes, gisticMap);
-    }
-
     /**
      * Retrieves GISTIC data for significant copy number alterations in the specified studies.
      *
@@ -120,11 +119,12 @@ public class GetCnaAlterationCountByGeneUseCase extends AbstractAlterationCountB
         Map<Pair<String, Integer>, Gistic> gisticMap) {
 
         if (!gisticMap.isEmpty()) {
-            alterationCountByGenes.parallelStream()
-                .filter(alterationCount -> gisticMap.containsKey(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration())))
-                .forEach(alterationCount ->
-                    alterationCount.setqValue(gisticMap.get(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration())).getqValue())
-                );
+            ComputeExecutors.forEach(Workload.COUNTING, alterationCountByGenes, alterationCount -> {
+                Gistic gistic = gisticMap.get(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration()));
+                if (gistic != null) {
+                    alterationCount.setqValue(gistic.getqValue());
+                }
+            });
         }
         return alterationCountByGenes;
     }
@@ -0,0 +1,134 @@
+package org.cbioportal.domain.studyview;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import org.cbioportal.domain.sample.Sample;
+import org.cbioportal.legacy.persistence.util.SingleFlight;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.StudyViewFilterUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of the unique ids of the samples selected by a study view filter. One click in the study
+ * view sends the same filter to many endpoints; with this cache the filter is resolved to its samples once,
+ * and the queries of the other endpoints select the resolved samples instead of evaluating the filter again.
+ *
+ * Entries are keyed by a hash of the filter and expire after studyview.filtered_sample_cache.ttl_secs, or when
+ * the caches of the portal or of one of the queried studies are cleared through the cache service. The cache
+ * is disabled unless that property is set. Unfiltered queries are not cached here, the results of those are
+ * cached as a whole by {@link StudyViewService}.
+ */
+@Component
+@Profile("clickhouse")
+public class FilteredSampleIdsCache {
+    private static final Logger LOG = LoggerFactory.getLogger(FilteredSampleIdsCache.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    // SHA-256 truncated to 128 bits, like the keys of the Spring caches
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final int HASH_BYTES = 16;
+
+    private final StudyViewFilterUtil studyViewFilterUtil;
+    private final long ttlSeconds;
+    private final Cache<String, Entry> entries;
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    public FilteredSampleIdsCache(StudyViewFilterUtil studyViewFilterUtil,
+                                  @Value("${studyview.filtered_sample_cache.ttl_secs:0}") long ttlSeconds,
+                                  @Value("${studyview.filtered_sample_cache.max_sample_ids:1000000}") long maxSampleIds) {
+        this.studyViewFilterUtil = studyViewFilterUtil;
+        this.ttlSeconds = ttlSeconds;
+        this.entries = CacheBuilder.newBuilder()
+            .maximumWeight(maxSampleIds)
+            .weigher((String key, Entry entry) -> entry.sampleUniqueIds().size())
+            .expireAfterWrite(Math.max(ttlSeconds, 1), TimeUnit.SECONDS)
+            .build();
+    }
+
+    public boolean isEnabled() {
+        return ttlSeconds > 0;
+    }
+
+    /**
+     * Returns the context with the unique ids of the samples that the filter selects, or the context itself if
+     * the cache is disabled, the query is unfiltered or the filter selects no samples.
+     *
+     * @param filteredSamples evaluates the filter of a context, called once per filter and ttl
+     */
+    public StudyViewFilterContext resolve(StudyViewFilter studyViewFilter, StudyViewFilterContext context,
+                                          Function<StudyViewFilterContext, List<Sample>> filteredSamples) {
+        if (!isEnabled() || studyViewFilterUtil.isUnfilteredQuery(studyViewFilter)) {
+            return context;
+        }
+        String key;
+        try {
+            key = BaseEncoding.base16().lowerCase().encode(Arrays.copyOf(
+                HASH_FUNCTION.hashBytes(OBJECT_MAPPER.writeValueAsBytes(studyViewFilter)).asBytes(), HASH_BYTES));
+        } catch (IOException e) {
+            LOG.warn("Could not serialize study view filter, its samples are not cached: ", e);
+            return context;
+        }
+
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            try {
+                // concurrent requests with the same filter wait for one evaluation
+                entry = singleFlight.execute(key, () -> {
+                    Entry cached = entries.getIfPresent(key);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    Entry loaded = new Entry(Set.copyOf(studyViewFilter.getUniqueStudyIds()), toSampleUniqueIds(filteredSamples.apply(context)));
+                    entries.put(key, loaded);
+                    return loaded;
+                });
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not resolve the samples of a study view filter", e);
+            }
+        }
+        return entry.sampleUniqueIds().isEmpty() ? context : context.withResolvedSampleUniqueIds(entry.sampleUniqueIds());
+    }
+
+    /**
+     * Drops all entries, e.g. after the data of the portal changed.
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Drops the entries of all filters that query the study, e.g. after it was imported again.
+     */
+    public void invalidateStudy(String studyId) {
+        entries.asMap().values().removeIf(entry -> entry.studyIds().contains(studyId));
+    }
+
+    static List<String> toSampleUniqueIds(List<Sample> samples) {
+        return samples.stream()
+            .map(sample -> sample.cancerStudyIdentifier() + "_" + sample.stableId())
+            .toList();
+    }
+
+    long size() {
+        return entries.size();
+    }
+
+    private record Entry(Set<String> studyIds, List<String> sampleUniqueIds) {
+    }
+}
@@ -38,9 +38,20 @@ public record StudyViewFilterContext(
     List<MutationDataFilter> mutationDataFilters,
     List<CustomSampleIdentifier> customSampleIdentifiers,
     List<String> customDataFilterCancerStudies,
-    CategorizedGenericAssayDataCountFilter categorizedGenericAssayDataCountFilter
+    CategorizedGenericAssayDataCountFilter categorizedGenericAssayDataCountFilter,
+    // unique ids of the samples the filters select, when these have been resolved already
+    List<String> resolvedSampleUniqueIds
 ) {
 
+    public StudyViewFilterContext withResolvedSampleUniqueIds(List<String> resolvedSampleUniqueIds) {
+        return new StudyViewFilterContext(sampleIdentifiers, studyIds, clinicalDataFilters, geneFilters,
+            structuralVariantFilters, sampleTreatmentFilters, sampleTreatmentGroupFilters,
+            sampleTreatmentTargetFilters, patientTreatmentFilters, patientTreatmentGroupFilters,
+            patientTreatmentTargetFilters, genomicProfiles, genomicDataFilters, genericAssayDataFilters, caseLists,
+            customDataFilters, alterationFilter, clinicalEventFilters, mutationDataFilters, customSampleIdentifiers,
+            customDataFilterCancerStudies, categorizedGenericAssayDataCountFilter, resolvedSampleUniqueIds);
+    }
+
     public String[] filteredSampleIdentifiers() {
         if (sampleIdentifiers != null) {
             return sampleIdentifiers.stream()
@@ -51,6 +62,10 @@ public record StudyViewFilterContext(
         }
     }
 
+    public String[] resolvedSampleUniqueIdentifiers() {
+        return resolvedSampleUniqueIds == null ? null : resolvedSampleUniqueIds.toArray(String[]::new);
+    }
+
     public boolean isCategoricalClinicalDataFilter(ClinicalDataFilter clinicalDataFilter) {
         var filterValue = clinicalDataFilter.getValues().getFirst();
         return filterValue.getValue() != null;
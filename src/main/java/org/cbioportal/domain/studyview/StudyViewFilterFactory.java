@@ -59,6 +59,6 @@ public abstract class StudyViewFilterFactory {
             base.getGenomicProfiles(), base.getGenomicDataFilters(), base.getGenericAssayDataFilters(),
             base.getCaseLists(), base.getCustomDataFilters(), base.getAlterationFilter(),
             base.getClinicalEventFilters(), base.getMutationDataFilters(), customSampleIdentifiers,
-            involvedCancerStudies, categorizedGenericAssayDataCountFilter);
+            involvedCancerStudies, categorizedGenericAssayDataCountFilter, null);
     }
 }
@@ -31,6 +31,7 @@ import org.cbioportal.legacy.web.parameter.GenericAssayDataFilter;
 import org.cbioportal.legacy.web.parameter.GenomicDataBinFilter;
 import org.cbioportal.legacy.web.parameter.GenomicDataFilter;
 import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.StudyViewFilterUtil;
 import org.cbioportal.domain.patient.usecase.GetCaseListDataCountsUseCase;
 import org.cbioportal.domain.sample.Sample;
 import org.cbioportal.domain.sample.usecase.GetFilteredSamplesUseCase;
@@ -66,6 +67,8 @@ public class StudyViewService {
     private final GenomicDataUseCases genomicDataUseCases;
     private final GenericAssayUseCases genericAssayUseCases;
     private final CustomDataFilterUtil customDataFilterUtil;
+    private final FilteredSampleIdsCache filteredSampleIdsCache;
+    private final StudyViewFilterUtil studyViewFilterUtil;
 
     private Map<DataSource, List<MolecularProfile>> genericAssayProfilesMap = new EnumMap<>(DataSource.class);
 
@@ -79,7 +82,9 @@ public class StudyViewService {
                             GetClinicalAttributesDataTypeMapUseCase getClinicalAttributesDataTypeMapUseCase,
                             ClinicalDataUseCases clinicalDataUseCases,
                             GenomicDataUseCases genomicDataUseCases, GenericAssayUseCases genericAssayUseCases,
-                            CustomDataFilterUtil customDataFilterUtil) {
+                            CustomDataFilterUtil customDataFilterUtil,
+                            FilteredSampleIdsCache filteredSampleIdsCache,
+                            StudyViewFilterUtil studyViewFilterUtil) {
         this.getFilteredSamplesUseCase = getFilteredSamplesUseCase;
         this.alterationCountByGeneUseCase = alterationCountByGeneUseCase;
         this.clinicalDataUseCases = clinicalDataUseCases;
@@ -91,77 +96,86 @@ public class StudyViewService {
         this.getClinicalAttributesDataTypeMapUseCase = getClinicalAttributesDataTypeMapUseCase;
         this.genericAssayUseCases = genericAssayUseCases;
         this.customDataFilterUtil = customDataFilterUtil;
+        this.filteredSampleIdsCache = filteredSampleIdsCache;
+        this.studyViewFilterUtil = studyViewFilterUtil;
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<Sample> getFilteredSamples(StudyViewFilter studyViewFilter) {
-        return getFilteredSamplesUseCase.execute(buildStudyViewFilterContext(studyViewFilter));
+        return getFilteredSamples(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<AlterationCountByGene> getMutatedGenes(StudyViewFilter studyViewFilter) throws StudyNotFoundException {
-        return alterationCountByGeneUseCase.getAlterationCountByGeneUseCase()
-            .execute(buildStudyViewFilterContext(studyViewFilter), AlterationType.MUTATION_EXTENDED);
+        return getMutatedGenes(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<CopyNumberCountByGene> getCnaGenes(StudyViewFilter studyViewFilter) throws StudyNotFoundException {
-        return alterationCountByGeneUseCase.getCnaAlterationCountByGeneUseCase().execute(buildStudyViewFilterContext(studyViewFilter));
+        return getCnaGenes(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<AlterationCountByGene> getStructuralVariantGenes(StudyViewFilter studyViewFilter) throws StudyNotFoundException {
-        return alterationCountByGeneUseCase.getAlterationCountByGeneUseCase()
-            .execute(buildStudyViewFilterContext(studyViewFilter), AlterationType.STRUCTURAL_VARIANT);
+        return getStructuralVariantGenes(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<GenomicDataCount> getMolecularProfileSampleCounts(StudyViewFilter studyViewFilter) throws StudyNotFoundException {
-        return genomicDataUseCases.getMolecularProfileSampleCountsUseCase().execute(buildStudyViewFilterContext(studyViewFilter));
+        return getMolecularProfileSampleCounts(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalEventTypeCount> getClinicalEventTypeCounts(StudyViewFilter studyViewFilter) {
-        return getClinicalEventTypeCountsUseCase.execute(buildStudyViewFilterContext(studyViewFilter));
+        return getClinicalEventTypeCounts(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public PatientTreatmentReport getPatientTreatmentReport(StudyViewFilter studyViewFilter) {
-        return treatmentCountReportUseCases.getPatientTreatmentReportUseCase().execute(buildStudyViewFilterContext(studyViewFilter));
+        return getPatientTreatmentReport(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public SampleTreatmentReport getSampleTreatmentReport(StudyViewFilter studyViewFilter) {
-        return treatmentCountReportUseCases.getSampleTreatmentReportUseCase().execute(buildStudyViewFilterContext(studyViewFilter));
+        return getSampleTreatmentReport(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalDataCountItem> getGenomicDataBinCounts(StudyViewFilter studyViewFilter,
                                                                List<GenomicDataBinFilter> genomicDataBinFilters) {
@@ -170,7 +184,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalDataCountItem> getGenericAssayDataBinCounts(StudyViewFilter studyViewFilter,
                                                                     List<GenericAssayDataBinFilter> genericAssayDataBinFilters) {
@@ -179,7 +194,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public Map<String, ClinicalDataType> getClinicalAttributeDataTypeMap(StudyViewFilter studyViewFilter) {
         return getClinicalAttributesDataTypeMapUseCase.execute();
@@ -187,17 +203,18 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalDataCountItem> getClinicalDataCounts(StudyViewFilter studyViewFilter,
                                                              List<String> filteredAttributes) {
-        return clinicalDataUseCases.getClinicalDataCountsUseCase().execute(buildStudyViewFilterContext(studyViewFilter)
-            , filteredAttributes);
+        return getClinicalDataCounts(buildStudyViewFilterContext(studyViewFilter), filteredAttributes);
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalAttribute> getClinicalAttributesForStudies(List<String> studyIds) {
         return getClinicalAttributesForStudiesUseCase.execute(studyIds);
@@ -205,15 +222,17 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<CaseListDataCount> getCaseListDataCounts(StudyViewFilter studyViewFilter) {
-        return StudyViewColumnarServiceUtil.mergeCaseListCounts(getCaseListDataCountsUseCase.execute(buildStudyViewFilterContext(studyViewFilter)));
+        return getCaseListDataCounts(buildStudyViewFilterContext(studyViewFilter));
     }
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalData> getPatientClinicalData(StudyViewFilter studyViewFilter, List<String> attributeIds) {
         return clinicalDataUseCases.getPatientClinicalDataUseCase().execute(buildStudyViewFilterContext(studyViewFilter), attributeIds);
@@ -221,7 +240,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalData> getSampleClinicalData(StudyViewFilter studyViewFilter, List<String> attributeIds) {
         return clinicalDataUseCases.getSampleClinicalDataUseCase().execute(buildStudyViewFilterContext(studyViewFilter), attributeIds);
@@ -229,7 +249,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<GenomicDataCountItem> getCNACountsByGeneSpecific(StudyViewFilter studyViewFilter,
                                                                  List<GenomicDataFilter> genomicDataFilters) {
@@ -238,7 +259,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<GenericAssayDataCountItem> getGenericAssayDataCounts(StudyViewFilter studyViewFilter,
                                                                      List<GenericAssayDataFilter> genericAssayDataFilters) {
@@ -247,7 +269,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<GenomicDataCountItem> getMutationCountsByGeneSpecific(StudyViewFilter studyViewFilter,
                                                                       List<GenomicDataFilter> genomicDataFilters) {
@@ -262,7 +285,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<GenomicDataCountItem> getMutationTypeCountsByGeneSpecific(StudyViewFilter studyViewFilter,
                                                                           List<GenomicDataFilter> genomicDataFilters) {
@@ -271,7 +295,8 @@ public class StudyViewService {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)"
+        condition = "@cacheEnabledConfig.getEnabledClickhouse() && @studyViewFilterUtil.isUnfilteredQuery(#studyViewFilter)",
+        sync = true
     )
     public List<ClinicalData> getClinicalDataForXyPlot(StudyViewFilter studyViewFilter, List<String> attributeIds,
                                                        boolean shouldFilterNonEmptyClinicalData) {
@@ -279,8 +304,73 @@ public class StudyViewService {
             shouldFilterNonEmptyClinicalData);
     }
 
+    /**
+     * Builds the context of a filter with the samples that the filter selects, so that the queries of many charts
+     * of one filter select these samples instead of each evaluating the filter. The context is passed to the
+     * methods below, which do not use the result caches of the methods that take the filter.
+     */
+    public StudyViewFilterContext resolveStudyViewFilterContext(StudyViewFilter studyViewFilter) {
+        StudyViewFilterContext studyViewFilterContext = buildStudyViewFilterContext(studyViewFilter);
+        if (studyViewFilterContext.resolvedSampleUniqueIds() != null
+            || studyViewFilterUtil.isUnfilteredQuery(studyViewFilter)) {
+            return studyViewFilterContext;
+        }
+        List<String> sampleUniqueIds =
+            FilteredSampleIdsCache.toSampleUniqueIds(getFilteredSamplesUseCase.execute(studyViewFilterContext));
+        return sampleUniqueIds.isEmpty()
+            ? studyViewFilterContext
+            : studyViewFilterContext.withResolvedSampleUniqueIds(sampleUniqueIds);
+    }
+
+    public List<Sample> getFilteredSamples(StudyViewFilterContext studyViewFilterContext) {
+        return getFilteredSamplesUseCase.execute(studyViewFilterContext);
+    }
+
+    public List<AlterationCountByGene> getMutatedGenes(StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
+        return alterationCountByGeneUseCase.getAlterationCountByGeneUseCase()
+            .execute(studyViewFilterContext, AlterationType.MUTATION_EXTENDED);
+    }
+
+    public List<CopyNumberCountByGene> getCnaGenes(StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
+        return alterationCountByGeneUseCase.getCnaAlterationCountByGeneUseCase().execute(studyViewFilterContext);
+    }
+
+    public List<AlterationCountByGene> getStructuralVariantGenes(StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
+        return alterationCountByGeneUseCase.getAlterationCountByGeneUseCase()
+            .execute(studyViewFilterContext, AlterationType.STRUCTURAL_VARIANT);
+    }
+
+    public List<GenomicDataCount> getMolecularProfileSampleCounts(StudyViewFilterContext studyViewFilterContext) throws StudyNotFoundException {
+        return genomicDataUseCases.getMolecularProfileSampleCountsUseCase().execute(studyViewFilterContext);
+    }
+
+    public List<ClinicalEventTypeCount> getClinicalEventTypeCounts(StudyViewFilterContext studyViewFilterContext) {
+        return getClinicalEventTypeCountsUseCase.execute(studyViewFilterContext);
+    }
+
+    public PatientTreatmentReport getPatientTreatmentReport(StudyViewFilterContext studyViewFilterContext) {
+        return treatmentCountReportUseCases.getPatientTreatmentReportUseCase().execute(studyViewFilterContext);
+    }
+
+    public SampleTreatmentReport getSampleTreatmentReport(StudyViewFilterContext studyViewFilterContext) {
+        return treatmentCountReportUseCases.getSampleTreatmentReportUseCase().execute(studyViewFilterContext);
+    }
+
+    public List<ClinicalDataCountItem> getClinicalDataCounts(StudyViewFilterContext studyViewFilterContext,
+                                                             List<String> filteredAttributes) {
+        return clinicalDataUseCases.getClinicalDataCountsUseCase().execute(studyViewFilterContext, filteredAttributes);
+    }
+
+    public List<CaseListDataCount> getCaseListDataCounts(StudyViewFilterContext studyViewFilterContext) {
+        return StudyViewColumnarServiceUtil.mergeCaseListCounts(getCaseListDataCountsUseCase.execute(studyViewFilterContext));
+    }
+
     private StudyViewFilterContext buildStudyViewFilterContext(StudyViewFilter studyViewFilter) {
-        return StudyViewFilterFactory.make(studyViewFilter, this.customDataFilterUtil, getGenericAssayProfilesMap());
+        StudyViewFilterContext studyViewFilterContext =
+            StudyViewFilterFactory.make(studyViewFilter, this.customDataFilterUtil, getGenericAssayProfilesMap());
+        // the samples of a filter are resolved once and shared by the queries of all study view endpoints
+        return filteredSampleIdsCache.resolve(studyViewFilter, studyViewFilterContext,
+            getFilteredSamplesUseCase::execute);
     }
 
     private Map<DataSource, List<MolecularProfile>> getGenericAssayProfilesMap() {
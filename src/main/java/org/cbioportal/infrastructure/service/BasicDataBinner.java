@@ -1,7 +1,6 @@
 package org.cbioportal.infrastructure.service;
 
 import org.cbioportal.legacy.model.Binnable;
-import org.cbioportal.legacy.model.ClinicalData;
 import org.cbioportal.legacy.model.ClinicalDataBin;
 import org.cbioportal.legacy.model.ClinicalDataCount;
 import org.cbioportal.legacy.model.ClinicalDataCountItem;
@@ -9,6 +8,7 @@ import org.cbioportal.legacy.model.DataBin;
 import org.cbioportal.legacy.model.GenericAssayDataBin;
 import org.cbioportal.legacy.model.GenomicDataBin;
 import org.cbioportal.legacy.service.CustomDataService;
+import org.cbioportal.legacy.service.util.BinnableClinicalDataCount;
 import org.cbioportal.legacy.service.util.CustomDataSession;
 import org.cbioportal.legacy.web.columnar.util.CustomDataFilterUtil;
 import org.cbioportal.legacy.web.columnar.util.NewClinicalDataBinUtil;
@@ -33,7 +33,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -73,11 +72,12 @@ public class BasicDataBinner {
     }
 
     // convert from counts to clinical data
-    private List<ClinicalData> convertCountsToData(List<ClinicalDataCount> clinicalDataCounts) {
+    // each count is binned as a single weighted value instead of one clinical data per sample
+    private List<Binnable> convertCountsToData(List<ClinicalDataCount> clinicalDataCounts) {
         return clinicalDataCounts
             .stream()
-            .map(NewClinicalDataBinUtil::generateClinicalDataFromClinicalDataCount)
-            .flatMap(Collection::stream)
+            .filter(dataCount -> dataCount.getCount() > 0)
+            .<Binnable>map(BinnableClinicalDataCount::new)
             .toList();
     }
 
@@ -164,10 +164,10 @@ public class BasicDataBinner {
         }
 
         // TODO ignoring conflictingPatientAttributeIds for now
-        List<ClinicalData> unfilteredClinicalData = convertCountsToData(
+        List<Binnable> unfilteredClinicalData = convertCountsToData(
             unfilteredClinicalDataCounts.stream().flatMap(c -> c.getCounts().stream()).toList()
         );
-        List<ClinicalData> filteredClinicalData = convertCountsToData(
+        List<Binnable> filteredClinicalData = convertCountsToData(
             filteredClinicalDataCounts.stream().flatMap(c -> c.getCounts().stream()).toList()
         );
 
@@ -1,10 +1,10 @@
 package org.cbioportal.infrastructure.service;
 
 import org.cbioportal.legacy.model.Binnable;
-import org.cbioportal.legacy.model.ClinicalData;
 import org.cbioportal.legacy.model.ClinicalDataBin;
 import org.cbioportal.legacy.model.ClinicalDataCount;
 import org.cbioportal.legacy.model.ClinicalDataCountItem;
+import org.cbioportal.legacy.service.util.BinnableClinicalDataCount;
 import org.cbioportal.legacy.web.columnar.util.NewClinicalDataBinUtil;
 import org.cbioportal.legacy.web.parameter.ClinicalDataBinCountFilter;
 import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
@@ -12,13 +12,13 @@ import org.cbioportal.legacy.web.parameter.ClinicalDataType;
 import org.cbioportal.legacy.web.parameter.DataBinMethod;
 import org.cbioportal.legacy.web.parameter.StudyViewFilter;
 import org.cbioportal.legacy.web.util.DataBinner;
+import org.cbioportal.domain.studyview.StudyViewFilterContext;
 import org.cbioportal.domain.studyview.StudyViewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -40,11 +40,12 @@ public class ClinicalDataBinner {
         this.dataBinner = dataBinner;
     }
 
-    private List<ClinicalData> convertCountsToData(List<ClinicalDataCount> clinicalDataCounts) {
+    // each count is binned as a single weighted value instead of one clinical data per sample
+    private List<Binnable> convertCountsToData(List<ClinicalDataCount> clinicalDataCounts) {
         return clinicalDataCounts
             .stream()
-            .map(NewClinicalDataBinUtil::generateClinicalDataFromClinicalDataCount)
-            .flatMap(Collection::stream)
+            .filter(dataCount -> dataCount.getCount() > 0)
+            .<Binnable>map(BinnableClinicalDataCount::new)
             .toList();
     }
 
@@ -64,6 +65,33 @@ public class ClinicalDataBinner {
             studyViewFilter = NewClinicalDataBinUtil.removeSelfFromFilter(dataBinCountFilter);
         }
 
+        List<String> attributeIds = attributes.stream().map(ClinicalDataBinFilter::getAttributeId).toList();
+        return binClinicalDataCounts(dataBinMethod, attributes, studyViewFilter,
+            studyViewService.getClinicalDataCounts(studyViewFilter, attributeIds));
+    }
+
+    /**
+     * Same as {@link #fetchClinicalDataBinCounts(DataBinMethod, ClinicalDataBinCountFilter, boolean)}, with the
+     * filtered counts taken from the samples of the resolved context of the study view filter. The filter of the
+     * bin count filter must not have a clinical data filter on the binned attribute, as it is not removed.
+     */
+    public List<ClinicalDataBin> fetchClinicalDataBinCounts(
+        DataBinMethod dataBinMethod,
+        ClinicalDataBinCountFilter dataBinCountFilter,
+        StudyViewFilterContext studyViewFilterContext
+    ) {
+        List<ClinicalDataBinFilter> attributes = dataBinCountFilter.getAttributes();
+        List<String> attributeIds = attributes.stream().map(ClinicalDataBinFilter::getAttributeId).toList();
+        return binClinicalDataCounts(dataBinMethod, attributes, dataBinCountFilter.getStudyViewFilter(),
+            studyViewService.getClinicalDataCounts(studyViewFilterContext, attributeIds));
+    }
+
+    private List<ClinicalDataBin> binClinicalDataCounts(
+        DataBinMethod dataBinMethod,
+        List<ClinicalDataBinFilter> attributes,
+        StudyViewFilter studyViewFilter,
+        List<ClinicalDataCountItem> filteredClinicalDataCounts
+    ) {
         List<String> attributeIds = attributes.stream().map(ClinicalDataBinFilter::getAttributeId).toList();
 
         // a new StudyView filter to partially filter by study and sample ids only
@@ -80,13 +108,12 @@ public class ClinicalDataBinner {
         // we need the clinical data for the partial filter in order to generate the bins for initial state
         // we use the filtered data to calculate the counts for each bin, we do not regenerate bins for the filtered data
         List<ClinicalDataCountItem> unfilteredClinicalDataCounts = studyViewService.getClinicalDataCounts(partialFilter, attributeIds);
-        List<ClinicalDataCountItem> filteredClinicalDataCounts = studyViewService.getClinicalDataCounts(studyViewFilter, attributeIds);
 
         // TODO ignoring conflictingPatientAttributeIds for now
-        List<ClinicalData> unfilteredClinicalData = convertCountsToData(
+        List<Binnable> unfilteredClinicalData = convertCountsToData(
             unfilteredClinicalDataCounts.stream().flatMap(c -> c.getCounts().stream()).toList()
         );
-        List<ClinicalData> filteredClinicalData = convertCountsToData(
+        List<Binnable> filteredClinicalData = convertCountsToData(
             filteredClinicalDataCounts.stream().flatMap(c -> c.getCounts().stream()).toList()
         );
 
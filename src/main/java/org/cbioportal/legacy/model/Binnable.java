@@ -1,5 +1,7 @@
 package org.cbioportal.legacy.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Data that can be binned, clinical or custom
  */
@@ -10,4 +12,12 @@ public interface Binnable {
     String getPatientId();
     String getStudyId();
     Boolean isPatientAttribute();
-}
\ No newline at end of file
+
+    /**
+     * Number of samples or patients the datum stands for, more than one for aggregated data.
+     */
+    @JsonIgnore
+    default int getCount() {
+        return 1;
+    }
+}
@@ -16,6 +16,15 @@ public abstract class MolecularAlteration implements Serializable {
         this.values = values;
     }
 
+    /**
+     * Returns the values for all samples as stored, comma (,) separated.
+     *
+     * @return string with list of values
+     */
+    public String getValues() {
+        return values;
+    }
+
     /**
      * Returns the values attribute split on (,).
      * 
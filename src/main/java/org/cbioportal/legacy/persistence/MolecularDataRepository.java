@@ -31,6 +31,9 @@ public interface MolecularDataRepository {
     // entrezGeneIds is null or empty AND projection is "SUMMARY"
     Iterable<GeneMolecularAlteration> getGeneMolecularAlterationsIterableFast(String molecularProfileId);
 
+    // Number of genetic_alteration records of the profile
+    int getMolecularAlterationCount(String molecularProfileId);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<GeneMolecularAlteration> getGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds,
                                                                                          List<Integer> entrezGeneIds,
@@ -76,4 +76,31 @@ public class CacheMapBuilder {
         LOG.debug("  cancer study map size: " + cancerStudyMap.size());
         return cancerStudyMap;
     }
+
+    public Map<String, MolecularProfile> buildMolecularProfileMap(String studyId) {
+        return molecularProfileRepository.getAllMolecularProfilesInStudy(
+            studyId,
+            "SUMMARY",
+            REPOSITORY_RESULT_LIMIT,
+            REPOSITORY_RESULT_OFFSET,
+            null,
+            "ASC").stream()
+            .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
+    }
+
+    public Map<String, SampleList> buildSampleListMap(String studyId) {
+        return sampleListRepository.getAllSampleListsInStudies(
+            List.of(studyId),
+            "SUMMARY",
+            REPOSITORY_RESULT_LIMIT,
+            REPOSITORY_RESULT_OFFSET,
+            null,
+            "ASC").stream()
+            .collect(Collectors.toMap(SampleList::getStableId, Function.identity()));
+    }
+
+    public Map<String, CancerStudy> buildCancerStudyMap(String studyId) {
+        CancerStudy cancerStudy = studyRepository.getStudy(studyId, "SUMMARY");
+        return cancerStudy == null ? Map.of() : Map.of(cancerStudy.getCancerStudyIdentifier(), cancerStudy);
+    }
 }
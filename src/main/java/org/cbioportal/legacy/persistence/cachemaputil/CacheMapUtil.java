@@ -15,4 +15,11 @@ public interface CacheMapUtil {
     
     boolean hasCacheEnabled();
 
+    /**
+     * @return the authorization index of the cancer study map, or null if it is not precomputed
+     */
+    default CancerStudyAuthorizationIndex getCancerStudyAuthorizationIndex() {
+        return null;
+    }
+
 }
@@ -0,0 +1,120 @@
+package org.cbioportal.legacy.persistence.cachemaputil;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.cbioportal.legacy.model.CancerStudy;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Precomputed authorization data of the cancer study map of a {@link CacheMapUtil}. Every study gets a bit, and
+ * the studies granted by a group, by a study id and by the 'all_tcga' and 'all_nci_target' authorities are kept
+ * as bitsets, so that the studies a set of granted authorities gives access to are the union of a few bitsets.
+ * The accessible studies of each set of granted authorities are memoized until the index is replaced by a rebuild
+ * of the cache maps.
+ *
+ * The rules are those of CancerStudyPermissionEvaluator: granted authorities are upper case, groups of studies
+ * are matched as they are.
+ */
+public final class CancerStudyAuthorizationIndex {
+
+    private static final String ALL_CANCER_STUDIES_ID = "ALL";
+    private static final String ALL_TCGA_CANCER_STUDIES_ID = "ALL_TCGA";
+    private static final String ALL_TARGET_CANCER_STUDIES_ID = "ALL_NCI_TARGET";
+    private static final int MAX_MEMOIZED_AUTHORITY_SETS = 10000;
+
+    private final Map<String, Integer> studyIndexes = new HashMap<>();
+    private final Map<String, BitSet> studiesByGroup = new HashMap<>();
+    // studies by upper case study id, for authorities that name a single study
+    private final Map<String, BitSet> studiesByAuthorityId = new HashMap<>();
+    private final BitSet allStudies = new BitSet();
+    private final BitSet tcgaStudies = new BitSet();
+    private final BitSet targetStudies = new BitSet();
+    private final Cache<Set<String>, BitSet> accessibleStudiesByAuthorities = CacheBuilder.newBuilder()
+        .maximumSize(MAX_MEMOIZED_AUTHORITY_SETS)
+        .build();
+
+    public CancerStudyAuthorizationIndex(Map<String, CancerStudy> cancerStudyMap) {
+        for (CancerStudy cancerStudy : cancerStudyMap.values()) {
+            int index = studyIndexes.size();
+            String stableStudyId = cancerStudy.getCancerStudyIdentifier();
+            String upperCaseStudyId = stableStudyId.toUpperCase();
+            studyIndexes.put(stableStudyId, index);
+            allStudies.set(index);
+            studiesByAuthorityId.computeIfAbsent(upperCaseStudyId, id -> new BitSet()).set(index);
+            if (upperCaseStudyId.endsWith("_TCGA")) {
+                tcgaStudies.set(index);
+            }
+            if (upperCaseStudyId.endsWith("_TARGET")
+                || upperCaseStudyId.equals("ALL_TARGET_PHASE1")
+                || upperCaseStudyId.equals("ALL_TARGET_PHASE2")) {
+                targetStudies.set(index);
+            }
+            if (cancerStudy.getGroups() != null) {
+                for (String group : cancerStudy.getGroups().split(";")) {
+                    // empty groups must not match empty authorities
+                    if (!group.isEmpty()) {
+                        studiesByGroup.computeIfAbsent(group, g -> new BitSet()).set(index);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean containsCancerStudy(String cancerStudyId) {
+        return studyIndexes.containsKey(cancerStudyId);
+    }
+
+    /**
+     * Checks whether the granted authorities give access to all of the given studies.
+     *
+     * @param grantedAuthorities upper case authorities of the user, including the public study group
+     * @param cancerStudyIds stable ids of the studies, all of which are in the index
+     */
+    public boolean hasAccessToCancerStudies(Set<String> grantedAuthorities, Collection<String> cancerStudyIds) {
+        BitSet requestedStudies = new BitSet(studyIndexes.size());
+        for (String cancerStudyId : cancerStudyIds) {
+            requestedStudies.set(studyIndexes.get(cancerStudyId));
+        }
+        requestedStudies.andNot(getAccessibleStudies(grantedAuthorities));
+        return requestedStudies.isEmpty();
+    }
+
+    private BitSet getAccessibleStudies(Set<String> grantedAuthorities) {
+        try {
+            return accessibleStudiesByAuthorities.get(Set.copyOf(grantedAuthorities),
+                () -> computeAccessibleStudies(grantedAuthorities));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not compute the accessible studies", e.getCause());
+        }
+    }
+
+    private BitSet computeAccessibleStudies(Set<String> grantedAuthorities) {
+        if (grantedAuthorities.contains(ALL_CANCER_STUDIES_ID)) {
+            return allStudies;
+        }
+        BitSet accessibleStudies = new BitSet(studyIndexes.size());
+        if (grantedAuthorities.contains(ALL_TCGA_CANCER_STUDIES_ID)) {
+            accessibleStudies.or(tcgaStudies);
+        }
+        if (grantedAuthorities.contains(ALL_TARGET_CANCER_STUDIES_ID)) {
+            accessibleStudies.or(targetStudies);
+        }
+        for (String authority : grantedAuthorities) {
+            BitSet groupStudies = studiesByGroup.get(authority);
+            if (groupStudies != null) {
+                accessibleStudies.or(groupStudies);
+            }
+            BitSet authorityStudies = studiesByAuthorityId.get(authority);
+            if (authorityStudies != null) {
+                accessibleStudies.or(authorityStudies);
+            }
+        }
+        return accessibleStudies;
+    }
+}
@@ -43,7 +43,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 @Component
 // Instantiate when user authorization is active and spring-managed implementation is not needed
@@ -60,40 +62,87 @@ public class StaticRefCacheMapUtil implements CacheMapUtil {
     // not defer to any Spring managed caching solution.
 
     // maps used to cache required relationships - in all maps stable ids are key
-    // Fields are static because the proxying mechanism of the CancerStudyPermissionEvaluator
+    // Field is static because the proxying mechanism of the CancerStudyPermissionEvaluator
     // appears to perturb the Singleton scope of the CacheMapUtils bean. When debugging
     // two version appeared to exist in context. A mechanism with bean injection did not work here.
-    static Map<String, MolecularProfile> molecularProfileCache;
-    static Map<String, SampleList> sampleListCache;
-    static Map<String, CancerStudy> cancerStudyCache;
+    // The maps are never modified, a refresh replaces the whole snapshot, so readers need no lock and
+    // always see maps of the same version.
+    static volatile Snapshot snapshot;
+
+    record Snapshot(long version,
+                    Map<String, MolecularProfile> molecularProfiles,
+                    Map<String, SampleList> sampleLists,
+                    Map<String, CancerStudy> cancerStudies,
+                    CancerStudyAuthorizationIndex cancerStudyAuthorizationIndex) {
+    }
 
     @PostConstruct
     private void init() {
         initializeCacheMemory();
     }
 
+    /**
+     * Rebuilds all maps.
+     */
     public synchronized void initializeCacheMemory() {
         LOG.debug("creating cache maps for authorization");
-        molecularProfileCache = cacheMapBuilder.buildMolecularProfileMap();
-        sampleListCache = cacheMapBuilder.buildSampleListMap();
-        cancerStudyCache = cacheMapBuilder.buildCancerStudyMap();
+        Snapshot current = snapshot;
+        Map<String, MolecularProfile> molecularProfiles = Map.copyOf(cacheMapBuilder.buildMolecularProfileMap());
+        Map<String, SampleList> sampleLists = Map.copyOf(cacheMapBuilder.buildSampleListMap());
+        Map<String, CancerStudy> cancerStudies = Map.copyOf(cacheMapBuilder.buildCancerStudyMap());
+        snapshot = new Snapshot(current == null ? 1 : current.version() + 1, molecularProfiles, sampleLists,
+            cancerStudies, new CancerStudyAuthorizationIndex(cancerStudies));
+    }
+
+    /**
+     * Reloads the molecular profiles, sample lists and cancer study of one study, e.g. after it was imported,
+     * updated or deleted, and keeps the entries of all other studies.
+     */
+    public synchronized void refreshCancerStudy(String studyId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            initializeCacheMemory();
+            return;
+        }
+        LOG.debug("refreshing cache maps for authorization of study " + studyId);
+        Map<String, MolecularProfile> molecularProfiles = replaceStudyEntries(current.molecularProfiles(),
+            MolecularProfile::getCancerStudyIdentifier, studyId, cacheMapBuilder.buildMolecularProfileMap(studyId));
+        Map<String, SampleList> sampleLists = replaceStudyEntries(current.sampleLists(),
+            SampleList::getCancerStudyIdentifier, studyId, cacheMapBuilder.buildSampleListMap(studyId));
+        Map<String, CancerStudy> cancerStudies = replaceStudyEntries(current.cancerStudies(),
+            CancerStudy::getCancerStudyIdentifier, studyId, cacheMapBuilder.buildCancerStudyMap(studyId));
+        snapshot = new Snapshot(current.version() + 1, molecularProfiles, sampleLists, cancerStudies,
+            new CancerStudyAuthorizationIndex(cancerStudies));
+    }
+
+    private static <T> Map<String, T> replaceStudyEntries(Map<String, T> entries, Function<T, String> getStudyId,
+                                                          String studyId, Map<String, T> studyEntries) {
+        Map<String, T> updatedEntries = new HashMap<>(entries);
+        updatedEntries.values().removeIf(entry -> studyId.equals(getStudyId.apply(entry)));
+        updatedEntries.putAll(studyEntries);
+        return Map.copyOf(updatedEntries);
     }
 
     @Override
     public Map<String, MolecularProfile> getMolecularProfileMap() {
-        return molecularProfileCache;
+        return snapshot.molecularProfiles();
     }
 
     @Override
     public Map<String, SampleList> getSampleListMap() {
-        return sampleListCache;
+        return snapshot.sampleLists();
     }
 
     @Override
     public Map<String, CancerStudy> getCancerStudyMap() {
-        return cancerStudyCache;
+        return snapshot.cancerStudies();
     }
-    
+
+    @Override
+    public CancerStudyAuthorizationIndex getCancerStudyAuthorizationIndex() {
+        return snapshot.cancerStudyAuthorizationIndex();
+    }
+
     @Override
     public boolean hasCacheEnabled() {
         return true;
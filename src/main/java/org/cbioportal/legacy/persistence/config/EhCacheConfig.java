@@ -2,7 +2,9 @@ package org.cbioportal.legacy.persistence.config;
 
 import org.cbioportal.legacy.persistence.util.CustomEhcachingProvider;
 import org.cbioportal.legacy.persistence.util.CustomKeyGenerator;
+import org.cbioportal.legacy.persistence.util.SingleFlightCacheDecorator;
 import org.cbioportal.legacy.utils.config.annotation.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
@@ -22,7 +24,13 @@ public class EhCacheConfig extends CachingConfigurerSupport {
     public CacheManager cacheManager() {
         return new JCacheCacheManager(
             customEhcachingProvider().getCacheManager()
-        );
+        ) {
+            @Override
+            protected Cache decorateCache(Cache cache) {
+                // coalesce concurrent loads of @Cacheable(sync = true) methods
+                return new SingleFlightCacheDecorator(super.decorateCache(cache));
+            }
+        };
     }
     
     @Bean
@@ -25,6 +25,8 @@ public interface MolecularDataMapper {
     // entrezGeneIds is null or empty AND projection is "SUMMARY"
     Cursor<GeneMolecularAlteration> getGeneMolecularAlterationsIterFast(String molecularProfileId);
 
+    int getMolecularAlterationCount(String molecularProfileId);
+
     List<GeneMolecularAlteration> getGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds, 
                                                                                          List<Integer> entrezGeneIds, String projection);
 
@@ -59,6 +59,12 @@ public class MolecularDataMyBatisRepository implements MolecularDataRepository {
         return molecularDataMapper.getGeneMolecularAlterationsIterFast(molecularProfileId);
     }
 
+    @Override
+    public int getMolecularAlterationCount(String molecularProfileId) {
+
+        return molecularDataMapper.getMolecularAlterationCount(molecularProfileId);
+    }
+
     @Override
     public List<GeneMolecularAlteration> getGeneMolecularAlterationsInMultipleMolecularProfiles(Set<String> molecularProfileIds, 
                                                                                                 List<Integer> entrezGeneIds, 
@@ -0,0 +1,101 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.cbioportal.legacy.web.parameter.ClinicalDataCountFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalEventAttributeRequest;
+import org.cbioportal.legacy.web.parameter.DataBinCountFilter;
+import org.cbioportal.legacy.web.parameter.PatientIdentifier;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.parameter.SurvivalRequest;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Extracts the ids of the studies a cached method parameter refers to from the parameter itself, so that
+ * hashed cache keys can carry them for study-specific cache eviction.
+ *
+ * Parameters fall into three groups: known request types (study view filters, sample and patient identifiers,
+ * and collections of these) whose study ids are collected; plain values such as strings, numbers and collections
+ * of these, which contribute nothing unless the method parameter is named after study ids; and everything else,
+ * which is reported as unknown. A key must not list study ids when one of its hashed parameters is unknown,
+ * because the list could be incomplete and eviction of a missing study would leave the key in place.
+ */
+public final class CacheKeyStudyIds {
+
+    private CacheKeyStudyIds() {
+    }
+
+    /**
+     * Collects the study ids of a method parameter.
+     *
+     * @param param the parameter value
+     * @param parameterName the name of the method parameter, or null if it is not known
+     * @param studyIds the set to add the study ids to
+     * @return false if the parameter is of a type whose study ids cannot be determined
+     */
+    public static boolean collect(Object param, String parameterName, Set<String> studyIds) {
+        if (param == null || param instanceof Number || param instanceof Boolean || param instanceof Enum<?>) {
+            return true;
+        }
+        if (param instanceof String value) {
+            if (isStudyIdParameter(parameterName)) {
+                studyIds.add(value);
+            }
+            return true;
+        }
+        if (param instanceof StudyViewFilter studyViewFilter) {
+            return collect(studyViewFilter, studyIds);
+        }
+        if (param instanceof DataBinCountFilter dataBinCountFilter) {
+            return collect(dataBinCountFilter.getStudyViewFilter(), studyIds);
+        }
+        if (param instanceof ClinicalDataCountFilter clinicalDataCountFilter) {
+            return collect(clinicalDataCountFilter.getStudyViewFilter(), studyIds);
+        }
+        if (param instanceof SurvivalRequest survivalRequest) {
+            return collect(survivalRequest.getPatientIdentifiers(), parameterName, studyIds);
+        }
+        if (param instanceof ClinicalEventAttributeRequest clinicalEventAttributeRequest) {
+            return collect(clinicalEventAttributeRequest.getPatientIdentifiers(), parameterName, studyIds);
+        }
+        if (param instanceof SampleIdentifier sampleIdentifier) {
+            studyIds.add(sampleIdentifier.getStudyId());
+            return true;
+        }
+        if (param instanceof PatientIdentifier patientIdentifier) {
+            studyIds.add(patientIdentifier.getStudyId());
+            return true;
+        }
+        if (param instanceof Collection<?> collection) {
+            for (Object element : collection) {
+                if (!collect(element, parameterName, studyIds)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean collect(StudyViewFilter studyViewFilter, Set<String> studyIds) {
+        // all other filters only narrow down the samples of these studies
+        if (studyViewFilter == null) {
+            return true;
+        }
+        if (studyViewFilter.getStudyIds() != null) {
+            studyIds.addAll(studyViewFilter.getStudyIds());
+        }
+        if (studyViewFilter.getSampleIdentifiers() != null) {
+            for (SampleIdentifier sampleIdentifier : studyViewFilter.getSampleIdentifiers()) {
+                studyIds.add(sampleIdentifier.getStudyId());
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStudyIdParameter(String parameterName) {
+        return parameterName != null
+            && (parameterName.equals("studyId") || parameterName.equals("studyIds") || parameterName.equals("studies"));
+    }
+}
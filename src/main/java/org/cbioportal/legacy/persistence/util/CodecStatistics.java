@@ -0,0 +1,66 @@
+package org.cbioportal.legacy.persistence.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sizes and timings of the values a {@link CustomRedisCache} encoded and decoded.
+ */
+public class CodecStatistics {
+
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    public void recordEncode(int encodedSize, int uncompressedSize, long nanos) {
+        encodeCount.increment();
+        encodedBytes.add(encodedSize);
+        uncompressedBytes.add(uncompressedSize);
+        encodeNanos.add(nanos);
+    }
+
+    public void recordDecode(int encodedSize, long nanos) {
+        decodeCount.increment();
+        decodedBytes.add(encodedSize);
+        decodeNanos.add(nanos);
+    }
+
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    public long getEncodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public long getDecodeCount() {
+        return decodeCount.sum();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+        long encodes = getEncodeCount();
+        long decodes = getDecodeCount();
+        return "Encoded: " + encodes + " values, " + getEncodedBytes() + " bytes ("
+            + getUncompressedBytes() + " bytes before compression), "
+            + averageMicros(encodeNanos.sum(), encodes) + " us per value\n"
+            + "Decoded: " + decodes + " values, " + getDecodedBytes() + " bytes, "
+            + averageMicros(decodeNanos.sum(), decodes) + " us per value";
+    }
+
+    private static long averageMicros(long nanos, long count) {
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos / count);
+    }
+}
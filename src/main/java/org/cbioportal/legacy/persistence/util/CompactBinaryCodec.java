@@ -0,0 +1,382 @@
+package org.cbioportal.legacy.persistence.util;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.MutablePair;
+import org.cbioportal.legacy.web.parameter.ClinicalDataType;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores values in a compact binary format. The model classes and the collections they are returned in are
+ * registered with Kryo, which writes them as a class id followed by the field values, without the class and field
+ * descriptions that make Java serialization large and slow. Values that contain other classes fall back to Java
+ * serialization. Payloads above {@link #COMPRESSION_THRESHOLD_BYTES} are deflated.
+ *
+ * Every value starts with a header of a magic byte, a format version, the serializer, the compression and a
+ * fingerprint of the registered classes and their fields. A value written by a portal version with other model
+ * classes is rejected instead of being misread, which makes it safe to share Redis during a rolling upgrade.
+ * Values written by {@link GzipJavaSerializationCodec} are still read.
+ */
+public class CompactBinaryCodec implements RedisCacheCodec {
+    private static final Logger LOG = LoggerFactory.getLogger(CompactBinaryCodec.class);
+
+    public static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private static final byte MAGIC = (byte) 0xcb;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte SERIALIZER_KRYO = 1;
+    private static final byte SERIALIZER_JAVA = 2;
+    private static final byte COMPRESSION_NONE = 0;
+    private static final byte COMPRESSION_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 12;
+
+    private static final String[] MODEL_PACKAGES = {"org.cbioportal.legacy.model"};
+    private static final List<Class<?>> OTHER_MODEL_CLASSES = List.of(
+        org.cbioportal.domain.sample.Sample.class,
+        SampleIdentifier.class,
+        ClinicalDataType.class,
+        ImmutablePair.class,
+        MutablePair.class
+    );
+
+    private final GzipJavaSerializationCodec legacyCodec = new GzipJavaSerializationCodec();
+    private final List<Class<?>> modelClasses;
+    private final int schemaFingerprint;
+    private final Pool<Kryo> kryoPool;
+
+    public CompactBinaryCodec() {
+        this(findModelClasses());
+    }
+
+    CompactBinaryCodec(List<Class<?>> modelClasses) {
+        this.modelClasses = modelClasses;
+        this.schemaFingerprint = fingerprint(modelClasses);
+        this.kryoPool = new Pool<>(true, false, 64) {
+            @Override
+            protected Kryo create() {
+                return createKryo();
+            }
+        };
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        byte serializer = SERIALIZER_KRYO;
+        byte[] payload;
+        Kryo kryo = kryoPool.obtain();
+        try {
+            Output output = new Output(4096, -1);
+            kryo.writeClassAndObject(output, value);
+            payload = output.toBytes();
+        } catch (KryoException | IllegalArgumentException e) {
+            // the value contains a class that is not registered
+            LOG.debug("Falling back to Java serialization for {}: {}", value.getClass().getName(), e.getMessage());
+            serializer = SERIALIZER_JAVA;
+            payload = javaSerialize(value);
+        } finally {
+            kryoPool.free(kryo);
+        }
+
+        byte compression = COMPRESSION_NONE;
+        byte[] body = payload;
+        if (payload.length > COMPRESSION_THRESHOLD_BYTES) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                compression = COMPRESSION_DEFLATE;
+                body = deflated;
+            }
+        }
+        return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+            .put(MAGIC)
+            .put(FORMAT_VERSION)
+            .put(serializer)
+            .put(compression)
+            .putInt(schemaFingerprint)
+            .putInt(payload.length)
+            .put(body)
+            .array();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException, ClassNotFoundException {
+        if (GzipJavaSerializationCodec.isGzip(bytes)) {
+            return legacyCodec.decode(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC || bytes[1] != FORMAT_VERSION) {
+            throw new IOException("Cached value is not in a known format");
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_LENGTH);
+        header.position(2);
+        byte serializer = header.get();
+        byte compression = header.get();
+        int fingerprint = header.getInt();
+        int payloadLength = header.getInt();
+
+        if (serializer == SERIALIZER_KRYO && fingerprint != schemaFingerprint) {
+            throw new IOException("Cached value was written for other model classes");
+        }
+        byte[] payload = compression == COMPRESSION_DEFLATE
+            ? inflate(bytes, HEADER_LENGTH, payloadLength)
+            : Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        if (serializer == SERIALIZER_JAVA) {
+            return javaDeserialize(payload);
+        }
+        Kryo kryo = kryoPool.obtain();
+        try {
+            return kryo.readClassAndObject(new Input(payload));
+        } catch (KryoException e) {
+            throw new IOException("Cached value could not be read", e);
+        } finally {
+            kryoPool.free(kryo);
+        }
+    }
+
+    @Override
+    public int decodedSize(byte[] bytes) {
+        if (GzipJavaSerializationCodec.isGzip(bytes)) {
+            return legacyCodec.decodedSize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            return bytes.length;
+        }
+        return ByteBuffer.wrap(bytes, 8, 4).getInt();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(true);
+        kryo.setReferences(true);
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        // registration order determines the class ids, so it must be the same on every portal instance
+        for (Class<?> type : List.of(
+            Integer.class, Long.class, Double.class, Float.class, Boolean.class, Short.class, Byte.class,
+            Character.class, BigDecimal.class, BigInteger.class, Date.class, java.sql.Date.class, Timestamp.class,
+            Object[].class, String[].class, Integer[].class, int[].class, long[].class, double[].class,
+            boolean[].class, byte[].class,
+            ArrayList.class, LinkedList.class, HashMap.class, LinkedHashMap.class, TreeMap.class, HashSet.class,
+            LinkedHashSet.class, TreeSet.class,
+            Arrays.asList().getClass(), Collections.emptyList().getClass(), Collections.emptyMap().getClass(),
+            Collections.emptySet().getClass(), Collections.singletonList(0).getClass(),
+            Collections.singletonMap(0, 0).getClass(), Collections.singleton(0).getClass(),
+            List.of().getClass(), List.of(0).getClass(), List.of(0, 1, 2).getClass(),
+            Set.of().getClass(), Set.of(0).getClass(), Set.of(0, 1, 2).getClass(),
+            Map.of().getClass(), Map.of(0, 0).getClass(), Map.of(0, 0, 1, 1).getClass())) {
+            kryo.register(type);
+        }
+        UnmodifiableCollectionSerializer unmodifiableListSerializer = new UnmodifiableCollectionSerializer(
+            ArrayList::new, elements -> Collections.unmodifiableList((List<Object>) elements));
+        kryo.register(Collections.unmodifiableList(new ArrayList<>()).getClass(), unmodifiableListSerializer);
+        kryo.register(Collections.unmodifiableList(new LinkedList<>()).getClass(), unmodifiableListSerializer);
+        kryo.register(Collections.unmodifiableSet(new HashSet<>()).getClass(), new UnmodifiableCollectionSerializer(
+            LinkedHashSet::new, elements -> Collections.unmodifiableSet((Set<Object>) elements)));
+        kryo.register(Collections.unmodifiableCollection(new ArrayList<>()).getClass(),
+            new UnmodifiableCollectionSerializer(ArrayList::new, Collections::unmodifiableCollection));
+        kryo.register(Collections.unmodifiableMap(new HashMap<>()).getClass(),
+            new UnmodifiableMapSerializer());
+        for (Class<?> type : modelClasses) {
+            kryo.register(type);
+        }
+        return kryo;
+    }
+
+    private static List<Class<?>> findModelClasses() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        List<Class<?>> classes = new ArrayList<>();
+        for (String modelPackage : MODEL_PACKAGES) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(modelPackage)) {
+                classes.add(ClassUtils.resolveClassName(candidate.getBeanClassName(),
+                    CompactBinaryCodec.class.getClassLoader()));
+            }
+        }
+        classes.sort(Comparator.comparing(Class::getName));
+        classes.addAll(OTHER_MODEL_CLASSES);
+        return classes;
+    }
+
+    private static int fingerprint(List<Class<?>> classes) {
+        Hasher hasher = Hashing.murmur3_32_fixed().newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        for (Class<?> type : classes) {
+            hasher.putString(type.getName(), StandardCharsets.UTF_8);
+            if (type.isEnum()) {
+                for (Object constant : type.getEnumConstants()) {
+                    hasher.putString(((Enum<?>) constant).name(), StandardCharsets.UTF_8);
+                }
+                continue;
+            }
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                Field[] fields = c.getDeclaredFields();
+                Arrays.sort(fields, Comparator.comparing(Field::getName));
+                for (Field field : fields) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        hasher.putString(field.getName(), StandardCharsets.UTF_8);
+                        hasher.putString(field.getGenericType().getTypeName(), StandardCharsets.UTF_8);
+                    }
+                }
+            }
+        }
+        return hasher.hash().asInt();
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+        objectOut.writeObject(value);
+        objectOut.flush();
+        return byteOut.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int inflatedLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] inflated = new byte[inflatedLength];
+            int length = 0;
+            while (length < inflatedLength && !inflater.finished()) {
+                int n = inflater.inflate(inflated, length, inflatedLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != inflatedLength) {
+                throw new IOException("Cached value is truncated");
+            }
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new IOException("Cached value could not be inflated", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes the elements of an unmodifiable collection view and wraps a copy of them on read. The views are JDK
+     * internal classes whose fields Kryo cannot access.
+     */
+    private static class UnmodifiableCollectionSerializer extends Serializer<Collection<Object>> {
+        private final IntFunction<Collection<Object>> factory;
+        private final UnaryOperator<Collection<Object>> wrapper;
+
+        UnmodifiableCollectionSerializer(IntFunction<Collection<Object>> factory,
+                                         UnaryOperator<Collection<Object>> wrapper) {
+            super(false, true);
+            this.factory = factory;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, Collection<Object> collection) {
+            output.writeVarInt(collection.size(), true);
+            for (Object element : collection) {
+                kryo.writeClassAndObject(output, element);
+            }
+        }
+
+        @Override
+        public Collection<Object> read(Kryo kryo, Input input, Class<? extends Collection<Object>> type) {
+            int size = input.readVarInt(true);
+            Collection<Object> elements = factory.apply(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(kryo.readClassAndObject(input));
+            }
+            return wrapper.apply(elements);
+        }
+    }
+
+    private static class UnmodifiableMapSerializer extends Serializer<Map<Object, Object>> {
+
+        UnmodifiableMapSerializer() {
+            super(false, true);
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, Map<Object, Object> map) {
+            output.writeVarInt(map.size(), true);
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                kryo.writeClassAndObject(output, entry.getKey());
+                kryo.writeClassAndObject(output, entry.getValue());
+            }
+        }
+
+        @Override
+        public Map<Object, Object> read(Kryo kryo, Input input, Class<? extends Map<Object, Object>> type) {
+            int size = input.readVarInt(true);
+            Map<Object, Object> map = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+            for (int i = 0; i < size; i++) {
+                map.put(kryo.readClassAndObject(input), kryo.readClassAndObject(input));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+    }
+}
@@ -32,32 +32,38 @@
 
 package org.cbioportal.legacy.persistence.util;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.cbioportal.legacy.model.CancerStudy;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
 import org.cbioportal.legacy.model.util.Select;
 import org.cbioportal.legacy.persistence.CacheEnabledConfig;
-import org.cbioportal.legacy.persistence.StudyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.interceptor.KeyGenerator;
-import org.springframework.util.DigestUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
 
 
 public class CustomKeyGenerator implements KeyGenerator {
     public static final String CACHE_KEY_PARAM_DELIMITER = "_";
     public static final int PARAM_LENGTH_HASH_LIMIT = 1024;
 
-    @Autowired
-    private CacheEnabledConfig cacheEnabledConfig;
+    // SHA-256 truncated to 128 bits: collision resistant, and hardware accelerated on current JVMs
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final int HASH_BYTES = 16;
 
     @Autowired
-    private StudyRepository studyRepository;
+    private CacheEnabledConfig cacheEnabledConfig;
     
     private static final ObjectMapper mapper = new ObjectMapper();
 
@@ -67,40 +73,121 @@ public class CustomKeyGenerator implements KeyGenerator {
         if (!cacheEnabledConfig.isEnabled() && !cacheEnabledConfig.isEnabledClickhouse()) {
             return "";
         }
-        String key = target.getClass().getSimpleName() + CACHE_KEY_PARAM_DELIMITER
-            + method.getName() + CACHE_KEY_PARAM_DELIMITER
-            + Arrays.stream(params)
-                .map(this::exceptionlessWrite)
-                .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
-        LOG.debug("Created key: " + key);
-        return key;
+        Parameter[] parameters = method.getParameters();
+        StringBuilder key = new StringBuilder()
+            .append(target.getClass().getSimpleName()).append(CACHE_KEY_PARAM_DELIMITER)
+            .append(method.getName()).append(CACHE_KEY_PARAM_DELIMITER);
+        ParamKey[] paramKeys = new ParamKey[params.length];
+        // the study ids of a key are only complete if those of every hashed parameter are known
+        boolean studyIdsKnown = true;
+        for (int i = 0; i < params.length; i++) {
+            String parameterName = i < parameters.length && parameters[i].isNamePresent()
+                ? parameters[i].getName() : null;
+            paramKeys[i] = exceptionlessWrite(params[i], parameterName);
+            studyIdsKnown &= paramKeys[i].studyIdsKnown;
+        }
+        for (int i = 0; i < paramKeys.length; i++) {
+            if (i > 0) {
+                key.append(CACHE_KEY_PARAM_DELIMITER);
+            }
+            key.append(paramKeys[i].toKey(studyIdsKnown));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Created key: " + key);
+        }
+        return key.toString();
     }
     
-    private String exceptionlessWrite(Object toSerialize) {
+    private ParamKey exceptionlessWrite(Object toSerialize, String parameterName) {
         if (toSerialize instanceof Select && ((Select) toSerialize).hasAll()) {
             // Select implements Iterable, but Select.All throws an exception
             // when you call iterator(), which breaks Jackson, so we need some custom logic
-            return "Select.ALL";
+            return new ParamKey("Select.ALL", null, true);
         }
+        // the JSON is streamed into the hash once it gets longer than the limit, so large request
+        // bodies are never materialized as a String
+        ParamKeyOutputStream out = new ParamKeyOutputStream();
         try {
-            String json = mapper.writeValueAsString(toSerialize);
-            if (json.length() > PARAM_LENGTH_HASH_LIMIT) {
-                // To allow study-specific cache eviction, extract relevant
-                // study identifiers and add these to the cache keys.
-                String matchedStudyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
-                    .stream()
-                    .map(CancerStudy::getCancerStudyIdentifier)
-                    .distinct()
-                    .filter(json::contains)
-                    .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
-                return matchedStudyIds + CACHE_KEY_PARAM_DELIMITER + DigestUtils.md5DigestAsHex(json.getBytes());
-            } else {
-                // leave short keys intact, but remove semicolons to make things look cleaner in redis
-                return json.replaceAll(":", CACHE_KEY_PARAM_DELIMITER);
-            }
-        } catch (JsonProcessingException e) {
+            mapper.writeValue(out, toSerialize);
+        } catch (IOException e) {
             LOG.error("Could not serialize param to string: ", e);
-            return "";
+            return new ParamKey("", null, true);
+        }
+        if (!out.isHashed()) {
+            // leave short keys intact, but remove semicolons to make things look cleaner in redis
+            return new ParamKey(out.toString().replace(":", CACHE_KEY_PARAM_DELIMITER), null, true);
+        }
+        // To allow study-specific cache eviction, extract relevant
+        // study identifiers and add these to the cache keys.
+        Set<String> studyIds = new TreeSet<>();
+        boolean studyIdsKnown = CacheKeyStudyIds.collect(toSerialize, parameterName, studyIds);
+        return new ParamKey(out.hash(), studyIds, studyIdsKnown);
+    }
+
+    /**
+     * The key of a single parameter: the parameter itself, or its hash prefixed by the study ids it refers to.
+     */
+    private static class ParamKey {
+
+        private final String value;
+        private final Set<String> studyIds;
+        private final boolean studyIdsKnown;
+
+        private ParamKey(String value, Set<String> studyIds, boolean studyIdsKnown) {
+            this.value = value;
+            this.studyIds = studyIds;
+            this.studyIdsKnown = studyIdsKnown;
+        }
+
+        String toKey(boolean withStudyIds) {
+            if (studyIds == null) {
+                return value;
+            }
+            String prefix = withStudyIds ? String.join(CACHE_KEY_PARAM_DELIMITER, studyIds) : "";
+            return prefix + CACHE_KEY_PARAM_DELIMITER + value;
+        }
+    }
+
+    /**
+     * Keeps the first PARAM_LENGTH_HASH_LIMIT bytes written to it and switches to hashing everything
+     * written when more bytes arrive.
+     */
+    private static class ParamKeyOutputStream extends OutputStream {
+
+        private final byte[] prefix = new byte[PARAM_LENGTH_HASH_LIMIT];
+        private int length = 0;
+        private Hasher hasher;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (hasher == null) {
+                if (length + len <= prefix.length) {
+                    System.arraycopy(b, off, prefix, length, len);
+                    length += len;
+                    return;
+                }
+                hasher = HASH_FUNCTION.newHasher();
+                hasher.putBytes(prefix, 0, length);
+            }
+            hasher.putBytes(b, off, len);
+        }
+
+        boolean isHashed() {
+            return hasher != null;
+        }
+
+        String hash() {
+            return BaseEncoding.base16().lowerCase().encode(Arrays.copyOf(hasher.hash().asBytes(), HASH_BYTES));
+        }
+
+        @Override
+        public String toString() {
+            return new String(prefix, 0, length, StandardCharsets.UTF_8);
         }
     }
 }
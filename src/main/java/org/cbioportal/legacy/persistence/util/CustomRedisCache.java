@@ -1,5 +1,8 @@
 package org.cbioportal.legacy.persistence.util;
 
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,30 +11,62 @@ import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.lang.Nullable;
 
-import java.io.*;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class CustomRedisCache extends AbstractValueAdaptingCache {
     private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCache.class);
     public static final String DELIMITER = ":";
     public static final int INFINITE_TTL = -1;
+    public static final String LOADER_LOCK_PREFIX = "loader-lock" + DELIMITER;
 
     private final String name;
     private final long ttlMinutes;
+    private final long loaderLockWaitSeconds;
     private final RedissonClient redissonClient;
+    private final SingleFlight singleFlight = new SingleFlight();
+    @Nullable
+    private final NearCache nearCache;
+    private final RedisCacheCodec codec;
+    private final CodecStatistics codecStatistics = new CodecStatistics();
+    // Redis keys that were read since the last TTL refresh, only collected when there is a near cache
+    private final Set<String> keysToRefresh = ConcurrentHashMap.newKeySet();
 
     /**
      * Create a new ConcurrentMapCache with the specified name.
      * @param name the name of the cache
      */
     public CustomRedisCache(String name, RedissonClient client, long ttlMinutes) {
+        this(name, client, ttlMinutes, 0);
+    }
+
+    /**
+     * @param loaderLockWaitSeconds how long a node waits for another node that loads the same key, or 0 to
+     *                              coalesce loads on this node only
+     */
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, long loaderLockWaitSeconds) {
+        this(name, client, ttlMinutes, loaderLockWaitSeconds, null, new GzipJavaSerializationCodec());
+    }
+
+    /**
+     * @param nearCache the in-process cache to serve hits from, or null to read every value from Redis. With a near
+     *                  cache, the TTLs of the keys that were read are refreshed in batches by {@link #refreshTtls()}
+     *                  instead of once per hit.
+     * @param codec converts values to the bytes stored in Redis
+     */
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, long loaderLockWaitSeconds,
+                            @Nullable NearCache nearCache, RedisCacheCodec codec) {
         super(true);
         this.name = name;
         this.redissonClient = client;
         this.ttlMinutes = ttlMinutes;
+        this.loaderLockWaitSeconds = loaderLockWaitSeconds;
+        this.nearCache = nearCache;
+        this.codec = codec;
     }
 
     @Override
@@ -43,9 +78,21 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         return this.redissonClient;
     }
 
+    public CodecStatistics getCodecStatistics() {
+        return codecStatistics;
+    }
+
+    @Nullable
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
     @Override
     @Nullable
     protected Object lookup(Object key) {
+        if (nearCache != null) {
+            return nearCacheLookup(key, nearCache);
+        }
         Object value = this.redissonClient.getBucket(name + DELIMITER + key).get();
         if (value != null){
             value = fromStoreValue(value);
@@ -53,6 +100,29 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         }
         return value;
     }
+
+    private Object nearCacheLookup(Object key, NearCache nearCache) {
+        byte[] storeValue = nearCache.get(key.toString());
+        Object value;
+        if (storeValue != null) {
+            value = fromStoreValue(storeValue);
+        } else {
+            long stamp = nearCache.stamp();
+            storeValue = (byte[]) this.redissonClient.getBucket(name + DELIMITER + key).get();
+            if (storeValue == null) {
+                return null;
+            }
+            value = fromStoreValue(storeValue);
+            if (value == null) {
+                return null;
+            }
+            nearCache.putIfNotInvalidated(key.toString(), storeValue, stamp);
+        }
+        if (ttlMinutes != INFINITE_TTL) {
+            keysToRefresh.add(name + DELIMITER + key);
+        }
+        return value;
+    }
     
     private void asyncRefresh(Object key) {
         if (ttlMinutes != INFINITE_TTL) {
@@ -60,31 +130,100 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         }
     }
 
+    /**
+     * Resets the TTLs of the keys that were read since the last call in one batch. Hits served by the near cache
+     * do not reach Redis, so without this their keys would expire in Redis while they are still in use.
+     */
+    public void refreshTtls() {
+        if (keysToRefresh.isEmpty()) {
+            return;
+        }
+        RBatch batch = this.redissonClient.createBatch();
+        Iterator<String> keys = keysToRefresh.iterator();
+        while (keys.hasNext()) {
+            batch.getBucket(keys.next()).expireAsync(ttlMinutes, TimeUnit.MINUTES);
+            keys.remove();
+        }
+        batch.executeAsync();
+    }
+
+    /**
+     * Returns the cached value or loads it. Concurrent misses of the same key on this node share one load; if a
+     * loader lock wait is configured, nodes also wait for a load of the same key that is running on another node.
+     */
     @Override
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
-        Object zippedValue = this.redissonClient.getBucket(name + DELIMITER + key).get();
-        T value = null;
-        if (zippedValue != null) {
-            value = (T) fromStoreValue(zippedValue);
-            asyncRefresh(key);
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
         }
         try {
-            return value == null ? valueLoader.call() : value;
+            return singleFlight.execute(key, () -> loaderLockWaitSeconds > 0
+                ? loadWithLock(key, valueLoader)
+                : load(key, valueLoader));
         } catch (Exception ex) {
             throw new ValueRetrievalException(key, valueLoader, ex);
         }
     }
 
+    private <T> T load(Object key, Callable<T> valueLoader) throws Exception {
+        T value = valueLoader.call();
+        put(key, value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadWithLock(Object key, Callable<T> valueLoader) throws Exception {
+        RLock lock = this.redissonClient.getLock(LOADER_LOCK_PREFIX + name + DELIMITER + key);
+        if (!lock.tryLock(loaderLockWaitSeconds, TimeUnit.SECONDS)) {
+            LOG.warn("Timed out waiting for another node to load key {} in cache {}.", key, name);
+            return load(key, valueLoader);
+        }
+        try {
+            // the node that held the lock has probably stored the value
+            Object value = lookup(key);
+            if (value != null) {
+                return (T) value;
+            }
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                // store before the lock is released, so that waiting nodes find the value
+                store(key, loaded, true);
+            }
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void put(Object key, @Nullable Object value) {
         if (value == null) {
             LOG.warn("Storing null value for key {} in cache. That's probably not great.", key);
         }
-        if (ttlMinutes == INFINITE_TTL) {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value));
+        store(key, value, false);
+    }
+
+    private void store(Object key, @Nullable Object value, boolean synchronous) {
+        byte[] storeValue = (byte[]) toStoreValue(value);
+        RBucket<Object> bucket = this.redissonClient.getBucket(name + DELIMITER + key);
+        if (synchronous) {
+            if (ttlMinutes == INFINITE_TTL) {
+                bucket.set(storeValue);
+            } else {
+                bucket.set(storeValue, ttlMinutes, TimeUnit.MINUTES);
+            }
         } else {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value), ttlMinutes, TimeUnit.MINUTES);
+            if (ttlMinutes == INFINITE_TTL) {
+                bucket.setAsync(storeValue);
+            } else {
+                bucket.setAsync(storeValue, ttlMinutes, TimeUnit.MINUTES);
+            }
+        }
+        if (nearCache != null) {
+            nearCache.put(key.toString(), storeValue);
         }
     }
 
@@ -109,6 +248,9 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
     public boolean evictIfPresent(Object pattern) {
         // Pattern is expected to be a regular expression
         if (pattern instanceof String) {
+            if (nearCache != null) {
+                nearCache.invalidateMatching((String) pattern);
+            }
             String[] keys = redissonClient.getKeys().getKeysStream()
                 .filter(key -> key.startsWith(name))
                 .filter(key -> key.matches((String) pattern))
@@ -124,11 +266,17 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
 
     @Override
     public void clear() {
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
         this.redissonClient.getKeys().deleteByPattern(name + DELIMITER + "*");
     }
 
     @Override
     public boolean invalidate() {
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
         return this.redissonClient.getKeys().deleteByPattern(name + DELIMITER + "*") > 0;
     }
 
@@ -137,22 +285,11 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (userValue == null) {
             return null;
         }
-        
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        ObjectOutputStream objectOut;
         try {
-            // serialize to byte array
-            objectOut = new ObjectOutputStream(byteOut);
-            objectOut.writeObject(userValue);
-            objectOut.flush();
-            byte[] uncompressedByteArray = byteOut.toByteArray();
-            
-            // compress byte array
-            byteOut = new ByteArrayOutputStream(uncompressedByteArray.length);
-            GZIPOutputStream g = new GZIPOutputStream(byteOut);
-            g.write(uncompressedByteArray);
-            g.close();
-            return byteOut.toByteArray();
+            long start = System.nanoTime();
+            byte[] storeValue = codec.encode(userValue);
+            codecStatistics.recordEncode(storeValue.length, codec.decodedSize(storeValue), System.nanoTime() - start);
+            return storeValue;
         } catch (IOException e) {
             LOG.warn("Error compressing object for cache: ", e);
             return null;
@@ -164,25 +301,12 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (storeValue == null) {
             return null;
         }
-        
-        byte[] bytes = (byte[]) storeValue;
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(bytes);
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        GZIPInputStream gzipIn;
         try {
-            // inflate to byte array
-            gzipIn = new GZIPInputStream(byteIn);
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gzipIn.read(buffer)) != -1) {
-                byteOut.write(buffer, 0, len);
-            }
-            byte[] unzippedBytes = byteOut.toByteArray();
-            
-            // deserialize byte array to object
-            byteIn = new ByteArrayInputStream(unzippedBytes);
-            ObjectInputStream oi = new ObjectInputStream(byteIn);
-            return oi.readObject();
+            long start = System.nanoTime();
+            byte[] bytes = (byte[]) storeValue;
+            Object value = codec.decode(bytes);
+            codecStatistics.recordDecode(bytes.length, System.nanoTime() - start);
+            return value;
         } catch (IOException | ClassNotFoundException e) {
             LOG.warn("Error inflating object from cache: ", e);
             return null;
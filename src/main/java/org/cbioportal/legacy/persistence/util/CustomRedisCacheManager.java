@@ -2,22 +2,71 @@ package org.cbioportal.legacy.persistence.util;
 
 import jakarta.validation.constraints.NotNull;
 import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 public class CustomRedisCacheManager implements CacheManager {
+    private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCacheManager.class);
+    private static final long MAX_TTL_REFRESH_INTERVAL_SECS = 60;
+
     private final ConcurrentMap<String, CustomRedisCache> caches = new ConcurrentHashMap<>();
     private final RedissonClient client;
     private final long ttlInMins;
+    private final long loaderLockWaitSecs;
+    private final long nearCacheMaxMegaBytes;
+    private final long nearCacheTtlInMins;
+    private final RedisCacheCodec codec;
 
     public CustomRedisCacheManager(RedissonClient client, long ttlInMins) {
+        this(client, ttlInMins, 0, 0, 0, new GzipJavaSerializationCodec());
+    }
+
+    /**
+     * @param nearCacheMaxMegaBytes the size of the in-process cache in front of each Redis cache, or 0 to disable it
+     * @param nearCacheTtlInMins how long a value is served from the in-process cache before it is read from Redis
+     *                           again
+     * @param codec converts values to the bytes stored in Redis
+     */
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, long loaderLockWaitSecs,
+                                   long nearCacheMaxMegaBytes, long nearCacheTtlInMins, RedisCacheCodec codec) {
         this.client = client;
         this.ttlInMins = ttlInMins;
+        this.loaderLockWaitSecs = loaderLockWaitSecs;
+        this.nearCacheMaxMegaBytes = nearCacheMaxMegaBytes;
+        this.nearCacheTtlInMins = nearCacheTtlInMins;
+        this.codec = codec;
+        if (nearCacheMaxMegaBytes > 0 && ttlInMins != CustomRedisCache.INFINITE_TTL) {
+            scheduleTtlRefresh();
+        }
+    }
+
+    private void scheduleTtlRefresh() {
+        // refresh often enough that a key that is only read from the near cache does not expire in Redis
+        long intervalSecs = Math.max(1, Math.min(MAX_TTL_REFRESH_INTERVAL_SECS, ttlInMins * 60 / 2));
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-cache-ttl-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            for (CustomRedisCache cache : caches.values()) {
+                try {
+                    cache.refreshTtls();
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not refresh TTLs of cache {}: ", cache.getName(), e);
+                }
+            }
+        }, intervalSecs, intervalSecs, TimeUnit.SECONDS);
     }
 
     /**
@@ -42,7 +91,15 @@ public class CustomRedisCacheManager implements CacheManager {
     @NotNull
     public Cache getCache(String name, boolean expires) {
         long clientTTLInMinutes = expires ? ttlInMins : CustomRedisCache.INFINITE_TTL;
-        return caches.computeIfAbsent(name, k -> new CustomRedisCache(name, client, clientTTLInMinutes));
+        return caches.computeIfAbsent(name, k -> new CustomRedisCache(name, client, clientTTLInMinutes,
+            loaderLockWaitSecs, createNearCache(name), codec));
+    }
+
+    private NearCache createNearCache(String name) {
+        if (nearCacheMaxMegaBytes <= 0) {
+            return null;
+        }
+        return new NearCache(name, client, nearCacheMaxMegaBytes * 1024 * 1024, nearCacheTtlInMins);
     }
 
     /**
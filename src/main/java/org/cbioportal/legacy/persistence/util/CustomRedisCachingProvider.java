@@ -63,6 +63,18 @@ public class CustomRedisCachingProvider {
     @Value("${redis.ttl_mins:10000}")
     private Long expiryMins;
 
+    @Value("${redis.loader_lock_wait_secs:0}")
+    private Long loaderLockWaitSecs;
+
+    @Value("${redis.near_cache.max_mega_bytes_heap:0}")
+    private Long nearCacheMaxMegaBytes;
+
+    @Value("${redis.near_cache.ttl_mins:10}")
+    private Long nearCacheTtlMins;
+
+    @Value("${redis.codec:gzip}")
+    private String codec;
+
     @Value("${redis.clear_on_startup:true}")
     private boolean clearOnStartup;
     
@@ -86,7 +98,8 @@ public class CustomRedisCachingProvider {
     }
 
     public CacheManager getCacheManager(RedissonClient redissonClient) {
-        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins);
+        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins, loaderLockWaitSecs,
+            nearCacheMaxMegaBytes, nearCacheTtlMins, createCodec());
         
         if (clearOnStartup) {
         	Cache generalCache = manager.getCache(redisName + "GeneralRepositoryCache");
@@ -101,4 +114,14 @@ public class CustomRedisCachingProvider {
         }
         return manager;
     }
+
+    private RedisCacheCodec createCodec() {
+        if ("compact".equalsIgnoreCase(codec)) {
+            return new CompactBinaryCodec();
+        }
+        if (!"gzip".equalsIgnoreCase(codec)) {
+            LOG.warn("Unknown redis.codec '" + codec + "', using 'gzip'");
+        }
+        return new GzipJavaSerializationCodec();
+    }
 }
@@ -0,0 +1,72 @@
+package org.cbioportal.legacy.persistence.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores values as gzip compressed Java serialization. Works for every {@link java.io.Serializable} value, but is
+ * slow and large for the lists of model objects that make up most of the cache.
+ */
+public class GzipJavaSerializationCodec implements RedisCacheCodec {
+
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+    private static final int GZIP_MAGIC_SECOND_BYTE = 0x8b;
+
+    public static boolean isGzip(byte[] bytes) {
+        return bytes.length > 2
+            && (bytes[0] & 0xff) == GZIP_MAGIC_FIRST_BYTE
+            && (bytes[1] & 0xff) == GZIP_MAGIC_SECOND_BYTE;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        // serialize to byte array
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+        objectOut.writeObject(value);
+        objectOut.flush();
+        byte[] uncompressedByteArray = byteOut.toByteArray();
+
+        // compress byte array
+        byteOut = new ByteArrayOutputStream(uncompressedByteArray.length);
+        GZIPOutputStream g = new GZIPOutputStream(byteOut);
+        g.write(uncompressedByteArray);
+        g.close();
+        return byteOut.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException, ClassNotFoundException {
+        // inflate to byte array
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        GZIPInputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        byte[] buffer = new byte[1024];
+        int len;
+        while ((len = gzipIn.read(buffer)) != -1) {
+            byteOut.write(buffer, 0, len);
+        }
+
+        // deserialize byte array to object
+        ObjectInputStream oi = new ObjectInputStream(new ByteArrayInputStream(byteOut.toByteArray()));
+        return oi.readObject();
+    }
+
+    @Override
+    public int decodedSize(byte[] bytes) {
+        if (bytes.length < 4) {
+            return bytes.length;
+        }
+        // the gzip trailer ends with the uncompressed size modulo 2^32, little endian
+        int n = bytes.length;
+        int size = (bytes[n - 4] & 0xff)
+            | (bytes[n - 3] & 0xff) << 8
+            | (bytes[n - 2] & 0xff) << 16
+            | (bytes[n - 1] & 0xff) << 24;
+        return size < 0 ? Integer.MAX_VALUE : size;
+    }
+}
@@ -0,0 +1,136 @@
+package org.cbioportal.legacy.persistence.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of the bytes of values in front of a {@link CustomRedisCache}, so that hot keys are served
+ * without a round trip to Redis. The bytes are decoded on every hit, because the cached values are mutable model
+ * objects that callers may change, so a shared instance must not be handed out.
+ *
+ * Entries are weighed by the size of their bytes and expire after a fixed time, which bounds how long a value can
+ * outlive a missed invalidation. Invalidations are published on a Redis topic, so that puts and evictions on one
+ * portal instance also remove the entries of the other instances.
+ */
+public class NearCache {
+    private static final Logger LOG = LoggerFactory.getLogger(NearCache.class);
+    private static final String TOPIC_SUFFIX = "near-cache-invalidation";
+    private static final String MESSAGE_DELIMITER = "|";
+    private static final String INVALIDATE_KEY = "K";
+    private static final String INVALIDATE_PATTERN = "P";
+    private static final String INVALIDATE_ALL = "A";
+
+    private final String cacheName;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache<String, byte[]> entries;
+    private final RTopic topic;
+    // incremented on every invalidation, so that values read from Redis before an invalidation are not stored
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public NearCache(String cacheName, RedissonClient client, long maxBytes, long ttlMinutes) {
+        this.cacheName = cacheName;
+        this.entries = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, byte[] storeValue) -> 2 * key.length() + storeValue.length)
+            .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+            .build();
+        this.topic = client.getTopic(cacheName + CustomRedisCache.DELIMITER + TOPIC_SUFFIX, StringCodec.INSTANCE);
+        this.topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    public byte[] get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * @return a stamp to pass to {@link #putIfNotInvalidated} for a value that is about to be read from Redis
+     */
+    public long stamp() {
+        return invalidationCount.get();
+    }
+
+    public void putIfNotInvalidated(String key, byte[] storeValue, long stamp) {
+        if (storeValue == null) {
+            return;
+        }
+        entries.put(key, storeValue);
+        // an invalidation that arrived while the value was read from Redis may have been missed by the put above
+        if (invalidationCount.get() != stamp) {
+            entries.invalidate(key);
+        }
+    }
+
+    /**
+     * Stores a value that was just written to Redis and removes the key from the other instances.
+     */
+    public void put(String key, byte[] storeValue) {
+        invalidationCount.incrementAndGet();
+        if (storeValue == null) {
+            entries.invalidate(key);
+        } else {
+            entries.put(key, storeValue);
+        }
+        publish(INVALIDATE_KEY, key);
+    }
+
+    /**
+     * Removes the keys whose Redis key ({@code cacheName:key}) matches the regular expression.
+     */
+    public void invalidateMatching(String pattern) {
+        invalidateMatchingLocally(pattern);
+        publish(INVALIDATE_PATTERN, pattern);
+    }
+
+    public void invalidateAll() {
+        invalidateAllLocally();
+        publish(INVALIDATE_ALL, "");
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    void onMessage(String message) {
+        String[] parts = message.split("\\" + MESSAGE_DELIMITER, 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        switch (parts[1]) {
+            case INVALIDATE_KEY -> {
+                invalidationCount.incrementAndGet();
+                entries.invalidate(parts[2]);
+            }
+            case INVALIDATE_PATTERN -> invalidateMatchingLocally(parts[2]);
+            case INVALIDATE_ALL -> invalidateAllLocally();
+            default -> LOG.warn("Ignoring unknown invalidation message for near cache {}: {}", cacheName, message);
+        }
+    }
+
+    private void invalidateMatchingLocally(String pattern) {
+        invalidationCount.incrementAndGet();
+        String prefix = cacheName + CustomRedisCache.DELIMITER;
+        entries.asMap().keySet().removeIf(key -> (prefix + key).matches(pattern));
+    }
+
+    private void invalidateAllLocally() {
+        invalidationCount.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    private void publish(String type, String value) {
+        try {
+            topic.publishAsync(nodeId + MESSAGE_DELIMITER + type + MESSAGE_DELIMITER + value);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not publish invalidation for near cache {}: ", cacheName, e);
+        }
+    }
+}
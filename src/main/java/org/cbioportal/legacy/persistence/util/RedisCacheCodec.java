@@ -0,0 +1,18 @@
+package org.cbioportal.legacy.persistence.util;
+
+import java.io.IOException;
+
+/**
+ * Converts cached values to the bytes stored in Redis and back.
+ */
+public interface RedisCacheCodec {
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes) throws IOException, ClassNotFoundException;
+
+    /**
+     * @return the size of the value before compression, used to weigh near cache entries
+     */
+    int decodedSize(byte[] bytes);
+}
@@ -0,0 +1,102 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator that coalesces concurrent misses of {@link #get(Object, Callable)} for the same key, so that
+ * {@code @Cacheable(sync = true)} methods run once per key on this node while the value is being loaded.
+ * The value is loaded outside of the target cache, so that a slow query does not hold a lock of the cache store.
+ */
+public class SingleFlightCacheDecorator implements Cache {
+
+    private final Cache targetCache;
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    public SingleFlightCacheDecorator(Cache targetCache) {
+        this.targetCache = targetCache;
+    }
+
+    public Cache getTargetCache() {
+        return targetCache;
+    }
+
+    @Override
+    public String getName() {
+        return targetCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return targetCache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        return targetCache.get(key);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        return targetCache.get(key, type);
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = targetCache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        try {
+            return singleFlight.execute(key, () -> {
+                // a previous loader may have stored the value since the lookup above
+                ValueWrapper loaded = targetCache.get(key);
+                if (loaded != null) {
+                    return (T) loaded.get();
+                }
+                T value = valueLoader.call();
+                targetCache.put(key, value);
+                return value;
+            });
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        targetCache.put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        return targetCache.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        targetCache.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return targetCache.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        targetCache.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return targetCache.invalidate();
+    }
+}
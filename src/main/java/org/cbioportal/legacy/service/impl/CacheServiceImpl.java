@@ -2,12 +2,14 @@ package org.cbioportal.legacy.service.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.cbioportal.domain.studyview.FilteredSampleIdsCache;
 import org.cbioportal.legacy.persistence.StudyRepository;
 import org.cbioportal.legacy.persistence.cachemaputil.CacheMapUtil;
 import org.cbioportal.legacy.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.legacy.persistence.util.CacheUtils;
 import org.cbioportal.legacy.service.CacheService;
 import org.cbioportal.legacy.service.exception.CacheOperationException;
+import org.cbioportal.legacy.web.util.SubFilterSampleCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
@@ -33,6 +35,13 @@ public class CacheServiceImpl implements CacheService {
 
     @Autowired
     private StudyRepository studyRepository;
+
+    @Autowired
+    private SubFilterSampleCache subFilterSampleCache;
+
+    // There is no FilteredSampleIdsCache bean without the clickhouse profile.
+    @Autowired(required = false)
+    private FilteredSampleIdsCache filteredSampleIdsCache;
     
     @Override
     public void clearCaches(boolean clearSpringManagedCache) throws CacheOperationException {
@@ -47,6 +56,12 @@ public class CacheServiceImpl implements CacheService {
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
             ((StaticRefCacheMapUtil) cacheMapUtil).initializeCacheMemory();
         }
+
+        // Flush the samples cached per study view filter and sub-filter, these are not Spring-managed.
+        subFilterSampleCache.invalidateAll();
+        if (filteredSampleIdsCache != null) {
+            filteredSampleIdsCache.invalidateAll();
+        }
         
         // Note: DAO classes in package org.mskcc.cbio.portal.dao do have their own
         // caching strategy. Since these classes are only used by the deprecated old
@@ -67,10 +82,15 @@ public class CacheServiceImpl implements CacheService {
             attemptEvictSpringManagedCache(buildEvictionRegex(studyId, allStudyIds));
         }
 
-        // Flush cache used for user permission evaluation.
+        // Reload the entries of the study in the cache used for user permission evaluation.
         // Only needed when using cache not managed by the Spring caches.
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
-            ((StaticRefCacheMapUtil) cacheMapUtil).initializeCacheMemory();
+            ((StaticRefCacheMapUtil) cacheMapUtil).refreshCancerStudy(studyId);
+        }
+
+        subFilterSampleCache.invalidateStudy(studyId);
+        if (filteredSampleIdsCache != null) {
+            filteredSampleIdsCache.invalidateStudy(studyId);
         }
         
     }
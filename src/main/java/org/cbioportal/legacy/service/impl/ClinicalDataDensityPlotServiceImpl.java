@@ -2,11 +2,11 @@ package org.cbioportal.legacy.service.impl;
 
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
-import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
 import org.cbioportal.legacy.model.ClinicalData;
 import org.cbioportal.legacy.model.DensityPlotBin;
 import org.cbioportal.legacy.model.DensityPlotData;
 import org.cbioportal.legacy.service.ClinicalDataDensityPlotService;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation;
 import org.cbioportal.legacy.web.parameter.StudyViewFilter;
 import org.cbioportal.legacy.web.util.DensityPlotParameters;
 import org.springframework.cache.annotation.Cacheable;
@@ -15,9 +15,9 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -32,100 +32,229 @@ public class ClinicalDataDensityPlotServiceImpl implements ClinicalDataDensityPl
         DensityPlotData result = new DensityPlotData();
         result.setBins(new ArrayList<>());
 
-        Map<String, List<ClinicalData>> clinicalDataGroupedBySampleId = sampleClinicalData.stream().
-            collect(Collectors.groupingBy(c -> c.getStudyId() + "_" + c.getSampleId()));
-
-        List<ClinicalData> extractedXYClinicalData = clinicalDataGroupedBySampleId.entrySet().stream()
-            .filter(entry -> entry.getValue().size() == 2 &&
-                NumberUtils.isCreatable(entry.getValue().get(0).getAttrValue()) &&
-                NumberUtils.isCreatable(entry.getValue().get(1).getAttrValue())
-            ).flatMap(entry -> entry.getValue().stream())
-            .toList();
-        
-        if (extractedXYClinicalData.isEmpty()) {
+        boolean useXLogScale = densityPlotParameters.getXAxisLogScale() && ClinicalDataDensityPlotServiceImpl.isLogScalePossibleForAttribute(densityPlotParameters.getXAxisAttributeId());
+        boolean useYLogScale = densityPlotParameters.getYAxisLogScale() && ClinicalDataDensityPlotServiceImpl.isLogScalePossibleForAttribute(densityPlotParameters.getYAxisAttributeId());
+
+        // read the x and y value of each sample in a single pass,
+        // only samples with exactly one numerical value for each axis are plotted
+        Map<String, Integer> sampleIndexes = new HashMap<>();
+        double[] sampleXValues = new double[sampleClinicalData.size()];
+        double[] sampleYValues = new double[sampleClinicalData.size()];
+        int[] sampleXDataCounts = new int[sampleClinicalData.size()];
+        int[] sampleYDataCounts = new int[sampleClinicalData.size()];
+        boolean[] nonNumerical = new boolean[sampleClinicalData.size()];
+        int sampleCount = 0;
+        for (ClinicalData c : sampleClinicalData) {
+            Integer sampleIndex = sampleIndexes.putIfAbsent(c.getStudyId() + "_" + c.getSampleId(), sampleCount);
+            if (sampleIndex == null) {
+                sampleIndex = sampleCount++;
+            }
+            boolean isXValue = c.getAttrId().equals(densityPlotParameters.getXAxisAttributeId());
+            if (isXValue) {
+                sampleXDataCounts[sampleIndex]++;
+            } else {
+                sampleYDataCounts[sampleIndex]++;
+            }
+            if (!NumberUtils.isCreatable(c.getAttrValue())) {
+                nonNumerical[sampleIndex] = true;
+            } else if (isXValue) {
+                sampleXValues[sampleIndex] = useXLogScale ? parseValueLog(c) : parseValueLinear(c);
+            } else {
+                sampleYValues[sampleIndex] = useYLogScale ? parseValueLog(c) : parseValueLinear(c);
+            }
+        }
+
+        double[] xValues = new double[sampleCount];
+        double[] yValues = new double[sampleCount];
+        int valueCount = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            if (sampleXDataCounts[i] == 1 && sampleYDataCounts[i] == 1 && !nonNumerical[i]) {
+                xValues[valueCount] = sampleXValues[i];
+                yValues[valueCount] = sampleYValues[i];
+                valueCount++;
+            }
+        }
+
+        if (valueCount == 0) {
             return result;
         }
-        
-        Map<Boolean, List<ClinicalData>> partition = extractedXYClinicalData.stream().collect(
-            Collectors.partitioningBy(c -> c.getAttrId().equals(densityPlotParameters.getXAxisAttributeId())));
 
-        boolean useXLogScale = densityPlotParameters.getXAxisLogScale() && ClinicalDataDensityPlotServiceImpl.isLogScalePossibleForAttribute(densityPlotParameters.getXAxisAttributeId());
-        boolean useYLogScale = densityPlotParameters.getYAxisLogScale() && ClinicalDataDensityPlotServiceImpl.isLogScalePossibleForAttribute(densityPlotParameters.getYAxisAttributeId());
+        xValues = Arrays.copyOf(xValues, valueCount);
+        yValues = Arrays.copyOf(yValues, valueCount);
 
-        double[] xValues = partition.get(true).stream().mapToDouble(
-            useXLogScale ? ClinicalDataDensityPlotServiceImpl::parseValueLog : ClinicalDataDensityPlotServiceImpl::parseValueLinear
-        ).toArray();
-        double[] yValues = partition.get(false).stream().mapToDouble(
-            useYLogScale ? ClinicalDataDensityPlotServiceImpl::parseValueLog : ClinicalDataDensityPlotServiceImpl::parseValueLinear
-        ).toArray();
-        double[] xValuesCopy = Arrays.copyOf(xValues, xValues.length);
-        double[] yValuesCopy = Arrays.copyOf(yValues, yValues.length); // Why copy these?
-        Arrays.sort(xValuesCopy);
-        Arrays.sort(yValuesCopy);
-
-        double xAxisStartValue = densityPlotParameters.getXAxisStart() == null ? xValuesCopy[0] :
+        double xAxisStartValue = densityPlotParameters.getXAxisStart() == null ? min(xValues) :
             (useXLogScale ? ClinicalDataDensityPlotServiceImpl.logScale(densityPlotParameters.getXAxisStart().doubleValue()) : densityPlotParameters.getXAxisStart().doubleValue());
-        double xAxisEndValue = densityPlotParameters.getXAxisEnd() == null ? xValuesCopy[xValuesCopy.length - 1] :
+        double xAxisEndValue = densityPlotParameters.getXAxisEnd() == null ? max(xValues) :
             (useXLogScale ? ClinicalDataDensityPlotServiceImpl.logScale(densityPlotParameters.getXAxisEnd().doubleValue()) : densityPlotParameters.getXAxisEnd().doubleValue());
-        double yAxisStartValue = densityPlotParameters.getYAxisStart() == null ? yValuesCopy[0] :
+        double yAxisStartValue = densityPlotParameters.getYAxisStart() == null ? min(yValues) :
             (useYLogScale ? ClinicalDataDensityPlotServiceImpl.logScale(densityPlotParameters.getYAxisStart().doubleValue()) : densityPlotParameters.getYAxisStart().doubleValue());
-        double yAxisEndValue = densityPlotParameters.getYAxisEnd() == null ? yValuesCopy[yValuesCopy.length - 1] :
+        double yAxisEndValue = densityPlotParameters.getYAxisEnd() == null ? max(yValues) :
             (useYLogScale ? ClinicalDataDensityPlotServiceImpl.logScale(densityPlotParameters.getYAxisEnd().doubleValue()) : densityPlotParameters.getYAxisEnd().doubleValue());
         double xAxisBinInterval = (xAxisEndValue - xAxisStartValue) / densityPlotParameters.getXAxisBinCount();
         double yAxisBinInterval = (yAxisEndValue - yAxisStartValue) / densityPlotParameters.getYAxisBinCount();
-        List<DensityPlotBin> bins = result.getBins();
-        for (int i = 0; i < densityPlotParameters.getXAxisBinCount(); i++) {
-            for (int j = 0; j < densityPlotParameters.getYAxisBinCount(); j++) {
-                DensityPlotBin densityPlotBin = new DensityPlotBin();
-                densityPlotBin.setBinX(BigDecimal.valueOf(xAxisStartValue + (i * xAxisBinInterval)));
-                densityPlotBin.setBinY(BigDecimal.valueOf(yAxisStartValue + (j * yAxisBinInterval)));
-                densityPlotBin.setCount(0);
-                bins.add(densityPlotBin);
-            }
-        }
+        int xAxisBinCount = densityPlotParameters.getXAxisBinCount();
+        int yAxisBinCount = densityPlotParameters.getYAxisBinCount();
+        long binCount = (long) xAxisBinCount * yAxisBinCount;
 
+        // only the non-empty bins of the x-major grid are kept
+        SparseBins bins = new SparseBins((int) Math.min(binCount, valueCount));
         for (int i = 0; i < xValues.length; i++) {
             double xValue = xValues[i];
             double yValue = yValues[i];
             int xBinIndex = (int) ((xValue - xAxisStartValue) / xAxisBinInterval);
             int yBinIndex = (int) ((yValue - yAxisStartValue) / yAxisBinInterval);
-            int index = (int) (((xBinIndex - (xBinIndex == densityPlotParameters.getXAxisBinCount() ? 1 : 0)) * densityPlotParameters.getYAxisBinCount()) +
-                (yBinIndex - (yBinIndex == densityPlotParameters.getYAxisBinCount() ? 1 : 0)));
-            DensityPlotBin densityPlotBin = bins.get(index);
-            densityPlotBin.setCount(densityPlotBin.getCount() + 1);
-            BigDecimal xValueBigDecimal = BigDecimal.valueOf(xValue);
-            BigDecimal yValueBigDecimal = BigDecimal.valueOf(yValue);
-            
-            // Set new min and max as needed
-            if (densityPlotBin.getMinX() == null || densityPlotBin.getMinX().compareTo(xValueBigDecimal) > 0){
-                densityPlotBin.setMinX(xValueBigDecimal);
-            }
-            if (densityPlotBin.getMaxX() == null || densityPlotBin.getMaxX().compareTo(xValueBigDecimal) < 0){
-                densityPlotBin.setMaxX(xValueBigDecimal);
-            }
-            if (densityPlotBin.getMinY() == null || densityPlotBin.getMinY().compareTo(yValueBigDecimal) > 0){
-                densityPlotBin.setMinY(yValueBigDecimal);
-            }
-            if (densityPlotBin.getMaxY() == null || densityPlotBin.getMaxY().compareTo(yValueBigDecimal) < 0){
-                densityPlotBin.setMaxY(yValueBigDecimal);
+            int index = ((xBinIndex - (xBinIndex == xAxisBinCount ? 1 : 0)) * yAxisBinCount) +
+                (yBinIndex - (yBinIndex == yAxisBinCount ? 1 : 0));
+            if (index < 0 || index >= binCount) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + binCount);
             }
+            bins.add(index, xValue, yValue);
         }
 
+        List<DensityPlotBin> densityPlotBins = result.getBins();
+        bins.forEachInIndexOrder((index, count, minX, maxX, minY, maxY) -> {
+            DensityPlotBin densityPlotBin = new DensityPlotBin();
+            densityPlotBin.setBinX(BigDecimal.valueOf(xAxisStartValue + ((index / yAxisBinCount) * xAxisBinInterval)));
+            densityPlotBin.setBinY(BigDecimal.valueOf(yAxisStartValue + ((index % yAxisBinCount) * yAxisBinInterval)));
+            densityPlotBin.setCount(count);
+            densityPlotBin.setMinX(BigDecimal.valueOf(minX));
+            densityPlotBin.setMaxX(BigDecimal.valueOf(maxX));
+            densityPlotBin.setMinY(BigDecimal.valueOf(minY));
+            densityPlotBin.setMaxY(BigDecimal.valueOf(maxY));
+            densityPlotBins.add(densityPlotBin);
+        });
+
         if (xValues.length > 1) {
             // need at least 2 entries in each to compute correlation
             result.setPearsonCorr(new PearsonsCorrelation().correlation(xValues, yValues));
-            result.setSpearmanCorr(new SpearmansCorrelation().correlation(xValues, yValues));
+            result.setSpearmanCorr(SpearmansRankCorrelation.correlation(xValues, yValues));
         } else {
             // if less than 1 entry, just set 0 correlation
             result.setSpearmanCorr(0.0);
             result.setPearsonCorr(0.0);
         }
 
-        // filter out empty bins
-        result.setBins(result.getBins().stream().filter((bin)->(bin.getCount() > 0)).collect(Collectors.toList()));
         return result;
     }
 
+    private static double min(double[] values) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static double max(double[] values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * Count and value range of the non-empty density plot bins, in primitive arrays keyed by bin index with
+     * open addressing, so that memory depends on the number of occupied bins rather than on the grid size.
+     */
+    private static final class SparseBins {
+        private static final int FREE = -1;
+
+        private int[] indexes;
+        private int[] counts;
+        private double[] minX;
+        private double[] maxX;
+        private double[] minY;
+        private double[] maxY;
+        private int size;
+
+        SparseBins(int expectedSize) {
+            allocate(Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) * 2);
+        }
+
+        private void allocate(int capacity) {
+            indexes = new int[capacity];
+            Arrays.fill(indexes, FREE);
+            counts = new int[capacity];
+            minX = new double[capacity];
+            maxX = new double[capacity];
+            minY = new double[capacity];
+            maxY = new double[capacity];
+        }
+
+        void add(int index, double x, double y) {
+            int slot = slotOf(index);
+            if (indexes[slot] == FREE) {
+                indexes[slot] = index;
+                counts[slot] = 1;
+                minX[slot] = x;
+                maxX[slot] = x;
+                minY[slot] = y;
+                maxY[slot] = y;
+                if (++size * 2 > indexes.length) {
+                    grow();
+                }
+            } else {
+                counts[slot]++;
+                minX[slot] = Math.min(minX[slot], x);
+                maxX[slot] = Math.max(maxX[slot], x);
+                minY[slot] = Math.min(minY[slot], y);
+                maxY[slot] = Math.max(maxY[slot], y);
+            }
+        }
+
+        private int slotOf(int index) {
+            int mask = indexes.length - 1;
+            int hash = index * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (indexes[slot] != FREE && indexes[slot] != index) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldIndexes = indexes;
+            int[] oldCounts = counts;
+            double[] oldMinX = minX;
+            double[] oldMaxX = maxX;
+            double[] oldMinY = minY;
+            double[] oldMaxY = maxY;
+            allocate(oldIndexes.length * 2);
+            for (int oldSlot = 0; oldSlot < oldIndexes.length; oldSlot++) {
+                if (oldIndexes[oldSlot] != FREE) {
+                    int slot = slotOf(oldIndexes[oldSlot]);
+                    indexes[slot] = oldIndexes[oldSlot];
+                    counts[slot] = oldCounts[oldSlot];
+                    minX[slot] = oldMinX[oldSlot];
+                    maxX[slot] = oldMaxX[oldSlot];
+                    minY[slot] = oldMinY[oldSlot];
+                    maxY[slot] = oldMaxY[oldSlot];
+                }
+            }
+        }
+
+        void forEachInIndexOrder(BinConsumer consumer) {
+            // bin index in the upper half, slot in the lower half
+            long[] occupied = new long[size];
+            int n = 0;
+            for (int slot = 0; slot < indexes.length; slot++) {
+                if (indexes[slot] != FREE) {
+                    occupied[n++] = ((long) indexes[slot] << 32) | slot;
+                }
+            }
+            Arrays.sort(occupied);
+            for (long bin : occupied) {
+                int slot = (int) bin;
+                consumer.accept(indexes[slot], counts[slot], minX[slot], maxX[slot], minY[slot], maxY[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BinConsumer {
+        void accept(int index, int count, double minX, double maxX, double minY, double maxY);
+    }
 
     private static boolean isLogScalePossibleForAttribute(String clinicalAttributeId) {
         return clinicalAttributeId.equals("MUTATION_COUNT");
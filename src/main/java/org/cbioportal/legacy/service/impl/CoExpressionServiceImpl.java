@@ -19,6 +19,11 @@ import org.cbioportal.legacy.service.exception.SampleListNotFoundException;
 import org.cbioportal.legacy.persistence.MolecularDataRepository;
 import org.cbioportal.legacy.persistence.SampleListRepository;
 import org.cbioportal.legacy.service.util.CoExpressionAsyncMethods;
+import org.cbioportal.legacy.service.util.CoExpressionRankMatrix;
+import org.cbioportal.legacy.service.util.CoExpressionRankMatrixCache;
+import org.cbioportal.legacy.service.util.MolecularValuesDecoder;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation.RankedValues;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
@@ -27,11 +32,18 @@ import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 @Service
 public class CoExpressionServiceImpl implements CoExpressionService {
 
+    // number of genes/genesets handed to a worker thread at once
+    private static final int BATCH_SIZE = 256;
+    private static final int MAX_BATCHES_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
     @Autowired
     private CoExpressionAsyncMethods asyncMethods;
     @Autowired
@@ -46,6 +58,8 @@ public class CoExpressionServiceImpl implements CoExpressionService {
     private MolecularDataRepository molecularDataRepository;
     @Autowired
     private SampleService sampleService;
+    @Autowired
+    private CoExpressionRankMatrixCache rankMatrixCache;
 
     @Override
     // transaction needs to be setup here in order to return Iterable from molecularDataService in fetchCoExpressions
@@ -129,19 +143,15 @@ public class CoExpressionServiceImpl implements CoExpressionService {
             return Collections.emptyList();
         }
 
-        // These next few lines are used to build a map of internal sample ids to
-        // indices into the genetic_alteration.VALUES column. Recall this column
+        // These next few lines are used to get the internal sample ids in the order of
+        // the genetic_alteration.VALUES column. Recall this column
         // of the genetic_alteration table is a comma separated list of scalar values.
         // Each value in this list is associated with a sample at the same position found in
         // the genetic_profile_samples.ORDERED_SAMPLE_LIST column.
         MolecularProfileSamples commaSeparatedSampleIdsOfMolecularProfile = molecularDataRepository
             .getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId);
-        List<Integer> internalSampleIds = Arrays.stream(commaSeparatedSampleIdsOfMolecularProfile.getSplitSampleIds())
-            .mapToInt(Integer::parseInt).boxed().collect(Collectors.toList());
-        Map<Integer, Integer> internalSampleIdToIndexMap = new HashMap<>();
-        for (int lc = 0; lc < internalSampleIds.size(); lc++) {
-            internalSampleIdToIndexMap.put(internalSampleIds.get(lc), lc);
-        }
+        int[] internalSampleIds = Arrays.stream(commaSeparatedSampleIdsOfMolecularProfile.getSplitSampleIds())
+            .mapToInt(Integer::parseInt).toArray();
 
         // These next few lines build a list of Sample from the sampleIds method parameter (the user query).
         // A map is then built of internal sample ids to indices into the Sample list (although the map is
@@ -158,18 +168,36 @@ public class CoExpressionServiceImpl implements CoExpressionService {
         // These next few lines build a list of indices into the genetic_alteration.VALUES
         // column by iterating over all the samples in the molecular profile (method parameter)
         // and selecting only samples that are included in the user query.
-        Set<Integer> includedIndexes = new HashSet<>();
-        for (Integer internalSampleId : internalSampleIds) {
-            if (selectedSampleIdsMap.containsKey(internalSampleId)) {
-                includedIndexes.add(internalSampleIdToIndexMap.get(internalSampleId));
-            }
+        int[] includedIndexes = IntStream.range(0, internalSampleIds.length)
+            .filter(index -> selectedSampleIdsMap.containsKey(internalSampleIds[index]))
+            .toArray();
+
+        // These next few lines decode the genetic_alteration values of the query gene/geneset
+        // for the samples in the user query. Samples without a numeric value for the query gene/geneset
+        // can never contribute to a correlation, so they are dropped up front and the query values
+        // are ranked only once.
+        double[] allQueryValues = new double[includedIndexes.length];
+        MolecularValuesDecoder.decode(queryMolecularDataList.getValues(),
+            MolecularValuesDecoder.columnToSlot(internalSampleIds.length, includedIndexes), allQueryValues);
+        int[] queryIndexes = IntStream.range(0, includedIndexes.length)
+            .filter(slot -> !Double.isNaN(allQueryValues[slot]))
+            .toArray();
+        int[] queryColumns = Arrays.stream(queryIndexes).map(slot -> includedIndexes[slot]).toArray();
+
+        // When the rank matrix store is enabled, the ranks of all genes/genesets in the profile are
+        // computed once per import and the co-expressions are computed from those instead.
+        CoExpressionRankMatrix rankMatrix = rankMatrixCache.getRankMatrix(molecularProfileId, internalSampleIds,
+            () -> molecularDataRepository.getMolecularAlterationCount(molecularProfileId),
+            () -> geneticEntityType.equals(EntityType.GENESET)
+                ? molecularDataRepository.getGenesetMolecularAlterations(molecularProfileId, null, "SUMMARY")
+                : molecularDataRepository.getGeneMolecularAlterationsIterableFast(molecularProfileId));
+        if (rankMatrix != null) {
+            return computeCoExpressionsFromRankMatrix(rankMatrix, queryGeneticEntityId, queryColumns, threshold);
         }
 
-        // These next few lines filter out genetic_alteration values from the query gene/geneset
-        // genetic_alteration.VALUES column by considering only the indices of the samples in the user query.
-        List<String> queryValues = Arrays.asList(queryMolecularDataList.getSplitValues());
-        List<String> includedQueryValues = includedIndexes.stream().map(index -> queryValues.get(index))
-            .collect(Collectors.toList());
+        int[] columnToSlot = MolecularValuesDecoder.columnToSlot(internalSampleIds.length, queryColumns);
+        RankedValues rankedQueryValues = SpearmansRankCorrelation.rank(
+            Arrays.stream(queryIndexes).mapToDouble(slot -> allQueryValues[slot]).toArray());
 
         // Get an iterator to all the MolecularAlteration (genetic_alteration table records) in the profile
         if (geneticEntityType.equals(EntityType.GENE)) {
@@ -180,21 +208,71 @@ public class CoExpressionServiceImpl implements CoExpressionService {
 
         // For each MolecularAlteration in the profile, compute a CoExpression to return.
         // If the MolecularAlteration is for the query gene/geneset, skip it.  Otherwise,
-        // filter out genetic_alteration values from genetic_alteration.VALUES
-        // by considering oly the indices of the samples in the user query.
-        List<CompletableFuture<CoExpression>> returnFutures = new ArrayList<>();
+        // collect it into a batch. Each batch decodes the genetic_alteration.VALUES of the samples
+        // in the user query straight into a primitive buffer and correlates it with the ranked
+        // query values on a worker thread while the cursor is read further.
+        List<CompletableFuture<List<CoExpression>>> batchFutures = new ArrayList<>();
+        Semaphore batchesInFlight = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+        List<MolecularAlteration> batch = new ArrayList<>(BATCH_SIZE);
         for (MolecularAlteration ma : maItr) {
-            String entityId = ma.getStableId();
-            if (entityId.equals(queryGeneticEntityId)) {
+            if (ma.getStableId().equals(queryGeneticEntityId)) {
                 continue;
             }
-            List<String> internalValues = new ArrayList<>(Arrays.asList(ma.getSplitValues()));
-            List<String> values = includedIndexes.stream().map(index -> internalValues.get(index)).collect(Collectors.toList());
+            batch.add(ma);
+            if (batch.size() == BATCH_SIZE) {
+                List<MolecularAlteration> fullBatch = batch;
+                batchFutures.add(submitBatch(batchesInFlight,
+                    () -> asyncMethods.computeCoExpressions(fullBatch, columnToSlot, rankedQueryValues, threshold)));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<MolecularAlteration> lastBatch = batch;
+            batchFutures.add(submitBatch(batchesInFlight,
+                () -> asyncMethods.computeCoExpressions(lastBatch, columnToSlot, rankedQueryValues, threshold)));
+        }
+        return joinBatches(batchFutures);
+    }
 
-            CompletableFuture<CoExpression> future = asyncMethods.computeCoExpression(entityId, values, includedQueryValues, threshold);
-            returnFutures.add(future);
+    private List<CoExpression> computeCoExpressionsFromRankMatrix(CoExpressionRankMatrix rankMatrix,
+                                                                  String queryGeneticEntityId, int[] queryColumns,
+                                                                  Double threshold) {
+
+        int queryIndex = rankMatrix.indexOf(queryGeneticEntityId);
+        if (queryIndex < 0) {
+            return Collections.emptyList();
         }
-        return returnFutures.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(Collectors.toList());
+
+        RankedValues rankedQueryValues = SpearmansRankCorrelation.rank(rankMatrix.getRanks(queryIndex, queryColumns));
+        List<CompletableFuture<List<CoExpression>>> batchFutures = new ArrayList<>();
+        Semaphore batchesInFlight = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+        for (int fromIndex = 0; fromIndex < rankMatrix.size(); fromIndex += BATCH_SIZE) {
+            int batchFromIndex = fromIndex;
+            int batchToIndex = Math.min(fromIndex + BATCH_SIZE, rankMatrix.size());
+            batchFutures.add(submitBatch(batchesInFlight, () -> asyncMethods.computeCoExpressions(rankMatrix,
+                batchFromIndex, batchToIndex, queryIndex, queryColumns, rankedQueryValues, threshold)));
+        }
+        return joinBatches(batchFutures);
+    }
+
+    // Limits the number of batches that are queued or running, so that reading the cursor can not run
+    // arbitrarily far ahead of the computation.
+    private CompletableFuture<List<CoExpression>> submitBatch(Semaphore batchesInFlight,
+                                                              Supplier<CompletableFuture<List<CoExpression>>> batch) {
+        batchesInFlight.acquireUninterruptibly();
+        CompletableFuture<List<CoExpression>> future;
+        try {
+            future = batch.get();
+        } catch (RuntimeException e) {
+            batchesInFlight.release();
+            throw e;
+        }
+        future.whenComplete((coExpressions, throwable) -> batchesInFlight.release());
+        return future;
+    }
+
+    private List<CoExpression> joinBatches(List<CompletableFuture<List<CoExpression>>> batchFutures) {
+        return batchFutures.stream().map(CompletableFuture::join).flatMap(List::stream).collect(Collectors.toList());
     }
 
     @Override
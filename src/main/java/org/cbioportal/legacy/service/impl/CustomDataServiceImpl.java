@@ -1,58 +1,97 @@
 package org.cbioportal.legacy.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
 import org.cbioportal.legacy.service.CustomDataService;
 import org.cbioportal.legacy.service.util.CustomDataSession;
 import org.cbioportal.legacy.service.util.SessionServiceRequestHandler;
 import org.cbioportal.legacy.utils.removeme.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomDataServiceImpl implements CustomDataService {
+    private static final Logger LOG = LoggerFactory.getLogger(CustomDataServiceImpl.class);
+
     @Autowired
     private SessionServiceRequestHandler sessionServiceRequestHandler;
     
     @Autowired
     private ObjectMapper sessionServiceObjectMapper;
 
+    @Value("${session.service.custom_data_cache.ttl_mins:60}")
+    private long customDataCacheTtlMinutes;
+
+    @Value("${session.service.custom_data_cache.max_entries:1000}")
+    private long customDataCacheMaxEntries;
+
+    // custom data sessions are immutable once created, only their users may change
+    private Cache<String, CustomDataSession> customDataSessionCache;
+
+    @PostConstruct
+    public void init() {
+        customDataSessionCache = CacheBuilder.newBuilder()
+            .maximumSize(customDataCacheTtlMinutes > 0 ? customDataCacheMaxEntries : 0)
+            .expireAfterWrite(Math.max(customDataCacheTtlMinutes, 1), TimeUnit.MINUTES)
+            .build();
+    }
+
     /**
-     * Retrieve CustomDataSession from session service for custom data attributes. 
+     * Retrieve CustomDataSession from session service for custom data attributes. Sessions are cached, the
+     * sessions that are not cached are requested from the session service at once.
      * @param customAttributeIds - attribute id/hash of custom data used as session service key.
      * @return Map of custom data attribute id to the CustomDataSession
      */
     @Override
     public Map<String, CustomDataSession> getCustomDataSessions(List<String> customAttributeIds) {
-        Map<String, CompletableFuture<CustomDataSession>> postFuturesMap = customAttributeIds.stream()
+        Map<String, CustomDataSession> customDataSessions = new HashMap<>(
+            customDataSessionCache.getAllPresent(customAttributeIds));
+
+        Map<String, CompletableFuture<CustomDataSession>> postFuturesMap = new LinkedHashSet<>(customAttributeIds)
+            .stream()
+            .filter(attributeId -> !customDataSessions.containsKey(attributeId))
             .collect(Collectors.toMap(
                 attributeId -> attributeId,
-                attributeId -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        String customDataSessionJson = sessionServiceRequestHandler.getSessionDataJson(
-                            Session.SessionType.custom_data,
-                            attributeId
-                        );
-                        return sessionServiceObjectMapper.readValue(customDataSessionJson, CustomDataSession.class);
-                    } catch (Exception e) {
+                attributeId -> sessionServiceRequestHandler
+                    .getSessionDataJsonAsync(Session.SessionType.custom_data, attributeId)
+                    .thenApply(this::readCustomDataSession)
+                    .exceptionally(e -> {
+                        LOG.debug("Could not read custom data session {}: ", attributeId, e);
                         return null;
-                    }
-                })
+                    })
             ));
 
         CompletableFuture.allOf(postFuturesMap.values().toArray(new CompletableFuture[postFuturesMap.size()])).join();
 
-        Map<String, CustomDataSession> customDataSessions = postFuturesMap.entrySet().stream()
-            .filter(entry -> entry.getValue().join() != null)
-            .collect(Collectors.toMap(
-                entry -> entry.getKey(),
-                entry -> entry.getValue().join()
-            ));
+        postFuturesMap.forEach((attributeId, future) -> {
+            CustomDataSession customDataSession = future.join();
+            if (customDataSession != null) {
+                customDataSessionCache.put(attributeId, customDataSession);
+                customDataSessions.put(attributeId, customDataSession);
+            }
+        });
 
         return customDataSessions;
     }
+
+    private CustomDataSession readCustomDataSession(String customDataSessionJson) {
+        try {
+            return sessionServiceObjectMapper.readValue(customDataSessionJson, CustomDataSession.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not parse custom data session", e);
+        }
+    }
 }
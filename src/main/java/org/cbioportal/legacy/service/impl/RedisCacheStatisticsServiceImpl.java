@@ -88,6 +88,21 @@ public class RedisCacheStatisticsServiceImpl implements CacheStatisticsService {
 
     @Override
     public String getCacheStatistics() {
-        throw new UnsupportedOperationException("Requested API is not implemented yet");
+        checkIfCacheStatisticsEndpointEnabled();
+        StringBuilder builder = new StringBuilder();
+        builder.append("\n\nCACHE_STATISTICS START\n\n");
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CustomRedisCache redisCache) {
+                builder.append("Cache: " + cacheName + "\n");
+                builder.append(redisCache.getCodecStatistics() + "\n");
+                if (redisCache.getNearCache() != null) {
+                    builder.append("Near cache entries: " + redisCache.getNearCache().size() + "\n");
+                }
+                builder.append("\n");
+            }
+        }
+        builder.append("CACHE_STATISTICS END\n");
+        return builder.toString();
     }
 }
@@ -1,7 +1,6 @@
 package org.cbioportal.legacy.service.impl;
 
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.analysis.function.Gaussian;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.cbioportal.legacy.model.ClinicalData;
 import org.cbioportal.legacy.model.ClinicalViolinPlotBoxData;
@@ -10,6 +9,9 @@ import org.cbioportal.legacy.model.ClinicalViolinPlotIndividualPoint;
 import org.cbioportal.legacy.model.ClinicalViolinPlotRowData;
 import org.cbioportal.legacy.model.Sample;
 import org.cbioportal.legacy.service.ViolinPlotService;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
+import org.cbioportal.legacy.service.util.GaussianKernelDensity;
 import org.cbioportal.legacy.web.parameter.StudyViewFilter;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -22,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
@@ -164,13 +167,11 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
 
         // Create curves
         // By this point, we know the axis bounds
-        List<Double> curvePoints = new ArrayList<>();
         Double stepSize = (result.getAxisEnd() - result.getAxisStart()) / (numCurvePoints.doubleValue()-1);
-        for (int i=0; i<numCurvePoints.intValue(); i++) {
-            curvePoints.add(result.getAxisStart() + i*stepSize);
-        }
         double sigma = sigmaMultiplier.doubleValue()*stepSize;
         List<ClinicalViolinPlotRowData> rows = result.getRows();
+        // by category, which is unique among the rows
+        Map<String, Future<double[]>> curves = new HashMap<>();
         nonOutliers.forEach((category, data)->{
             ClinicalViolinPlotRowData row = new ClinicalViolinPlotRowData();
             row.setCategory(category);
@@ -186,21 +187,14 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
                 _individualPoints.addAll(outliers.get(category));
             } else {
                 // build violin only based on non-outliers
-                List<Gaussian> gaussians = new ArrayList<>();
-                for (ClinicalData d : data) {
-                    Double value = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue());
-                    gaussians.add(new Gaussian(value, sigma));
+                double[] values = new double[data.size()];
+                for (int i = 0; i < values.length; i++) {
+                    String value = data.get(i).getAttrValue();
+                    values[i] = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(value)) : Double.parseDouble(value);
                 }
-                
-                row.setCurveData(
-                    curvePoints.parallelStream().map(p -> {
-                        BigDecimal sum = new BigDecimal(0);
-                        for (Gaussian g : gaussians) {
-                            sum = sum.add(BigDecimal.valueOf(g.value(p)));
-                        }
-                        return sum.doubleValue();
-                    }).collect(Collectors.toList())
-                );
+
+                curves.put(category, ComputeExecutors.submit(Workload.PLOTTING, () -> GaussianKernelDensity.estimate(
+                    values, result.getAxisStart(), stepSize, numCurvePoints.intValue(), sigma)));
 
                 // render outliers as individual points
                 _individualPoints = outliers.get(category);
@@ -217,6 +211,13 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
             row.setIndividualPoints(individualPoints);
             rows.add(row);
         });
+
+        for (ClinicalViolinPlotRowData row : rows) {
+            Future<double[]> curve = curves.get(row.getCategory());
+            if (curve != null) {
+                row.setCurveData(Arrays.stream(ComputeExecutors.getResult(curve)).boxed().toList());
+            }
+        }
         
         // put everything into bins and then do one gaussian per bin, weighted by bin size
         return result;
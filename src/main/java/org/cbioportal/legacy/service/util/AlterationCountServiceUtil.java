@@ -8,6 +8,7 @@ import org.cbioportal.legacy.model.Gistic;
 import org.cbioportal.legacy.model.GisticToGene;
 import org.cbioportal.legacy.model.MolecularProfile;
 import org.cbioportal.legacy.model.MutSig;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
 import org.springframework.lang.NonNull;
 
 import java.util.HashMap;
@@ -35,11 +36,11 @@ public class AlterationCountServiceUtil {
         Map<String, MutSig> mutSigs) {
 
         if (!mutSigs.isEmpty()) {
-            alterationCountByGenes.parallelStream()
-                .filter(alterationCount -> mutSigs.containsKey(alterationCount.getHugoGeneSymbol()))
-                .forEach(alterationCount ->
-                    alterationCount.setqValue(mutSigs.get(alterationCount.getHugoGeneSymbol()).getqValue())
-                );
+            ComputeExecutors.forEach(Workload.COUNTING, alterationCountByGenes, alterationCount -> {
+                if (mutSigs.containsKey(alterationCount.getHugoGeneSymbol())) {
+                    alterationCount.setqValue(mutSigs.get(alterationCount.getHugoGeneSymbol()).getqValue());
+                }
+            });
         }
         return alterationCountByGenes;
     }
@@ -49,11 +50,12 @@ public class AlterationCountServiceUtil {
         Map<Pair<String, Integer>, Gistic> gisticMap) {
 
         if (!gisticMap.isEmpty()) {
-            alterationCountByGenes.parallelStream()
-                .filter(alterationCount -> gisticMap.containsKey(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration())))
-                .forEach(alterationCount ->
-                    alterationCount.setqValue(gisticMap.get(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration())).getqValue())
-                );
+            ComputeExecutors.forEach(Workload.COUNTING, alterationCountByGenes, alterationCount -> {
+                Gistic gistic = gisticMap.get(Pair.create(alterationCount.getHugoGeneSymbol(), alterationCount.getAlteration()));
+                if (gistic != null) {
+                    alterationCount.setqValue(gistic.getqValue());
+                }
+            });
         }
         return alterationCountByGenes;
     }
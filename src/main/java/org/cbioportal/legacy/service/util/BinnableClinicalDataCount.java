@@ -0,0 +1,50 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.model.Binnable;
+import org.cbioportal.legacy.model.ClinicalDataCount;
+
+import java.io.Serializable;
+
+/**
+ * A clinical data value together with the number of samples or patients having it.
+ * DataBinner counts it as many times as its count, so that already aggregated clinical data counts
+ * can be binned without generating one ClinicalData per sample or patient.
+ */
+public class BinnableClinicalDataCount implements Binnable, Serializable {
+
+    private final ClinicalDataCount clinicalDataCount;
+
+    public BinnableClinicalDataCount(ClinicalDataCount clinicalDataCount) {
+        this.clinicalDataCount = clinicalDataCount;
+    }
+
+    public String getSampleId() {
+        return null;
+    }
+
+    public String getPatientId() {
+        return null;
+    }
+
+    public String getStudyId() {
+        return null;
+    }
+
+    public String getAttrId() {
+        return clinicalDataCount.getAttributeId();
+    }
+
+    public Boolean isPatientAttribute() {
+        return null;
+    }
+
+    public String getAttrValue() {
+        return clinicalDataCount.getValue();
+    }
+
+    @Override
+    public int getCount() {
+        return clinicalDataCount.getCount();
+    }
+
+}
@@ -3,14 +3,11 @@ package org.cbioportal.legacy.service.util;
 import org.springframework.stereotype.Component;
 import org.springframework.scheduling.annotation.Async;
 import org.cbioportal.legacy.model.CoExpression;
-import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
-import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.cbioportal.legacy.model.MolecularAlteration;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation.RankedValues;
 
-import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.List;
 import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
 
@@ -20,43 +17,97 @@ public class CoExpressionAsyncMethods {
     @Async
     public CompletableFuture<CoExpression> computeCoExpression(String entityId, List<String> valuesA, List<String> valuesB, Double threshold) {
 
-        List<String> valuesACopy = new ArrayList<>(valuesA);
-        List<String> valuesBCopy = new ArrayList<>(valuesB);
+        int length = Math.min(valuesA.size(), valuesB.size());
+        double[] valuesANumber = new double[length];
+        double[] valuesBNumber = new double[length];
+        for (int i = 0; i < length; i++) {
+            valuesANumber[i] = MolecularValuesDecoder.parseValue(valuesA.get(i));
+            valuesBNumber[i] = MolecularValuesDecoder.parseValue(valuesB.get(i));
+        }
 
-        Iterator<String> itA = valuesACopy.listIterator();
-        Iterator<String> itB = valuesBCopy.listIterator();
-        while (itA.hasNext() && itB.hasNext()) {
-            if (!NumberUtils.isCreatable(itA.next()) | !NumberUtils.isCreatable(itB.next())) {
-                itA.remove();
-                itB.remove();
-            }
+        CoExpression coExpression = correlate(entityId, valuesANumber, SpearmansRankCorrelation.rank(valuesBNumber),
+            threshold);
+        if (coExpression == null) {
+            return null;
         }
+        return CompletableFuture.completedFuture(coExpression);
+    }
 
-        CoExpression coExpression = new CoExpression();
-        coExpression.setGeneticEntityId(entityId);
+    /**
+     * Computes the co-expressions of a batch of genetic_alteration records against the pre-ranked query values.
+     * Only the columns mapped by columnToSlot are decoded; genes/genesets with a correlation below the threshold
+     * are left out of the result.
+     */
+    @Async
+    public CompletableFuture<List<CoExpression>> computeCoExpressions(List<? extends MolecularAlteration> molecularAlterations,
+                                                                     int[] columnToSlot, RankedValues queryValues,
+                                                                     Double threshold) {
 
-        double[] valuesBNumber = valuesBCopy.stream().mapToDouble(Double::parseDouble).toArray();
-        double[] valuesANumber = valuesACopy.stream().mapToDouble(Double::parseDouble).toArray();
+        List<CoExpression> coExpressions = new ArrayList<>();
+        double[] values = new double[queryValues.size()];
+        for (MolecularAlteration ma : molecularAlterations) {
+            MolecularValuesDecoder.decode(ma.getValues(), columnToSlot, values);
+            CoExpression coExpression = correlate(ma.getStableId(), values, queryValues, threshold);
+            if (coExpression != null) {
+                coExpressions.add(coExpression);
+            }
+        }
+        return CompletableFuture.completedFuture(coExpressions);
+    }
 
-        if (valuesANumber.length <= 2) {
-            return null;
+    /**
+     * Computes the co-expressions of the genes/genesets in [fromIndex, toIndex) of a rank matrix against the query
+     * gene/geneset. On the full sample set complete genes/genesets are correlated with a dot product of their
+     * ranks, otherwise their stored ranks in the query columns stand in for the original values.
+     */
+    @Async
+    public CompletableFuture<List<CoExpression>> computeCoExpressions(CoExpressionRankMatrix rankMatrix, int fromIndex,
+                                                                     int toIndex, int queryIndex, int[] queryColumns,
+                                                                     RankedValues queryRanks, Double threshold) {
+
+        boolean allSamples = queryColumns.length == rankMatrix.getInternalSampleIds().length;
+        List<CoExpression> coExpressions = new ArrayList<>();
+        for (int index = fromIndex; index < toIndex; index++) {
+            if (index == queryIndex) {
+                continue;
+            }
+            String entityId = rankMatrix.getEntityId(index);
+            CoExpression coExpression = allSamples && rankMatrix.isComplete(index)
+                ? toCoExpression(entityId, rankMatrix.correlation(queryIndex, index), queryColumns.length, threshold)
+                : correlate(entityId, rankMatrix.getRanks(index, queryColumns), queryRanks, threshold);
+            if (coExpression != null) {
+                coExpressions.add(coExpression);
+            }
         }
+        return CompletableFuture.completedFuture(coExpressions);
+    }
 
-        double[][] arrays = new double[2][valuesANumber.length];
-        arrays[0] = valuesBNumber;
-        arrays[1] = valuesANumber;
-        SpearmansCorrelation spearmansCorrelation = new SpearmansCorrelation((new Array2DRowRealMatrix(arrays, false)).transpose());
+    /**
+     * Creates the co-expression for an already computed correlation coefficient.
+     *
+     * @return the co-expression, or null if the correlation is undefined or below the threshold
+     */
+    public CoExpression toCoExpression(String entityId, double spearmansValue, int sampleCount, Double threshold) {
 
-        double spearmansValue = spearmansCorrelation.correlation(valuesBNumber, valuesANumber);
         if (Double.isNaN(spearmansValue) || Math.abs(spearmansValue) < threshold) {
             return null;
         }
+
+        CoExpression coExpression = new CoExpression();
+        coExpression.setGeneticEntityId(entityId);
         coExpression.setSpearmansCorrelation(BigDecimal.valueOf(spearmansValue));
+        coExpression.setpValue(BigDecimal.valueOf(SpearmansRankCorrelation.pValue(spearmansValue, sampleCount)));
+        return coExpression;
+    }
 
-        RealMatrix resultMatrix = spearmansCorrelation.getRankCorrelation().getCorrelationPValues();
-        coExpression.setpValue(BigDecimal.valueOf(resultMatrix.getEntry(0, 1)));
+    private CoExpression correlate(String entityId, double[] values, RankedValues queryValues, Double threshold) {
 
-        return CompletableFuture.supplyAsync(() -> coExpression);
+        double spearmansValue = SpearmansRankCorrelation.correlation(values, queryValues);
+        if (Double.isNaN(spearmansValue) || Math.abs(spearmansValue) < threshold) {
+            return null;
+        }
+        return toCoExpression(entityId, spearmansValue, SpearmansRankCorrelation.countPairs(values, queryValues),
+            threshold);
     }
 
 }
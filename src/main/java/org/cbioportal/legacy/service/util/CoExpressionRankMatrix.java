@@ -0,0 +1,149 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.model.MolecularAlteration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ranks of every gene/geneset of a molecular profile over all samples of the profile. Ranks are stored
+ * doubled so that tied (half) ranks fit in an int, with 0 marking a missing value.
+ *
+ * Because Spearman's correlation only depends on the order of the values, a subset of samples can be
+ * correlated on the stored ranks instead of the original values with identical results. On the full sample
+ * set, genes without missing values are correlated with a single pass of integer dot products: the mean rank
+ * of n values is always (n + 1) / 2, so the centered doubled ranks are exact integers.
+ */
+public class CoExpressionRankMatrix {
+
+    private final int[] internalSampleIds;
+    private final String[] entityIds;
+    private final int[][] doubledRanks;
+    // sum of squares of the centered doubled ranks, or -1 if the gene/geneset has missing values
+    private final long[] sumsOfSquares;
+
+    private CoExpressionRankMatrix(int[] internalSampleIds, String[] entityIds, int[][] doubledRanks) {
+        this.internalSampleIds = internalSampleIds;
+        this.entityIds = entityIds;
+        this.doubledRanks = doubledRanks;
+        this.sumsOfSquares = new long[doubledRanks.length];
+        for (int i = 0; i < doubledRanks.length; i++) {
+            sumsOfSquares[i] = sumOfSquares(doubledRanks[i]);
+        }
+    }
+
+    /**
+     * Builds the rank matrix from the genetic_alteration records of a molecular profile.
+     *
+     * @param internalSampleIds internal sample ids in the order of the genetic_alteration.VALUES column
+     */
+    public static CoExpressionRankMatrix build(int[] internalSampleIds,
+                                               Iterable<? extends MolecularAlteration> molecularAlterations) {
+        int sampleCount = internalSampleIds.length;
+        int[] columnToSlot = new int[sampleCount];
+        Arrays.setAll(columnToSlot, column -> column);
+
+        List<String> entityIds = new ArrayList<>();
+        List<int[]> doubledRanks = new ArrayList<>();
+        double[] values = new double[sampleCount];
+        double[] presentValues = new double[sampleCount];
+        double[] scratch = new double[sampleCount];
+        double[] ranks = new double[sampleCount];
+        for (MolecularAlteration ma : molecularAlterations) {
+            MolecularValuesDecoder.decode(ma.getValues(), columnToSlot, values);
+            int present = 0;
+            for (int i = 0; i < sampleCount; i++) {
+                if (!Double.isNaN(values[i])) {
+                    presentValues[present++] = values[i];
+                }
+            }
+            SpearmansRankCorrelation.rank(presentValues, present, scratch, ranks);
+            int[] geneRanks = new int[sampleCount];
+            for (int i = 0, slot = 0; i < sampleCount; i++) {
+                if (!Double.isNaN(values[i])) {
+                    geneRanks[i] = (int) (ranks[slot++] * 2);
+                }
+            }
+            entityIds.add(ma.getStableId());
+            doubledRanks.add(geneRanks);
+        }
+        return new CoExpressionRankMatrix(internalSampleIds, entityIds.toArray(new String[0]),
+            doubledRanks.toArray(new int[0][]));
+    }
+
+    public int[] getInternalSampleIds() {
+        return internalSampleIds;
+    }
+
+    public int size() {
+        return entityIds.length;
+    }
+
+    public String getEntityId(int index) {
+        return entityIds[index];
+    }
+
+    public int indexOf(String entityId) {
+        for (int i = 0; i < entityIds.length; i++) {
+            if (entityIds[i].equals(entityId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getCellCount() {
+        return (long) entityIds.length * internalSampleIds.length;
+    }
+
+    /**
+     * Returns the (doubled) ranks of a gene/geneset in the given columns, NaN for missing values. The result
+     * has the same order as the original values and can be used in their place for rank correlation.
+     */
+    public double[] getRanks(int index, int[] columns) {
+        int[] geneRanks = doubledRanks[index];
+        double[] result = new double[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            int rank = geneRanks[columns[i]];
+            result[i] = rank == 0 ? Double.NaN : rank;
+        }
+        return result;
+    }
+
+    /**
+     * Whether the gene/geneset has a value for every sample of the profile.
+     */
+    public boolean isComplete(int index) {
+        return sumsOfSquares[index] >= 0;
+    }
+
+    /**
+     * Spearman's correlation of two complete genes/genesets over all samples of the profile.
+     */
+    public double correlation(int indexA, int indexB) {
+        int[] ranksA = doubledRanks[indexA];
+        int[] ranksB = doubledRanks[indexB];
+        if (ranksA.length <= 2 || sumsOfSquares[indexA] == 0 || sumsOfSquares[indexB] == 0) {
+            return Double.NaN;
+        }
+        int offset = internalSampleIds.length + 1;
+        long dotProduct = 0;
+        for (int i = 0; i < ranksA.length; i++) {
+            dotProduct += (long) (ranksA[i] - offset) * (ranksB[i] - offset);
+        }
+        return dotProduct / (Math.sqrt(sumsOfSquares[indexA]) * Math.sqrt(sumsOfSquares[indexB]));
+    }
+
+    private static long sumOfSquares(int[] geneRanks) {
+        int offset = geneRanks.length + 1;
+        long sum = 0;
+        for (int rank : geneRanks) {
+            if (rank == 0) {
+                return -1;
+            }
+            sum += (long) (rank - offset) * (rank - offset);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,130 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.model.MolecularAlteration;
+import org.cbioportal.legacy.persistence.util.SingleFlight;
+import org.cbioportal.legacy.service.StaticDataTimestampService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Heap store of {@link CoExpressionRankMatrix} per molecular profile. Entries are keyed by molecular profile
+ * id and the update timestamps of the genetic_alteration tables, so a re-import of a study invalidates them.
+ * The store is disabled unless coexpression.rank_matrix_cache.max_mega_bytes_heap is set; when full, the
+ * least recently used matrices are dropped. Concurrent requests for a matrix that is not stored wait for a single
+ * build of it.
+ */
+@Component
+public class CoExpressionRankMatrixCache {
+
+    private static final List<String> TABLES = Arrays.asList("genetic_alteration", "genetic_profile_samples");
+    // a cell is stored as one int
+    private static final long BYTES_PER_CELL = Integer.BYTES;
+
+    @Autowired
+    private StaticDataTimestampService timestampService;
+
+    @Value("${coexpression.rank_matrix_cache.max_mega_bytes_heap:0}")
+    private long maxMegaBytesHeap;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cellCount = 0;
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private static class Entry {
+        private final String timestamp;
+        private final CoExpressionRankMatrix rankMatrix;
+
+        private Entry(String timestamp, CoExpressionRankMatrix rankMatrix) {
+            this.timestamp = timestamp;
+            this.rankMatrix = rankMatrix;
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxMegaBytesHeap > 0;
+    }
+
+    /**
+     * Returns the rank matrix of the molecular profile, building it from the genetic_alteration records if it
+     * is not stored or out of date. Returns null if the store is disabled or if the matrix, estimated from the
+     * number of samples and genetic_alteration records, would be larger than the whole store; the caller then
+     * computes the co-expressions from streamed records instead.
+     *
+     * @param internalSampleIds internal sample ids in the order of the genetic_alteration.VALUES column
+     * @param molecularAlterationCount supplies the number of genetic_alteration records of the profile
+     * @param molecularAlterations supplies all genetic_alteration records of the profile
+     */
+    public CoExpressionRankMatrix getRankMatrix(String molecularProfileId, int[] internalSampleIds,
+                                                IntSupplier molecularAlterationCount,
+                                                Supplier<Iterable<? extends MolecularAlteration>> molecularAlterations) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String timestamp = new TreeMap<>(timestampService.getTimestamps(TABLES)).toString();
+        CoExpressionRankMatrix rankMatrix = getStoredRankMatrix(molecularProfileId, timestamp, internalSampleIds);
+        if (rankMatrix != null) {
+            return rankMatrix;
+        }
+        long estimatedCellCount = (long) molecularAlterationCount.getAsInt() * internalSampleIds.length;
+        if (estimatedCellCount * BYTES_PER_CELL > maxMegaBytesHeap * 1024 * 1024) {
+            return null;
+        }
+        try {
+            rankMatrix = singleFlight.execute(molecularProfileId, () -> {
+                CoExpressionRankMatrix stored = getStoredRankMatrix(molecularProfileId, timestamp, internalSampleIds);
+                return stored != null
+                    ? stored
+                    : buildAndStore(molecularProfileId, timestamp, internalSampleIds, molecularAlterations);
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not build the rank matrix of " + molecularProfileId, e);
+        }
+        // the build of a concurrent request for other samples of the profile is of no use
+        if (!Arrays.equals(rankMatrix.getInternalSampleIds(), internalSampleIds)) {
+            rankMatrix = buildAndStore(molecularProfileId, timestamp, internalSampleIds, molecularAlterations);
+        }
+        return rankMatrix;
+    }
+
+    private CoExpressionRankMatrix getStoredRankMatrix(String molecularProfileId, String timestamp,
+                                                       int[] internalSampleIds) {
+        synchronized (entries) {
+            Entry entry = entries.get(molecularProfileId);
+            if (entry != null && entry.timestamp.equals(timestamp)
+                && Arrays.equals(entry.rankMatrix.getInternalSampleIds(), internalSampleIds)) {
+                return entry.rankMatrix;
+            }
+            return null;
+        }
+    }
+
+    private CoExpressionRankMatrix buildAndStore(String molecularProfileId, String timestamp, int[] internalSampleIds,
+                                                 Supplier<Iterable<? extends MolecularAlteration>> molecularAlterations) {
+        CoExpressionRankMatrix rankMatrix = CoExpressionRankMatrix.build(internalSampleIds, molecularAlterations.get());
+        synchronized (entries) {
+            Entry previous = entries.put(molecularProfileId, new Entry(timestamp, rankMatrix));
+            if (previous != null) {
+                cellCount -= previous.rankMatrix.getCellCount();
+            }
+            cellCount += rankMatrix.getCellCount();
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (cellCount * BYTES_PER_CELL > maxMegaBytesHeap * 1024 * 1024) {
+                cellCount -= leastRecentlyUsed.next().rankMatrix.getCellCount();
+                leastRecentlyUsed.remove();
+            }
+        }
+        return rankMatrix;
+    }
+}
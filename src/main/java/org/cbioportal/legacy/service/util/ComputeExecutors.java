@@ -0,0 +1,281 @@
+package org.cbioportal.legacy.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded thread pools for CPU heavy work done while serving a request, one per kind of workload, so that
+ * parallel computations of different endpoints do not compete for the JVM wide common ForkJoinPool (request
+ * threads may be virtual threads, which must not be used for this kind of work).
+ *
+ * Each pool has a bounded queue; when it is full the submitting thread runs the task itself. A single call
+ * splits its work into at most {@link Workload#getMaxParallelism()} parts, and the calling thread works on the
+ * parts that have not been started by the pool, so that a request never waits for queued work of others.
+ * Queue depth and task latency of every pool are available through {@link #getStatistics()}, which is served
+ * by the /api/computeExecutorStatistics endpoint.
+ */
+public final class ComputeExecutors {
+
+    // lists smaller than this are not worth handing to other threads
+    private static final int MIN_ITEMS_PER_PART = 1024;
+
+    /**
+     * Kinds of workload, each with its own pool. Pool sizes and the parallelism of a single call are given as
+     * divisors of the number of available processors.
+     */
+    public enum Workload {
+        // alteration and clinical data counts
+        COUNTING(1, 2),
+        // enrichments, correlations and other statistical tests
+        STATISTICS(1, 2),
+        // density estimates and other plot data
+        PLOTTING(2, 2);
+
+        private final int threads;
+        private final int maxParallelism;
+
+        Workload(int threadsDivisor, int maxParallelismDivisor) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            this.threads = Math.max(1, processors / threadsDivisor);
+            this.maxParallelism = Math.max(1, processors / maxParallelismDivisor);
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * The maximum number of threads a single call works on at once, including the calling thread.
+         */
+        public int getMaxParallelism() {
+            return maxParallelism;
+        }
+    }
+
+    private static final InstrumentedExecutor[] executors = Arrays.stream(Workload.values())
+        .map(InstrumentedExecutor::new)
+        .toArray(InstrumentedExecutor[]::new);
+
+    private ComputeExecutors() {
+    }
+
+    /**
+     * Submits a task to the pool of the workload. The task is run by the calling thread if the pool is
+     * saturated, or if the calling thread is itself a thread of the pool.
+     */
+    public static <T> Future<T> submit(Workload workload, Callable<T> task) {
+        InstrumentedExecutor executor = executors[workload.ordinal()];
+        if (executor.isPoolThread()) {
+            FutureTask<T> futureTask = new FutureTask<>(task);
+            futureTask.run();
+            return futureTask;
+        }
+        return executor.submit(task);
+    }
+
+    /**
+     * Waits for a task submitted with {@link #submit(Workload, Callable)} and rethrows its runtime exceptions.
+     */
+    public static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException("Unexpected exception during execution", e);
+        }
+    }
+
+    /**
+     * Applies the action to every item, in parallel on the pool of the workload for large lists.
+     */
+    public static <T> void forEach(Workload workload, List<T> items, Consumer<? super T> action) {
+        map(workload, items, item -> {
+            action.accept(item);
+            return null;
+        });
+    }
+
+    /**
+     * Maps every item, in parallel on the pool of the workload for large lists. The results are in the order
+     * of the items.
+     */
+    public static <T, R> List<R> map(Workload workload, List<T> items, Function<? super T, ? extends R> mapper) {
+        InstrumentedExecutor executor = executors[workload.ordinal()];
+        int parts = Math.min(workload.getMaxParallelism(), items.size() / MIN_ITEMS_PER_PART);
+        if (parts <= 1 || executor.isPoolThread()) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(mapper.apply(item));
+            }
+            return results;
+        }
+
+        List<FutureTask<List<R>>> tasks = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            List<T> partItems = items.subList(
+                (int) ((long) items.size() * part / parts),
+                (int) ((long) items.size() * (part + 1) / parts)
+            );
+            tasks.add(new FutureTask<>(() -> {
+                List<R> results = new ArrayList<>(partItems.size());
+                for (T item : partItems) {
+                    results.add(mapper.apply(item));
+                }
+                return results;
+            }));
+        }
+        // the first part is left to the calling thread
+        for (int part = 1; part < parts; part++) {
+            executor.execute(tasks.get(part));
+        }
+        List<R> results = new ArrayList<>(items.size());
+        for (FutureTask<List<R>> task : tasks) {
+            // run the parts the pool has not started yet, this is a no-op for started parts
+            task.run();
+        }
+        for (FutureTask<List<R>> task : tasks) {
+            results.addAll(getResult(task));
+        }
+        return results;
+    }
+
+    /**
+     * Current statistics of the pools, in the order of {@link Workload#values()}.
+     */
+    public static List<Statistics> getStatistics() {
+        return Arrays.stream(executors).map(InstrumentedExecutor::getStatistics).toList();
+    }
+
+    /**
+     * Statistics of one pool. Latencies are totals over all tasks run by the pool since startup, tasks that the
+     * submitting thread ran itself are not included.
+     */
+    public record Statistics(
+        Workload workload,
+        int poolSize,
+        int activeThreads,
+        int queueDepth,
+        long completedTasks,
+        long callerRunTasks,
+        long totalQueueNanos,
+        long totalRunNanos,
+        long maxRunNanos
+    ) {
+    }
+
+    private static final class InstrumentedExecutor extends ThreadPoolExecutor {
+
+        private final Workload workload;
+        private final ThreadGroup threadGroup;
+        private final LongAdder completedTasks = new LongAdder();
+        private final LongAdder callerRunTasks = new LongAdder();
+        private final LongAdder totalQueueNanos = new LongAdder();
+        private final LongAdder totalRunNanos = new LongAdder();
+        private final LongAccumulator maxRunNanos = new LongAccumulator(Math::max, 0);
+
+        private InstrumentedExecutor(Workload workload) {
+            this(workload, new ThreadGroup("compute-" + workload.name().toLowerCase()));
+        }
+
+        private InstrumentedExecutor(Workload workload, ThreadGroup threadGroup) {
+            super(
+                workload.getThreads(),
+                workload.getThreads(),
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(4 * workload.getThreads()),
+                threadFactory(threadGroup),
+                new CallerRunsPolicy()
+            );
+            this.workload = workload;
+            this.threadGroup = threadGroup;
+            allowCoreThreadTimeOut(true);
+        }
+
+        private static ThreadFactory threadFactory(ThreadGroup threadGroup) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(threadGroup, runnable,
+                    threadGroup.getName() + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+
+        private boolean isPoolThread() {
+            return Thread.currentThread().getThreadGroup() == threadGroup;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            super.execute(new TimedTask(command, System.nanoTime()));
+        }
+
+        private Statistics getStatistics() {
+            return new Statistics(
+                workload,
+                getPoolSize(),
+                getActiveCount(),
+                getQueue().size(),
+                completedTasks.sum(),
+                callerRunTasks.sum(),
+                totalQueueNanos.sum(),
+                totalRunNanos.sum(),
+                maxRunNanos.get()
+            );
+        }
+
+        private final class TimedTask implements Runnable {
+
+            private final Runnable task;
+            private final long submitted;
+
+            private TimedTask(Runnable task, long submitted) {
+                this.task = task;
+                this.submitted = submitted;
+            }
+
+            @Override
+            public void run() {
+                if (!isPoolThread()) {
+                    // rejected and run by the submitting thread
+                    callerRunTasks.increment();
+                    task.run();
+                    return;
+                }
+                long started = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    long runNanos = System.nanoTime() - started;
+                    totalQueueNanos.add(started - submitted);
+                    totalRunNanos.add(runNanos);
+                    maxRunNanos.accumulate(runNanos);
+                    completedTasks.increment();
+                }
+            }
+        }
+    }
+}
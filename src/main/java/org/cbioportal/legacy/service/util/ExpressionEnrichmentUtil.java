@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -27,13 +28,15 @@ import org.cbioportal.legacy.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.legacy.model.MolecularProfileSamples;
 import org.cbioportal.legacy.model.Sample;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.commons.math3.distribution.FDistribution;
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
 import org.apache.commons.math3.stat.inference.ChiSquareTest;
 import org.apache.commons.math3.stat.inference.OneWayAnova;
 import org.apache.commons.math3.stat.inference.TestUtils;
 import org.cbioportal.legacy.persistence.MolecularDataRepository;
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
 import org.cbioportal.legacy.service.SampleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -52,53 +55,84 @@ public class ExpressionEnrichmentUtil {
     private static final List<String> negTypeList = Arrays.asList("false", "no");
     private static final String ALTERED = "1";
     private static final String UNALTERED = "0";
+    // number of alterations decoded and tested by a worker thread at once
+    private static final int BATCH_SIZE = 256;
     public <T extends MolecularAlteration, S extends ExpressionEnrichment> List<S> getEnrichments(
         MolecularProfile molecularProfile,
         Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType,
         Iterable<T> maItr) {
+
+        GroupColumns groupColumns = new GroupColumns(getGroupIndicesMap(molecularProfileCaseSets, enrichmentType,
+            molecularProfile));
+        boolean rnaSeq = molecularProfile.getStableId().contains(RNA_SEQ);
+
+        // the cursor is read on this thread, batches of alterations are decoded and tested on the statistics compute pool
+        List<Future<List<S>>> batchFutures = new ArrayList<>();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        for (T ma : maItr) {
+            batch.add(ma);
+            if (batch.size() == BATCH_SIZE) {
+                List<T> fullBatch = batch;
+                batchFutures.add(ComputeExecutors.submit(Workload.STATISTICS, () -> computeEnrichments(fullBatch, groupColumns, rnaSeq)));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<T> lastBatch = batch;
+            batchFutures.add(ComputeExecutors.submit(Workload.STATISTICS, () -> computeEnrichments(lastBatch, groupColumns, rnaSeq)));
+        }
+
         List<S> expressionEnrichments = new ArrayList<>();
+        for (Future<List<S>> batchFuture : batchFutures) {
+            expressionEnrichments.addAll(ComputeExecutors.getResult(batchFuture));
+        }
+        return expressionEnrichments;
+    }
+
+    private <T extends MolecularAlteration, S extends ExpressionEnrichment> List<S> computeEnrichments(
+        List<T> molecularAlterations, GroupColumns groupColumns, boolean rnaSeq) {
+
+        List<S> expressionEnrichments = new ArrayList<>();
+        double[] decodedValues = new double[groupColumns.slotCount];
+        double[][] groupValues = new double[groupColumns.names.length][];
+        for (int group = 0; group < groupValues.length; group++) {
+            groupValues[group] = new double[groupColumns.slots[group].length];
+        }
+        GroupAccumulator[] accumulators = new GroupAccumulator[groupValues.length];
+
+        for (MolecularAlteration ma : molecularAlterations) {
+            MolecularValuesDecoder.decode(ma.getValues(), groupColumns.columnToSlot, decodedValues);
 
-        Map<String, List<Integer>> groupIndicesMap = getGroupIndicesMap(molecularProfileCaseSets, enrichmentType,
-            molecularProfile);
-        for (MolecularAlteration ma : maItr) {
             List<GroupStatistics> groupsStatistics = new ArrayList<GroupStatistics>();
             // used for p-value calculation
-            List<double[]> groupedValues = new ArrayList<double[]>();
-
-            for (Entry<String, List<Integer>> group : groupIndicesMap.entrySet()) {
+            int groupsWithData = 0;
 
-                // get expression values to all the indices in the group
-                List<String> molecularDataValues = group.getValue().stream()
-                    .map(sampleIndex -> ma.getSplitValues()[sampleIndex])
-                    .filter(a -> NumberUtils.isNumber(a))
-                    .collect(Collectors.toList());
+            for (int group = 0; group < groupColumns.names.length; group++) {
+                // gather the numeric expression values of the samples in the group
+                GroupAccumulator accumulator = GroupAccumulator.gather(decodedValues, groupColumns.slots[group],
+                    groupValues[group], rnaSeq);
 
                 // ignore group if there are less than 2 values
-                if (molecularDataValues.size() < 2) {
+                if (accumulator.count < 2) {
                     continue;
                 }
 
-                double[] values = getAlterationValues(molecularDataValues, molecularProfile.getStableId());
-
-                GroupStatistics groupStatistics = new GroupStatistics();
-                double alteredMean = StatUtils.mean(values);
-                double alteredStandardDeviation = calculateStandardDeviation(values);
-
                 // ignore if mean or standard deviation are not numbers
-                if (Double.isNaN(alteredMean) || Double.isNaN(alteredStandardDeviation)) {
+                if (Double.isNaN(accumulator.mean) || Double.isNaN(accumulator.getStandardDeviation())) {
                     continue;
                 }
 
-                groupedValues.add(values);
-                groupStatistics.setName(group.getKey());
-                groupStatistics.setMeanExpression(BigDecimal.valueOf(alteredMean));
-                groupStatistics.setStandardDeviation(BigDecimal.valueOf(alteredStandardDeviation));
+                accumulators[groupsWithData++] = accumulator;
+                GroupStatistics groupStatistics = new GroupStatistics();
+                groupStatistics.setName(groupColumns.names[group]);
+                groupStatistics.setMeanExpression(BigDecimal.valueOf(accumulator.mean));
+                groupStatistics.setStandardDeviation(BigDecimal.valueOf(accumulator.getStandardDeviation()));
                 groupsStatistics.add(groupStatistics);
             }
 
             // calculate p-value and add enrichment if atleast 2 groups have data
-            if (groupsStatistics.size() > 1) {
-                double pValue = calculatePValue(groupedValues);
+            if (groupsWithData > 1) {
+                double pValue = calculatePValue(accumulators, groupsWithData);
                 if (Double.isNaN(pValue)) {
                     continue;
                 }
@@ -318,6 +352,34 @@ public class ExpressionEnrichmentUtil {
         }
     }
 
+    private double calculatePValue(GroupAccumulator[] groups, int groupCount) {
+
+        if (groupCount == 2) {
+            return TestUtils.tTest(groups[0], groups[1]);
+        }
+        // calculate Anova statisitcs if there are more than 2 groups, the same way as OneWayAnova: it gathers each
+        // group in a SummaryStatistics and adds up the group sums, so the totals are summed per group and not per
+        // value, which would round differently
+        int dfwg = 0;
+        double sswg = 0;
+        double totsum = 0;
+        double totsumsq = 0;
+        int totnum = 0;
+        for (int group = 0; group < groupCount; group++) {
+            GroupAccumulator data = groups[group];
+            totnum += data.count;
+            totsum += data.sum;
+            totsumsq += data.sumOfSquares;
+            dfwg += data.count - 1;
+            sswg += data.sumOfSquares - ((data.sum * data.sum) / data.count);
+        }
+        double sst = totsumsq - ((totsum * totsum) / totnum);
+        double ssbg = sst - sswg;
+        int dfbg = groupCount - 1;
+        double f = (ssbg / dfbg) / (sswg / dfwg);
+        return 1.0 - new FDistribution(null, dfbg, dfwg).cumulativeProbability(f);
+    }
+
     private double calculateStandardDeviation(double[] values) {
 
         DescriptiveStatistics descriptiveStatistics = new DescriptiveStatistics();
@@ -413,4 +475,154 @@ public class ExpressionEnrichmentUtil {
         }
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Group sample indexes resolved to slots of a decoded alteration row. Samples that are in several groups
+     * are decoded once and share a slot.
+     */
+    private static final class GroupColumns {
+
+        private final String[] names;
+        private final int[][] slots;
+        private final int[] columnToSlot;
+        private final int slotCount;
+
+        private GroupColumns(Map<String, List<Integer>> groupIndicesMap) {
+            names = new String[groupIndicesMap.size()];
+            slots = new int[groupIndicesMap.size()][];
+            int columnCount = 0;
+            for (List<Integer> sampleIndices : groupIndicesMap.values()) {
+                for (int sampleIndex : sampleIndices) {
+                    columnCount = Math.max(columnCount, sampleIndex + 1);
+                }
+            }
+            columnToSlot = new int[columnCount];
+            Arrays.fill(columnToSlot, -1);
+            int nextSlot = 0;
+            int group = 0;
+            for (Entry<String, List<Integer>> entry : groupIndicesMap.entrySet()) {
+                names[group] = entry.getKey();
+                int[] groupSlots = new int[entry.getValue().size()];
+                for (int i = 0; i < groupSlots.length; i++) {
+                    int column = entry.getValue().get(i);
+                    if (columnToSlot[column] < 0) {
+                        columnToSlot[column] = nextSlot++;
+                    }
+                    groupSlots[i] = columnToSlot[column];
+                }
+                slots[group++] = groupSlots;
+            }
+            slotCount = nextSlot;
+        }
+    }
+
+    /**
+     * Count, sums and moments of the numeric values of one group. The sums are accumulated while the values
+     * are gathered, mean and variance are computed over the gathered values the same way as commons-math
+     * (corrected two-pass algorithm), so that results do not depend on how the values were collected.
+     */
+    private static final class GroupAccumulator implements StatisticalSummary {
+
+        private int count;
+        private double sum;
+        private double sumOfSquares;
+        private double min = Double.NaN;
+        private double max = Double.NaN;
+        private double mean = Double.NaN;
+        private double variance = Double.NaN;
+
+        /**
+         * Gathers the numeric values of the given slots of a decoded row into the buffer.
+         */
+        private static GroupAccumulator gather(double[] decodedValues, int[] slots, double[] buffer, boolean rnaSeq) {
+            GroupAccumulator accumulator = new GroupAccumulator();
+            int count = 0;
+            double sum = 0;
+            double sumOfSquares = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int slot : slots) {
+                double value = decodedValues[slot];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                if (rnaSeq) {
+                    // reset to 0 if there are any negative values and then do log1p
+                    value = Math.log1p(value < 0 ? 0 : value) / LOG2;
+                }
+                buffer[count++] = value;
+                sum += value;
+                sumOfSquares += value * value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            accumulator.count = count;
+            accumulator.sum = sum;
+            accumulator.sumOfSquares = sumOfSquares;
+            if (count > 0) {
+                accumulator.min = min;
+                accumulator.max = max;
+                accumulator.mean = mean(buffer, count, sum);
+                accumulator.variance = count == 1 ? 0 : variance(buffer, count, accumulator.mean);
+            }
+            return accumulator;
+        }
+
+        private static double mean(double[] values, int count, double sum) {
+            double xbar = sum / count;
+            double correction = 0;
+            for (int i = 0; i < count; i++) {
+                correction += values[i] - xbar;
+            }
+            return xbar + (correction / count);
+        }
+
+        private static double variance(double[] values, int count, double mean) {
+            double accum = 0;
+            double accum2 = 0;
+            for (int i = 0; i < count; i++) {
+                double dev = values[i] - mean;
+                accum += dev * dev;
+                accum2 += dev;
+            }
+            double len = count;
+            return (accum - (accum2 * accum2 / len)) / (len - 1.0);
+        }
+
+        @Override
+        public double getMean() {
+            return mean;
+        }
+
+        @Override
+        public double getVariance() {
+            return variance;
+        }
+
+        @Override
+        public double getStandardDeviation() {
+            return Math.sqrt(variance);
+        }
+
+        @Override
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMin() {
+            return min;
+        }
+
+        @Override
+        public long getN() {
+            return count;
+        }
+
+        @Override
+        public double getSum() {
+            return sum;
+        }
+    }
+
+}
@@ -3,10 +3,34 @@ package org.cbioportal.legacy.service.util;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 @Component
 public class FisherExactTestCalculator {
 
+    // log(j!) for j = 0..length - 1, shared by all instances and only ever replaced by a longer table
+    private static volatile double[] logFactorials = {0.0};
+
+    private static double[] getLogFactorials(int n) {
+        double[] f = logFactorials;
+        if (f.length > n) {
+            return f;
+        }
+        synchronized (FisherExactTestCalculator.class) {
+            f = logFactorials;
+            if (f.length <= n) {
+                // extend the existing table with the same recurrence, so values never change when it grows
+                double[] grown = Arrays.copyOf(f, Math.max(n + 1, 2 * f.length));
+                for (int j = f.length; j < grown.length; j++) {
+                    grown[j] = grown[j - 1] + Math.log(j);
+                }
+                logFactorials = grown;
+                f = grown;
+            }
+            return f;
+        }
+    }
+
     private double getPValue(int a, int b, int c, int d, double[] f) {
         
         int n = a + b + c + d;
@@ -19,12 +43,7 @@ public class FisherExactTestCalculator {
         int min, i;
         int n = a + b + c + d;
         double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
-        
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
-        }
+        double[] f = getLogFactorials(n);
 
         p += getPValue(a, b, c, d, f);
         if ((a * d) >= (b * c)) {
@@ -48,12 +67,7 @@ public class FisherExactTestCalculator {
         int min, i;
         int n = a + b + c + d;
         double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
-
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
-        }
+        double[] f = getLogFactorials(n);
 
         double baseP = getPValue(a, b, c, d, f);
 //         in order for a table under consideration to have its p-value included
@@ -89,36 +103,31 @@ public class FisherExactTestCalculator {
         }
         return p;
     }
-    public BigDecimal[] calcqValue(BigDecimal[] pValuesInIncreasingOrder) {
-        BigDecimal cachedElement = BigDecimal.valueOf(0.0);
+    /**
+     * Benjamini-Hochberg adjusted p-values (q-values).
+     *
+     * @param pValuesInIncreasingOrder p-values sorted in increasing order
+     * @return q-values in the same order
+     */
+    public double[] calcqValue(double[] pValuesInIncreasingOrder) {
         int dataLength = pValuesInIncreasingOrder.length;
-        BigDecimal[]  reversedQValues = new BigDecimal[dataLength];
-
-        reverseValues(dataLength, pValuesInIncreasingOrder);
-
-        for (int i = 0; i < dataLength; i++) {
-            if (i > 0) {
-                BigDecimal calculatedValue = cachedElement.min(
-                    (pValuesInIncreasingOrder[i].multiply(new BigDecimal(dataLength))).divide(new BigDecimal(dataLength - i), BigDecimal.ROUND_HALF_UP)
-                );
-                cachedElement = calculatedValue;
-                reversedQValues[i] = calculatedValue;
-            } else {
-                cachedElement = pValuesInIncreasingOrder[i];
-                reversedQValues[i] = pValuesInIncreasingOrder[i];
-            }
+        double[] qValues = new double[dataLength];
+        if (dataLength == 0) {
+            return qValues;
         }
-
-        reverseValues(dataLength, reversedQValues);
-
-        return reversedQValues;
+        // the largest p-value is its own q-value, the others are capped by the q-value of the next larger one
+        double cachedElement = pValuesInIncreasingOrder[dataLength - 1];
+        qValues[dataLength - 1] = cachedElement;
+        for (int i = dataLength - 2; i >= 0; i--) {
+            cachedElement = Math.min(cachedElement, pValuesInIncreasingOrder[i] * dataLength / (i + 1));
+            qValues[i] = cachedElement;
+        }
+        return qValues;
     }
 
-    private void reverseValues(int dataLength, BigDecimal[]  reversedQValues) {
-        for (int i = 0; i < dataLength / 2; i++) {
-            BigDecimal temp = reversedQValues[i];
-            reversedQValues[i] = reversedQValues[dataLength - i - 1];
-            reversedQValues[dataLength - i - 1] = temp;
-        }
+    public BigDecimal[] calcqValue(BigDecimal[] pValuesInIncreasingOrder) {
+        double[] qValues = calcqValue(Arrays.stream(pValuesInIncreasingOrder).mapToDouble(BigDecimal::doubleValue)
+            .toArray());
+        return Arrays.stream(qValues).mapToObj(BigDecimal::valueOf).toArray(BigDecimal[]::new);
     }
 }
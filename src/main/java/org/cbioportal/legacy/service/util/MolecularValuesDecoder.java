@@ -0,0 +1,160 @@
+package org.cbioportal.legacy.service.util;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.Arrays;
+
+/**
+ * Decodes the comma separated genetic_alteration.VALUES column straight into primitive double buffers,
+ * without splitting it into intermediate String objects. Values that are not numeric (NA, empty, etc.)
+ * are decoded as {@link Double#NaN}.
+ */
+public final class MolecularValuesDecoder {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // largest mantissa that is still exactly representable as a double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private MolecularValuesDecoder() {
+    }
+
+    /**
+     * Builds the column-to-slot mapping used by {@link #decode(String, int[], double[])} for the given
+     * column indexes. Columns that are not selected are mapped to -1.
+     */
+    public static int[] columnToSlot(int columnCount, int[] includedColumns) {
+        int[] columnToSlot = new int[columnCount];
+        Arrays.fill(columnToSlot, -1);
+        for (int slot = 0; slot < includedColumns.length; slot++) {
+            columnToSlot[includedColumns[slot]] = slot;
+        }
+        return columnToSlot;
+    }
+
+    /**
+     * Decodes the selected columns of a comma separated value list into the target buffer.
+     *
+     * @param values comma separated values, one per sample of the molecular profile
+     * @param columnToSlot slot in the target buffer for every column, or -1 if the column is not needed
+     * @param target buffer to write to, must be large enough for all selected slots
+     */
+    public static void decode(String values, int[] columnToSlot, double[] target) {
+        int length = values.length();
+        int column = 0;
+        int start = 0;
+        while (start <= length && column < columnToSlot.length) {
+            int end = values.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int slot = columnToSlot[column];
+            if (slot >= 0) {
+                target[slot] = parseValue(values, start, end);
+            }
+            column++;
+            start = end + 1;
+        }
+        // a truncated VALUES column leaves the remaining samples without data
+        for (; column < columnToSlot.length; column++) {
+            if (columnToSlot[column] >= 0) {
+                target[columnToSlot[column]] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Decodes a single value, {@link Double#NaN} if it is not numeric.
+     */
+    public static double parseValue(String value) {
+        return value == null ? Double.NaN : parseValue(value, 0, value.length());
+    }
+
+    static double parseValue(String values, int start, int end) {
+        if (start >= end) {
+            return Double.NaN;
+        }
+        double parsed = parseSimpleDecimal(values, start, end);
+        if (!Double.isNaN(parsed)) {
+            return parsed;
+        }
+        // uncommon notations (hex, type suffixes, very long mantissas, ...) take the slow path
+        String token = values.substring(start, end);
+        if (!NumberUtils.isCreatable(token)) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Parses [+-]digits[.digits][(e|E)[+-]digits] when the result can be computed exactly with a single
+     * multiplication or division (Clinger's fast path), which gives the same correctly rounded result as
+     * {@link Double#parseDouble(String)}. Returns {@link Double#NaN} when the fast path does not apply.
+     */
+    private static double parseSimpleDecimal(String values, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char c = values.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (++i == end) {
+                return Double.NaN;
+            }
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        for (; i < end && (c = values.charAt(i)) >= '0' && c <= '9'; i++, digits++) {
+            mantissa = mantissa * 10 + (c - '0');
+            if (mantissa >= MAX_EXACT_MANTISSA) {
+                return Double.NaN;
+            }
+        }
+        if (i < end && values.charAt(i) == '.') {
+            for (i++; i < end && (c = values.charAt(i)) >= '0' && c <= '9'; i++, digits++) {
+                mantissa = mantissa * 10 + (c - '0');
+                exponent--;
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.NaN;
+                }
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < end && ((c = values.charAt(i)) == 'e' || c == 'E')) {
+            if (++i == end) {
+                return Double.NaN;
+            }
+            boolean negativeExponent = false;
+            c = values.charAt(i);
+            if (c == '-' || c == '+') {
+                negativeExponent = c == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+            for (; i < end && (c = values.charAt(i)) >= '0' && c <= '9'; i++, exponentDigits++) {
+                explicitExponent = explicitExponent * 10 + (c - '0');
+                if (explicitExponent > 1000) {
+                    return Double.NaN;
+                }
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end || exponent < -22 || exponent > 22) {
+            return Double.NaN;
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+}
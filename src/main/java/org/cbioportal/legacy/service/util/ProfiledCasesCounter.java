@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,10 +42,10 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
 
         ProfiledCaseType profiledCaseType = (caseUniqueIdentifier == patientUniqueIdentifier) ?
             ProfiledCaseType.PATIENT : ProfiledCaseType.SAMPLE;
-        Map<String, Set<String>> casesWithDataInGenePanel = extractCasesWithDataInGenePanel(genePanelDataList, caseUniqueIdentifier);
+        ProfiledCases profiledCases = new ProfiledCases(genePanelDataList, caseUniqueIdentifier, profiledCaseType);
         List<GenePanel> genePanels = new ArrayList<>();
-        if (!casesWithDataInGenePanel.isEmpty()) {
-            genePanels = genePanelService.fetchGenePanels(new ArrayList<>(casesWithDataInGenePanel.keySet()), "DETAILED");
+        if (!profiledCases.casesWithDataInGenePanel.isEmpty()) {
+            genePanels = genePanelService.fetchGenePanels(new ArrayList<>(profiledCases.casesWithDataInGenePanel.keySet()), "DETAILED");
         }
 
         Map<Pair<Integer, String>, List<GenePanel>> geneToGenePanel = new HashMap<>();
@@ -65,68 +66,20 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
             }
         }
 
-        List<GenePanelData> genePanelData = genePanelDataList
-            .stream()
-            .filter(GenePanelData::getProfiled)
-            .collect(Collectors.toList());
-
-        Set<String> profiledCases = genePanelData
-            .stream()
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-        int profiledCasesCount = profiledCases.size();
-
-        // here we look for cases where none of the profiles have gene panel ids
-        // a case with at least one profile with gene panel id is considered as a case with gene panel data
-        // so a case is considered without panel data only if none of the profiles has a gene panel id
-
-        // first identify cases with gene panel data
-        Set<String> casesWithPanelData = genePanelData
-            .stream()
-            .filter(g -> g.getGenePanelId() != null)
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-
-        // find all unique cases
-        Set<String> casesWithoutPanelData = genePanelData
-            .stream()
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-
-        // removing cases with panel data from all unique cases gives us the cases without panel data
-        casesWithoutPanelData.removeAll(casesWithPanelData);
-
         for (T alterationCount : alterationCounts) {
-            Set<String> totalProfiledPatients = new HashSet<>();
             Set<String> allMatchingGenePanelIds = new HashSet<>();
-            int totalProfiledSamples = 0;
             // different calculations depending on if gene is linked to gene panels
-            if (alterationIsCoveredByGenePanel(alterationCount, geneToGenePanel)) {
+            List<GenePanel> genePanelsForAlterationCount = getGenePanelsForAlterationCount(alterationCount, geneToGenePanel);
+            if (!genePanelsForAlterationCount.isEmpty()) {
                 // for every gene panel associated containing the gene, use the sum of unique cases
                 // as well as cases without panel data
-                for (GenePanel genePanel : getGenePanelsForAlterationCount(alterationCount, geneToGenePanel)) {
-                    allMatchingGenePanelIds.add(genePanel.getStableId());
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        totalProfiledPatients.addAll(casesWithDataInGenePanel.get(genePanel.getStableId()));
-                    } else {
-                        totalProfiledSamples += casesWithDataInGenePanel.get(genePanel.getStableId()).size();
-                    }
-                }
-                if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                    totalProfiledPatients.addAll(casesWithoutPanelData);
-                    alterationCount.setNumberOfProfiledCases(totalProfiledPatients.size());
-                } else {
-                    totalProfiledSamples += casesWithoutPanelData.size();
-                    alterationCount.setNumberOfProfiledCases(totalProfiledSamples);
-                }
+                alterationCount.setNumberOfProfiledCases(
+                    profiledCases.countInGenePanels(genePanelsForAlterationCount, allMatchingGenePanelIds));
             } else {
                 // we use profiledCasesCount instead of casesWithoutPanelData to
                 // prevent a divide by zero error which can happen for targeted studies
                 // in which certain genes have events that are not captured by the panel.
-                alterationCount.setNumberOfProfiledCases(profiledCasesCount);
+                alterationCount.setNumberOfProfiledCases(profiledCases.profiledCasesCount);
             }
             alterationCount.setMatchingGenePanelIds(allMatchingGenePanelIds);
         }
@@ -144,30 +97,12 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
                 if (!genesWithAlteration.contains(entrezGeneId)) {
                     AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
 
-                    Set<String> totalProfiledPatients = new HashSet<>();
                     Set<String> allMatchingGenePanelIds = new HashSet<>();
-                    int totalProfiledSamples = 0;
-                    for (GenePanel genePanel : geneToGenePanel.get(new Pair<>(entrezGeneId, hugoGeneSymbol))) {
-                        allMatchingGenePanelIds.add(genePanel.getStableId());
-                        if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                            totalProfiledPatients.addAll(casesWithDataInGenePanel.get(genePanel.getStableId()));
-                        } else {
-                            totalProfiledSamples += casesWithDataInGenePanel.get(genePanel.getStableId()).size();
-                        }
-                    }
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        totalProfiledPatients.addAll(casesWithoutPanelData);
-                    } else {
-                        totalProfiledSamples += casesWithoutPanelData.size();
-                    }
+                    int numberOfProfiledCases = profiledCases.countInGenePanels(entry.getValue(), allMatchingGenePanelIds);
 
                     alterationCountByGene.setEntrezGeneId(entrezGeneId);
                     alterationCountByGene.setMatchingGenePanelIds(allMatchingGenePanelIds);
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        alterationCountByGene.setNumberOfProfiledCases(totalProfiledPatients.size());
-                    } else {
-                        alterationCountByGene.setNumberOfProfiledCases(totalProfiledSamples);
-                    }
+                    alterationCountByGene.setNumberOfProfiledCases(numberOfProfiledCases);
                     alterationCountByGene.setNumberOfAlteredCases(0);
                     alterationCountByGene.setTotalCount(0);
                     alterationCountByGene.setHugoGeneSymbol(hugoGeneSymbol);
@@ -178,25 +113,77 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
         }
     }
 
-    private Map<String, Set<String>> extractCasesWithDataInGenePanel(
-        List<GenePanelData> genePanelDataList,
-        Function<GenePanelData, String> caseUniqueIdentifier) {
-
-        Map<String, Set<String>> casesWithDataInGenePanel = new HashMap<>();
-        // loop through all membership records -- ignore any where g.getGenePanelId == null
-        for (GenePanelData genePanelDataRecord : genePanelDataList) {
-            String associatedGenePanel = genePanelDataRecord.getGenePanelId();
-            if (associatedGenePanel != null) {
-                casesWithDataInGenePanel.putIfAbsent(associatedGenePanel, new HashSet<>());
-                Set<String> casesForThisGenePanel = casesWithDataInGenePanel.get(associatedGenePanel);
-                casesForThisGenePanel.add(caseUniqueIdentifier.apply(genePanelDataRecord));
+    /**
+     * Profiled cases of a request. Every case (study id + sample or patient id) is given a dense index once,
+     * the cases of each gene panel and the profiled cases without any panel data are kept as bitsets over
+     * these indexes, so that counting the cases profiled for a gene does not hash any case identifier.
+     */
+    private static final class ProfiledCases {
+
+        private final ProfiledCaseType profiledCaseType;
+        private final Map<String, BitSet> casesWithDataInGenePanel = new HashMap<>();
+        private final BitSet casesWithoutPanelData = new BitSet();
+        private final int casesWithoutPanelDataCount;
+        private final int profiledCasesCount;
+        // many genes are covered by the same gene panels, their union only needs to be counted once
+        private final Map<Set<String>, Integer> profiledPatientCounts = new HashMap<>();
+
+        private ProfiledCases(List<GenePanelData> genePanelDataList,
+                              Function<GenePanelData, String> caseUniqueIdentifier,
+                              ProfiledCaseType profiledCaseType) {
+            this.profiledCaseType = profiledCaseType;
+            Map<String, Integer> caseIndexes = new HashMap<>();
+            BitSet casesWithPanelData = new BitSet();
+            for (GenePanelData genePanelDataRecord : genePanelDataList) {
+                // there can be duplicate patient or sample id, append study id
+                String caseId = caseUniqueIdentifier.apply(genePanelDataRecord);
+                Integer caseIndex = caseIndexes.putIfAbsent(caseId, caseIndexes.size());
+                if (caseIndex == null) {
+                    caseIndex = caseIndexes.size() - 1;
+                }
+                // gene panel membership records are taken whether the case is profiled or not
+                String associatedGenePanel = genePanelDataRecord.getGenePanelId();
+                if (associatedGenePanel != null) {
+                    casesWithDataInGenePanel.computeIfAbsent(associatedGenePanel, k -> new BitSet()).set(caseIndex);
+                }
+                if (genePanelDataRecord.getProfiled()) {
+                    casesWithoutPanelData.set(caseIndex);
+                    // a case with at least one profile with gene panel id is considered as a case with gene panel data
+                    if (associatedGenePanel != null) {
+                        casesWithPanelData.set(caseIndex);
+                    }
+                }
             }
+            profiledCasesCount = casesWithoutPanelData.cardinality();
+            // removing cases with panel data from all profiled cases gives us the cases without panel data
+            casesWithoutPanelData.andNot(casesWithPanelData);
+            casesWithoutPanelDataCount = casesWithoutPanelData.cardinality();
         }
-        return casesWithDataInGenePanel;
-    }
 
-    private boolean alterationIsCoveredByGenePanel(T alterationCount, Map<Pair<Integer, String>, List<GenePanel>> entrezIdToGenePanel) {
-        return !getGenePanelsForAlterationCount(alterationCount, entrezIdToGenePanel).isEmpty();
+        /**
+         * Counts the cases profiled for a gene covered by the given gene panels: the sum of the cases of every
+         * gene panel for samples, the number of unique cases for patients, plus the cases without panel data.
+         * The stable ids of the gene panels are added to genePanelIds.
+         */
+        private int countInGenePanels(List<GenePanel> genePanels, Set<String> genePanelIds) {
+            int count = 0;
+            for (GenePanel genePanel : genePanels) {
+                genePanelIds.add(genePanel.getStableId());
+                if (profiledCaseType == ProfiledCaseType.SAMPLE) {
+                    count += casesWithDataInGenePanel.get(genePanel.getStableId()).cardinality();
+                }
+            }
+            if (profiledCaseType == ProfiledCaseType.SAMPLE) {
+                return count + casesWithoutPanelDataCount;
+            }
+            return profiledPatientCounts.computeIfAbsent(new HashSet<>(genePanelIds), ids -> {
+                BitSet profiledPatients = (BitSet) casesWithoutPanelData.clone();
+                for (String genePanelId : ids) {
+                    profiledPatients.or(casesWithDataInGenePanel.get(genePanelId));
+                }
+                return profiledPatients.cardinality();
+            });
+        }
     }
 
     private List<GenePanel> getGenePanelsForAlterationCount(T alterationCount, Map<Pair<Integer, String>, List<GenePanel>> entrezIdToGenePanel) {
@@ -210,7 +197,7 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
             String gene1HugoSymbol = ((AlterationCountByStructuralVariant) alterationCount).getGene1HugoGeneSymbol();
             Integer gene2EntrezId = ((AlterationCountByStructuralVariant) alterationCount).getGene2EntrezGeneId();
             String gene2HugoSymbol = ((AlterationCountByStructuralVariant) alterationCount).getGene2HugoGeneSymbol();
-            List<GenePanel> panels = entrezIdToGenePanel.getOrDefault(new Pair<>(gene1EntrezId, gene2HugoSymbol), new ArrayList<>());
+            List<GenePanel> panels = new ArrayList<>(entrezIdToGenePanel.getOrDefault(new Pair<>(gene1EntrezId, gene2HugoSymbol), new ArrayList<>()));
             panels.addAll(entrezIdToGenePanel.getOrDefault(new Pair<>(gene2EntrezId, gene2HugoSymbol), new ArrayList<>()));
             return panels.stream().distinct().collect(Collectors.toList());
         }
@@ -3,9 +3,15 @@ package org.cbioportal.legacy.service.util;
 import static org.cbioportal.legacy.utils.removeme.Session.*;
 
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.mongodb.BasicDBObject;
 import org.apache.commons.codec.binary.Base64;
@@ -21,8 +27,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Component
 public class SessionServiceRequestHandler {
@@ -38,6 +46,21 @@ public class SessionServiceRequestHandler {
     @Value("${session.service.password:}")
     private String sessionServicePassword;
 
+    // one client for all requests to the session service, it keeps its connections open and uses HTTP/2 where
+    // the session service supports it
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(httpClient));
+
+    /**
+     * The shared RestTemplate for requests to the session service.
+     */
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
     private Boolean isBasicAuthEnabled() {
         return isSessionServiceEnabled() && sessionServicePassword != null && !sessionServicePassword.equals("");
     }
@@ -63,8 +86,6 @@ public class SessionServiceRequestHandler {
 
     public String getSessionDataJson(SessionType type, String id) throws Exception {
 
-        RestTemplate restTemplate = new RestTemplate();
-
         // add basic authentication in header
         HttpEntity<String> headers = new HttpEntity<>(getHttpHeaders());
         ResponseEntity<String> responseEntity = restTemplate.exchange(sessionServiceURL + type + "/" + id,
@@ -73,13 +94,49 @@ public class SessionServiceRequestHandler {
         return responseEntity.getBody();
     }
 
+    /**
+     * Reads a session without blocking a thread while the request is pending, so that many sessions can be read
+     * at once over the connections of the shared client.
+     * @param type - type of the session
+     * @param id - id of the session
+     * @return the JSON of the session, completed exceptionally if no request can be made for the id or if the
+     * session service does not reply with 2xx
+     */
+    public CompletableFuture<String> getSessionDataJsonAsync(SessionType type, String id) {
+        HttpRequest.Builder request;
+        try {
+            URI uri = UriComponentsBuilder.fromUriString(sessionServiceURL + type)
+                .pathSegment(id)
+                .build()
+                .encode()
+                .toUri();
+            request = HttpRequest.newBuilder(uri).GET();
+            for (var header : getHttpHeaders().entrySet()) {
+                for (String value : header.getValue()) {
+                    request.header(header.getKey(), value);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fail this session only, like a failed request
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+            .thenApply(response -> {
+                if (!HttpStatusCode.valueOf(response.statusCode()).is2xxSuccessful()) {
+                    throw new IllegalStateException("The session service replied with statusCode="
+                        + response.statusCode() + " for " + type + " " + id);
+                }
+                return response.body();
+            });
+    }
+
     /**
      * Gets virtual study by id
      * @param id - id of the virtual study to read
      * @return virtual study
      */
     public VirtualStudy getVirtualStudyById(String id) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate()
+        ResponseEntity<VirtualStudy> responseEntity = restTemplate
             .exchange(sessionServiceURL + "/virtual_study/" + id,
                 HttpMethod.GET,
                 new HttpEntity<>(getHttpHeaders()),
@@ -103,7 +160,7 @@ public class SessionServiceRequestHandler {
     public List<VirtualStudy> getVirtualStudiesAccessibleToUser(String username) {
         BasicDBObject basicDBObject = new BasicDBObject();
         basicDBObject.put("data.users", username);
-        ResponseEntity<List<VirtualStudy>> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<List<VirtualStudy>> responseEntity = restTemplate.exchange(
             sessionServiceURL + "/virtual_study/query/fetch",
             HttpMethod.POST,
             new HttpEntity<>(basicDBObject.toString(), getHttpHeaders()),
@@ -119,7 +176,7 @@ public class SessionServiceRequestHandler {
      * @return virtual study object with id and the virtualStudyData
      */
     public VirtualStudy createVirtualStudy(VirtualStudyData virtualStudyData) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<VirtualStudy> responseEntity = restTemplate.exchange(
             sessionServiceURL + "/virtual_study",
             HttpMethod.POST,
             new HttpEntity<>(virtualStudyData, getHttpHeaders()),
@@ -146,7 +203,7 @@ public class SessionServiceRequestHandler {
      * @param virtualStudy - virtual study to update
      */
     public void updateVirtualStudy(VirtualStudy virtualStudy) {
-        new RestTemplate()
+        restTemplate
             .put(sessionServiceURL + "/virtual_study/" + virtualStudy.getId(),
                 new HttpEntity<>(virtualStudy.getData(), getHttpHeaders()));
     }
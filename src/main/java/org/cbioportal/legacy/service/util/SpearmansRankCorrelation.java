@@ -0,0 +1,215 @@
+package org.cbioportal.legacy.service.util;
+
+import org.apache.commons.math3.special.Beta;
+
+import java.util.Arrays;
+
+/**
+ * Spearman's rank correlation over primitive double arrays, where missing values are encoded as
+ * {@link Double#NaN} and dropped pairwise. Ranking (ties averaged), the correlation coefficient and the
+ * p-value are computed the same way as commons-math {@code SpearmansCorrelation}, but without intermediate
+ * matrices or boxed values. The coefficient is identical; the p-value can differ in the last bits because
+ * commons-math derives it from the coefficient with the variables swapped.
+ */
+public final class SpearmansRankCorrelation {
+
+    /**
+     * Values of one variable together with their precomputed ranks. When the values of the other variable
+     * have no missing entries the ranks can be reused as is, which saves one sort per correlation.
+     */
+    public static final class RankedValues {
+
+        private final double[] values;
+        private final double[] ranks;
+        private final boolean complete;
+
+        private RankedValues(double[] values, double[] ranks, boolean complete) {
+            this.values = values;
+            this.ranks = ranks;
+            this.complete = complete;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private SpearmansRankCorrelation() {
+    }
+
+    public static RankedValues rank(double[] values) {
+        boolean complete = countMissing(values, values.length) == 0;
+        double[] ranks = null;
+        if (complete) {
+            ranks = new double[values.length];
+            rank(values, values.length, new double[values.length], ranks);
+        }
+        return new RankedValues(values, ranks, complete);
+    }
+
+    /**
+     * Computes the correlation between the given values and the reference values. Both arrays are aligned
+     * by sample.
+     *
+     * @return the correlation coefficient, or NaN if fewer than three complete pairs are available
+     */
+    public static double correlation(double[] values, RankedValues reference) {
+        int length = reference.size();
+        if (reference.complete && countMissing(values, length) == 0) {
+            if (length <= 2) {
+                return Double.NaN;
+            }
+            double[] ranks = new double[length];
+            rank(values, length, new double[length], ranks);
+            return pearson(reference.ranks, ranks, length);
+        }
+
+        // drop pairs with a missing value on either side and rank what is left
+        double[] x = new double[length];
+        double[] y = new double[length];
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (!Double.isNaN(values[i]) && !Double.isNaN(reference.values[i])) {
+                x[n] = reference.values[i];
+                y[n] = values[i];
+                n++;
+            }
+        }
+        if (n <= 2) {
+            return Double.NaN;
+        }
+        double[] scratch = new double[n];
+        double[] ranksX = new double[n];
+        double[] ranksY = new double[n];
+        rank(x, n, scratch, ranksX);
+        rank(y, n, scratch, ranksY);
+        return pearson(ranksX, ranksY, n);
+    }
+
+    /**
+     * Computes the correlation between two arrays without missing values, aligned by sample. Like commons-math
+     * {@code SpearmansCorrelation} the correlation is defined from two pairs on, and is NaN if either array has
+     * a single distinct value.
+     */
+    public static double correlation(double[] x, double[] y) {
+        int length = x.length;
+        if (length < 2) {
+            return Double.NaN;
+        }
+        double[] scratch = new double[length];
+        double[] ranksX = new double[length];
+        double[] ranksY = new double[length];
+        rank(x, length, scratch, ranksX);
+        rank(y, length, scratch, ranksY);
+        return pearson(ranksX, ranksY, length);
+    }
+
+    /**
+     * Number of complete pairs the correlation between the given values and the reference values is
+     * computed on.
+     */
+    public static int countPairs(double[] values, RankedValues reference) {
+        int n = 0;
+        for (int i = 0; i < reference.size(); i++) {
+            if (!Double.isNaN(values[i]) && !Double.isNaN(reference.values[i])) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Two-sided p-value of the correlation coefficient using a t distribution with n - 2 degrees of freedom.
+     */
+    public static double pValue(double correlation, int n) {
+        double degreesOfFreedom = n - 2;
+        double t = Math.abs(correlation * Math.sqrt(degreesOfFreedom / (1 - correlation * correlation)));
+        if (t == 0) {
+            return 1.0;
+        }
+        return Beta.regularizedBeta(degreesOfFreedom / (degreesOfFreedom + (t * t)), 0.5 * degreesOfFreedom, 0.5);
+    }
+
+    /**
+     * Fractional ranking of the first length values: ties get the average of the ranks they span.
+     */
+    static void rank(double[] values, int length, double[] scratch, double[] ranks) {
+        System.arraycopy(values, 0, scratch, 0, length);
+        Arrays.sort(scratch, 0, length);
+        for (int i = 0; i < length; i++) {
+            int first = lowerBound(scratch, length, values[i]);
+            int last = upperBound(scratch, first, length, values[i]);
+            int tiesLength = last - first;
+            ranks[i] = (2 * (first + 1) + tiesLength - 1) / 2d;
+        }
+    }
+
+    private static int lowerBound(double[] sorted, int length, double value) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, int from, int length, double value) {
+        int low = from;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // same accumulation as commons-math SimpleRegression, which backs PearsonsCorrelation
+    private static double pearson(double[] x, double[] y, int length) {
+        double xbar = x[0];
+        double ybar = y[0];
+        double sumXX = 0;
+        double sumYY = 0;
+        double sumXY = 0;
+        for (int n = 1; n < length; n++) {
+            double fact1 = 1.0 + n;
+            double fact2 = n / (1.0 + n);
+            double dx = x[n] - xbar;
+            double dy = y[n] - ybar;
+            sumXX += dx * dx * fact2;
+            sumYY += dy * dy * fact2;
+            sumXY += dx * dy * fact2;
+            xbar += dx / fact1;
+            ybar += dy / fact1;
+        }
+        if (Math.abs(sumXX) < 10 * Double.MIN_VALUE) {
+            return Double.NaN;
+        }
+        double slope = sumXY / sumXX;
+        double sumSquaredErrors = Math.max(0d, sumYY - sumXY * sumXY / sumXX);
+        double result = Math.sqrt((sumYY - sumSquaredErrors) / sumYY);
+        return slope < 0 ? -result : result;
+    }
+
+    private static int countMissing(double[] values, int length) {
+        int missing = 0;
+        for (int i = 0; i < length; i++) {
+            if (Double.isNaN(values[i])) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+}
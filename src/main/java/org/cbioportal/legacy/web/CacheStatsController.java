@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.cbioportal.legacy.service.CacheStatisticsService;
 import org.cbioportal.legacy.service.exception.CacheNotFoundException;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
 import org.cbioportal.legacy.utils.config.annotation.ConditionalOnProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -62,4 +63,12 @@ public class CacheStatsController {
     public ResponseEntity<String> getCacheStatistics() throws CacheNotFoundException {
         return new ResponseEntity<>(cacheStatisticsService.getCacheStatistics(), HttpStatus.OK);
     }
+
+    @RequestMapping(value = "/api/computeExecutorStatistics", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(description = "Get queue depth and task latency of the compute thread pools")
+    @ApiResponse(responseCode = "200", description = "OK",
+        content = @Content(array = @ArraySchema(schema = @Schema(implementation = ComputeExecutors.Statistics.class))))
+    public ResponseEntity<List<ComputeExecutors.Statistics>> getComputeExecutorStatistics() {
+        return new ResponseEntity<>(ComputeExecutors.getStatistics(), HttpStatus.OK);
+    }
 }
@@ -151,7 +151,8 @@ public class ClinicalEventController {
 
     @Cacheable(
         cacheResolver = "generalRepositoryCacheResolver",
-        condition = "@cacheEnabledConfig.getEnabled()"
+        condition = "@cacheEnabledConfig.getEnabled()",
+        sync = true
     )
     public List<ClinicalEvent> cachedClinicalEventsMeta(ClinicalEventAttributeRequest interceptedClinicalEventAttributeRequest) {
         List<String> studyIds = new ArrayList<>();
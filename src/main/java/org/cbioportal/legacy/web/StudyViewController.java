@@ -182,7 +182,8 @@ public class StudyViewController {
 
     @Cacheable(
                cacheResolver = "staticRepositoryCacheOneResolver",
-               condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery" 
+               condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery",
+               sync = true
     )
     public List<ClinicalDataCountItem> cachedClinicalDataCounts(ClinicalDataCountFilter interceptedClinicalDataCountFilter,
                                                                 boolean unfilteredQuery) {                
@@ -303,7 +304,8 @@ public class StudyViewController {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery"
+        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery",
+        sync = true
     )
     public List<AlterationCountByGene> cachedFetchMutatedGenes(StudyViewFilter interceptedStudyViewFilter,
                                                                boolean unfilteredQuery) throws StudyNotFoundException {
@@ -1115,7 +1117,8 @@ public class StudyViewController {
     // 3) requesting the first page
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery && (#sortBy == null || #sortBy.isEmpty()) && (#searchTerm == null || #searchTerm.isEmpty()) && #pageNumber == 0"
+        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery && (#sortBy == null || #sortBy.isEmpty()) && (#searchTerm == null || #searchTerm.isEmpty()) && #pageNumber == 0",
+        sync = true
     )
     public ImmutablePair<SampleClinicalDataCollection, Integer> cachedClinicalDataTableData(
         StudyViewFilter interceptedStudyViewFilter, boolean unfilteredQuery, Integer pageNumber, 
@@ -1167,7 +1170,8 @@ public class StudyViewController {
 
     @Cacheable(
         cacheResolver = "staticRepositoryCacheOneResolver",
-        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery"
+        condition = "@cacheEnabledConfig.getEnabled() && #unfilteredQuery",
+        sync = true
     )
     public List<ClinicalEventTypeCount> cachedClinicalEventTypeCounts(StudyViewFilter interceptedStudyViewFilter,
                                                                       boolean unfilteredQuery
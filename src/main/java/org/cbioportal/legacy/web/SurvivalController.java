@@ -66,7 +66,8 @@ public class SurvivalController {
 
     @Cacheable(
         cacheResolver = "generalRepositoryCacheResolver",
-        condition = "@cacheEnabledConfig.getEnabled()"
+        condition = "@cacheEnabledConfig.getEnabled()",
+        sync = true
     )
     public List<ClinicalData> cachedSurvivalData(SurvivalRequest interceptedSurvivalRequest) {
         List<String> studyIds = new ArrayList<>();
@@ -8,7 +8,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.util.Assert;
@@ -289,16 +288,14 @@ public class DataBinHelper {
     }
 
     public static void calcCounts(List<DataBin> dataBins, List<BigDecimal> values) {
-        Map<Range<BigDecimal>, DataBin> rangeMap = dataBins.stream().collect(Collectors.toMap(DataBinHelper::calcRange, b -> b));
-
-        // TODO complexity here is O(n x m), find a better way to do this
-        for (Range<BigDecimal> range : rangeMap.keySet()) {
-            for (BigDecimal value: values) {
-                // check if the value falls within the data bin range
-                if (range != null && range.contains(value)) {
-                    DataBin dataBin = rangeMap.get(range);
-                    dataBin.setCount(dataBin.getCount() + 1);
-                }
+        calcCounts(dataBins, SortedNumericalValues.of(values));
+    }
+
+    public static void calcCounts(List<DataBin> dataBins, SortedNumericalValues values) {
+        for (DataBin dataBin : dataBins) {
+            Range<BigDecimal> range = calcRange(dataBin);
+            if (range != null) {
+                dataBin.setCount(dataBin.getCount() + values.count(range));
             }
         }
     }
@@ -15,6 +15,7 @@ import java.math.BigDecimal;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class DataBinner {
@@ -97,10 +98,22 @@ public class DataBinner {
         List<Binnable> clinicalData,
         Long naCount
     ) {
-        List<BigDecimal> numericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNumericalValues(clinicalData);
-        List<String> nonNumericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNonNumericalValues(clinicalData);
+        List<BigDecimal> distinctNumericalValues = new ArrayList<>();
+        List<Integer> numericalValueCounts = new ArrayList<>();
+        // same matching as String.equalsIgnoreCase
+        Map<String, Integer> nonNumericalValueCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (clinicalData != null) {
+            for (Binnable datum : clinicalData) {
+                String value = datum.getAttrValue();
+                if (NumberUtils.isCreatable(value)) {
+                    distinctNumericalValues.add(new BigDecimal(value));
+                    numericalValueCounts.add(datum.getCount());
+                } else if (isNonNumericalValue(value)) {
+                    nonNumericalValueCounts.merge(value, datum.getCount(), Integer::sum);
+                }
+            }
+        }
+        SortedNumericalValues numericalValues = SortedNumericalValues.of(distinctNumericalValues, numericalValueCounts);
         List<Range<BigDecimal>> ranges = clinicalData == null ?
             Collections.emptyList() : filterSpecialRanges(clinicalData);
 
@@ -112,23 +125,15 @@ public class DataBinner {
             Range<BigDecimal> range = DataBinHelper.calcRange(dataBin);
 
             if (range != null) {
-                for (BigDecimal value : numericalValues) {
-                    if (range.contains(value)) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
+                dataBin.setCount(numericalValues.count(range));
 
                 for (Range<BigDecimal> r : ranges) {
                     if (range.encloses(r)) {
                         dataBin.setCount(dataBin.getCount() + 1);
                     }
                 }
-            } else { // if no range then it means non numerical data bin
-                for (String value : nonNumericalValues) {
-                    if (value.equalsIgnoreCase(dataBin.getSpecialValue())) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
+            } else if (dataBin.getSpecialValue() != null) { // if no range then it means non numerical data bin
+                dataBin.setCount(nonNumericalValueCounts.getOrDefault(dataBin.getSpecialValue(), 0));
             }
             if ("NA".equalsIgnoreCase(dataBin.getSpecialValue())) {
                 dataBin.setCount(naCount.intValue());
@@ -269,29 +274,51 @@ public class DataBinner {
 
     public List<Range<BigDecimal>> filterSpecialRanges(List<Binnable> clinicalData) {
         return clinicalData.stream()
-            .map(Binnable::getAttrValue)
-            .filter(s -> (s.contains(">") || s.contains("<")) &&
-                // ignore any invalid values such as >10PY, <20%, etc.
-                NumberUtils.isCreatable(DataBinHelper.stripOperator(s)))
-            .map(v -> DataBinHelper.calcRange(
+            .filter(c -> {
+                String s = c.getAttrValue();
+                return (s.contains(">") || s.contains("<")) &&
+                    // ignore any invalid values such as >10PY, <20%, etc.
+                    NumberUtils.isCreatable(DataBinHelper.stripOperator(s));
+            })
+            .flatMap(c -> repeat(c, DataBinHelper.calcRange(
                 // only use "<" or ">" to make sure that we only generate open ranges
-                DataBinHelper.extractOperator(v).substring(0, 1),
-                new BigDecimal(DataBinHelper.stripOperator(v))))
+                DataBinHelper.extractOperator(c.getAttrValue()).substring(0, 1),
+                new BigDecimal(DataBinHelper.stripOperator(c.getAttrValue())))))
             .collect(Collectors.toList());
     }
 
     public Collection<DataBin> calcNonNumericalClinicalDataBins(List<Binnable> clinicalData) {
-        return calcNonNumericalDataBins(filterNonNumericalValues(clinicalData));
+        Map<String, DataBin> map = new LinkedHashMap<>();
+
+        for (Binnable datum : clinicalData) {
+            String value = datum.getAttrValue();
+            if (isNonNumericalValue(value)) {
+                DataBin dataBin = map.computeIfAbsent(value.trim().toUpperCase(), key -> {
+                    DataBin bin = new DataBin();
+                    bin.setSpecialValue(value.trim());
+                    bin.setCount(0);
+                    return bin;
+                });
+
+                dataBin.setCount(dataBin.getCount() + datum.getCount());
+            }
+        }
+
+        return map.values();
     }
 
     public List<String> filterNonNumericalValues(List<Binnable> clinicalData) {
         // filter out numerical values and 'NA's
         return clinicalData.stream()
-            .map(Binnable::getAttrValue)
-            .filter(s -> !NumberUtils.isCreatable(DataBinHelper.stripOperator(s)) && !DataBinHelper.isNA(s))
+            .filter(c -> isNonNumericalValue(c.getAttrValue()))
+            .flatMap(c -> repeat(c, c.getAttrValue()))
             .collect(Collectors.toList());
     }
 
+    private boolean isNonNumericalValue(String value) {
+        return !NumberUtils.isCreatable(DataBinHelper.stripOperator(value)) && !DataBinHelper.isNA(value);
+    }
+
     public Collection<DataBin> calcNonNumericalDataBins(List<String> nonNumericalValues) {
         Map<String, DataBin> map = new LinkedHashMap<>();
 
@@ -337,7 +364,8 @@ public class DataBinner {
         // filter out invalid values
         return clinicalData.stream()
             .filter(c -> NumberUtils.isCreatable(c.getAttrValue()))
-            .map(c -> new BigDecimal(c.getAttrValue()))
+            // values occurring more than once share the same BigDecimal instance
+            .flatMap(c -> repeat(c, new BigDecimal(c.getAttrValue())))
             .collect(Collectors.toList());
     }
 
@@ -515,12 +543,10 @@ public class DataBinner {
         return (
             // find the ones starting with the operator
             clinicalData.stream().filter(c -> c.getAttrValue().trim().startsWith(operator))
-                // strip the operator
-                .map(c -> c.getAttrValue().trim().substring(operator.length()))
-                // filter out invalid values
-                .filter(NumberUtils::isCreatable)
+                // strip the operator and filter out invalid values
+                .filter(c -> NumberUtils.isCreatable(c.getAttrValue().trim().substring(operator.length())))
                 // parse the numerical value as a BigDecimal instance
-                .map(integer -> new BigDecimal(integer))
+                .flatMap(c -> repeat(c, new BigDecimal(c.getAttrValue().trim().substring(operator.length()))))
                 // collect as list
                 .collect(Collectors.toList())
         );
@@ -689,7 +715,12 @@ public class DataBinner {
         return clinicalData == null ? 0 :
             clinicalData.stream()
                 .filter(c -> DataBinHelper.isNA(c.getAttrValue()))
-                .count();
+                .mapToLong(Binnable::getCount)
+                .sum();
+    }
+
+    private static <T> Stream<T> repeat(Binnable datum, T value) {
+        return Collections.nCopies(datum.getCount(), value).stream();
     }
 
     private String computeUniqueCaseId(Binnable clinicalData, ClinicalDataType clinicalDataType) {
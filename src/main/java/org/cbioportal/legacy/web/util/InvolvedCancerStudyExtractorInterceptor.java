@@ -74,6 +74,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -87,6 +88,13 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Set once the request body has been parsed into one of the intercepted* attributes. The body stream is not
+     * buffered, so {@link ResettableHttpServletRequestFilter} hands an empty body to the {@code @RequestBody}
+     * parameters of the controller instead of letting it parse the remainder of the stream.
+     */
+    public static final String REQUEST_BODY_CONSUMED_ATTRIBUTE = "requestBodyConsumed";
+
     @Autowired
     private CacheMapUtil cacheMapUtil;
 
@@ -215,9 +223,15 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
         return true;
     }
 
+    private <T> T readRequestBody(HttpServletRequest request, Class<T> type) throws IOException {
+        T requestBody = objectMapper.readValue(request.getInputStream(), type);
+        request.setAttribute(REQUEST_BODY_CONSUMED_ATTRIBUTE, true);
+        return requestBody;
+    }
+
     private boolean extractAttributesFromPatientFilter(HttpServletRequest request) {
         try {
-            PatientFilter patientFilter = objectMapper.readValue(request.getInputStream(), PatientFilter.class);
+            PatientFilter patientFilter = readRequestBody(request, PatientFilter.class);
             LOG.debug("extracted patientFilter: {}", patientFilter);
             LOG.debug("setting interceptedPatientFilter to {}", patientFilter);
             request.setAttribute("interceptedPatientFilter", patientFilter);
@@ -248,7 +262,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromSampleFilter(HttpServletRequest request) {
         try {
-            SampleFilter sampleFilter = objectMapper.readValue(request.getInputStream(), SampleFilter.class);
+            SampleFilter sampleFilter = readRequestBody(request, SampleFilter.class);
             LOG.debug("extracted sampleFilter: {}", sampleFilter);
             LOG.debug("setting interceptedSampleFilter to {}", sampleFilter);
             request.setAttribute("interceptedSampleFilter", sampleFilter);
@@ -279,7 +293,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularProfileFilter(HttpServletRequest request) {
         try {
-            MolecularProfileFilter molecularProfileFilter = objectMapper.readValue(request.getInputStream(), MolecularProfileFilter.class);
+            MolecularProfileFilter molecularProfileFilter = readRequestBody(request, MolecularProfileFilter.class);
             LOG.debug("extracted molecularProfileFilter: {}", molecularProfileFilter);
             LOG.debug("setting interceptedMolecularProfileFilter to {}", molecularProfileFilter);
             request.setAttribute("interceptedMolecularProfileFilter", molecularProfileFilter);
@@ -308,7 +322,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalAttributeCountFilter(HttpServletRequest request) {
         try {
-            ClinicalAttributeCountFilter clinicalAttributeCountFilter = objectMapper.readValue(request.getInputStream(), ClinicalAttributeCountFilter.class);
+            ClinicalAttributeCountFilter clinicalAttributeCountFilter = readRequestBody(request, ClinicalAttributeCountFilter.class);
             LOG.debug("extracted clinicalAttributeCountFilter: {}", clinicalAttributeCountFilter);
             LOG.debug("setting interceptedClinicalAttributeCountFilter to {}", clinicalAttributeCountFilter);
             request.setAttribute("interceptedClinicalAttributeCountFilter", clinicalAttributeCountFilter);
@@ -337,7 +351,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
         private boolean extractAttributesFromNamespaceAttributeCountFilter(HttpServletRequest request) {
         try {
-            NamespaceAttributeCountFilter namespaceAttributeCountFilter = objectMapper.readValue(request.getInputStream(), NamespaceAttributeCountFilter.class);
+            NamespaceAttributeCountFilter namespaceAttributeCountFilter = readRequestBody(request, NamespaceAttributeCountFilter.class);
             LOG.debug("extracted namespaceAttributeCountFilter: {}", namespaceAttributeCountFilter);
             LOG.debug("setting interceptedNamespaceAttributeCountFilter to {}", namespaceAttributeCountFilter);
             request.setAttribute("interceptedNamespaceAttributeCountFilter", namespaceAttributeCountFilter);
@@ -362,7 +376,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataMultiStudyFilter(HttpServletRequest request) {
         try {
-            ClinicalDataMultiStudyFilter clinicalDataMultiStudyFilter = objectMapper.readValue(request.getInputStream(), ClinicalDataMultiStudyFilter.class);
+            ClinicalDataMultiStudyFilter clinicalDataMultiStudyFilter = readRequestBody(request, ClinicalDataMultiStudyFilter.class);
             LOG.debug("extracted clinicalDataMultiStudyFilter: {}", clinicalDataMultiStudyFilter);
             LOG.debug("setting interceptedClinicalDataMultiStudyFilter to {}", clinicalDataMultiStudyFilter);
             request.setAttribute("interceptedClinicalDataMultiStudyFilter", clinicalDataMultiStudyFilter);
@@ -389,7 +403,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenePanelDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            GenePanelDataMultipleStudyFilter genePanelDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), GenePanelDataMultipleStudyFilter.class);
+            GenePanelDataMultipleStudyFilter genePanelDataMultipleStudyFilter = readRequestBody(request, GenePanelDataMultipleStudyFilter.class);
             LOG.debug("extracted genePanelDataMultipleStudyFilter: {}", genePanelDataMultipleStudyFilter);
             LOG.debug("setting interceptedGenePanelDataMultipleStudyFilter to {}", genePanelDataMultipleStudyFilter);
             request.setAttribute("interceptedGenePanelDataMultipleStudyFilter", genePanelDataMultipleStudyFilter);
@@ -417,7 +431,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), MolecularDataMultipleStudyFilter.class);
+            MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = readRequestBody(request, MolecularDataMultipleStudyFilter.class);
             LOG.debug("extracted molecularDataMultipleStudyFilter: {}", molecularDataMultipleStudyFilter);
             LOG.debug("setting interceptedMolecularDataMultipleStudyFilter to {}", molecularDataMultipleStudyFilter);
             request.setAttribute("interceptedMolecularDataMultipleStudyFilter", molecularDataMultipleStudyFilter);
@@ -445,7 +459,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataMultipleStudyFilter genericAssayDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), GenericAssayDataMultipleStudyFilter.class);
+            GenericAssayDataMultipleStudyFilter genericAssayDataMultipleStudyFilter = readRequestBody(request, GenericAssayDataMultipleStudyFilter.class);
             LOG.debug("extracted genericAssayDataMultipleStudyFilter: {}", genericAssayDataMultipleStudyFilter);
             LOG.debug("setting interceptedGenericAssayDataMultipleStudyFilter to {}", genericAssayDataMultipleStudyFilter);
             request.setAttribute("interceptedGenericAssayDataMultipleStudyFilter", genericAssayDataMultipleStudyFilter);
@@ -473,7 +487,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMutationMultipleStudyFilter(HttpServletRequest request) {
         try {
-            MutationMultipleStudyFilter mutationMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), MutationMultipleStudyFilter.class);
+            MutationMultipleStudyFilter mutationMultipleStudyFilter = readRequestBody(request, MutationMultipleStudyFilter.class);
             LOG.debug("extracted mutationMultipleStudyFilter: {}", mutationMultipleStudyFilter);
             LOG.debug("setting interceptedMutationMultipleStudyFilter to {}", mutationMultipleStudyFilter);
             request.setAttribute("interceptedMutationMultipleStudyFilter", mutationMultipleStudyFilter);
@@ -501,7 +515,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromSampleIdentifiers(HttpServletRequest request) {
         try {
-            List<SampleIdentifier> sampleIdentifiers = Arrays.asList(objectMapper.readValue(request.getInputStream(), SampleIdentifier[].class));
+            List<SampleIdentifier> sampleIdentifiers = Arrays.asList(readRequestBody(request, SampleIdentifier[].class));
             LOG.debug("extracted sampleIdentifiers: {}", sampleIdentifiers);
             LOG.debug("setting interceptedSampleIdentifiers to {}", sampleIdentifiers);
             request.setAttribute("interceptedSampleIdentifiers", sampleIdentifiers);
@@ -519,8 +533,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataBinCountFilter(HttpServletRequest request) {
         try {
-            ClinicalDataBinCountFilter clinicalDataBinCountFilter = objectMapper.readValue(request.getInputStream(),
-                    ClinicalDataBinCountFilter.class);
+            ClinicalDataBinCountFilter clinicalDataBinCountFilter = readRequestBody(request, ClinicalDataBinCountFilter.class);
             LOG.debug("extracted clinicalDataBinCountFilter: {}", clinicalDataBinCountFilter);
             LOG.debug("setting interceptedClinicalDataBinCountFilter to {}", clinicalDataBinCountFilter);
             request.setAttribute("interceptedClinicalDataBinCountFilter", clinicalDataBinCountFilter);
@@ -539,8 +552,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     
     private boolean extractAttributesFromGenomicDataBinCountFilter(HttpServletRequest request) {
         try {
-            GenomicDataBinCountFilter genomicDataBinCountFilter = objectMapper.readValue(request.getInputStream(),
-                    GenomicDataBinCountFilter.class);
+            GenomicDataBinCountFilter genomicDataBinCountFilter = readRequestBody(request, GenomicDataBinCountFilter.class);
             LOG.debug("extracted genomicDataBinCountFilter: {}", genomicDataBinCountFilter);
             LOG.debug("setting interceptedGenomicDataBinCountFilter to {}", genomicDataBinCountFilter);
             request.setAttribute("interceptedGenomicDataBinCountFilter", genomicDataBinCountFilter);
@@ -559,8 +571,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenomicDataCountFilter(HttpServletRequest request) {
         try {
-            GenomicDataCountFilter genomicDataCountFilter = objectMapper.readValue(request.getInputStream(),
-                GenomicDataCountFilter.class);
+            GenomicDataCountFilter genomicDataCountFilter = readRequestBody(request, GenomicDataCountFilter.class);
             LOG.debug("extracted genomicDataCountFilter: {}", genomicDataCountFilter);
             LOG.debug("setting interceptedGenomicDataCountFilter to {}", genomicDataCountFilter);
             request.setAttribute("interceptedGenomicDataCountFilter", genomicDataCountFilter);
@@ -579,8 +590,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataBinCountFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataBinCountFilter genericAssayDataBinCountFilter = objectMapper
-                    .readValue(request.getInputStream(), GenericAssayDataBinCountFilter.class);
+            GenericAssayDataBinCountFilter genericAssayDataBinCountFilter = readRequestBody(request, GenericAssayDataBinCountFilter.class);
             LOG.debug("extracted genericAssayDataBinCountFilter: {}", genericAssayDataBinCountFilter);
             LOG.debug("setting interceptedGenericAssayDataBinCountFilter to {}", genericAssayDataBinCountFilter);
             request.setAttribute("interceptedGenericAssayDataBinCountFilter", genericAssayDataBinCountFilter);
@@ -599,8 +609,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataCountFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataCountFilter genericAssayDataCountFilter = objectMapper
-                    .readValue(request.getInputStream(), GenericAssayDataCountFilter.class);
+            GenericAssayDataCountFilter genericAssayDataCountFilter = readRequestBody(request, GenericAssayDataCountFilter.class);
             LOG.debug("extracted genericAssayDataCountFilter: {}", genericAssayDataCountFilter);
             LOG.debug("setting interceptedGenericAssayDataCountFilter to {}", genericAssayDataCountFilter);
             request.setAttribute("interceptedGenericAssayDataCountFilter", genericAssayDataCountFilter);
@@ -619,8 +628,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataCountFilter(HttpServletRequest request) {
         try {
-            ClinicalDataCountFilter clinicalDataCountFilter = objectMapper.readValue(request.getInputStream(),
-                    ClinicalDataCountFilter.class);
+            ClinicalDataCountFilter clinicalDataCountFilter = readRequestBody(request, ClinicalDataCountFilter.class);
             LOG.debug("extracted clinicalDataBinCountFilter: {}", clinicalDataCountFilter);
             LOG.debug("setting interceptedClinicalDataCountFilter to {}", clinicalDataCountFilter);
             request.setAttribute("interceptedClinicalDataCountFilter", clinicalDataCountFilter);
@@ -639,8 +647,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromNamespaceDataCountFilter(HttpServletRequest request) {
         try {
-            NamespaceDataCountFilter namespaceDataCountFilter = objectMapper.readValue(request.getInputStream(),
-                    NamespaceDataCountFilter.class);
+            NamespaceDataCountFilter namespaceDataCountFilter = readRequestBody(request, NamespaceDataCountFilter.class);
             LOG.debug("extracted namespaceDataCountFilter: {}", namespaceDataCountFilter);
             LOG.debug("setting interceptedNamespaceDataCountFilter to {}", namespaceDataCountFilter);
             request.setAttribute("interceptedNamespaceDataCountFilter", namespaceDataCountFilter);
@@ -659,8 +666,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGroupFilter(HttpServletRequest request) {
         try {
-            GroupFilter groupFilter = objectMapper.readValue(request.getInputStream(),
-                    GroupFilter.class);
+            GroupFilter groupFilter = readRequestBody(request, GroupFilter.class);
             LOG.debug("extracted groupFilter: {}", groupFilter);
             LOG.debug("setting interceptedGroupFilter to {}", groupFilter);
             request.setAttribute("interceptedGroupFilter", groupFilter);
@@ -680,7 +686,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromStudyViewFilter(HttpServletRequest request) {
         try {
-            StudyViewFilter studyViewFilter = objectMapper.readValue(request.getInputStream(), StudyViewFilter.class);
+            StudyViewFilter studyViewFilter = readRequestBody(request, StudyViewFilter.class);
             if (studyViewFilter.getAlterationFilter() == null) {
                 // For backwards compatibility an inactive filter is set
                 // when the AlterationFilter is not part of the request.
@@ -709,7 +715,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     private boolean extractAttributesFromMolecularProfileCasesGroups(HttpServletRequest request) {
         try {
             List<MolecularProfileCasesGroupFilter> molecularProfileCasesGroupFilters = Arrays
-                    .asList(objectMapper.readValue(request.getInputStream(), MolecularProfileCasesGroupFilter[].class));
+                    .asList(readRequestBody(request, MolecularProfileCasesGroupFilter[].class));
             LOG.debug("extracted molecularProfileCasesGroupFilters: {}", molecularProfileCasesGroupFilters);
             LOG.debug("setting interceptedMolecularProfileCasesGroupFilters to {}", molecularProfileCasesGroupFilters);
             request.setAttribute("interceptedMolecularProfileCasesGroupFilters", molecularProfileCasesGroupFilters);
@@ -728,7 +734,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes(HttpServletRequest request) {
         try {
-            MolecularProfileCasesGroupAndAlterationTypeFilter molecularProfileCasesAndAlterationTypesGroupFilters = objectMapper.readValue(request.getInputStream(), MolecularProfileCasesGroupAndAlterationTypeFilter.class);
+            MolecularProfileCasesGroupAndAlterationTypeFilter molecularProfileCasesAndAlterationTypesGroupFilters = readRequestBody(request, MolecularProfileCasesGroupAndAlterationTypeFilter.class);
             List<MolecularProfileCasesGroupFilter> molecularProfileCasesGroupFilters = molecularProfileCasesAndAlterationTypesGroupFilters.getMolecularProfileCasesGroupFilter();
             LOG.debug("extracted molecularProfileCasesGroupFilters: {}", molecularProfileCasesGroupFilters);
             LOG.debug("setting interceptedMolecularProfileCasesGroupFilters to {}", molecularProfileCasesGroupFilters);
@@ -754,8 +760,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromStructuralVariantFilter(HttpServletRequest request) {
         try {
-            StructuralVariantFilter structuralVariantFilter = objectMapper.readValue(request.getInputStream(),
-                    StructuralVariantFilter.class);
+            StructuralVariantFilter structuralVariantFilter = readRequestBody(request, StructuralVariantFilter.class);
             LOG.debug("extracted structuralVariantFilter: {}", structuralVariantFilter);
             if (structuralVariantFilter.getStructuralVariantQueries() == null) {
                 // For backwards compatibility an empty set of queries is inferred
@@ -904,7 +909,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractCancerStudyIdsFromSurvivalRequest(HttpServletRequest request) {
         try {
-            SurvivalRequest survivalRequest = objectMapper.readValue(request.getInputStream(), SurvivalRequest.class);
+            SurvivalRequest survivalRequest = readRequestBody(request, SurvivalRequest.class);
             LOG.debug("extracted survivalRequest: {}", survivalRequest);
             LOG.debug("setting interceptedSurvivalRequest to {}", survivalRequest);
             request.setAttribute("interceptedSurvivalRequest", survivalRequest);
@@ -926,7 +931,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractCancerStudyIdsFromClinicalEventAttributeRequest(HttpServletRequest request) {
         try {
-            ClinicalEventAttributeRequest clinicalEventAttributeRequest = objectMapper.readValue(request.getInputStream(), ClinicalEventAttributeRequest.class);
+            ClinicalEventAttributeRequest clinicalEventAttributeRequest = readRequestBody(request, ClinicalEventAttributeRequest.class);
             LOG.debug("extracted clinicalEventAttributeRequest: {}", clinicalEventAttributeRequest);
             LOG.debug("setting interceptedClinicalEventAttributeRequest to {}", clinicalEventAttributeRequest);
             request.setAttribute("interceptedClinicalEventAttributeRequest", clinicalEventAttributeRequest);
@@ -4,15 +4,23 @@ import java.io.IOException;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 
 /**
+ * The request body is streamed straight into the parser of {@link InvolvedCancerStudyExtractorInterceptor} rather
+ * than copied into a buffer. Once the interceptor has parsed it, the controller reads an empty body, so the
+ * {@code @RequestBody} parameters that document the endpoints are not parsed a second time.
+ *
+ * Responses are cached to be copied to the client at the end of the request, except for requests that accept
+ * newline delimited JSON, whose results are written to the client as they are produced.
  *
  * @author ochoaa
  * 
@@ -28,14 +36,66 @@ public class ResettableHttpServletRequestFilter implements Filter {
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain) throws IOException, ServletException {
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper((HttpServletRequest) request);
+        ParsedBodyRequestWrapper wrappedRequest = new ParsedBodyRequestWrapper((HttpServletRequest) request);
+        if (acceptsNdjson(wrappedRequest)) {
+            filterChain.doFilter(wrappedRequest, response);
+            return;
+        }
         ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper((HttpServletResponse) response);
         filterChain.doFilter(wrappedRequest, wrappedResponse);
         wrappedResponse.copyBodyToResponse();
     }
 
+    private boolean acceptsNdjson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
     @Override
     public void destroy() {
         // do nothing
     }
+
+    static class ParsedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+        ParsedBodyRequestWrapper(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (getAttribute(InvolvedCancerStudyExtractorInterceptor.REQUEST_BODY_CONSUMED_ATTRIBUTE) != null) {
+                return new EmptyServletInputStream();
+            }
+            return super.getInputStream();
+        }
+    }
+
+    private static class EmptyServletInputStream extends ServletInputStream {
+
+        @Override
+        public boolean isFinished() {
+            return true;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // there is nothing to read, so all data has been read already
+            try {
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
 }
@@ -0,0 +1,175 @@
+package org.cbioportal.legacy.web.util;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Numerical values sorted once, so that the values within a bin range are counted with two binary searches instead
+ * of testing every value against every bin.
+ *
+ * Values are kept as primitive doubles when that preserves how they compare to each other and to the bin
+ * boundaries: decimals with at most 15 significant digits in the normal double range map to distinct doubles, and
+ * rounding to a double never reverses the order of two decimals. Values that equal a boundary as doubles all equal
+ * the same decimal, which is compared exactly against the boundary. Any other value makes all of them be kept as
+ * decimals.
+ *
+ * Values can also be given with the number of times each of them occurs, in which case memory and counting only
+ * depend on the number of distinct values.
+ */
+public final class SortedNumericalValues {
+    private static final int MAX_DOUBLE_DIGITS = 15;
+
+    // exactly one of them is set
+    private final double[] doubles;
+    private final BigDecimal[] decimals;
+    // number of values before each index, null when every value occurs once
+    private final int[] cumulativeCounts;
+
+    private SortedNumericalValues(double[] doubles, BigDecimal[] decimals, int[] cumulativeCounts) {
+        this.doubles = doubles;
+        this.decimals = decimals;
+        this.cumulativeCounts = cumulativeCounts;
+    }
+
+    public static SortedNumericalValues of(Collection<BigDecimal> values) {
+        double[] doubles = new double[values.size()];
+        int i = 0;
+        for (BigDecimal value : values) {
+            double d = value.doubleValue();
+            if (!isDistinctAsDouble(value, d)) {
+                BigDecimal[] decimals = values.toArray(new BigDecimal[0]);
+                Arrays.sort(decimals);
+                return new SortedNumericalValues(null, decimals, null);
+            }
+            doubles[i++] = d;
+        }
+        Arrays.sort(doubles);
+        return new SortedNumericalValues(doubles, null, null);
+    }
+
+    /**
+     * @param values numerical values, not necessarily distinct
+     * @param counts number of times the value at the same position occurs
+     */
+    public static SortedNumericalValues of(List<BigDecimal> values, List<Integer> counts) {
+        Integer[] order = new Integer[values.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(values::get));
+
+        BigDecimal[] decimals = new BigDecimal[order.length];
+        int[] cumulativeCounts = new int[order.length + 1];
+        boolean distinctAsDoubles = true;
+        for (int i = 0; i < order.length; i++) {
+            decimals[i] = values.get(order[i]);
+            cumulativeCounts[i + 1] = cumulativeCounts[i] + counts.get(order[i]);
+            distinctAsDoubles &= isDistinctAsDouble(decimals[i], decimals[i].doubleValue());
+        }
+        if (!distinctAsDoubles) {
+            return new SortedNumericalValues(null, decimals, cumulativeCounts);
+        }
+        // converting to doubles keeps the order
+        double[] doubles = new double[decimals.length];
+        Arrays.setAll(doubles, i -> decimals[i].doubleValue());
+        return new SortedNumericalValues(doubles, null, cumulativeCounts);
+    }
+
+    private static boolean isDistinctAsDouble(BigDecimal value, double d) {
+        if (value.signum() == 0) {
+            return true;
+        }
+        double abs = Math.abs(d);
+        return value.precision() <= MAX_DOUBLE_DIGITS && abs >= Double.MIN_NORMAL && abs <= Double.MAX_VALUE;
+    }
+
+    public int size() {
+        return countBefore(length());
+    }
+
+    private int length() {
+        return doubles != null ? doubles.length : decimals.length;
+    }
+
+    private int countBefore(int index) {
+        return cumulativeCounts != null ? cumulativeCounts[index] : index;
+    }
+
+    /**
+     * @return the number of values within the range, same as testing each of them with {@link Range#contains}
+     */
+    public int count(Range<BigDecimal> range) {
+        int from = 0;
+        if (range.hasLowerBound()) {
+            from = range.lowerBoundType() == BoundType.CLOSED
+                ? indexOfFirstNotLessThan(range.lowerEndpoint())
+                : indexOfFirstGreaterThan(range.lowerEndpoint());
+        }
+        int to = length();
+        if (range.hasUpperBound()) {
+            to = range.upperBoundType() == BoundType.CLOSED
+                ? indexOfFirstGreaterThan(range.upperEndpoint())
+                : indexOfFirstNotLessThan(range.upperEndpoint());
+        }
+        return to > from ? countBefore(to) - countBefore(from) : 0;
+    }
+
+    private int indexOfFirstNotLessThan(BigDecimal bound) {
+        if (decimals != null) {
+            return firstDecimalIndex(bound, false);
+        }
+        double b = bound.doubleValue();
+        int index = firstDoubleIndex(b, false);
+        if (index < doubles.length && doubles[index] == b && BigDecimal.valueOf(doubles[index]).compareTo(bound) < 0) {
+            // the values equal to the bound as doubles are smaller than it as decimals
+            index = firstDoubleIndex(b, true);
+        }
+        return index;
+    }
+
+    private int indexOfFirstGreaterThan(BigDecimal bound) {
+        if (decimals != null) {
+            return firstDecimalIndex(bound, true);
+        }
+        double b = bound.doubleValue();
+        int index = firstDoubleIndex(b, true);
+        if (index > 0 && doubles[index - 1] == b && BigDecimal.valueOf(doubles[index - 1]).compareTo(bound) > 0) {
+            // the values equal to the bound as doubles are greater than it as decimals
+            index = firstDoubleIndex(b, false);
+        }
+        return index;
+    }
+
+    private int firstDoubleIndex(double bound, boolean greaterThan) {
+        int low = 0;
+        int high = doubles.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (doubles[mid] < bound || (greaterThan && doubles[mid] == bound)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstDecimalIndex(BigDecimal bound, boolean greaterThan) {
+        int low = 0;
+        int high = decimals.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = decimals[mid].compareTo(bound);
+            if (comparison < 0 || (greaterThan && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -74,7 +74,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -127,6 +129,8 @@ public class StudyViewFilterApplier {
     private StructuralVariantService structuralVariantService;
     @Autowired
     private MolecularProfileUtil molecularProfileUtil;
+    @Autowired
+    private SubFilterSampleCache subFilterSampleCache;
 
 
     private StudyViewFilterApplier getInstance() {
@@ -149,7 +153,8 @@ public class StudyViewFilterApplier {
 
     @Cacheable(
         cacheResolver = "generalRepositoryCacheResolver",
-        condition = "@cacheEnabledConfig.getEnabled()"
+        condition = "@cacheEnabledConfig.getEnabled()",
+        sync = true
     )
     public List<SampleIdentifier> cachedApply(StudyViewFilter studyViewFilter) {
         return this.apply(studyViewFilter, false);
@@ -176,6 +181,16 @@ public class StudyViewFilterApplier {
         List<String> studyIds = sampleIdentifiers.stream().map(SampleIdentifier::getStudyId).distinct()
             .collect(Collectors.toList());
 
+        // the samples selected by each sub-filter are cached, negated filters are always evaluated
+        SubFilterSampleCache.Context subFilterContext = null;
+        if (!negateFilters && subFilterSampleCache != null && subFilterSampleCache.isEnabled()) {
+            subFilterContext = subFilterSampleCache.getContext(
+                studyViewFilter.getSampleIdentifiers() == null || studyViewFilter.getSampleIdentifiers().isEmpty()
+                    ? sampleIdentifiers
+                    : sampleService.getAllSamplesInStudies(studyIds, Projection.ID.name(), null, null, null, null)
+                        .stream().map(sampleToSampleIdentifier).collect(Collectors.toList()));
+        }
+
         List<ClinicalDataFilter> clinicalDataEqualityFilters = new ArrayList<>();
         List<ClinicalDataFilter> clinicalDataIntervalFilters = new ArrayList<>();
 
@@ -205,21 +220,29 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterClinicalData(sampleIdentifiers, clinicalDataEqualityFilters, negateFilters);
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "clinicalDataEqualityFilter",
+                clinicalDataEqualityFilters, sampleIdentifiers,
+                (samples, filters) -> equalityFilterClinicalData(samples, filters, negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterClinicalData(sampleIdentifiers, clinicalDataIntervalFilters, negateFilters);
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "clinicalDataIntervalFilter",
+                clinicalDataIntervalFilters, sampleIdentifiers,
+                (samples, filters) -> intervalFilterClinicalData(samples, filters, negateFilters));
         }
         
         if (!CollectionUtils.isEmpty(studyViewFilter.getCustomDataFilters())) {
-            sampleIdentifiers = customDataFilterApplier.apply(sampleIdentifiers, studyViewFilter.getCustomDataFilters(),
-                negateFilters);
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "customDataFilter",
+                studyViewFilter.getCustomDataFilters(), sampleIdentifiers,
+                (samples, filters) -> customDataFilterApplier.apply(samples, filters, negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getNamespaceDataFilters())) {
-            sampleIdentifiers = filterNamespaceData(sampleIdentifiers, studyViewFilter.getNamespaceDataFilters(),
-                negateFilters, clinicalDataEqualityFilterApplier);
+            // a namespace data filter does not select a subset of the samples of the previous one
+            sampleIdentifiers = applySubFilter(subFilterContext, "namespaceDataFilters",
+                studyViewFilter.getNamespaceDataFilters(), sampleIdentifiers,
+                samples -> filterNamespaceData(samples, studyViewFilter.getNamespaceDataFilters(),
+                    negateFilters, clinicalDataEqualityFilterApplier));
         }
 
         List<MolecularProfile> molecularProfiles = null;
@@ -256,18 +279,27 @@ public class StudyViewFilterApplier {
             });
         }
 
+        List<MolecularProfile> finalMolecularProfiles = molecularProfiles;
         if (!CollectionUtils.isEmpty(genomicDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataEqualityFilters, negateFilters);
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "genomicDataEqualityFilter",
+                genomicDataEqualityFilters, sampleIdentifiers,
+                (samples, filters) -> equalityFilterExpressionData(samples, finalMolecularProfiles, filters,
+                    negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(genomicDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataIntervalFilters, negateFilters);
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "genomicDataIntervalFilter",
+                genomicDataIntervalFilters, sampleIdentifiers,
+                (samples, filters) -> intervalFilterExpressionData(samples, finalMolecularProfiles, filters,
+                    negateFilters));
         }
 
-        sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-            studyViewFilter.getGenericAssayDataFilters(), negateFilters);
+        if (!CollectionUtils.isEmpty(studyViewFilter.getGenericAssayDataFilters())) {
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "genericAssayDataFilter",
+                studyViewFilter.getGenericAssayDataFilters(), sampleIdentifiers,
+                (samples, filters) -> intervalFilterExpressionData(samples, finalMolecularProfiles, filters,
+                    negateFilters));
+        }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getGeneFilters())) {
             Map<String, MolecularProfile> molecularProfileMap = molecularProfiles.stream()
@@ -281,94 +313,36 @@ public class StudyViewFilterApplier {
 
             if ((mutatedGeneFilters.size() + structuralVariantGeneFilters.size() + cnaGeneFilters.size()) == studyViewFilter
                 .getGeneFilters().size()) {
-                if (!mutatedGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, sampleIdentifiers);
-                }
-                if (!structuralVariantGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap,
-                        sampleIdentifiers);
-                }
-                if (!cnaGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterCNAGenes(cnaGeneFilters, molecularProfileMap, sampleIdentifiers);
+                if (subFilterContext == null) {
+                    sampleIdentifiers = filterGenes(mutatedGeneFilters, structuralVariantGeneFilters, cnaGeneFilters,
+                        molecularProfileMap, sampleIdentifiers);
+                } else {
+                    sampleIdentifiers = applyEachSubFilter(subFilterContext, "geneFilter",
+                        studyViewFilter.getGeneFilters(), sampleIdentifiers,
+                        (samples, geneFilters) -> {
+                            List<GeneFilter> mutatedGeneFilter = new ArrayList<>();
+                            List<GeneFilter> structuralVariantGeneFilter = new ArrayList<>();
+                            List<GeneFilter> cnaGeneFilter = new ArrayList<>();
+                            splitGeneFiltersByMolecularAlterationType(geneFilters, molecularProfileMap,
+                                mutatedGeneFilter, structuralVariantGeneFilter, cnaGeneFilter);
+                            return filterGenes(mutatedGeneFilter, structuralVariantGeneFilter, cnaGeneFilter,
+                                molecularProfileMap, samples);
+                        });
                 }
-
             } else {
                 return new ArrayList<>();
             }
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getGenomicProfiles())) {
-            Map<String, List<SampleIdentifier>> groupStudySampleIdentifiers = sampleIdentifiers.stream()
-                .collect(Collectors.groupingBy(SampleIdentifier::getStudyId));
-
-            Map<String, List<MolecularProfile>> molecularProfileSet = molecularProfileUtil
-                .categorizeMolecularProfilesByStableIdSuffixes(molecularProfiles);
-
-            List<MolecularProfileCaseIdentifier> molecularProfileSampleIdentifiers = new ArrayList<>();
-
-            studyViewFilter.getGenomicProfiles().stream().forEach(profileValues -> {
-                profileValues.stream().forEach(profileValue -> {
-                    molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream().forEach(profile -> {
-                        groupStudySampleIdentifiers.getOrDefault(profile.getCancerStudyIdentifier(), new ArrayList<>())
-                            .forEach(sampleIdentifier -> {
-                                MolecularProfileCaseIdentifier profileCaseIdentifier = new MolecularProfileCaseIdentifier();
-                                profileCaseIdentifier.setMolecularProfileId(profile.getStableId());
-                                profileCaseIdentifier.setCaseId(sampleIdentifier.getSampleId());
-                                molecularProfileSampleIdentifiers.add(profileCaseIdentifier);
-                            });
-                    });
-
-                });
-            });
-
-
-            List<GenePanelData> genePanelData = genePanelService
-                .fetchGenePanelDataInMultipleMolecularProfiles(molecularProfileSampleIdentifiers);
-
-            // gene panel data is { profileId, sampleId, isProfiled   }
-            // it tells us whether a particular sample is profiled by a given molecularprofile
-            // we can use the gene panel to find out what genes were profiled
-            for (List<String> profileValues : studyViewFilter.getGenomicProfiles()) {
-
-                // using the profileIds from the filter we get a map, stableId to profile entity
-                Map<String, MolecularProfile> profileMap = profileValues.stream().flatMap(
-                        profileValue -> molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream())
-                    .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
-                
-                Set<SampleIdentifier> filteredSampleIdentifiers = new HashSet<>();
-                
-                // for each sample/profile combo, we need to find out whether
-                // the profileMap contains that profile id
-                genePanelData.forEach(datum -> {
-                    if (datum.getProfiled() && profileMap.containsKey(datum.getMolecularProfileId())) {
-                        SampleIdentifier sampleIdentifier =
-                            studyViewFilterUtil.buildSampleIdentifier(datum.getStudyId(), datum.getSampleId());
-                        filteredSampleIdentifiers.add(sampleIdentifier);
-                    }
-                });
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
-            }
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "genomicProfiles",
+                studyViewFilter.getGenomicProfiles(), sampleIdentifiers,
+                (samples, genomicProfiles) -> filterGenomicProfiles(samples, genomicProfiles, finalMolecularProfiles));
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getCaseLists())) {
-            List<SampleList> sampleLists = sampleListService.getAllSampleListsInStudies(studyIds,
-                Projection.DETAILED.name());
-            Map<String, List<SampleList>> groupedSampleListByListType = studyViewFilterUtil
-                .categorizeSampleLists(sampleLists);
-
-            for (List<String> sampleListTypes : studyViewFilter.getCaseLists()) {
-                List<SampleIdentifier> filteredSampleIdentifiers = sampleListTypes.stream()
-                    .flatMap(sampleListType -> groupedSampleListByListType
-                        .getOrDefault(sampleListType, new ArrayList<>()).stream().flatMap(sampleList -> {
-                            return sampleList.getSampleIds().stream().map(sampleId ->
-                                studyViewFilterUtil.buildSampleIdentifier(
-                                    sampleList.getCancerStudyIdentifier(),
-                                    sampleId));
-                        }))
-                    .toList();
-
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
-            }
+            sampleIdentifiers = applyEachSubFilter(subFilterContext, "caseLists", studyViewFilter.getCaseLists(),
+                sampleIdentifiers, (samples, caseLists) -> filterCaseLists(samples, caseLists, studyIds));
         }
 
         List<MutationDataFilter> mutationOptionDataFilters = new ArrayList<>();
@@ -386,19 +360,145 @@ public class StudyViewFilterApplier {
             });
         }
 
+        // like namespace data filters, mutation data filters are applied together
         if (!CollectionUtils.isEmpty(mutationOptionDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
-                mutationOptionDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
+            sampleIdentifiers = applySubFilter(subFilterContext, "mutationOptionDataFilters",
+                mutationOptionDataFilters, sampleIdentifiers,
+                samples -> filterMutationData(samples, finalMolecularProfiles, mutationOptionDataFilters,
+                    negateFilters, clinicalDataEqualityFilterApplier));
         }
 
         if (!CollectionUtils.isEmpty(mutationTypeDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
-                mutationTypeDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
+            sampleIdentifiers = applySubFilter(subFilterContext, "mutationTypeDataFilters",
+                mutationTypeDataFilters, sampleIdentifiers,
+                samples -> filterMutationData(samples, finalMolecularProfiles, mutationTypeDataFilters,
+                    negateFilters, clinicalDataEqualityFilterApplier));
         }
 
         return chainSubFilters(studyViewFilter, sampleIdentifiers);
     }
 
+    private <T> List<SampleIdentifier> applyEachSubFilter(SubFilterSampleCache.Context subFilterContext,
+                                                          String subFilterType, List<T> subFilters,
+                                                          List<SampleIdentifier> sampleIdentifiers,
+                                                          BiFunction<List<SampleIdentifier>, List<T>, List<SampleIdentifier>> filter) {
+        if (subFilterContext == null) {
+            return filter.apply(sampleIdentifiers, subFilters);
+        }
+        // the sub-filters select samples independently of each other, so their selections can be intersected
+        for (T subFilter : subFilters) {
+            sampleIdentifiers = subFilterContext.filter(sampleIdentifiers, subFilterType, subFilter,
+                samples -> filter.apply(samples, Collections.singletonList(subFilter)));
+        }
+        return sampleIdentifiers;
+    }
+
+    private List<SampleIdentifier> applySubFilter(SubFilterSampleCache.Context subFilterContext, String subFilterType,
+                                                  Object subFilter, List<SampleIdentifier> sampleIdentifiers,
+                                                  UnaryOperator<List<SampleIdentifier>> filter) {
+        if (subFilterContext == null) {
+            return filter.apply(sampleIdentifiers);
+        }
+        return subFilterContext.filter(sampleIdentifiers, subFilterType, subFilter, filter);
+    }
+
+    private List<SampleIdentifier> filterGenes(List<GeneFilter> mutatedGeneFilters,
+                                               List<GeneFilter> structuralVariantGeneFilters,
+                                               List<GeneFilter> cnaGeneFilters,
+                                               Map<String, MolecularProfile> molecularProfileMap,
+                                               List<SampleIdentifier> sampleIdentifiers) {
+        if (!mutatedGeneFilters.isEmpty()) {
+            sampleIdentifiers = filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, sampleIdentifiers);
+        }
+        if (!structuralVariantGeneFilters.isEmpty()) {
+            sampleIdentifiers = filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap,
+                sampleIdentifiers);
+        }
+        if (!cnaGeneFilters.isEmpty()) {
+            sampleIdentifiers = filterCNAGenes(cnaGeneFilters, molecularProfileMap, sampleIdentifiers);
+        }
+        return sampleIdentifiers;
+    }
+
+    private List<SampleIdentifier> filterGenomicProfiles(List<SampleIdentifier> sampleIdentifiers,
+                                                         List<List<String>> genomicProfiles,
+                                                         List<MolecularProfile> molecularProfiles) {
+        Map<String, List<SampleIdentifier>> groupStudySampleIdentifiers = sampleIdentifiers.stream()
+            .collect(Collectors.groupingBy(SampleIdentifier::getStudyId));
+
+        Map<String, List<MolecularProfile>> molecularProfileSet = molecularProfileUtil
+            .categorizeMolecularProfilesByStableIdSuffixes(molecularProfiles);
+
+        List<MolecularProfileCaseIdentifier> molecularProfileSampleIdentifiers = new ArrayList<>();
+
+        genomicProfiles.stream().forEach(profileValues -> {
+            profileValues.stream().forEach(profileValue -> {
+                molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream().forEach(profile -> {
+                    groupStudySampleIdentifiers.getOrDefault(profile.getCancerStudyIdentifier(), new ArrayList<>())
+                        .forEach(sampleIdentifier -> {
+                            MolecularProfileCaseIdentifier profileCaseIdentifier = new MolecularProfileCaseIdentifier();
+                            profileCaseIdentifier.setMolecularProfileId(profile.getStableId());
+                            profileCaseIdentifier.setCaseId(sampleIdentifier.getSampleId());
+                            molecularProfileSampleIdentifiers.add(profileCaseIdentifier);
+                        });
+                });
+
+            });
+        });
+
+
+        List<GenePanelData> genePanelData = genePanelService
+            .fetchGenePanelDataInMultipleMolecularProfiles(molecularProfileSampleIdentifiers);
+
+        // gene panel data is { profileId, sampleId, isProfiled   }
+        // it tells us whether a particular sample is profiled by a given molecularprofile
+        // we can use the gene panel to find out what genes were profiled
+        for (List<String> profileValues : genomicProfiles) {
+
+            // using the profileIds from the filter we get a map, stableId to profile entity
+            Map<String, MolecularProfile> profileMap = profileValues.stream().flatMap(
+                    profileValue -> molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream())
+                .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
+            
+            Set<SampleIdentifier> filteredSampleIdentifiers = new HashSet<>();
+            
+            // for each sample/profile combo, we need to find out whether
+            // the profileMap contains that profile id
+            genePanelData.forEach(datum -> {
+                if (datum.getProfiled() && profileMap.containsKey(datum.getMolecularProfileId())) {
+                    SampleIdentifier sampleIdentifier =
+                        studyViewFilterUtil.buildSampleIdentifier(datum.getStudyId(), datum.getSampleId());
+                    filteredSampleIdentifiers.add(sampleIdentifier);
+                }
+            });
+            sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+        }
+        return sampleIdentifiers;
+    }
+
+    private List<SampleIdentifier> filterCaseLists(List<SampleIdentifier> sampleIdentifiers,
+                                                   List<List<String>> caseLists, List<String> studyIds) {
+        List<SampleList> sampleLists = sampleListService.getAllSampleListsInStudies(studyIds,
+            Projection.DETAILED.name());
+        Map<String, List<SampleList>> groupedSampleListByListType = studyViewFilterUtil
+            .categorizeSampleLists(sampleLists);
+
+        for (List<String> sampleListTypes : caseLists) {
+            List<SampleIdentifier> filteredSampleIdentifiers = sampleListTypes.stream()
+                .flatMap(sampleListType -> groupedSampleListByListType
+                    .getOrDefault(sampleListType, new ArrayList<>()).stream().flatMap(sampleList -> {
+                        return sampleList.getSampleIds().stream().map(sampleId ->
+                            studyViewFilterUtil.buildSampleIdentifier(
+                                sampleList.getCancerStudyIdentifier(),
+                                sampleId));
+                    }))
+                .toList();
+
+            sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+        }
+        return sampleIdentifiers;
+    }
+
     private List<SampleIdentifier> chainSubFilters(StudyViewFilter studyViewFilter, List<SampleIdentifier> sampleIdentifiers) {
         for (StudyViewSubFilterApplier subFilterApplier : subFilterAppliers) {
             if (!sampleIdentifiers.isEmpty() && subFilterApplier.shouldApplyFilter(studyViewFilter)) {
@@ -0,0 +1,263 @@
+package org.cbioportal.legacy.web.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Heap cache of the samples selected by single sub-filters of a study view filter (one clinical data filter,
+ * one gene filter, one case list selection, ...), evaluated on all samples of the queried studies. Filters that
+ * share sub-filters with a previous filter are applied by intersecting the cached sample sets, so that adding
+ * or removing a filter only evaluates the sub-filters that are new.
+ *
+ * The samples of a sub-filter are stored as one bit set per study, over the samples of the study in the order
+ * of the sample service. Entries are keyed by the queried studies and the JSON of the sub-filter, and are
+ * dropped when the samples of one of the studies change, when the caches of the portal or of one of the studies
+ * are cleared through the cache service, or after studyview.sub_filter_cache.ttl_mins. The
+ * cache is disabled unless studyview.sub_filter_cache.max_mega_bytes_heap is set.
+ */
+@Component
+public class SubFilterSampleCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SubFilterSampleCache.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String KEY_DELIMITER = "|";
+
+    @Value("${studyview.sub_filter_cache.max_mega_bytes_heap:0}")
+    private long maxMegaBytesHeap;
+
+    @Value("${studyview.sub_filter_cache.ttl_mins:10}")
+    private long ttlMins;
+
+    private Cache<String, Entry> entries;
+    private Cache<String, StudySamples> studySamples;
+
+    public SubFilterSampleCache() {
+    }
+
+    SubFilterSampleCache(long maxMegaBytesHeap, long ttlMins) {
+        this.maxMegaBytesHeap = maxMegaBytesHeap;
+        this.ttlMins = ttlMins;
+        initialize();
+    }
+
+    @PostConstruct
+    void initialize() {
+        if (!isEnabled()) {
+            return;
+        }
+        entries = CacheBuilder.newBuilder()
+            .maximumWeight(maxMegaBytesHeap * 1024 * 1024)
+            .weigher((String key, Entry entry) -> 2 * key.length() + entry.getSizeInBytes())
+            .expireAfterWrite(ttlMins, TimeUnit.MINUTES)
+            .build();
+        studySamples = CacheBuilder.newBuilder()
+            .expireAfterAccess(ttlMins, TimeUnit.MINUTES)
+            .build();
+    }
+
+    public boolean isEnabled() {
+        return maxMegaBytesHeap > 0;
+    }
+
+    /**
+     * Returns the context to apply the sub-filters of one study view filter with, or null if the cache is
+     * disabled.
+     *
+     * @param allSampleIdentifiers all samples of the queried studies, the sub-filters are evaluated on these
+     */
+    public Context getContext(List<SampleIdentifier> allSampleIdentifiers) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Map<String, List<String>> sampleIdsByStudyId = new LinkedHashMap<>();
+        for (SampleIdentifier sampleIdentifier : allSampleIdentifiers) {
+            sampleIdsByStudyId.computeIfAbsent(sampleIdentifier.getStudyId(), k -> new ArrayList<>())
+                .add(sampleIdentifier.getSampleId());
+        }
+
+        Map<String, StudySamples> samplesByStudyId = new HashMap<>();
+        sampleIdsByStudyId.forEach((studyId, sampleIds) -> {
+            String[] currentSampleIds = sampleIds.toArray(new String[0]);
+            StudySamples samples = studySamples.getIfPresent(studyId);
+            // samples are added or removed when a study is imported again
+            if (samples == null || !samples.hasSampleIds(currentSampleIds)) {
+                samples = new StudySamples(currentSampleIds);
+                studySamples.put(studyId, samples);
+            }
+            samplesByStudyId.put(studyId, samples);
+        });
+        return new Context(allSampleIdentifiers, samplesByStudyId);
+    }
+
+    /**
+     * Drops all entries, e.g. after the data of the portal changed.
+     */
+    public void invalidateAll() {
+        if (!isEnabled()) {
+            return;
+        }
+        entries.invalidateAll();
+        studySamples.invalidateAll();
+    }
+
+    /**
+     * Drops the entries of all queries of the study, e.g. after the study was imported again with the same
+     * samples but other data.
+     */
+    public void invalidateStudy(String studyId) {
+        if (!isEnabled()) {
+            return;
+        }
+        entries.asMap().keySet().removeIf(key ->
+            Arrays.asList(key.substring(0, key.indexOf(KEY_DELIMITER)).split(",")).contains(studyId));
+        studySamples.invalidate(studyId);
+    }
+
+    long size() {
+        return entries == null ? 0 : entries.size();
+    }
+
+    public class Context {
+        private final List<SampleIdentifier> allSampleIdentifiers;
+        private final Map<String, StudySamples> samplesByStudyId;
+        private final String studyKey;
+
+        private Context(List<SampleIdentifier> allSampleIdentifiers, Map<String, StudySamples> samplesByStudyId) {
+            this.allSampleIdentifiers = allSampleIdentifiers;
+            this.samplesByStudyId = samplesByStudyId;
+            this.studyKey = String.join(",", new TreeSet<>(samplesByStudyId.keySet()));
+        }
+
+        /**
+         * Returns the samples that the sub-filter selects, in the order of the given samples. The sub-filter is
+         * evaluated on all samples of the studies, unless its selection is cached already.
+         *
+         * @param subFilterType distinguishes sub-filters of different kinds that have the same JSON
+         * @param filter applies the sub-filter to a list of samples
+         */
+        public List<SampleIdentifier> filter(List<SampleIdentifier> sampleIdentifiers, String subFilterType,
+                                             Object subFilter, UnaryOperator<List<SampleIdentifier>> filter) {
+            if (sampleIdentifiers.isEmpty()) {
+                return sampleIdentifiers;
+            }
+            String key;
+            try {
+                key = studyKey + KEY_DELIMITER + subFilterType + KEY_DELIMITER
+                    + OBJECT_MAPPER.writeValueAsString(subFilter);
+            } catch (JsonProcessingException e) {
+                LOG.warn("Could not build the cache key of a {} sub-filter, it is not cached: ", subFilterType, e);
+                return filter.apply(sampleIdentifiers);
+            }
+
+            Entry entry = entries.getIfPresent(key);
+            if (entry == null || !entry.hasSamples(samplesByStudyId)) {
+                entry = evaluate(filter);
+                entries.put(key, entry);
+            }
+
+            List<SampleIdentifier> filteredSampleIdentifiers = new ArrayList<>();
+            for (SampleIdentifier sampleIdentifier : sampleIdentifiers) {
+                if (entry.contains(sampleIdentifier)) {
+                    filteredSampleIdentifiers.add(sampleIdentifier);
+                }
+            }
+            return filteredSampleIdentifiers;
+        }
+
+        private Entry evaluate(UnaryOperator<List<SampleIdentifier>> filter) {
+            // the filters may change the list they are given
+            List<SampleIdentifier> filteredSampleIdentifiers = filter.apply(new ArrayList<>(allSampleIdentifiers));
+
+            Map<String, BitSet> selectedSamplesByStudyId = new HashMap<>();
+            samplesByStudyId.forEach((studyId, samples) ->
+                selectedSamplesByStudyId.put(studyId, new BitSet(samples.size())));
+            for (SampleIdentifier sampleIdentifier : filteredSampleIdentifiers) {
+                StudySamples samples = samplesByStudyId.get(sampleIdentifier.getStudyId());
+                int index = samples == null ? -1 : samples.indexOf(sampleIdentifier.getSampleId());
+                if (index >= 0) {
+                    selectedSamplesByStudyId.get(sampleIdentifier.getStudyId()).set(index);
+                }
+            }
+            return new Entry(samplesByStudyId, selectedSamplesByStudyId);
+        }
+    }
+
+    /**
+     * The samples of a study, in the order of the sample service.
+     */
+    private static class StudySamples {
+        private final String[] sampleIds;
+        private final Map<String, Integer> indexBySampleId;
+
+        private StudySamples(String[] sampleIds) {
+            this.sampleIds = sampleIds;
+            this.indexBySampleId = new HashMap<>(2 * sampleIds.length);
+            for (int i = 0; i < sampleIds.length; i++) {
+                indexBySampleId.putIfAbsent(sampleIds[i], i);
+            }
+        }
+
+        private boolean hasSampleIds(String[] otherSampleIds) {
+            return Arrays.equals(sampleIds, otherSampleIds);
+        }
+
+        private int indexOf(String sampleId) {
+            return indexBySampleId.getOrDefault(sampleId, -1);
+        }
+
+        private int size() {
+            return sampleIds.length;
+        }
+    }
+
+    private static class Entry {
+        // the sample index every bit set refers to
+        private final Map<String, StudySamples> samplesByStudyId;
+        private final Map<String, BitSet> selectedSamplesByStudyId;
+
+        private Entry(Map<String, StudySamples> samplesByStudyId, Map<String, BitSet> selectedSamplesByStudyId) {
+            this.samplesByStudyId = samplesByStudyId;
+            this.selectedSamplesByStudyId = selectedSamplesByStudyId;
+        }
+
+        private boolean hasSamples(Map<String, StudySamples> currentSamplesByStudyId) {
+            if (samplesByStudyId.size() != currentSamplesByStudyId.size()) {
+                return false;
+            }
+            for (Map.Entry<String, StudySamples> studySamples : currentSamplesByStudyId.entrySet()) {
+                if (samplesByStudyId.get(studySamples.getKey()) != studySamples.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(SampleIdentifier sampleIdentifier) {
+            StudySamples samples = samplesByStudyId.get(sampleIdentifier.getStudyId());
+            int index = samples == null ? -1 : samples.indexOf(sampleIdentifier.getSampleId());
+            return index >= 0 && selectedSamplesByStudyId.get(sampleIdentifier.getStudyId()).get(index);
+        }
+
+        private int getSizeInBytes() {
+            return selectedSamplesByStudyId.values().stream().mapToInt(bitSet -> bitSet.size() / Byte.SIZE).sum();
+        }
+    }
+}
@@ -12,8 +12,9 @@ public abstract class ClinicalDataCountItemUtil {
     }
 
     public static List<ClinicalDataCountItem> generateDataCountItems(List<ClinicalDataCount> dataCounts) {
+        // one item per attribute, too few and too cheap to be worth handing to other threads
         return dataCounts.stream().collect(Collectors.groupingBy(ClinicalDataCount::getAttributeId))
-            .entrySet().parallelStream().map(e -> {
+            .entrySet().stream().map(e -> {
                 ClinicalDataCountItem item = new ClinicalDataCountItem();
                 item.setAttributeId(e.getKey());
                 item.setCounts(StudyViewColumnarServiceUtil.normalizeDataCounts(e.getValue()));
@@ -0,0 +1,163 @@
+package org.cbioportal.application.rest.vcolumnstore;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cbioportal.application.rest.request.StudyViewBatchFilter;
+import org.cbioportal.application.rest.request.StudyViewChartRequest;
+import org.cbioportal.application.rest.request.StudyViewChartRequest.ChartType;
+import org.cbioportal.domain.studyview.StudyViewFilterContext;
+import org.cbioportal.domain.studyview.StudyViewService;
+import org.cbioportal.infrastructure.service.ClinicalDataBinner;
+import org.cbioportal.legacy.model.AlterationCountByGene;
+import org.cbioportal.legacy.model.ClinicalDataCountItem;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinCountFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.DataBinMethod;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ColumnarStoreStudyViewBatchControllerTest {
+
+    private static final String STUDY_ID = "study_id";
+    private static final String HUGO_GENE_SYMBOL = "BRCA1";
+    private static final String ATTRIBUTE_ID = "SEX";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StudyViewService studyViewService = mock(StudyViewService.class);
+    private final ClinicalDataBinner clinicalDataBinner = mock(ClinicalDataBinner.class);
+    private final ColumnarStoreStudyViewBatchController controller = new ColumnarStoreStudyViewBatchController(
+        studyViewService, clinicalDataBinner, new SimpleAsyncTaskExecutor(), objectMapper);
+
+    @Test
+    public void fetchStudyViewChartsWritesOneLinePerChart() throws Exception {
+        StudyViewFilterContext studyViewFilterContext = mock(StudyViewFilterContext.class);
+        when(studyViewFilterContext.resolvedSampleUniqueIds()).thenReturn(List.of(STUDY_ID + "_sample_id"));
+        when(studyViewService.resolveStudyViewFilterContext(any())).thenReturn(studyViewFilterContext);
+        AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
+        alterationCountByGene.setHugoGeneSymbol(HUGO_GENE_SYMBOL);
+        when(studyViewService.getMutatedGenes(studyViewFilterContext)).thenReturn(List.of(alterationCountByGene));
+        when(studyViewService.getCnaGenes(studyViewFilterContext)).thenThrow(new IllegalStateException("no cna data"));
+        ClinicalDataCountItem clinicalDataCountItem = new ClinicalDataCountItem();
+        clinicalDataCountItem.setAttributeId(ATTRIBUTE_ID);
+        when(studyViewService.getClinicalDataCounts(any(StudyViewFilter.class), anyList()))
+            .thenReturn(List.of(clinicalDataCountItem));
+
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(List.of(STUDY_ID));
+        studyViewFilter.setClinicalDataFilters(new ArrayList<>(List.of(clinicalDataFilter(ATTRIBUTE_ID))));
+        StudyViewChartRequest clinicalDataCountsChart = chart("sex", ChartType.CLINICAL_DATA_COUNTS);
+        clinicalDataCountsChart.setAttributes(List.of(clinicalDataFilter(ATTRIBUTE_ID)));
+        StudyViewBatchFilter studyViewBatchFilter = new StudyViewBatchFilter();
+        studyViewBatchFilter.setStudyViewFilter(studyViewFilter);
+        studyViewBatchFilter.setCharts(List.of(chart("mutations", ChartType.MUTATED_GENES),
+            chart("cna", ChartType.CNA_GENES), clinicalDataCountsChart));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.fetchStudyViewCharts(studyViewBatchFilter, response);
+
+        Assert.assertEquals("application/x-ndjson", response.getContentType());
+        Map<String, JsonNode> resultsById = new HashMap<>();
+        for (String line : response.getContentAsString().split("\n")) {
+            JsonNode result = objectMapper.readTree(line);
+            resultsById.put(result.get("id").asText(), result);
+        }
+        Assert.assertEquals(3, resultsById.size());
+        Assert.assertEquals(HUGO_GENE_SYMBOL,
+            resultsById.get("mutations").get("result").get(0).get("hugoGeneSymbol").asText());
+        // the message of the exception is not returned to the client
+        Assert.assertEquals("Could not compute the chart", resultsById.get("cna").get("error").asText());
+        Assert.assertFalse(resultsById.get("cna").has("result"));
+        Assert.assertEquals(ATTRIBUTE_ID, resultsById.get("sex").get("result").get(0).get("attributeId").asText());
+
+        verify(studyViewService, times(1)).resolveStudyViewFilterContext(studyViewFilter);
+        // the clinical data counts chart removes its own filter from a copy of the shared filter
+        ArgumentCaptor<StudyViewFilter> studyViewFilterCaptor = ArgumentCaptor.forClass(StudyViewFilter.class);
+        verify(studyViewService).getClinicalDataCounts(studyViewFilterCaptor.capture(), anyList());
+        Assert.assertTrue(studyViewFilterCaptor.getValue().getClinicalDataFilters().isEmpty());
+        Assert.assertEquals(1, studyViewFilter.getClinicalDataFilters().size());
+    }
+
+    @Test
+    public void fetchStudyViewChartsBinsClinicalDataOfResolvedSamples() throws Exception {
+        StudyViewFilterContext studyViewFilterContext = mock(StudyViewFilterContext.class);
+        when(studyViewFilterContext.resolvedSampleUniqueIds()).thenReturn(List.of(STUDY_ID + "_sample_id"));
+        when(studyViewService.resolveStudyViewFilterContext(any())).thenReturn(studyViewFilterContext);
+        when(clinicalDataBinner.fetchClinicalDataBinCounts(any(), any(), any(StudyViewFilterContext.class)))
+            .thenReturn(List.of());
+
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(List.of(STUDY_ID));
+        studyViewFilter.setClinicalDataFilters(new ArrayList<>(List.of(clinicalDataFilter(ATTRIBUTE_ID))));
+        ClinicalDataBinFilter clinicalDataBinFilter = new ClinicalDataBinFilter();
+        clinicalDataBinFilter.setAttributeId("AGE");
+        StudyViewChartRequest clinicalDataBinCountsChart = chart("age", ChartType.CLINICAL_DATA_BIN_COUNTS);
+        clinicalDataBinCountsChart.setBinAttributes(List.of(clinicalDataBinFilter));
+        StudyViewBatchFilter studyViewBatchFilter = new StudyViewBatchFilter();
+        studyViewBatchFilter.setStudyViewFilter(studyViewFilter);
+        studyViewBatchFilter.setCharts(List.of(clinicalDataBinCountsChart));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.fetchStudyViewCharts(studyViewBatchFilter, response);
+
+        JsonNode result = objectMapper.readTree(response.getContentAsString().trim());
+        Assert.assertFalse(result.has("error"));
+        verify(clinicalDataBinner).fetchClinicalDataBinCounts(eq(DataBinMethod.DYNAMIC),
+            any(ClinicalDataBinCountFilter.class), eq(studyViewFilterContext));
+        verify(clinicalDataBinner, never()).fetchClinicalDataBinCounts(any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void fetchStudyViewChartsUsesFilterIfNoSamplesAreResolved() throws Exception {
+        StudyViewFilterContext studyViewFilterContext = mock(StudyViewFilterContext.class);
+        when(studyViewFilterContext.resolvedSampleUniqueIds()).thenReturn(null);
+        when(studyViewService.resolveStudyViewFilterContext(any())).thenReturn(studyViewFilterContext);
+        when(studyViewService.getMutatedGenes(any(StudyViewFilter.class))).thenReturn(List.of());
+
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(List.of(STUDY_ID));
+        StudyViewBatchFilter studyViewBatchFilter = new StudyViewBatchFilter();
+        studyViewBatchFilter.setStudyViewFilter(studyViewFilter);
+        studyViewBatchFilter.setCharts(List.of(chart("mutations", ChartType.MUTATED_GENES)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.fetchStudyViewCharts(studyViewBatchFilter, response);
+
+        JsonNode result = objectMapper.readTree(response.getContentAsString().trim());
+        Assert.assertFalse(result.has("error"));
+        verify(studyViewService).getMutatedGenes(studyViewFilter);
+        verify(studyViewService, never()).getMutatedGenes(any(StudyViewFilterContext.class));
+    }
+
+    private StudyViewChartRequest chart(String id, ChartType type) {
+        StudyViewChartRequest chart = new StudyViewChartRequest();
+        chart.setId(id);
+        chart.setType(type);
+        return chart;
+    }
+
+    private ClinicalDataFilter clinicalDataFilter(String attributeId) {
+        ClinicalDataFilter clinicalDataFilter = new ClinicalDataFilter();
+        clinicalDataFilter.setAttributeId(attributeId);
+        return clinicalDataFilter;
+    }
+}
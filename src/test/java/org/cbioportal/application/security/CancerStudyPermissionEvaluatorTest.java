@@ -0,0 +1,102 @@
+package org.cbioportal.application.security;
+
+import org.cbioportal.legacy.model.CancerStudy;
+import org.cbioportal.legacy.persistence.cachemaputil.CacheMapUtil;
+import org.cbioportal.legacy.persistence.cachemaputil.CancerStudyAuthorizationIndex;
+import org.cbioportal.legacy.utils.security.AccessLevel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CancerStudyPermissionEvaluatorTest {
+
+    private static final String CANCER_STUDY_IDS = "Collection<CancerStudyId>";
+
+    private final Map<String, CancerStudy> cancerStudyMap = new HashMap<>();
+    private final CacheMapUtil cacheMapUtil = mock(CacheMapUtil.class);
+    private final CacheMapUtil indexedCacheMapUtil = mock(CacheMapUtil.class);
+
+    @Before
+    public void setUp() {
+        addCancerStudy("brca_tcga", "PUBLIC");
+        addCancerStudy("aml_target", "");
+        addCancerStudy("private_study", "GROUP_A;GROUP_B");
+        addCancerStudy("other_private_study", "GROUP_C");
+        addCancerStudy("lower_case_group_study", "group_d");
+        when(cacheMapUtil.getCancerStudyMap()).thenReturn(cancerStudyMap);
+        when(indexedCacheMapUtil.getCancerStudyMap()).thenReturn(cancerStudyMap);
+        when(indexedCacheMapUtil.getCancerStudyAuthorizationIndex())
+            .thenReturn(new CancerStudyAuthorizationIndex(cancerStudyMap));
+    }
+
+    @Test
+    public void indexedChecksMatchChecksOfEachStudy() {
+        List<Authentication> authentications = List.of(
+            authentication(),
+            authentication("ROLE_public_portal:group_a"),
+            authentication("public_portal:GROUP_C", "public_portal:all_tcga"),
+            authentication("public_portal:all_nci_target"),
+            authentication("public_portal:PRIVATE_STUDY"),
+            authentication("public_portal:group_d"),
+            authentication("other_portal:GROUP_A"),
+            authentication("public_portal:ALL"));
+        List<List<String>> cancerStudyIdLists = List.of(
+            List.of(),
+            List.of("all"),
+            List.of("brca_tcga"),
+            List.of("aml_target", "brca_tcga"),
+            List.of("private_study", "all"),
+            List.of("other_private_study", "private_study"),
+            List.of("lower_case_group_study"),
+            List.of("brca_tcga", "unknown_study"));
+
+        for (AccessLevel accessLevel : List.of(AccessLevel.READ, AccessLevel.LIST)) {
+            for (Authentication authentication : authentications) {
+                for (List<String> cancerStudyIds : cancerStudyIdLists) {
+                    Assert.assertEquals(authentication.getAuthorities() + " " + cancerStudyIds + " " + accessLevel,
+                        hasPermission(cacheMapUtil, authentication, cancerStudyIds, accessLevel),
+                        hasPermission(indexedCacheMapUtil, authentication, cancerStudyIds, accessLevel));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void indexedChecksOfGroups() {
+        Assert.assertTrue(hasPermission(indexedCacheMapUtil, authentication("public_portal:GROUP_B"),
+            List.of("brca_tcga", "private_study"), AccessLevel.READ));
+        Assert.assertFalse(hasPermission(indexedCacheMapUtil, authentication("public_portal:GROUP_B"),
+            List.of("private_study", "other_private_study"), AccessLevel.READ));
+        Assert.assertFalse(hasPermission(indexedCacheMapUtil, null, List.of("brca_tcga"), AccessLevel.READ));
+        Assert.assertTrue(new CancerStudyPermissionEvaluator(null, null, "PUBLIC", indexedCacheMapUtil)
+            .hasPermission(authentication(), "brca_tcga", "CancerStudyId", AccessLevel.READ));
+    }
+
+    private boolean hasPermission(CacheMapUtil cacheMapUtil, Authentication authentication,
+                                  List<String> cancerStudyIds, AccessLevel accessLevel) {
+        CancerStudyPermissionEvaluator evaluator =
+            new CancerStudyPermissionEvaluator(null, null, "PUBLIC", cacheMapUtil);
+        return evaluator.hasPermission(authentication, (Serializable) cancerStudyIds, CANCER_STUDY_IDS, accessLevel);
+    }
+
+    private Authentication authentication(String... authorities) {
+        return new TestingAuthenticationToken("user", null, authorities);
+    }
+
+    private void addCancerStudy(String cancerStudyId, String groups) {
+        CancerStudy cancerStudy = new CancerStudy();
+        cancerStudy.setCancerStudyIdentifier(cancerStudyId);
+        cancerStudy.setGroups(groups);
+        cancerStudyMap.put(cancerStudyId, cancerStudy);
+    }
+}
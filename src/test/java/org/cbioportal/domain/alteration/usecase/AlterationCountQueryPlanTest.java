@@ -0,0 +1,112 @@
+package org.cbioportal.domain.alteration.usecase;
+
+import org.cbioportal.legacy.service.exception.StudyNotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AlterationCountQueryPlanTest {
+
+    @Test
+    public void queriesRunConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        try (AlterationCountQueryPlan queryPlan = new AlterationCountQueryPlan(new SimpleAsyncTaskExecutor())) {
+            FutureTask<Boolean> first = queryPlan.submit("first", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(10, TimeUnit.SECONDS);
+            });
+            FutureTask<Boolean> second = queryPlan.submit("second", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(10, TimeUnit.SECONDS);
+            });
+
+            Assert.assertTrue(queryPlan.get(first));
+            Assert.assertTrue(queryPlan.get(second));
+        }
+    }
+
+    @Test
+    public void getRunsQueriesThatHaveNotBeenStarted() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        // an executor that never gets to run its tasks
+        AlterationCountQueryPlan queryPlan = new AlterationCountQueryPlan(new TaskExecutorAdapter(queued::add));
+
+        FutureTask<String> query = queryPlan.submit("query", () -> Thread.currentThread().getName());
+
+        Assert.assertEquals(Thread.currentThread().getName(), queryPlan.get(query));
+        Assert.assertEquals(1, queued.size());
+    }
+
+    @Test(expected = StudyNotFoundException.class)
+    public void getRethrowsExceptionOfQuery() throws Exception {
+        try (AlterationCountQueryPlan queryPlan = new AlterationCountQueryPlan(new SimpleAsyncTaskExecutor())) {
+            FutureTask<Object> query = queryPlan.submit("query", () -> {
+                throw new StudyNotFoundException("study_id");
+            });
+            queryPlan.get(query);
+        }
+    }
+
+    @Test
+    public void closeCancelsRunningQueries() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        FutureTask<Object> query;
+        try (AlterationCountQueryPlan queryPlan = new AlterationCountQueryPlan(new SimpleAsyncTaskExecutor())) {
+            query = queryPlan.submit("query", () -> {
+                started.countDown();
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                return null;
+            });
+            started.await();
+        }
+
+        Assert.assertTrue(query.isCancelled());
+    }
+
+    @Test
+    public void queriesBeyondMaxConcurrentQueriesWaitForRunningOnes() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (AlterationCountQueryPlan queryPlan =
+                 new AlterationCountQueryPlan(new SimpleAsyncTaskExecutor(), 2, 0)) {
+            List<FutureTask<Object>> queries = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                queries.add(queryPlan.submit("query " + i, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    return null;
+                }));
+            }
+            // waits without running the queries in this thread
+            for (FutureTask<Object> query : queries) {
+                query.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        Assert.assertEquals(2, maxRunning.get());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void getThrowsWhenDeadlinePassed() throws Exception {
+        try (AlterationCountQueryPlan queryPlan =
+                 new AlterationCountQueryPlan(new SimpleAsyncTaskExecutor(), 2, 50)) {
+            CountDownLatch started = new CountDownLatch(1);
+            FutureTask<Object> query = queryPlan.submit("query", () -> {
+                started.countDown();
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                return null;
+            });
+            started.await();
+            queryPlan.get(query);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.cbioportal.domain.studyview;
+
+import org.cbioportal.domain.sample.Sample;
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.DataFilterValue;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.StudyViewFilterUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class FilteredSampleIdsCacheTest {
+
+    private static final String STUDY_ID = "study_id";
+
+    private final StudyViewFilterUtil studyViewFilterUtil = new StudyViewFilterUtil();
+
+    @Test
+    public void resolveReturnsContextWhenDisabled() {
+        FilteredSampleIdsCache cache = new FilteredSampleIdsCache(studyViewFilterUtil, 0, 1000);
+        StudyViewFilter studyViewFilter = filteredStudyViewFilter("SEX", "MALE");
+        StudyViewFilterContext context = context(studyViewFilter);
+
+        Assert.assertSame(context, cache.resolve(studyViewFilter, context, c -> {
+            throw new AssertionError("filter must not be evaluated");
+        }));
+    }
+
+    @Test
+    public void resolveReturnsContextOfUnfilteredQuery() {
+        FilteredSampleIdsCache cache = new FilteredSampleIdsCache(studyViewFilterUtil, 60, 1000);
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(List.of(STUDY_ID));
+        StudyViewFilterContext context = context(studyViewFilter);
+
+        Assert.assertSame(context, cache.resolve(studyViewFilter, context, c -> {
+            throw new AssertionError("filter must not be evaluated");
+        }));
+    }
+
+    @Test
+    public void resolveEvaluatesEachFilterOnce() {
+        FilteredSampleIdsCache cache = new FilteredSampleIdsCache(studyViewFilterUtil, 60, 1000);
+        AtomicInteger evaluationCount = new AtomicInteger();
+        Function<StudyViewFilterContext, List<Sample>> filteredSamples = c -> {
+            evaluationCount.incrementAndGet();
+            Assert.assertNull(c.resolvedSampleUniqueIds());
+            return List.of(new Sample(1, "sample_1", "patient_1", STUDY_ID),
+                new Sample(2, "sample_2", "patient_2", STUDY_ID));
+        };
+
+        StudyViewFilterContext first = cache.resolve(filteredStudyViewFilter("SEX", "MALE"),
+            context(filteredStudyViewFilter("SEX", "MALE")), filteredSamples);
+        // an equal filter of another request
+        StudyViewFilterContext second = cache.resolve(filteredStudyViewFilter("SEX", "MALE"),
+            context(filteredStudyViewFilter("SEX", "MALE")), filteredSamples);
+        StudyViewFilterContext other = cache.resolve(filteredStudyViewFilter("SEX", "FEMALE"),
+            context(filteredStudyViewFilter("SEX", "FEMALE")), filteredSamples);
+
+        Assert.assertEquals(2, evaluationCount.get());
+        Assert.assertEquals(List.of("study_id_sample_1", "study_id_sample_2"), first.resolvedSampleUniqueIds());
+        Assert.assertEquals(first.resolvedSampleUniqueIds(), second.resolvedSampleUniqueIds());
+        Assert.assertEquals(List.of(STUDY_ID), second.studyIds());
+        Assert.assertNotNull(other.resolvedSampleUniqueIds());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void invalidateStudyDropsEntriesOfFiltersOfTheStudy() {
+        FilteredSampleIdsCache cache = new FilteredSampleIdsCache(studyViewFilterUtil, 60, 1000);
+        AtomicInteger evaluationCount = new AtomicInteger();
+        Function<StudyViewFilterContext, List<Sample>> filteredSamples = c -> {
+            evaluationCount.incrementAndGet();
+            return List.of(new Sample(1, "sample_1", "patient_1", STUDY_ID));
+        };
+        cache.resolve(filteredStudyViewFilter("SEX", "MALE"), context(filteredStudyViewFilter("SEX", "MALE")),
+            filteredSamples);
+
+        cache.invalidateStudy("other_study_id");
+        Assert.assertEquals(1, cache.size());
+        cache.invalidateStudy(STUDY_ID);
+        Assert.assertEquals(0, cache.size());
+
+        cache.resolve(filteredStudyViewFilter("SEX", "MALE"), context(filteredStudyViewFilter("SEX", "MALE")),
+            filteredSamples);
+        Assert.assertEquals(2, evaluationCount.get());
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void resolveReturnsContextWhenFilterSelectsNoSamples() {
+        FilteredSampleIdsCache cache = new FilteredSampleIdsCache(studyViewFilterUtil, 60, 1000);
+        StudyViewFilter studyViewFilter = filteredStudyViewFilter("SEX", "MALE");
+        StudyViewFilterContext context = context(studyViewFilter);
+
+        Assert.assertSame(context, cache.resolve(studyViewFilter, context, c -> List.of()));
+    }
+
+    private StudyViewFilter filteredStudyViewFilter(String attributeId, String value) {
+        DataFilterValue dataFilterValue = new DataFilterValue();
+        dataFilterValue.setValue(value);
+        ClinicalDataFilter clinicalDataFilter = new ClinicalDataFilter();
+        clinicalDataFilter.setAttributeId(attributeId);
+        clinicalDataFilter.setValues(List.of(dataFilterValue));
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setStudyIds(List.of(STUDY_ID));
+        studyViewFilter.setClinicalDataFilters(List.of(clinicalDataFilter));
+        return studyViewFilter;
+    }
+
+    private StudyViewFilterContext context(StudyViewFilter studyViewFilter) {
+        return StudyViewFilterFactory.make(studyViewFilter, null, studyViewFilter.getStudyIds(), null);
+    }
+}
@@ -0,0 +1,115 @@
+package org.cbioportal.legacy.persistence.cachemaputil;
+
+import org.cbioportal.legacy.model.CancerStudy;
+import org.cbioportal.legacy.model.MolecularProfile;
+import org.cbioportal.legacy.model.SampleList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StaticRefCacheMapUtilTest {
+
+    @InjectMocks
+    private StaticRefCacheMapUtil cacheMapUtil;
+
+    @Mock
+    private CacheMapBuilder cacheMapBuilder;
+
+    @Before
+    public void setUp() {
+        StaticRefCacheMapUtil.snapshot = null;
+        when(cacheMapBuilder.buildMolecularProfileMap()).thenReturn(Map.of(
+            "study_1_mutations", molecularProfile("study_1_mutations", "study_1"),
+            "study_2_mutations", molecularProfile("study_2_mutations", "study_2")));
+        when(cacheMapBuilder.buildSampleListMap()).thenReturn(Map.of(
+            "study_1_all", sampleList("study_1_all", "study_1"),
+            "study_2_all", sampleList("study_2_all", "study_2")));
+        when(cacheMapBuilder.buildCancerStudyMap()).thenReturn(Map.of(
+            "study_1", cancerStudy("study_1", "GROUP_A"),
+            "study_2", cancerStudy("study_2", "GROUP_A")));
+    }
+
+    @Test
+    public void initializeCacheMemoryRebuildsAllMaps() {
+        cacheMapUtil.initializeCacheMemory();
+        cacheMapUtil.initializeCacheMemory();
+
+        verify(cacheMapBuilder, times(2)).buildMolecularProfileMap();
+        verify(cacheMapBuilder, times(2)).buildSampleListMap();
+        verify(cacheMapBuilder, times(2)).buildCancerStudyMap();
+        Assert.assertEquals(2, StaticRefCacheMapUtil.snapshot.version());
+        Assert.assertEquals(2, cacheMapUtil.getCancerStudyMap().size());
+    }
+
+    @Test
+    public void refreshCancerStudyReplacesEntriesOfStudy() {
+        cacheMapUtil.initializeCacheMemory();
+        when(cacheMapBuilder.buildMolecularProfileMap("study_2")).thenReturn(Map.of(
+            "study_2_cna", molecularProfile("study_2_cna", "study_2")));
+        when(cacheMapBuilder.buildSampleListMap("study_2")).thenReturn(Map.of());
+        when(cacheMapBuilder.buildCancerStudyMap("study_2")).thenReturn(Map.of(
+            "study_2", cancerStudy("study_2", "GROUP_B")));
+        CancerStudyAuthorizationIndex previousIndex = cacheMapUtil.getCancerStudyAuthorizationIndex();
+
+        cacheMapUtil.refreshCancerStudy("study_2");
+
+        Assert.assertEquals(Set.of("study_1_mutations", "study_2_cna"), cacheMapUtil.getMolecularProfileMap().keySet());
+        Assert.assertEquals(Set.of("study_1_all"), cacheMapUtil.getSampleListMap().keySet());
+        Assert.assertEquals("GROUP_B", cacheMapUtil.getCancerStudyMap().get("study_2").getGroups());
+        Assert.assertNotSame(previousIndex, cacheMapUtil.getCancerStudyAuthorizationIndex());
+        Assert.assertFalse(cacheMapUtil.getCancerStudyAuthorizationIndex()
+            .hasAccessToCancerStudies(Set.of("GROUP_A"), Set.of("study_1", "study_2")));
+        Assert.assertTrue(cacheMapUtil.getCancerStudyAuthorizationIndex()
+            .hasAccessToCancerStudies(Set.of("GROUP_B"), Set.of("study_2")));
+        verify(cacheMapBuilder, times(1)).buildCancerStudyMap();
+    }
+
+    @Test
+    public void refreshCancerStudyRemovesDeletedStudy() {
+        cacheMapUtil.initializeCacheMemory();
+        when(cacheMapBuilder.buildMolecularProfileMap("study_1")).thenReturn(Map.of());
+        when(cacheMapBuilder.buildSampleListMap("study_1")).thenReturn(Map.of());
+        when(cacheMapBuilder.buildCancerStudyMap("study_1")).thenReturn(Map.of());
+
+        cacheMapUtil.refreshCancerStudy("study_1");
+
+        Assert.assertEquals(Set.of("study_2"), cacheMapUtil.getCancerStudyMap().keySet());
+        Assert.assertEquals(Set.of("study_2_mutations"), cacheMapUtil.getMolecularProfileMap().keySet());
+        Assert.assertFalse(cacheMapUtil.getCancerStudyAuthorizationIndex().containsCancerStudy("study_1"));
+        verify(cacheMapBuilder, never()).buildSampleListMap("study_2");
+    }
+
+    private MolecularProfile molecularProfile(String stableId, String studyId) {
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(stableId);
+        molecularProfile.setCancerStudyIdentifier(studyId);
+        return molecularProfile;
+    }
+
+    private SampleList sampleList(String stableId, String studyId) {
+        SampleList sampleList = new SampleList();
+        sampleList.setStableId(stableId);
+        sampleList.setCancerStudyIdentifier(studyId);
+        return sampleList;
+    }
+
+    private CancerStudy cancerStudy(String studyId, String groups) {
+        CancerStudy cancerStudy = new CancerStudy();
+        cancerStudy.setCancerStudyIdentifier(studyId);
+        cancerStudy.setGroups(groups);
+        return cancerStudy;
+    }
+}
@@ -34,6 +34,14 @@ public class MolecularDataMyBatisRepositoryTest {
         Assert.assertEquals("1,2,3,4,5,6,7,8,9,10,11,12,13,14,", result.getCommaSeparatedSampleIds());
     }
 
+    @Test
+    public void getMolecularAlterationCount() throws Exception {
+
+        int result = molecularDataMyBatisRepository.getMolecularAlterationCount("study_tcga_pub_gistic");
+
+        Assert.assertEquals(2, result);
+    }
+
     @Test
     public void getCommaSeparatedSampleIdsOfMolecularProfiles() throws Exception {
 
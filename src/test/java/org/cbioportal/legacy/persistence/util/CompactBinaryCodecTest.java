@@ -0,0 +1,96 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalDataCount;
+import org.cbioportal.legacy.model.SampleClinicalDataCollection;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactBinaryCodecTest {
+
+    private static final CompactBinaryCodec subject = new CompactBinaryCodec();
+
+    @Test
+    public void shouldRoundTripModelLists() throws Exception {
+        List<ClinicalDataCount> counts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ClinicalDataCount count = new ClinicalDataCount();
+            count.setAttributeId("CANCER_TYPE");
+            count.setValue("value_" + (i % 7));
+            count.setCount(i);
+            counts.add(count);
+        }
+
+        byte[] encoded = subject.encode(counts);
+        @SuppressWarnings("unchecked")
+        List<ClinicalDataCount> decoded = (List<ClinicalDataCount>) subject.decode(encoded);
+
+        assertEquals(500, decoded.size());
+        assertEquals("value_3", decoded.get(10).getValue());
+        assertEquals(Integer.valueOf(10), decoded.get(10).getCount());
+        assertTrue(encoded.length < new GzipJavaSerializationCodec().encode(counts).length);
+        assertTrue(subject.decodedSize(encoded) > encoded.length);
+    }
+
+    @Test
+    public void shouldRoundTripUnmodifiableCollections() throws Exception {
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setSampleId("sample_1");
+        clinicalData.setAttrValue("onions");
+        SampleClinicalDataCollection collection = SampleClinicalDataCollection.builder()
+            .withByUniqueSampleKey(Map.of("key_1", List.of(clinicalData)))
+            .build();
+
+        SampleClinicalDataCollection decoded = (SampleClinicalDataCollection) subject.decode(subject.encode(collection));
+
+        assertEquals("onions", decoded.getByUniqueSampleKey().get("key_1").get(0).getAttrValue());
+    }
+
+    @Test
+    public void shouldRoundTripPairs() throws Exception {
+        ImmutablePair<String, List<String>> pair = new ImmutablePair<>("study_1", List.of("sample_1", "sample_2"));
+
+        assertEquals(pair, subject.decode(subject.encode(pair)));
+    }
+
+    @Test
+    public void shouldFallBackToJavaSerializationForUnknownClasses() throws Exception {
+        UnknownValue value = new UnknownValue("onions");
+
+        assertEquals(value, subject.decode(subject.encode(value)));
+    }
+
+    @Test
+    public void shouldReadValuesWrittenByGzipCodec() throws Exception {
+        byte[] legacy = new GzipJavaSerializationCodec().encode(List.of("onions", "carrots"));
+
+        assertEquals(List.of("onions", "carrots"), subject.decode(legacy));
+        assertEquals(new GzipJavaSerializationCodec().decodedSize(legacy), subject.decodedSize(legacy));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectValuesWrittenForOtherModelClasses() throws Exception {
+        CompactBinaryCodec other = new CompactBinaryCodec(List.of(ClinicalData.class));
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setSampleId("sample_1");
+
+        subject.decode(other.encode(clinicalData));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectUnknownFormat() throws Exception {
+        subject.decode(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+    }
+
+    private record UnknownValue(String value) implements Serializable {
+    }
+}
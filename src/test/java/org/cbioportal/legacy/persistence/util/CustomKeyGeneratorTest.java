@@ -1,9 +1,9 @@
 package org.cbioportal.legacy.persistence.util;
 
-import org.cbioportal.legacy.model.CancerStudy;
 import org.cbioportal.legacy.persistence.CacheEnabledConfig;
-import org.cbioportal.legacy.persistence.StudyRepository;
 import org.cbioportal.legacy.persistence.util.CustomKeyGenerator;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,10 +13,10 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -25,9 +25,6 @@ public class CustomKeyGeneratorTest {
     @InjectMocks
     private CustomKeyGenerator customKeyGenerator;
 
-    @Mock
-    private StudyRepository studyRepository;
-
     @Mock
     private CacheEnabledConfig cacheEnabledConfig;
 
@@ -37,11 +34,6 @@ public class CustomKeyGeneratorTest {
     @Before
     public void setUp() throws Exception {
         when(cacheEnabledConfig.isEnabled()).thenReturn(true);
-        CancerStudy cancerStudy1 = mock(CancerStudy.class);
-        when(cancerStudy1.getCancerStudyIdentifier()).thenReturn(studyId1);
-        CancerStudy cancerStudy2 = mock(CancerStudy.class);
-        when(cancerStudy2.getCancerStudyIdentifier()).thenReturn(studyId2);
-        when(studyRepository.getAllStudies(any(), any(), any(), any(), any(), any())).thenReturn(Arrays.asList(cancerStudy1, cancerStudy2));
     }
 
     @Test
@@ -81,18 +73,87 @@ public class CustomKeyGeneratorTest {
     public void testGenerateCacheSuccessWithLongParam() throws Exception {
         Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
 
+        Object hello = customKeyGenerator.generate(this, functionToPass, "one", createStudyViewFilter(0));
+
+        Assert.assertTrue(hello instanceof String);
+        Assert.assertTrue(((String) hello).matches(
+            "CustomKeyGeneratorTest_testGenerateCacheSuccessNoParams_\"one\"_test_study_1_test_study_2_[0-9a-f]{32}"));
+    }
+
+    @Test
+    public void testGenerateCacheLongParamHashDependsOnContent() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+
+        Object key = customKeyGenerator.generate(this, functionToPass, createStudyViewFilter(0));
+        Object sameKey = customKeyGenerator.generate(this, functionToPass, createStudyViewFilter(0));
+        Object otherKey = customKeyGenerator.generate(this, functionToPass, createStudyViewFilter(1));
+
+        Assert.assertEquals(key, sameKey);
+        Assert.assertNotEquals(key, otherKey);
+    }
+
+    // Study ids cannot be told apart from other strings in a parameter of unknown type,
+    // so the key has none and is evicted whenever any study changes.
+    @Test
+    public void testGenerateCacheLongParamWithoutKnownStudyIds() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+
         StringBuilder requestParams = new StringBuilder();
-        requestParams.append("-----");
         requestParams.append(studyId1);
-        requestParams.append("-----");
-        requestParams.append(studyId2);
-        requestParams.append("-----");
         for (int i = CustomKeyGenerator.PARAM_LENGTH_HASH_LIMIT + 100; i > 0; i--) {
             requestParams.append("-");
         }
-        Object hello = customKeyGenerator.generate(this, functionToPass, "one", requestParams.toString());
+        Object hello = customKeyGenerator.generate(this, functionToPass, requestParams.toString());
 
-        Assert.assertTrue(hello instanceof String);
-        Assert.assertTrue(((String) hello).contains("test_study_1_test_study_2_22cc100378d5dc33c03fb0f39a61c692"));
+        Assert.assertTrue(((String) hello).matches(
+            "CustomKeyGeneratorTest_testGenerateCacheSuccessNoParams__[0-9a-f]{32}"));
+    }
+
+    // The study ids of the known parameter alone could miss a study of the unknown one.
+    @Test
+    public void testGenerateCacheLongParamsOneWithoutKnownStudyIds() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+
+        StringBuilder requestParams = new StringBuilder();
+        for (int i = CustomKeyGenerator.PARAM_LENGTH_HASH_LIMIT + 100; i > 0; i--) {
+            requestParams.append("-");
+        }
+        Object hello = customKeyGenerator.generate(this, functionToPass, createStudyViewFilter(0),
+            Map.of(studyId1, requestParams.toString()));
+
+        Assert.assertTrue(((String) hello).matches(
+            "CustomKeyGeneratorTest_testGenerateCacheSuccessNoParams__[0-9a-f]{32}__[0-9a-f]{32}"));
+    }
+
+    @Test
+    public void testGenerateCacheLongParamNamedStudyIds() throws Exception {
+        Method functionToPass = this.getClass().getMethod("cachedMethod", List.class, List.class);
+
+        List<String> studyIds = new ArrayList<>();
+        List<String> sampleIds = new ArrayList<>();
+        for (int i = 0; i < CustomKeyGenerator.PARAM_LENGTH_HASH_LIMIT; i++) {
+            studyIds.add(i % 2 == 0 ? studyId2 : studyId1);
+            sampleIds.add("sample_" + i);
+        }
+        String key = (String) customKeyGenerator.generate(this, functionToPass, sampleIds, studyIds);
+
+        Assert.assertTrue(key.matches(
+            "CustomKeyGeneratorTest_cachedMethod__[0-9a-f]{32}_test_study_1_test_study_2_[0-9a-f]{32}"));
+    }
+
+    public void cachedMethod(List<String> sampleIds, List<String> studyIds) {
+    }
+
+    private StudyViewFilter createStudyViewFilter(int firstSample) {
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
+        for (int i = firstSample; i < firstSample + 100; i++) {
+            SampleIdentifier sampleIdentifier = new SampleIdentifier();
+            sampleIdentifier.setStudyId(i % 2 == 0 ? studyId2 : studyId1);
+            sampleIdentifier.setSampleId("sample_" + i);
+            sampleIdentifiers.add(sampleIdentifier);
+        }
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setSampleIdentifiers(sampleIdentifiers);
+        return studyViewFilter;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package org.cbioportal.legacy.persistence.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -8,12 +9,18 @@ import org.cbioportal.legacy.persistence.util.CustomRedisCache;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RBucketAsync;
 import org.redisson.api.RKeys;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.cache.Cache;
 
 import java.util.concurrent.TimeUnit;
@@ -152,6 +159,170 @@ public class CustomRedisCacheTest {
         });
     }
 
+    @Test
+    public void shouldStoreLoadedObject() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(null);
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100);
+        Object actual = subject.get("57_onions", () -> "success");
+
+        assertEquals("success", actual);
+        verify(bucket, times(1)).setAsync(any(), eq(100L), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void shouldLoadAndStoreObjectUnderLoaderLock() throws Exception {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(null);
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+        RLock lock = Mockito.mock(RLock.class);
+        when(lock.tryLock(30, TimeUnit.SECONDS)).thenReturn(true);
+        when(client.getLock("loader-lock:subject:57_onions"))
+            .thenReturn(lock);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100, 30);
+        Object actual = subject.get("57_onions", () -> "success");
+
+        assertEquals("success", actual);
+        // the value must be stored before the lock is released
+        verify(bucket, times(1)).set(any(), eq(100L), eq(TimeUnit.MINUTES));
+        verify(bucket, never()).setAsync(any(), anyLong(), any(TimeUnit.class));
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    public void shouldNotLoadObjectLoadedByLockHolder() throws Exception {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        // absent when first looked up, stored by another node while waiting for the lock
+        when(bucket.get()).thenReturn(null, toStoreValue("success"));
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+        RLock lock = Mockito.mock(RLock.class);
+        when(lock.tryLock(30, TimeUnit.SECONDS)).thenReturn(true);
+        when(client.getLock("loader-lock:subject:57_onions"))
+            .thenReturn(lock);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, -1, 30);
+        Object actual = subject.get("57_onions", () -> {
+            throw new IllegalStateException("should not be loaded");
+        });
+
+        assertEquals("success", actual);
+        verify(bucket, never()).set(any());
+        verify(lock, times(1)).unlock();
+    }
+
+    @Test
+    public void shouldLoadObjectWhenLoaderLockTimesOut() throws Exception {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(null);
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+        RLock lock = Mockito.mock(RLock.class);
+        when(lock.tryLock(30, TimeUnit.SECONDS)).thenReturn(false);
+        when(client.getLock("loader-lock:subject:57_onions"))
+            .thenReturn(lock);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, -1, 30);
+        Object actual = subject.get("57_onions", () -> "success");
+
+        assertEquals("success", actual);
+        verify(bucket, times(1)).setAsync(any());
+        verify(lock, never()).unlock();
+    }
+
+    @Test
+    public void shouldServeRepeatedLookupsFromNearCache() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(toStoreValue("success"));
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100, 0, nearCache("subject"),
+            new GzipJavaSerializationCodec());
+        assertEquals("success", subject.lookup("57_onions"));
+        assertEquals("success", subject.lookup("57_onions"));
+
+        verify(bucket, times(1)).get();
+        // TTLs are refreshed in batches
+        verify(bucket, never()).expireAsync(anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotShareNearCacheValuesBetweenLookups() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(toStoreValue(new ArrayList<>(List.of("success"))));
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100, 0, nearCache("subject"),
+            new GzipJavaSerializationCodec());
+        ((List<String>) subject.lookup("57_onions")).add("changed by caller");
+
+        assertEquals(List.of("success"), subject.lookup("57_onions"));
+        verify(bucket, times(1)).get();
+    }
+
+    @Test
+    public void shouldRefreshTtlsOfReadKeysInOneBatch() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(bucket.get()).thenReturn(toStoreValue("success"));
+        when(client.getBucket(startsWith("subject:")))
+            .thenReturn(bucket);
+        RBatch batch = Mockito.mock(RBatch.class);
+        RBucketAsync batchBucket = Mockito.mock(RBucketAsync.class);
+        when(client.createBatch()).thenReturn(batch);
+        when(batch.getBucket(startsWith("subject:"))).thenReturn(batchBucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100, 0, nearCache("subject"),
+            new GzipJavaSerializationCodec());
+        subject.lookup("57_onions");
+        subject.lookup("57_onions");
+        subject.lookup("58_onions");
+        subject.refreshTtls();
+        subject.refreshTtls();
+
+        verify(client, times(1)).createBatch();
+        verify(batch, times(1)).getBucket("subject:57_onions");
+        verify(batch, times(1)).getBucket("subject:58_onions");
+        verify(batchBucket, times(2)).expireAsync(100, TimeUnit.MINUTES);
+        verify(batch, times(1)).executeAsync();
+    }
+
+    @Test
+    public void shouldStorePutObjectInNearCache() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, -1, 0, nearCache("subject"),
+            new GzipJavaSerializationCodec());
+        subject.put("57_onions", "success");
+
+        assertEquals("success", subject.lookup("57_onions"));
+        verify(bucket, times(1)).setAsync(any());
+        verify(bucket, never()).get();
+    }
+
+    @Test
+    public void shouldEvictObjectFromNearCache() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(client.getBucket("subject_1:key_2"))
+            .thenReturn(bucket);
+
+        CustomRedisCache subject = new CustomRedisCache("subject_1", client, -1, 0, nearCache("subject_1"),
+            new GzipJavaSerializationCodec());
+        subject.put("key_2", "success");
+        subject.evict(".*key_2.*");
+
+        assertNull(subject.lookup("key_2"));
+    }
+
     @Test
     public void shouldPutObjectInStaticCache() {
         RBucket bucket = Mockito.mock(RBucket.class);
@@ -182,6 +353,23 @@ public class CustomRedisCacheTest {
         verify(bucket, times(1)).setAsync(any(), anyLong(), any(TimeUnit.class));
     }
 
+    @Test
+    public void shouldRoundTripObjectWithCodecAndRecordStatistics() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(client.getBucket("subject:57_onions"))
+            .thenReturn(bucket);
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100, 0, null, new CompactBinaryCodec());
+
+        subject.put("57_onions", List.of("success"));
+        ArgumentCaptor<Object> stored = ArgumentCaptor.forClass(Object.class);
+        verify(bucket).setAsync(stored.capture(), anyLong(), any(TimeUnit.class));
+        when(bucket.get()).thenReturn(stored.getValue());
+
+        assertEquals(List.of("success"), subject.lookup("57_onions"));
+        assertEquals(1, subject.getCodecStatistics().getEncodeCount());
+        assertEquals(1, subject.getCodecStatistics().getDecodeCount());
+    }
+
     @Test
     public void shouldPutAbsentObject() {
         RBucket bucket = Mockito.mock(RBucket.class);
@@ -314,6 +502,12 @@ public class CustomRedisCacheTest {
         assertEquals(toRoundTrip, roundTripped);
     }
 
+    private NearCache nearCache(String name) {
+        when(client.getTopic(name + ":near-cache-invalidation", StringCodec.INSTANCE))
+            .thenReturn(Mockito.mock(RTopic.class));
+        return new NearCache(name, client, 1024 * 1024, 10);
+    }
+
     private Object toStoreValue(Object rawValue) {
         CustomRedisCache converter = new CustomRedisCache("", client, -1);
         return converter.toStoreValue(rawValue);
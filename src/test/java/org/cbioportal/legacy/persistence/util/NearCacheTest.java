@@ -0,0 +1,126 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheTest {
+
+    @Mock
+    private RedissonClient client;
+
+    @Mock
+    private RTopic topic;
+
+    private NearCache subject;
+
+    @Before
+    public void setUp() {
+        when(client.getTopic("subject:near-cache-invalidation", StringCodec.INSTANCE)).thenReturn(topic);
+        subject = new NearCache("subject", client, 1024 * 1024, 10);
+    }
+
+    @Test
+    public void shouldReturnStoredValue() {
+        subject.putIfNotInvalidated("57_onions", bytes("success"), subject.stamp());
+
+        assertArrayEquals(bytes("success"), subject.get("57_onions"));
+        assertNull(subject.get("58_onions"));
+    }
+
+    @Test
+    public void shouldNotStoreValueReadBeforeInvalidation() {
+        long stamp = subject.stamp();
+        subject.invalidateMatching(".*onions.*");
+        subject.putIfNotInvalidated("57_onions", bytes("stale"), stamp);
+
+        assertNull(subject.get("57_onions"));
+    }
+
+    @Test
+    public void shouldEvictByWeight() {
+        NearCache small = new NearCache("subject", client, 1000, 10);
+        small.putIfNotInvalidated("57_onions", new byte[2000], small.stamp());
+
+        assertNull(small.get("57_onions"));
+    }
+
+    @Test
+    public void shouldPublishPut() {
+        subject.put("57_onions", bytes("success"));
+
+        assertArrayEquals(bytes("success"), subject.get("57_onions"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(topic).publishAsync(message.capture());
+        assertEquals("K|57_onions", message.getValue().substring(message.getValue().indexOf('|') + 1));
+    }
+
+    @Test
+    public void shouldInvalidateMatchingRedisKeys() {
+        subject.putIfNotInvalidated("57_onions", bytes("success"), subject.stamp());
+        subject.putIfNotInvalidated("57_carrots", bytes("success"), subject.stamp());
+
+        subject.invalidateMatching("^subject:.*onions.*");
+
+        assertNull(subject.get("57_onions"));
+        assertArrayEquals(bytes("success"), subject.get("57_carrots"));
+    }
+
+    @Test
+    public void shouldApplyInvalidationsOfOtherNodes() {
+        MessageListener<String> listener = captureListener();
+        subject.putIfNotInvalidated("57_onions", bytes("success"), subject.stamp());
+        subject.putIfNotInvalidated("57_carrots", bytes("success"), subject.stamp());
+        subject.putIfNotInvalidated("58_carrots", bytes("success"), subject.stamp());
+
+        listener.onMessage("subject:near-cache-invalidation", "other-node|K|57_onions");
+        assertNull(subject.get("57_onions"));
+        assertArrayEquals(bytes("success"), subject.get("57_carrots"));
+
+        listener.onMessage("subject:near-cache-invalidation", "other-node|P|.*57_.*");
+        assertNull(subject.get("57_carrots"));
+        assertArrayEquals(bytes("success"), subject.get("58_carrots"));
+
+        listener.onMessage("subject:near-cache-invalidation", "other-node|A|");
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void shouldIgnoreOwnInvalidations() {
+        subject.put("57_onions", bytes("success"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(topic).publishAsync(message.capture());
+
+        captureListener().onMessage("subject:near-cache-invalidation", message.getValue());
+
+        assertArrayEquals(bytes("success"), subject.get("57_onions"));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageListener<String> captureListener() {
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listener.capture());
+        return listener.getValue();
+    }
+}
@@ -0,0 +1,66 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SingleFlightCacheDecoratorTest {
+
+    private final ConcurrentMapCache targetCache = new ConcurrentMapCache("GeneralRepositoryCache");
+    private final SingleFlightCacheDecorator subject = new SingleFlightCacheDecorator(targetCache);
+
+    @Test
+    public void shouldLoadAndStoreAbsentValue() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("value", subject.get("key", () -> {
+            loads.incrementAndGet();
+            return "value";
+        }));
+        assertEquals("value", subject.get("key", () -> {
+            loads.incrementAndGet();
+            return "other value";
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals("value", targetCache.get("key").get());
+    }
+
+    @Test
+    public void shouldReturnCachedValue() {
+        targetCache.put("key", "cached");
+
+        assertEquals("cached", subject.get("key", () -> {
+            throw new IllegalStateException("should not be loaded");
+        }));
+    }
+
+    @Test
+    public void shouldWrapLoaderException() {
+        try {
+            subject.get("key", () -> {
+                throw new IllegalStateException("query failed");
+            });
+            fail();
+        } catch (Cache.ValueRetrievalException e) {
+            assertEquals("query failed", e.getCause().getMessage());
+        }
+        assertNull(targetCache.get("key"));
+    }
+
+    @Test
+    public void shouldDelegateToTargetCache() {
+        subject.put("key", "value");
+        assertEquals("value", targetCache.get("key").get());
+        assertEquals("GeneralRepositoryCache", subject.getName());
+
+        subject.evict("key");
+        assertNull(targetCache.get("key"));
+    }
+}
@@ -0,0 +1,132 @@
+package org.cbioportal.legacy.persistence.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    public void shouldShareValueOfRunningLoader() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "value";
+            }));
+            started.await();
+
+            AtomicReference<Object> followerResult = new AtomicReference<>();
+            Thread follower = new Thread(() -> {
+                try {
+                    followerResult.set(singleFlight.execute("key", () -> {
+                        loads.incrementAndGet();
+                        return "other value";
+                    }));
+                } catch (Exception e) {
+                    followerResult.set(e);
+                }
+            });
+            follower.start();
+            awaitWaiting(follower);
+            release.countDown();
+            follower.join();
+
+            assertEquals("value", leader.get());
+            assertEquals("value", followerResult.get());
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldShareExceptionOfRunningLoader() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("query failed");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await();
+                throw failure;
+            }));
+            started.await();
+
+            AtomicReference<Object> followerResult = new AtomicReference<>();
+            Thread follower = new Thread(() -> {
+                try {
+                    followerResult.set(singleFlight.execute("key", () -> "other value"));
+                } catch (Exception e) {
+                    followerResult.set(e);
+                }
+            });
+            follower.start();
+            awaitWaiting(follower);
+            release.countDown();
+            follower.join();
+
+            try {
+                leader.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+            assertSame(failure, followerResult.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRunLoaderForEachCompletedCall() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", loads::incrementAndGet);
+        singleFlight.execute("key", loads::incrementAndGet);
+        singleFlight.execute("other key", loads::incrementAndGet);
+
+        assertEquals(3, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    public void shouldPropagateLoaderException() {
+        IllegalStateException failure = new IllegalStateException("query failed");
+        try {
+            singleFlight.execute("key", () -> {
+                throw failure;
+            });
+            fail();
+        } catch (Exception e) {
+            assertSame(failure, e);
+        }
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+            Thread.sleep(1);
+        }
+    }
+}
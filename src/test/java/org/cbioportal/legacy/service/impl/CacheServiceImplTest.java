@@ -1,11 +1,13 @@
 package org.cbioportal.legacy.service.impl;
 
+import org.cbioportal.domain.studyview.FilteredSampleIdsCache;
 import org.cbioportal.legacy.model.CancerStudy;
 import org.cbioportal.legacy.persistence.StudyRepository;
 import org.cbioportal.legacy.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.legacy.persistence.util.CacheUtils;
 import org.cbioportal.legacy.service.exception.CacheOperationException;
 import org.cbioportal.legacy.service.impl.CacheServiceImpl;
+import org.cbioportal.legacy.web.util.SubFilterSampleCache;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,6 +38,12 @@ public class CacheServiceImplTest {
     @Mock
     private CacheUtils cacheUtils;
 
+    @Mock
+    private SubFilterSampleCache subFilterSampleCache;
+
+    @Mock
+    private FilteredSampleIdsCache filteredSampleIdsCache;
+
     private Cache mockCache;
     private String clearAllKeysRegex = ".*";
 
@@ -58,6 +66,8 @@ public class CacheServiceImplTest {
         cachingService.clearCaches(true);
         verify(cacheUtils, times(2)).evictByPattern(anyString(), eq(clearAllKeysRegex));
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(subFilterSampleCache, times(1)).invalidateAll();
+        verify(filteredSampleIdsCache, times(1)).invalidateAll();
     }
 
     @Test
@@ -66,6 +76,8 @@ public class CacheServiceImplTest {
         cachingService.clearCaches(true);
         verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(subFilterSampleCache, times(1)).invalidateAll();
+        verify(filteredSampleIdsCache, times(1)).invalidateAll();
         ReflectionTestUtils.setField(cachingService, "cacheManager", cacheManager);
     }
 
@@ -74,6 +86,8 @@ public class CacheServiceImplTest {
         cachingService.clearCaches(false);
         verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(subFilterSampleCache, times(1)).invalidateAll();
+        verify(filteredSampleIdsCache, times(1)).invalidateAll();
     }
 
     @Test(expected = CacheOperationException.class)
@@ -87,7 +101,9 @@ public class CacheServiceImplTest {
         List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", true);
         verify(cacheUtils, times(2)).evictByPattern(anyString(), eq("^(?=.*study3).*|^(?!.*study3)(?!.*study1)(?!.*study2).*"));
-        verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(cacheMapUtil, times(1)).refreshCancerStudy("study3");
+        verify(subFilterSampleCache, times(1)).invalidateStudy("study3");
+        verify(filteredSampleIdsCache, times(1)).invalidateStudy("study3");
     }
 
     @Test
@@ -96,7 +112,9 @@ public class CacheServiceImplTest {
         List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", true);
         verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
-        verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(cacheMapUtil, times(1)).refreshCancerStudy("study3");
+        verify(subFilterSampleCache, times(1)).invalidateStudy("study3");
+        verify(filteredSampleIdsCache, times(1)).invalidateStudy("study3");
         ReflectionTestUtils.setField(cachingService, "cacheManager", cacheManager);
     }
 
@@ -105,7 +123,9 @@ public class CacheServiceImplTest {
         List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", false);
         verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
-        verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(cacheMapUtil, times(1)).refreshCancerStudy("study3");
+        verify(subFilterSampleCache, times(1)).invalidateStudy("study3");
+        verify(filteredSampleIdsCache, times(1)).invalidateStudy("study3");
     }
 
     @Test(expected = CacheOperationException.class)
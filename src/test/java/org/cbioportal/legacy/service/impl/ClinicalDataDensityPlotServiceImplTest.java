@@ -0,0 +1,101 @@
+package org.cbioportal.legacy.service.impl;
+
+import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.DensityPlotBin;
+import org.cbioportal.legacy.model.DensityPlotData;
+import org.cbioportal.legacy.web.parameter.StudyViewFilter;
+import org.cbioportal.legacy.web.util.DensityPlotParameters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClinicalDataDensityPlotServiceImplTest {
+
+    private static final String X_ATTRIBUTE_ID = "MUTATION_COUNT";
+    private static final String Y_ATTRIBUTE_ID = "FRACTION_GENOME_ALTERED";
+
+    private final ClinicalDataDensityPlotServiceImpl densityPlotService = new ClinicalDataDensityPlotServiceImpl();
+
+    @Test
+    public void getDensityPlotData() {
+        double[] xValues = {0, 1, 2, 3, 4, 10};
+        double[] yValues = {0, 0.15, 0.5, 0.9, 0.2, 1};
+        List<ClinicalData> clinicalData = new ArrayList<>();
+        for (int i = 0; i < xValues.length; i++) {
+            // y before x for some of the samples
+            if (i % 2 == 0) {
+                clinicalData.add(clinicalData("sample_" + i, X_ATTRIBUTE_ID, String.valueOf(xValues[i])));
+                clinicalData.add(clinicalData("sample_" + i, Y_ATTRIBUTE_ID, String.valueOf(yValues[i])));
+            } else {
+                clinicalData.add(clinicalData("sample_" + i, Y_ATTRIBUTE_ID, String.valueOf(yValues[i])));
+                clinicalData.add(clinicalData("sample_" + i, X_ATTRIBUTE_ID, String.valueOf(xValues[i])));
+            }
+        }
+        // not plotted: missing y value, non numerical value and duplicated x value
+        clinicalData.add(clinicalData("sample_missing_y", X_ATTRIBUTE_ID, "5"));
+        clinicalData.add(clinicalData("sample_na", X_ATTRIBUTE_ID, "5"));
+        clinicalData.add(clinicalData("sample_na", Y_ATTRIBUTE_ID, "NA"));
+        clinicalData.add(clinicalData("sample_duplicated", X_ATTRIBUTE_ID, "5"));
+        clinicalData.add(clinicalData("sample_duplicated", X_ATTRIBUTE_ID, "6"));
+
+        DensityPlotData result = densityPlotService.getDensityPlotData(clinicalData, parameters(), new StudyViewFilter());
+
+        List<DensityPlotBin> bins = result.getBins();
+        Assert.assertEquals(5, bins.size());
+        // samples 0 and 1 share the first bin
+        assertBin(bins.get(0), "0.0", "0.0", 2, "0.0", "1.0", "0.0", "0.15");
+        assertBin(bins.get(1), "2.0", "0.4", 1, "2.0", "2.0", "0.5", "0.5");
+        assertBin(bins.get(2), "2.0", "0.8", 1, "3.0", "3.0", "0.9", "0.9");
+        assertBin(bins.get(3), "4.0", "0.2", 1, "4.0", "4.0", "0.2", "0.2");
+        // the maximum falls into the last bin
+        assertBin(bins.get(4), "8.0", "0.8", 1, "10.0", "10.0", "1.0", "1.0");
+
+        Assert.assertEquals(new PearsonsCorrelation().correlation(xValues, yValues), result.getPearsonCorr(), 1e-12);
+        Assert.assertEquals(new SpearmansCorrelation().correlation(xValues, yValues), result.getSpearmanCorr(), 1e-12);
+    }
+
+    @Test
+    public void getDensityPlotDataWithoutPairs() {
+        List<ClinicalData> clinicalData = List.of(clinicalData("sample_1", X_ATTRIBUTE_ID, "5"));
+
+        DensityPlotData result = densityPlotService.getDensityPlotData(clinicalData, parameters(), new StudyViewFilter());
+
+        Assert.assertTrue(result.getBins().isEmpty());
+    }
+
+    private DensityPlotParameters parameters() {
+        return new DensityPlotParameters.Builder()
+            .xAxisAttributeId(X_ATTRIBUTE_ID)
+            .yAxisAttributeId(Y_ATTRIBUTE_ID)
+            .xAxisBinCount(5)
+            .yAxisBinCount(5)
+            .xAxisLogScale(false)
+            .yAxisLogScale(false)
+            .build();
+    }
+
+    private ClinicalData clinicalData(String sampleId, String attributeId, String value) {
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setStudyId("study_1");
+        clinicalData.setSampleId(sampleId);
+        clinicalData.setAttrId(attributeId);
+        clinicalData.setAttrValue(value);
+        return clinicalData;
+    }
+
+    private void assertBin(DensityPlotBin bin, String binX, String binY, int count,
+                           String minX, String maxX, String minY, String maxY) {
+        Assert.assertEquals(new BigDecimal(binX), bin.getBinX());
+        Assert.assertEquals(new BigDecimal(binY), bin.getBinY());
+        Assert.assertEquals(Integer.valueOf(count), bin.getCount());
+        Assert.assertEquals(new BigDecimal(minX), bin.getMinX());
+        Assert.assertEquals(new BigDecimal(maxX), bin.getMaxX());
+        Assert.assertEquals(new BigDecimal(minY), bin.getMinY());
+        Assert.assertEquals(new BigDecimal(maxY), bin.getMaxY());
+    }
+}
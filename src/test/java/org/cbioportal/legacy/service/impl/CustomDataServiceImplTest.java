@@ -0,0 +1,85 @@
+package org.cbioportal.legacy.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cbioportal.legacy.service.util.CustomDataSession;
+import org.cbioportal.legacy.service.util.SessionServiceRequestHandler;
+import org.cbioportal.legacy.utils.removeme.Session;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CustomDataServiceImplTest {
+
+    private static final String CUSTOM_DATA_SESSION_JSON = "{\"id\": \"%s\", \"data\": {\"displayName\": \"custom\"}}";
+
+    @InjectMocks
+    private CustomDataServiceImpl customDataService;
+
+    @Mock
+    private SessionServiceRequestHandler sessionServiceRequestHandler;
+
+    @Spy
+    private ObjectMapper sessionServiceObjectMapper = new ObjectMapper();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(customDataService, "customDataCacheTtlMinutes", 60);
+        ReflectionTestUtils.setField(customDataService, "customDataCacheMaxEntries", 10);
+        customDataService.init();
+    }
+
+    @Test
+    public void getCustomDataSessionsRequestsEachSessionOnce() {
+        mockSession("attribute_1");
+        mockSession("attribute_2");
+
+        customDataService.getCustomDataSessions(List.of("attribute_1"));
+        Map<String, CustomDataSession> result =
+            customDataService.getCustomDataSessions(List.of("attribute_1", "attribute_2", "attribute_2"));
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("attribute_1", result.get("attribute_1").getId());
+        Assert.assertEquals("attribute_2", result.get("attribute_2").getId());
+        verify(sessionServiceRequestHandler, times(1))
+            .getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute_1");
+        verify(sessionServiceRequestHandler, times(1))
+            .getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute_2");
+    }
+
+    @Test
+    public void getCustomDataSessionsOmitsFailedSessions() {
+        mockSession("attribute_1");
+        when(sessionServiceRequestHandler.getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute_2"))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("not found")));
+
+        Map<String, CustomDataSession> result =
+            customDataService.getCustomDataSessions(List.of("attribute_1", "attribute_2"));
+        customDataService.getCustomDataSessions(List.of("attribute_2"));
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertTrue(result.containsKey("attribute_1"));
+        // failed sessions are not cached
+        verify(sessionServiceRequestHandler, times(2))
+            .getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute_2");
+    }
+
+    private void mockSession(String attributeId) {
+        when(sessionServiceRequestHandler.getSessionDataJsonAsync(Session.SessionType.custom_data, attributeId))
+            .thenReturn(CompletableFuture.completedFuture(String.format(CUSTOM_DATA_SESSION_JSON, attributeId)));
+    }
+}
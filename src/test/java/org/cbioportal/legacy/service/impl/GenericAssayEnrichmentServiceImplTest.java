@@ -175,7 +175,7 @@ public class GenericAssayEnrichmentServiceImplTest extends BaseServiceImplTest {
         alteredGroupStats1.setStandardDeviation(new BigDecimal("0.0"));
         enrichment1.setGroupsStatistics(List.of(unalteredGroupStats1, alteredGroupStats1));
         enrichment1.setpValue(new BigDecimal("0.49999999999999983"));
-        enrichment1.setqValue(new BigDecimal("0.99999999999999966"));
+        enrichment1.setqValue(new BigDecimal("0.9999999999999997"));
         expectedEnrichments.add(enrichment1);
 
         GenericAssayBinaryEnrichment enrichment2 = new GenericAssayBinaryEnrichment();
@@ -221,7 +221,7 @@ public class GenericAssayEnrichmentServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(new BigDecimal("0.0"), alteredGroupStats.getStandardDeviation());
 
         Assert.assertEquals(new BigDecimal("0.49999999999999983"), genericAssayBinaryEnrichment.getpValue());
-        Assert.assertEquals(new BigDecimal("0.99999999999999966"), genericAssayBinaryEnrichment.getqValue());
+        Assert.assertEquals(new BigDecimal("0.9999999999999997"), genericAssayBinaryEnrichment.getqValue());
 
         genericAssayBinaryEnrichment = result.get(1);
         Assert.assertEquals(HUGO_GENE_SYMBOL_2, genericAssayBinaryEnrichment.getStableId());
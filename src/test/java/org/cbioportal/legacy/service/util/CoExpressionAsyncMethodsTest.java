@@ -1,7 +1,9 @@
 package org.cbioportal.legacy.service.util;
 
 import org.cbioportal.legacy.model.CoExpression;
+import org.cbioportal.legacy.model.GeneMolecularAlteration;
 import org.cbioportal.legacy.service.util.CoExpressionAsyncMethods;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation.RankedValues;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -86,6 +88,36 @@ public class CoExpressionAsyncMethodsTest {
         Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression2.getpValue());
     }
 
+    @Test
+    public void computeCoExpressionsOfBatch() throws Exception {
+
+        List<GeneMolecularAlteration> molecularAlterations = new ArrayList<>();
+        List<List<String>> allValuesA = createAllValuesA();
+        for (int i = 0; i < allValuesA.size(); i++) {
+            GeneMolecularAlteration molecularAlteration = new GeneMolecularAlteration();
+            molecularAlteration.setEntrezGeneId(i + 2);
+            // the last column is not part of the query
+            molecularAlteration.setValues(String.join(",", allValuesA.get(i)) + ",100");
+            molecularAlterations.add(molecularAlteration);
+        }
+        RankedValues queryValues = SpearmansRankCorrelation.rank(
+            createValuesB().stream().mapToDouble(Double::parseDouble).toArray());
+        int[] columnToSlot = MolecularValuesDecoder.columnToSlot(4, new int[]{0, 1, 2});
+
+        List<CoExpression> result = asyncMethods
+            .computeCoExpressions(molecularAlterations, columnToSlot, queryValues, THRESHOLD).join();
+
+        Assert.assertEquals(2, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("2", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.5"), coExpression1.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression1.getpValue());
+        CoExpression coExpression2 = result.get(1);
+        Assert.assertEquals("3", coExpression2.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.8660254037844386"), coExpression2.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.3333333333333333"), coExpression2.getpValue());
+    }
+
     private List<List<String>> createAllValuesA() {
         List<List<String>> allValuesA = new ArrayList<>();
         List<String> valuesA1 = new ArrayList<>();
@@ -0,0 +1,90 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.model.GeneMolecularAlteration;
+import org.cbioportal.legacy.model.MolecularAlteration;
+import org.cbioportal.legacy.service.StaticDataTimestampService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoExpressionRankMatrixCacheTest {
+
+    private static final String MOLECULAR_PROFILE_ID = "study_id_mrna";
+    private static final int[] INTERNAL_SAMPLE_IDS = {1, 2, 3};
+
+    private final CoExpressionRankMatrixCache coExpressionRankMatrixCache = new CoExpressionRankMatrixCache();
+    private final AtomicInteger buildCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        StaticDataTimestampService timestampService = mock(StaticDataTimestampService.class);
+        when(timestampService.getTimestamps(anyList())).thenReturn(Map.of("genetic_alteration", "2024-01-01"));
+        ReflectionTestUtils.setField(coExpressionRankMatrixCache, "timestampService", timestampService);
+        ReflectionTestUtils.setField(coExpressionRankMatrixCache, "maxMegaBytesHeap", 1L);
+    }
+
+    @Test
+    public void concurrentRequestsBuildTheMatrixOnce() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CoExpressionRankMatrix>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> coExpressionRankMatrixCache.getRankMatrix(
+                    MOLECULAR_PROFILE_ID, INTERNAL_SAMPLE_IDS, () -> 1, molecularAlterations())));
+            }
+            CoExpressionRankMatrix rankMatrix = futures.getFirst().get();
+            for (Future<CoExpressionRankMatrix> future : futures) {
+                Assert.assertSame(rankMatrix, future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Assert.assertEquals(1, buildCount.get());
+    }
+
+    @Test
+    public void otherSamplesRebuildTheMatrix() {
+        CoExpressionRankMatrix rankMatrix = coExpressionRankMatrixCache.getRankMatrix(
+            MOLECULAR_PROFILE_ID, INTERNAL_SAMPLE_IDS, () -> 1, molecularAlterations());
+        CoExpressionRankMatrix otherRankMatrix = coExpressionRankMatrixCache.getRankMatrix(
+            MOLECULAR_PROFILE_ID, new int[]{1, 2}, () -> 1, molecularAlterations());
+
+        Assert.assertNotSame(rankMatrix, otherRankMatrix);
+        Assert.assertEquals(2, buildCount.get());
+    }
+
+    @Test
+    public void matrixLargerThanTheStoreIsNotBuilt() {
+        // 1024 * 1024 cells of 4 bytes do not fit in 1 MB
+        CoExpressionRankMatrix rankMatrix = coExpressionRankMatrixCache.getRankMatrix(
+            MOLECULAR_PROFILE_ID, new int[1024], () -> 1024, molecularAlterations());
+
+        Assert.assertNull(rankMatrix);
+        Assert.assertEquals(0, buildCount.get());
+    }
+
+    private Supplier<Iterable<? extends MolecularAlteration>> molecularAlterations() {
+        return () -> {
+            buildCount.incrementAndGet();
+            GeneMolecularAlteration molecularAlteration = new GeneMolecularAlteration();
+            molecularAlteration.setEntrezGeneId(1);
+            molecularAlteration.setValues("0.5,1.5,2.5");
+            return List.of(molecularAlteration);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.model.GeneMolecularAlteration;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation.RankedValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class CoExpressionRankMatrixTest {
+
+    private static final int SAMPLE_COUNT = 50;
+
+    @Test
+    public void correlationOnAllSamples() {
+
+        List<double[]> values = createValues();
+        CoExpressionRankMatrix rankMatrix = CoExpressionRankMatrix.build(IntStream.range(0, SAMPLE_COUNT).toArray(),
+            createMolecularAlterations(values));
+
+        Assert.assertEquals(4, rankMatrix.size());
+        Assert.assertEquals(1, rankMatrix.indexOf("2"));
+        Assert.assertTrue(rankMatrix.isComplete(0));
+        Assert.assertFalse(rankMatrix.isComplete(3));
+
+        RankedValues query = SpearmansRankCorrelation.rank(values.get(0));
+        for (int index = 1; index < 3; index++) {
+            Assert.assertEquals(SpearmansRankCorrelation.correlation(values.get(index), query),
+                rankMatrix.correlation(0, index), 1e-12);
+        }
+    }
+
+    @Test
+    public void ranksOfSubsetPreserveCorrelation() {
+
+        List<double[]> values = createValues();
+        CoExpressionRankMatrix rankMatrix = CoExpressionRankMatrix.build(IntStream.range(0, SAMPLE_COUNT).toArray(),
+            createMolecularAlterations(values));
+        int[] columns = IntStream.range(0, SAMPLE_COUNT).filter(i -> i % 3 != 0).toArray();
+
+        RankedValues query = SpearmansRankCorrelation.rank(subset(values.get(0), columns));
+        RankedValues queryRanks = SpearmansRankCorrelation.rank(rankMatrix.getRanks(0, columns));
+        for (int index = 1; index < values.size(); index++) {
+            Assert.assertEquals(SpearmansRankCorrelation.correlation(subset(values.get(index), columns), query),
+                SpearmansRankCorrelation.correlation(rankMatrix.getRanks(index, columns), queryRanks), 0.0);
+        }
+    }
+
+    private List<double[]> createValues() {
+        Random random = new Random(3);
+        List<double[]> values = new ArrayList<>();
+        for (int gene = 0; gene < 4; gene++) {
+            double[] geneValues = new double[SAMPLE_COUNT];
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                geneValues[i] = gene == 3 && i % 7 == 0 ? Double.NaN : random.nextInt(20) / 4.0;
+            }
+            values.add(geneValues);
+        }
+        return values;
+    }
+
+    private List<GeneMolecularAlteration> createMolecularAlterations(List<double[]> values) {
+        List<GeneMolecularAlteration> molecularAlterations = new ArrayList<>();
+        for (int gene = 0; gene < values.size(); gene++) {
+            GeneMolecularAlteration molecularAlteration = new GeneMolecularAlteration();
+            molecularAlteration.setEntrezGeneId(gene + 1);
+            molecularAlteration.setValues(Arrays.stream(values.get(gene))
+                .mapToObj(value -> Double.isNaN(value) ? "NA" : String.valueOf(value))
+                .collect(Collectors.joining(",")));
+            molecularAlterations.add(molecularAlteration);
+        }
+        return molecularAlterations;
+    }
+
+    private double[] subset(double[] values, int[] columns) {
+        return IntStream.of(columns).mapToDouble(column -> values[column]).toArray();
+    }
+}
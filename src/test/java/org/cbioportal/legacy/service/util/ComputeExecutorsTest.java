@@ -0,0 +1,67 @@
+package org.cbioportal.legacy.service.util;
+
+import org.cbioportal.legacy.service.util.ComputeExecutors.Workload;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class ComputeExecutorsTest {
+
+    @Test
+    public void mapKeepsOrderOfItems() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+
+        List<Integer> result = ComputeExecutors.map(Workload.COUNTING, items, item -> item * 2);
+
+        Assert.assertEquals(items.size(), result.size());
+        for (int i = 0; i < items.size(); i++) {
+            Assert.assertEquals(Integer.valueOf(i * 2), result.get(i));
+        }
+    }
+
+    @Test
+    public void forEachVisitsEveryItemOnce() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().toList();
+        AtomicInteger sum = new AtomicInteger();
+
+        ComputeExecutors.forEach(Workload.COUNTING, items, sum::addAndGet);
+
+        Assert.assertEquals(items.stream().mapToInt(Integer::intValue).sum(), sum.get());
+    }
+
+    @Test
+    public void nestedSubmitRunsOnPoolThread() {
+        Future<Integer> outer = ComputeExecutors.submit(Workload.PLOTTING, () -> {
+            // a pool thread waiting for a task of its own pool must not wait for a free thread
+            Future<Integer> inner = ComputeExecutors.submit(Workload.PLOTTING, () -> 1);
+            return ComputeExecutors.getResult(inner) + 1;
+        });
+
+        Assert.assertEquals(Integer.valueOf(2), ComputeExecutors.getResult(outer));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getResultRethrowsRuntimeException() {
+        Future<Integer> future = ComputeExecutors.submit(Workload.STATISTICS, () -> {
+            throw new IllegalStateException();
+        });
+
+        ComputeExecutors.getResult(future);
+    }
+
+    @Test
+    public void statisticsOfEveryWorkload() {
+        ComputeExecutors.getResult(ComputeExecutors.submit(Workload.STATISTICS, () -> 1));
+
+        List<ComputeExecutors.Statistics> statistics = ComputeExecutors.getStatistics();
+
+        Assert.assertEquals(Workload.values().length, statistics.size());
+        ComputeExecutors.Statistics statisticsStatistics = statistics.get(Workload.STATISTICS.ordinal());
+        Assert.assertEquals(Workload.STATISTICS, statisticsStatistics.workload());
+        Assert.assertTrue(statisticsStatistics.completedTasks() + statisticsStatistics.callerRunTasks() > 0);
+    }
+}
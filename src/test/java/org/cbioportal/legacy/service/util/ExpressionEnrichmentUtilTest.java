@@ -0,0 +1,195 @@
+package org.cbioportal.legacy.service.util;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.inference.OneWayAnova;
+import org.apache.commons.math3.stat.inference.TestUtils;
+import org.cbioportal.legacy.model.EnrichmentType;
+import org.cbioportal.legacy.model.GeneMolecularAlteration;
+import org.cbioportal.legacy.model.GenomicEnrichment;
+import org.cbioportal.legacy.model.GroupStatistics;
+import org.cbioportal.legacy.model.MolecularProfile;
+import org.cbioportal.legacy.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.legacy.model.MolecularProfileSamples;
+import org.cbioportal.legacy.model.Sample;
+import org.cbioportal.legacy.persistence.MolecularDataRepository;
+import org.cbioportal.legacy.service.SampleService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExpressionEnrichmentUtilTest {
+
+    private static final String STUDY_ID = "study_id";
+    private static final int SAMPLE_COUNT = 40;
+
+    @InjectMocks
+    private ExpressionEnrichmentUtil expressionEnrichmentUtil;
+
+    @Mock
+    private SampleService sampleService;
+    @Mock
+    private MolecularDataRepository molecularDataRepository;
+
+    @Test
+    public void getEnrichmentsOfTwoGroups() {
+        MolecularProfile molecularProfile = molecularProfile("study_id_mrna");
+        Map<String, List<MolecularProfileCaseIdentifier>> caseSets = caseSets(molecularProfile, 2);
+        List<GeneMolecularAlteration> alterations = alterations(5, new Random(3));
+
+        List<GenomicEnrichment> result = expressionEnrichmentUtil.getEnrichments(molecularProfile, caseSets,
+            EnrichmentType.SAMPLE, alterations);
+
+        assertEnrichments(alterations, caseSets, false, result);
+    }
+
+    @Test
+    public void getEnrichmentsOfThreeGroupsInSeveralBatches() {
+        MolecularProfile molecularProfile = molecularProfile("study_id_rna_seq_v2_mrna");
+        Map<String, List<MolecularProfileCaseIdentifier>> caseSets = caseSets(molecularProfile, 3);
+        // the last sample is in every group
+        for (List<MolecularProfileCaseIdentifier> caseSet : caseSets.values()) {
+            caseSet.add(caseIdentifier(molecularProfile, SAMPLE_COUNT - 1));
+        }
+        List<GeneMolecularAlteration> alterations = alterations(700, new Random(5));
+
+        List<GenomicEnrichment> result = expressionEnrichmentUtil.getEnrichments(molecularProfile, caseSets,
+            EnrichmentType.SAMPLE, alterations);
+
+        assertEnrichments(alterations, caseSets, true, result);
+    }
+
+    @Test
+    public void getEnrichmentsSkipsGroupsWithLessThanTwoValues() {
+        MolecularProfile molecularProfile = molecularProfile("study_id_mrna");
+        Map<String, List<MolecularProfileCaseIdentifier>> caseSets = caseSets(molecularProfile, 2);
+        GeneMolecularAlteration alteration = new GeneMolecularAlteration();
+        alteration.setEntrezGeneId(1);
+        // only one numeric value in the second group
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            values.append(i == 0 ? "" : ",").append(i % 2 == 0 || i == 1 ? String.valueOf(i) : "NA");
+        }
+        alteration.setValues(values.toString());
+
+        List<GenomicEnrichment> result = expressionEnrichmentUtil.getEnrichments(molecularProfile, caseSets,
+            EnrichmentType.SAMPLE, List.of(alteration));
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    private MolecularProfile molecularProfile(String molecularProfileId) {
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(molecularProfileId);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+
+        MolecularProfileSamples molecularProfileSamples = new MolecularProfileSamples();
+        molecularProfileSamples.setMolecularProfileId(molecularProfileId);
+        List<String> internalIds = new ArrayList<>();
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            internalIds.add(String.valueOf(i + 1));
+            Sample sample = new Sample();
+            sample.setStableId("sample_" + i);
+            sample.setInternalId(i + 1);
+            sample.setCancerStudyIdentifier(STUDY_ID);
+            samples.add(sample);
+        }
+        molecularProfileSamples.setCommaSeparatedSampleIds(String.join(",", internalIds));
+        Mockito.when(molecularDataRepository.getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId))
+            .thenReturn(molecularProfileSamples);
+        Mockito.when(sampleService.fetchSamples(anyList(), anyList(), eq("ID"))).thenReturn(samples);
+        return molecularProfile;
+    }
+
+    private Map<String, List<MolecularProfileCaseIdentifier>> caseSets(MolecularProfile molecularProfile,
+                                                                     int groupCount) {
+        Map<String, List<MolecularProfileCaseIdentifier>> caseSets = new LinkedHashMap<>();
+        for (int i = 0; i < SAMPLE_COUNT - 1; i++) {
+            caseSets.computeIfAbsent("group_" + (i % groupCount), k -> new ArrayList<>())
+                .add(caseIdentifier(molecularProfile, i));
+        }
+        return caseSets;
+    }
+
+    private MolecularProfileCaseIdentifier caseIdentifier(MolecularProfile molecularProfile, int sampleIndex) {
+        MolecularProfileCaseIdentifier caseIdentifier = new MolecularProfileCaseIdentifier();
+        caseIdentifier.setMolecularProfileId(molecularProfile.getStableId());
+        caseIdentifier.setCaseId("sample_" + sampleIndex);
+        return caseIdentifier;
+    }
+
+    private List<GeneMolecularAlteration> alterations(int geneCount, Random random) {
+        List<GeneMolecularAlteration> alterations = new ArrayList<>();
+        for (int gene = 0; gene < geneCount; gene++) {
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                if (i > 0) {
+                    values.append(',');
+                }
+                double draw = random.nextDouble();
+                if (draw < 0.1) {
+                    values.append("NA");
+                } else if (draw < 0.15) {
+                    values.append(-random.nextDouble());
+                } else if (draw < 0.2) {
+                    values.append(random.nextInt(100));
+                } else {
+                    values.append(Math.exp(random.nextGaussian() * 2) * (1 + i % 3));
+                }
+            }
+            GeneMolecularAlteration alteration = new GeneMolecularAlteration();
+            alteration.setEntrezGeneId(gene + 1);
+            alteration.setValues(values.toString());
+            alterations.add(alteration);
+        }
+        return alterations;
+    }
+
+    // enrichments computed with commons-math on the split values
+    private void assertEnrichments(List<GeneMolecularAlteration> alterations,
+                                   Map<String, List<MolecularProfileCaseIdentifier>> caseSets, boolean rnaSeq,
+                                   List<GenomicEnrichment> result) {
+        Assert.assertEquals(alterations.size(), result.size());
+        for (int gene = 0; gene < alterations.size(); gene++) {
+            String[] splitValues = alterations.get(gene).getSplitValues();
+            List<double[]> groupedValues = new ArrayList<>();
+            GenomicEnrichment enrichment = result.get(gene);
+            Assert.assertEquals(Integer.valueOf(gene + 1), enrichment.getEntrezGeneId());
+            Assert.assertEquals(caseSets.size(), enrichment.getGroupsStatistics().size());
+            for (GroupStatistics groupStatistics : enrichment.getGroupsStatistics()) {
+                double[] values = caseSets.get(groupStatistics.getName()).stream()
+                    .map(caseIdentifier -> splitValues[Integer.parseInt(caseIdentifier.getCaseId().substring(7))])
+                    .filter(value -> !value.equals("NA"))
+                    .mapToDouble(Double::parseDouble)
+                    .map(value -> rnaSeq ? Math.log1p(value < 0 ? 0 : value) / Math.log(2) : value)
+                    .toArray();
+                groupedValues.add(values);
+                Assert.assertEquals(BigDecimal.valueOf(StatUtils.mean(values)), groupStatistics.getMeanExpression());
+                Assert.assertEquals(BigDecimal.valueOf(new DescriptiveStatistics(values).getStandardDeviation()),
+                    groupStatistics.getStandardDeviation());
+            }
+            // most random rows have different totals when summed per value instead of per group, so this also
+            // checks that the ANOVA totals are summed in the order of OneWayAnova
+            double pValue = groupedValues.size() == 2
+                ? TestUtils.tTest(groupedValues.get(0), groupedValues.get(1))
+                : new OneWayAnova().anovaPValue(groupedValues);
+            Assert.assertEquals(BigDecimal.valueOf(pValue), enrichment.getpValue());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.cbioportal.legacy.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class FisherExactTestCalculatorTest {
+
+    private FisherExactTestCalculator fisherExactTestCalculator = new FisherExactTestCalculator();
+
+    @Test
+    public void getTwoTailedPValue() {
+
+        // R: fisher.test(matrix(c(3, 1, 1, 3), nrow = 2))$p.value
+        Assert.assertEquals(0.4857142857142857, fisherExactTestCalculator.getTwoTailedPValue(3, 1, 1, 3), 1e-12);
+        Assert.assertEquals(1.0, fisherExactTestCalculator.getTwoTailedPValue(1, 1, 1, 1), 1e-12);
+        // a larger table after a smaller one grows the shared log factorial table
+        Assert.assertEquals(fisherExactTestCalculator.getTwoTailedPValue(100, 200, 300, 400),
+            fisherExactTestCalculator.getTwoTailedPValue(400, 300, 200, 100), 1e-12);
+        Assert.assertEquals(0.4857142857142857, fisherExactTestCalculator.getTwoTailedPValue(3, 1, 1, 3), 1e-12);
+    }
+
+    @Test
+    public void calcqValue() {
+
+        double[] qValues = fisherExactTestCalculator.calcqValue(new double[]{0.01, 0.02, 0.03, 0.5});
+
+        Assert.assertArrayEquals(new double[]{0.04, 0.04, 0.04, 0.5}, qValues, 1e-15);
+        Assert.assertEquals(0, fisherExactTestCalculator.calcqValue(new double[0]).length);
+    }
+
+    @Test
+    public void calcqValueOfBigDecimals() {
+
+        BigDecimal[] qValues = fisherExactTestCalculator.calcqValue(new BigDecimal[]{
+            new BigDecimal("0.001"), new BigDecimal("0.04"), new BigDecimal("0.045")});
+
+        Assert.assertEquals(0.003, qValues[0].doubleValue(), 1e-15);
+        Assert.assertEquals(0.045, qValues[1].doubleValue(), 1e-15);
+        Assert.assertEquals(new BigDecimal("0.045"), qValues[2]);
+    }
+}
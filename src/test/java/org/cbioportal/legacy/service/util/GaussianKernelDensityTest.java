@@ -0,0 +1,60 @@
+package org.cbioportal.legacy.service.util;
+
+import org.apache.commons.math3.analysis.function.Gaussian;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class GaussianKernelDensityTest {
+
+    @Test
+    public void binnedEstimateMatchesSumOfGaussians() {
+        Random random = new Random(11);
+        for (double sigmaMultiplier : new double[]{0.3, 1, 4}) {
+            double[] values = new double[20000];
+            for (int i = 0; i < values.length; i++) {
+                // a few clusters and values outside of the curve range
+                values[i] = random.nextInt(4) * 0.3 + random.nextGaussian() * 0.1;
+            }
+            int gridSize = 100;
+            double gridStep = 1.0 / (gridSize - 1);
+            double sigma = sigmaMultiplier * gridStep;
+
+            double[] density = GaussianKernelDensity.estimate(values, 0, gridStep, gridSize, sigma);
+
+            double peak = 1 / (sigma * Math.sqrt(2 * Math.PI));
+            for (int i = 0; i < gridSize; i++) {
+                double expected = sumOfGaussians(values, i * gridStep, sigma);
+                // every value can move a curve point by at most 1/2048 of the kernel peak
+                Assert.assertEquals(expected, density[i], values.length * peak / 2048);
+                Assert.assertEquals(expected, density[i], 1e-3 * Math.max(expected, 1));
+            }
+        }
+    }
+
+    @Test
+    public void smallEstimateIsExact() {
+        double[] values = {0.1, 0.5, 0.2, 0.351, 0.44, 0.87, 0.75, 0.9};
+
+        double[] density = GaussianKernelDensity.estimate(values, 0, 0.1, 11, 0.1);
+
+        for (int i = 0; i < density.length; i++) {
+            double expected = sumOfGaussians(values, i * 0.1, 0.1);
+            Assert.assertEquals(expected, density[i], expected * 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveSigma() {
+        GaussianKernelDensity.estimate(new double[]{1}, 0, 0, 10, 0);
+    }
+
+    private double sumOfGaussians(double[] values, double point, double sigma) {
+        double sum = 0;
+        for (double value : values) {
+            sum += new Gaussian(value, sigma).value(point);
+        }
+        return sum;
+    }
+}
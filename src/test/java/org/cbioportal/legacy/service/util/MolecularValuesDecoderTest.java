@@ -0,0 +1,63 @@
+package org.cbioportal.legacy.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class MolecularValuesDecoderTest {
+
+    @Test
+    public void decodeSelectedColumns() {
+
+        double[] target = new double[3];
+        int[] columnToSlot = MolecularValuesDecoder.columnToSlot(5, new int[]{0, 2, 4});
+
+        MolecularValuesDecoder.decode("1.5,NA,-2e3,7,", columnToSlot, target);
+
+        Assert.assertEquals(1.5, target[0], 0.0);
+        Assert.assertEquals(-2000.0, target[1], 0.0);
+        Assert.assertTrue(Double.isNaN(target[2]));
+    }
+
+    @Test
+    public void decodeTruncatedValues() {
+
+        double[] target = new double[2];
+        int[] columnToSlot = MolecularValuesDecoder.columnToSlot(4, new int[]{1, 3});
+
+        MolecularValuesDecoder.decode("0,0.25", columnToSlot, target);
+
+        Assert.assertEquals(0.25, target[0], 0.0);
+        Assert.assertTrue(Double.isNaN(target[1]));
+    }
+
+    @Test
+    public void parseNonNumericValues() {
+
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue("")));
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue("NA")));
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue("NaN")));
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue("-")));
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue("1e")));
+        Assert.assertTrue(Double.isNaN(MolecularValuesDecoder.parseValue(null)));
+    }
+
+    @Test
+    public void parseMatchesParseDouble() {
+
+        String[] values = {"0", "-0", "12", "-3.25", ".5", "5.", "1E-5", "2.5e+10", "0.30000000000000004",
+            "123456789012345678901234", "1e-30", "4.9e-324", "1e400"};
+        for (String value : values) {
+            Assert.assertEquals(value, Double.parseDouble(value), MolecularValuesDecoder.parseValue(value), 0.0);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            String value = Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 6));
+            Assert.assertEquals(value, Double.parseDouble(value), MolecularValuesDecoder.parseValue(value), 0.0);
+            value = String.format("%.4f", random.nextGaussian() * 100);
+            Assert.assertEquals(value, Double.parseDouble(value), MolecularValuesDecoder.parseValue(value), 0.0);
+        }
+    }
+}
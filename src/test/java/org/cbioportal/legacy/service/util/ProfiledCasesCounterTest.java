@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.cbioportal.legacy.model.AlterationCountBase;
 import org.cbioportal.legacy.model.AlterationCountByGene;
+import org.cbioportal.legacy.model.AlterationCountByStructuralVariant;
 import org.cbioportal.legacy.model.GenePanel;
 import org.cbioportal.legacy.model.GenePanelData;
 import org.cbioportal.legacy.model.GenePanelToGene;
@@ -46,6 +48,70 @@ public class ProfiledCasesCounterTest {
     @Test
     public void calculate() throws Exception {
 
+        List<GenePanelData> genePanelDataList = genePanelDataList();
+        List<GenePanel> genePanels = genePanels();
+
+        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_2, GENE_PANEL_ID_1), "DETAILED"))
+            .thenReturn(genePanels);
+
+        List<AlterationCountByGene> alterationCounts = new ArrayList<>();
+        AlterationCountByGene alterationCount1 = new AlterationCountByGene();
+        alterationCount1.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        alterationCounts.add(alterationCount1);
+        AlterationCountByGene alterationCount2 = new AlterationCountByGene();
+        alterationCount2.setEntrezGeneId(ENTREZ_GENE_ID_2);
+        alterationCounts.add(alterationCount2);
+        AlterationCountByGene alterationCount3 = new AlterationCountByGene();
+        alterationCount3.setEntrezGeneId(ENTREZ_GENE_ID_3);
+        alterationCounts.add(alterationCount3);
+
+        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, false, profiledSamplesCounter.sampleUniqueIdentifier);
+
+        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(0).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(2).getNumberOfProfiledCases());
+
+
+        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, false, profiledSamplesCounter.patientUniqueIdentifier);
+
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(0).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(2).getNumberOfProfiledCases());
+
+        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, true, profiledSamplesCounter.patientUniqueIdentifier);
+
+        Assert.assertEquals(4, alterationCounts.size());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(0).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(2).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(3).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(4), alterationCounts.get(3).getEntrezGeneId());
+
+    }
+
+    @Test
+    public void calculateStructuralVariantDoesNotChangeGenePanelsOfGene() throws Exception {
+
+        List<GenePanelData> genePanelDataList = genePanelDataList();
+        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_2, GENE_PANEL_ID_1), "DETAILED"))
+            .thenReturn(genePanels());
+
+        List<AlterationCountBase> alterationCounts = new ArrayList<>();
+        AlterationCountByStructuralVariant structuralVariantCount = new AlterationCountByStructuralVariant();
+        structuralVariantCount.setGene1EntrezGeneId(ENTREZ_GENE_ID_1);
+        structuralVariantCount.setGene2EntrezGeneId(ENTREZ_GENE_ID_4);
+        alterationCounts.add(structuralVariantCount);
+        AlterationCountByGene alterationCount = new AlterationCountByGene();
+        alterationCount.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        alterationCounts.add(alterationCount);
+
+        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, false, profiledSamplesCounter.sampleUniqueIdentifier);
+
+        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(0).getNumberOfProfiledCases());
+        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(1).getNumberOfProfiledCases());
+    }
+
+    private List<GenePanelData> genePanelDataList() {
         List<GenePanelData> genePanelDataList = new ArrayList<>();
         GenePanelData genePanelData1 = new GenePanelData();
         genePanelData1.setGenePanelId(GENE_PANEL_ID_1);
@@ -64,7 +130,10 @@ public class ProfiledCasesCounterTest {
         genePanelData3.setSampleId(SAMPLE_ID_3);
         genePanelData3.setPatientId(PATIENT_ID_2);
         genePanelDataList.add(genePanelData3);
+        return genePanelDataList;
+    }
 
+    private List<GenePanel> genePanels() {
         List<GenePanel> genePanels = new ArrayList<>();
         GenePanel genePanel1 = new GenePanel();
         genePanel1.setStableId(GENE_PANEL_ID_1);
@@ -88,42 +157,6 @@ public class ProfiledCasesCounterTest {
         genes2.add(genePanelToGene4);
         genePanel2.setGenes(genes2);
         genePanels.add(genePanel2);
-
-        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_2, GENE_PANEL_ID_1), "DETAILED"))
-            .thenReturn(genePanels);
-
-        List<AlterationCountByGene> alterationCounts = new ArrayList<>();
-        AlterationCountByGene alterationCount1 = new AlterationCountByGene();
-        alterationCount1.setEntrezGeneId(ENTREZ_GENE_ID_1);
-        alterationCounts.add(alterationCount1);
-        AlterationCountByGene alterationCount2 = new AlterationCountByGene();
-        alterationCount2.setEntrezGeneId(ENTREZ_GENE_ID_2);
-        alterationCounts.add(alterationCount2);
-        AlterationCountByGene alterationCount3 = new AlterationCountByGene();
-        alterationCount3.setEntrezGeneId(ENTREZ_GENE_ID_3);
-        alterationCounts.add(alterationCount3);
-
-        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, false, profiledSamplesCounter.sampleUniqueIdentifier);
-
-        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(0).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(3), alterationCounts.get(2).getNumberOfProfiledCases());
-
-
-        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, false, profiledSamplesCounter.patientUniqueIdentifier);
-
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(0).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(2).getNumberOfProfiledCases());
-
-        profiledSamplesCounter.calculate(alterationCounts, genePanelDataList, true, profiledSamplesCounter.patientUniqueIdentifier);
-
-        Assert.assertEquals(4, alterationCounts.size());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(0).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(1).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(2).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(2), alterationCounts.get(3).getNumberOfProfiledCases());
-        Assert.assertEquals(Integer.valueOf(4), alterationCounts.get(3).getEntrezGeneId());
-
+        return genePanels;
     }
 }
@@ -0,0 +1,61 @@
+package org.cbioportal.legacy.service.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.cbioportal.legacy.utils.removeme.Session;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class SessionServiceRequestHandlerTest {
+
+    private final SessionServiceRequestHandler sessionServiceRequestHandler = new SessionServiceRequestHandler();
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // replies with the raw path of the request
+        server.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestURI().getRawPath().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void getSessionDataJsonAsyncEncodesTheId() throws Exception {
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "sessionServiceURL",
+            "http://localhost:" + server.getAddress().getPort() + "/api/sessions/portal/");
+
+        String result = sessionServiceRequestHandler
+            .getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute 1").get();
+
+        Assert.assertEquals("/api/sessions/portal/custom_data/attribute%201", result);
+    }
+
+    @Test
+    public void getSessionDataJsonAsyncFailsTheFutureOfAnInvalidRequest() {
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "sessionServiceURL", "api/sessions/portal/");
+
+        CompletableFuture<String> result = sessionServiceRequestHandler
+            .getSessionDataJsonAsync(Session.SessionType.custom_data, "attribute_1");
+
+        ExecutionException exception = Assert.assertThrows(ExecutionException.class, result::get);
+        Assert.assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    }
+}
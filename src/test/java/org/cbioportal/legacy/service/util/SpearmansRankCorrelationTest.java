@@ -0,0 +1,72 @@
+package org.cbioportal.legacy.service.util;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.cbioportal.legacy.service.util.SpearmansRankCorrelation.RankedValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SpearmansRankCorrelationTest {
+
+    @Test
+    public void matchesCommonsMath() {
+
+        Random random = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            int n = 3 + random.nextInt(200);
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                // few distinct values so that there are plenty of ties
+                x[i] = random.nextInt(run % 2 == 0 ? 10 : 1000);
+                y[i] = x[i] * random.nextDouble() + random.nextInt(5);
+            }
+
+            double[][] arrays = {x, y};
+            SpearmansCorrelation expected = new SpearmansCorrelation(new Array2DRowRealMatrix(arrays, false).transpose());
+            double expectedCorrelation = expected.correlation(x, y);
+            double expectedPValue = expected.getRankCorrelation().getCorrelationPValues().getEntry(0, 1);
+
+            double correlation = SpearmansRankCorrelation.correlation(y, SpearmansRankCorrelation.rank(x));
+            Assert.assertEquals(expectedCorrelation, correlation, 0.0);
+            Assert.assertEquals(expectedPValue, SpearmansRankCorrelation.pValue(correlation, n), expectedPValue * 1e-12);
+        }
+    }
+
+    @Test
+    public void completeValuesMatchCommonsMath() {
+
+        Random random = new Random(11);
+        for (int n = 2; n < 50; n++) {
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = random.nextInt(10);
+                y[i] = x[i] * random.nextDouble() + random.nextInt(5);
+            }
+            Assert.assertEquals(new SpearmansCorrelation().correlation(x, y),
+                SpearmansRankCorrelation.correlation(x, y), 1e-12);
+        }
+        Assert.assertTrue(Double.isNaN(SpearmansRankCorrelation.correlation(new double[]{1, 1}, new double[]{1, 2})));
+    }
+
+    @Test
+    public void dropsMissingPairs() {
+
+        RankedValues reference = SpearmansRankCorrelation.rank(new double[]{1, 2, Double.NaN, 4, 5});
+        double[] values = {2, Double.NaN, 3, 8, 10};
+
+        Assert.assertEquals(3, SpearmansRankCorrelation.countPairs(values, reference));
+        Assert.assertEquals(1.0, SpearmansRankCorrelation.correlation(values, reference), 0.0);
+    }
+
+    @Test
+    public void notEnoughPairs() {
+
+        RankedValues reference = SpearmansRankCorrelation.rank(new double[]{1, 2, 3});
+
+        Assert.assertTrue(Double.isNaN(SpearmansRankCorrelation.correlation(new double[]{1, Double.NaN, 2}, reference)));
+    }
+}
@@ -2,6 +2,7 @@ package org.cbioportal.legacy.web;
 
 import org.cbioportal.legacy.service.CacheStatisticsService;
 import org.cbioportal.legacy.service.exception.CacheNotFoundException;
+import org.cbioportal.legacy.service.util.ComputeExecutors;
 import org.cbioportal.legacy.web.config.TestConfig;
 import org.junit.Before;
 import org.junit.Test;
@@ -99,4 +100,14 @@ public class CacheStatsControllerTest {
             .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    public void testGetComputeExecutorStatistics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/computeExecutorStatistics")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(ComputeExecutors.Workload.values().length))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].workload").value("COUNTING"));
+    }
+
 }
@@ -52,6 +52,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -115,6 +116,7 @@ public class ClinicalDataBinUtilTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        customDataService.init();
     }
 
     @Test
@@ -457,8 +459,8 @@ public class ClinicalDataBinUtilTest {
 
     private void mockCustomDataService(String customDataset) throws Exception {
         when(
-            sessionServiceRequestHandler.getSessionDataJson(any(), any())
-        ).thenReturn(customDataset);
+            sessionServiceRequestHandler.getSessionDataJsonAsync(any(), any())
+        ).thenReturn(CompletableFuture.completedFuture(customDataset));
     }
 
     private void mockMethods(
@@ -5,6 +5,7 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,8 +18,10 @@ import java.util.stream.IntStream;
 
 import org.cbioportal.legacy.model.Binnable;
 import org.cbioportal.legacy.model.ClinicalData;
+import org.cbioportal.legacy.model.ClinicalDataCount;
 import org.cbioportal.legacy.model.DataBin;
 import org.cbioportal.legacy.service.GeneService;
+import org.cbioportal.legacy.service.util.BinnableClinicalDataCount;
 import org.cbioportal.legacy.service.util.MolecularProfileUtil;
 import org.cbioportal.legacy.web.parameter.BinsGeneratorConfig;
 import org.cbioportal.legacy.web.parameter.ClinicalDataBinFilter;
@@ -1262,6 +1265,56 @@ public class DataBinnerTest {
         Assert.assertEquals(">", dataBins.get(13).getSpecialValue());
     }
 
+    @Test
+    public void testClinicalDataCountsBinnedLikeClinicalData() {
+        String attributeId = "ATTRIBUTE";
+
+        for (Map.Entry<String, String[]> entry : mockData.entrySet()) {
+            String[] values = entry.getValue();
+            // every other value passes the filter
+            String[] filteredValues = IntStream.range(0, values.length)
+                .filter(i -> i % 2 == 0)
+                .mapToObj(i -> values[i])
+                .toArray(String[]::new);
+
+            for (BinMethod binMethod : Arrays.asList(null, BinMethod.MEDIAN, BinMethod.QUARTILE)) {
+                ClinicalDataBinFilter clinicalDataBinFilter = new ClinicalDataBinFilter();
+                clinicalDataBinFilter.setAttributeId(attributeId);
+                clinicalDataBinFilter.setBinMethod(binMethod);
+
+                List<DataBin> expected = dataBinner.calculateClinicalDataBins(
+                    clinicalDataBinFilter,
+                    mockClinicalData(attributeId, entry.getKey(), filteredValues),
+                    mockClinicalData(attributeId, entry.getKey(), values)
+                );
+                List<DataBin> dataBins = dataBinner.calculateClinicalDataBins(
+                    clinicalDataBinFilter,
+                    mockClinicalDataCounts(attributeId, filteredValues),
+                    mockClinicalDataCounts(attributeId, values)
+                );
+
+                testBinsIdentical(expected, dataBins);
+            }
+        }
+    }
+
+    private List<Binnable> mockClinicalDataCounts(String attributeId, String[] values) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String value : values) {
+            counts.merge(value, 1, Integer::sum);
+        }
+
+        return counts.entrySet().stream()
+            .map(entry -> {
+                ClinicalDataCount clinicalDataCount = new ClinicalDataCount();
+                clinicalDataCount.setAttributeId(attributeId);
+                clinicalDataCount.setValue(entry.getKey());
+                clinicalDataCount.setCount(entry.getValue());
+                return (Binnable) new BinnableClinicalDataCount(clinicalDataCount);
+            })
+            .collect(Collectors.toList());
+    }
+
     private List<Binnable> mockClinicalData(String attributeId, String studyId, String[] values) {
         List<Binnable> clinicalDataList = new ArrayList<>();
 
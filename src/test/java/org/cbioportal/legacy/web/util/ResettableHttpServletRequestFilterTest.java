@@ -0,0 +1,76 @@
+package org.cbioportal.legacy.web.util;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ResettableHttpServletRequestFilterTest {
+
+    private final ResettableHttpServletRequestFilter filter = new ResettableHttpServletRequestFilter();
+
+    @Test
+    public void shouldPassBodyThroughUntilParsed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/samples/fetch");
+        request.setContent("{\"sampleListIds\":[]}".getBytes(StandardCharsets.UTF_8));
+        AtomicReference<byte[]> body = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> body.set(req.getInputStream().readAllBytes()));
+
+        assertArrayEquals(request.getContentAsByteArray(), body.get());
+    }
+
+    @Test
+    public void shouldReturnEmptyBodyOnceParsed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/samples/fetch");
+        request.setContent("{\"sampleListIds\":[]}  \n".getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Integer> firstByteAfterParse = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            // the interceptor reads the body up to the end of the json value and marks it as consumed
+            req.getInputStream().read(new byte[20]);
+            req.setAttribute(InvolvedCancerStudyExtractorInterceptor.REQUEST_BODY_CONSUMED_ATTRIBUTE, true);
+            firstByteAfterParse.set(((HttpServletRequest) req).getInputStream().read());
+        });
+
+        assertEquals(Integer.valueOf(-1), firstByteAfterParse.get());
+    }
+
+    @Test
+    public void shouldNotifyReadListenerOfParsedBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/samples/fetch");
+        request.setContent("{\"sampleListIds\":[]}".getBytes(StandardCharsets.UTF_8));
+        ReadListener readListener = mock(ReadListener.class);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(InvolvedCancerStudyExtractorInterceptor.REQUEST_BODY_CONSUMED_ATTRIBUTE, true);
+            req.getInputStream().setReadListener(readListener);
+        });
+
+        verify(readListener).onAllDataRead();
+    }
+
+    @Test
+    public void shouldWriteNdjsonResponseThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/column-store/study-view/batch");
+        request.addHeader("Accept", "application/x-ndjson");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> filteredResponse = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> filteredResponse.set(res));
+
+        assertSame(response, filteredResponse.get());
+    }
+}
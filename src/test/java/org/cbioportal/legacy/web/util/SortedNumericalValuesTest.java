@@ -0,0 +1,96 @@
+package org.cbioportal.legacy.web.util;
+
+import com.google.common.collect.Range;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SortedNumericalValuesTest {
+
+    @Test
+    public void shouldCountLikeRangeContains() {
+        Random random = new Random(42);
+        List<BigDecimal> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(BigDecimal.valueOf(random.nextInt(2000) - 1000, random.nextInt(3)));
+        }
+        List<BigDecimal> boundaries = decList("-10", "-2.5", "0", "0.00", "1", "2.50", "7.77", "10", "10.005");
+
+        assertCountsMatch(values, boundaries);
+    }
+
+    @Test
+    public void shouldCompareValuesEqualAsDoublesExactly() {
+        // 0.1 and 0.10000000000000000001 are the same double
+        List<BigDecimal> values = decList("0.1", "0.1", "0.10", "-0", "0", "0.2", "1E-5");
+        List<BigDecimal> boundaries = decList("0.09999999999999999999", "0.1", "0.10000000000000000001", "0",
+            "1E-400", "-1E-400", "1E+400");
+
+        assertCountsMatch(values, boundaries);
+    }
+
+    @Test
+    public void shouldCountValuesWithMoreDigitsThanDoublesHold() {
+        List<BigDecimal> values = decList("0.1", "0.10000000000000000001", "0.09999999999999999999", "1E-400",
+            "1E+400", "3");
+        List<BigDecimal> boundaries = decList("0.09999999999999999999", "0.1", "0.10000000000000000001", "0",
+            "1E-400", "1E+400");
+
+        assertCountsMatch(values, boundaries);
+    }
+
+    @Test
+    public void shouldCountValuesByTheirNumberOfOccurrences() {
+        for (List<BigDecimal> distinctValues : List.of(decList("3", "-1.5", "0", "2.50", "2.5", "7"),
+            decList("3", "0.10000000000000000001", "0.1", "-2"))) {
+            List<Integer> counts = new ArrayList<>();
+            List<BigDecimal> values = new ArrayList<>();
+            for (int i = 0; i < distinctValues.size(); i++) {
+                counts.add(i + 1);
+                values.addAll(Collections.nCopies(i + 1, distinctValues.get(i)));
+            }
+            SortedNumericalValues subject = SortedNumericalValues.of(distinctValues, counts);
+
+            assertEquals(values.size(), subject.size());
+            assertCountsMatch(values, subject, decList("-2", "0", "0.1", "2.5", "3", "10"));
+        }
+    }
+
+    private void assertCountsMatch(List<BigDecimal> values, List<BigDecimal> boundaries) {
+        assertCountsMatch(values, SortedNumericalValues.of(values), boundaries);
+    }
+
+    private void assertCountsMatch(List<BigDecimal> values, SortedNumericalValues subject, List<BigDecimal> boundaries) {
+        for (BigDecimal lower : boundaries) {
+            assertCountMatches(values, subject, Range.atLeast(lower));
+            assertCountMatches(values, subject, Range.greaterThan(lower));
+            assertCountMatches(values, subject, Range.atMost(lower));
+            assertCountMatches(values, subject, Range.lessThan(lower));
+            for (BigDecimal upper : boundaries) {
+                if (lower.compareTo(upper) <= 0) {
+                    assertCountMatches(values, subject, Range.closed(lower, upper));
+                    assertCountMatches(values, subject, Range.closedOpen(lower, upper));
+                    assertCountMatches(values, subject, Range.openClosed(lower, upper));
+                }
+                if (lower.compareTo(upper) < 0) {
+                    assertCountMatches(values, subject, Range.open(lower, upper));
+                }
+            }
+        }
+    }
+
+    private void assertCountMatches(List<BigDecimal> values, SortedNumericalValues subject, Range<BigDecimal> range) {
+        assertEquals(range.toString(), values.stream().filter(range::contains).count(), subject.count(range));
+    }
+
+    private List<BigDecimal> decList(String... values) {
+        return Arrays.stream(values).map(BigDecimal::new).toList();
+    }
+}
@@ -63,6 +63,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.collect.ImmutableList.of;
 import static java.util.stream.Collectors.toList;
@@ -168,6 +169,7 @@ public class StudyViewFilterApplierTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        customDataService.init();
         when(applicationContext.getBean(StudyViewFilterApplier.class)).thenReturn(studyViewFilterApplier);
     }
 
@@ -1098,8 +1100,8 @@ public class StudyViewFilterApplierTest {
 
     private void mockCustomDataService(String customDatasetFile) throws Exception {
         when(
-            sessionServiceRequestHandler.getSessionDataJson(any(), any())
-        ).thenReturn(customDatasetFile);
+            sessionServiceRequestHandler.getSessionDataJsonAsync(any(), any())
+        ).thenReturn(CompletableFuture.completedFuture(customDatasetFile));
     }
 
     private String getFileContents(String resourceLocation) throws IOException {
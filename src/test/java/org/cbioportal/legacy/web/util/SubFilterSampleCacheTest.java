@@ -0,0 +1,142 @@
+package org.cbioportal.legacy.web.util;
+
+import org.cbioportal.legacy.web.parameter.ClinicalDataFilter;
+import org.cbioportal.legacy.web.parameter.SampleIdentifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+public class SubFilterSampleCacheTest {
+
+    private static final String STUDY_ID_1 = "study_id_1";
+    private static final String STUDY_ID_2 = "study_id_2";
+
+    private final StudyViewFilterUtil studyViewFilterUtil = new StudyViewFilterUtil();
+
+    @Test
+    public void disabledByDefault() {
+        SubFilterSampleCache cache = new SubFilterSampleCache();
+
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertNull(cache.getContext(allSamples("sample_1")));
+    }
+
+    @Test
+    public void filterEvaluatesSubFilterOnceOnAllSamples() {
+        SubFilterSampleCache cache = new SubFilterSampleCache(1, 10);
+        List<SampleIdentifier> allSamples = allSamples("sample_1", "sample_2", "sample_3");
+        AtomicInteger evaluationCount = new AtomicInteger();
+        List<Integer> evaluatedSampleCounts = new ArrayList<>();
+        UnaryOperator<List<SampleIdentifier>> filter = samples -> {
+            evaluationCount.incrementAndGet();
+            evaluatedSampleCounts.add(samples.size());
+            return samples.stream().filter(s -> !s.getSampleId().equals("sample_2")).toList();
+        };
+
+        List<SampleIdentifier> first = cache.getContext(allSamples)
+            .filter(List.of(sample(STUDY_ID_2, "sample_3"), sample(STUDY_ID_1, "sample_2"),
+                sample(STUDY_ID_1, "sample_1")), "clinicalDataEqualityFilter", clinicalDataFilter("AGE"), filter);
+        List<SampleIdentifier> second = cache.getContext(allSamples)
+            .filter(List.of(sample(STUDY_ID_1, "sample_2"), sample(STUDY_ID_2, "sample_1")),
+                "clinicalDataEqualityFilter", clinicalDataFilter("AGE"), filter);
+
+        Assert.assertEquals(1, evaluationCount.get());
+        Assert.assertEquals(List.of(allSamples.size()), evaluatedSampleCounts);
+        // the order of the filtered samples is kept
+        Assert.assertEquals(List.of(sample(STUDY_ID_2, "sample_3"), sample(STUDY_ID_1, "sample_1")), first);
+        Assert.assertEquals(List.of(sample(STUDY_ID_2, "sample_1")), second);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void filterEvaluatesDifferentSubFiltersSeparately() {
+        SubFilterSampleCache cache = new SubFilterSampleCache(1, 10);
+        List<SampleIdentifier> allSamples = allSamples("sample_1", "sample_2");
+        AtomicInteger evaluationCount = new AtomicInteger();
+        UnaryOperator<List<SampleIdentifier>> filter = samples -> {
+            evaluationCount.incrementAndGet();
+            return samples;
+        };
+        SubFilterSampleCache.Context context = cache.getContext(allSamples);
+
+        context.filter(allSamples, "clinicalDataEqualityFilter", clinicalDataFilter("AGE"), filter);
+        context.filter(allSamples, "clinicalDataIntervalFilter", clinicalDataFilter("AGE"), filter);
+        context.filter(allSamples, "clinicalDataEqualityFilter", clinicalDataFilter("SEX"), filter);
+        // the same sub-filter on other studies
+        List<SampleIdentifier> samplesOfStudy1 = allSamples.subList(0, 2);
+        cache.getContext(samplesOfStudy1)
+            .filter(samplesOfStudy1, "clinicalDataEqualityFilter", clinicalDataFilter("AGE"), filter);
+
+        Assert.assertEquals(4, evaluationCount.get());
+        Assert.assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void filterEvaluatesSubFilterAgainWhenSamplesOfStudyChange() {
+        SubFilterSampleCache cache = new SubFilterSampleCache(1, 10);
+        AtomicInteger evaluationCount = new AtomicInteger();
+        UnaryOperator<List<SampleIdentifier>> filter = samples -> {
+            evaluationCount.incrementAndGet();
+            return samples;
+        };
+
+        cache.getContext(allSamples("sample_1", "sample_2"))
+            .filter(List.of(sample(STUDY_ID_1, "sample_1")), "caseLists", List.of("all"), filter);
+        List<SampleIdentifier> result = cache.getContext(allSamples("sample_1", "sample_2", "sample_3"))
+            .filter(List.of(sample(STUDY_ID_1, "sample_3")), "caseLists", List.of("all"), filter);
+
+        Assert.assertEquals(2, evaluationCount.get());
+        Assert.assertEquals(List.of(sample(STUDY_ID_1, "sample_3")), result);
+    }
+
+    @Test
+    public void invalidateStudyDropsEntriesOfQueriesOfTheStudy() {
+        SubFilterSampleCache cache = new SubFilterSampleCache(1, 10);
+        AtomicInteger evaluationCount = new AtomicInteger();
+        UnaryOperator<List<SampleIdentifier>> filter = samples -> {
+            evaluationCount.incrementAndGet();
+            return samples;
+        };
+        List<SampleIdentifier> allSamples = allSamples("sample_1");
+        List<SampleIdentifier> samplesOfStudy1 = allSamples.subList(0, 1);
+        List<SampleIdentifier> samplesOfStudy2 = allSamples.subList(1, 2);
+        cache.getContext(allSamples).filter(allSamples, "caseLists", List.of("all"), filter);
+        cache.getContext(samplesOfStudy1).filter(samplesOfStudy1, "caseLists", List.of("all"), filter);
+        cache.getContext(samplesOfStudy2).filter(samplesOfStudy2, "caseLists", List.of("all"), filter);
+
+        cache.invalidateStudy(STUDY_ID_2);
+
+        Assert.assertEquals(1, cache.size());
+        cache.getContext(samplesOfStudy1).filter(samplesOfStudy1, "caseLists", List.of("all"), filter);
+        cache.getContext(samplesOfStudy2).filter(samplesOfStudy2, "caseLists", List.of("all"), filter);
+        Assert.assertEquals(4, evaluationCount.get());
+
+        cache.invalidateAll();
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private List<SampleIdentifier> allSamples(String... sampleIds) {
+        List<SampleIdentifier> samples = new ArrayList<>();
+        for (String studyId : List.of(STUDY_ID_1, STUDY_ID_2)) {
+            for (String sampleId : sampleIds) {
+                samples.add(sample(studyId, sampleId));
+            }
+        }
+        return samples;
+    }
+
+    private SampleIdentifier sample(String studyId, String sampleId) {
+        return studyViewFilterUtil.buildSampleIdentifier(studyId, sampleId);
+    }
+
+    private ClinicalDataFilter clinicalDataFilter(String attributeId) {
+        ClinicalDataFilter clinicalDataFilter = new ClinicalDataFilter();
+        clinicalDataFilter.setAttributeId(attributeId);
+        return clinicalDataFilter;
+    }
+}